@@ -8,6 +8,8 @@
  *   <li>Gestion de l'historique pour l'annulation/rétablissement des modifications (undo/redo)</li>
  *   <li>Chargement, ajout, suppression et modification des tâches</li>
  *   <li>Calcul et affichage du chemin critique</li>
+ *   <li>Simulation de Monte-Carlo des durées incertaines</li>
+ *   <li>Nivellement des tâches sous limite de ressources</li>
  *   <li>Calcul progressif des dates au plus tôt et au plus tard</li>
  *   <li>Synchronisation des données entre la grille, le graphe et les fichiers</li>
  *   <li>Sauvegarde des tâches dans un fichier</li>
@@ -27,10 +29,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Flow;
 import mpm.ihm.FramePrincipale;
 import mpm.ihm.PanelGrille;
+import mpm.metier.AccelerationProjet;
+import mpm.metier.EvenementModele;
 import mpm.metier.GrilleDonneesModel;
 import mpm.metier.Mpm;
+import mpm.metier.OrdonnancementRessources;
+import mpm.metier.SimulationPert;
 import mpm.metier.Tache;
 import mpm.metier.figure.Rectangle;
 
@@ -43,6 +50,7 @@ public class Controleur
 	
 	private FramePrincipale vue;
 	private Mpm             metier;
+	private ServiceCalcul   serviceCalcul;
 
 	private List<String>   historique;
 	private int            indexHistorique;
@@ -53,6 +61,7 @@ public class Controleur
 	public Controleur()
 	{
 		this.metier = new Mpm();
+		this.serviceCalcul = new ServiceCalcul(this);
 		this.vue = new FramePrincipale(this);
 
 		this.historique  = new ArrayList<>();
@@ -77,6 +86,42 @@ public class Controleur
 	 */
 	public List<Tache> getTachesCritiques() { return this.metier.getTachesCritiques(); }
 
+	/**
+	 * Calcule les dates et les marges si le projet a changé depuis le dernier calcul.
+	 */
+	public void assurerMarges() { this.metier.assurerMarges(); }
+
+	/**
+	 * Indique si les dates sont en cours de calcul niveau par niveau.
+	 * @return true tant que la suite d'étapes n'est pas finie
+	 */
+	public boolean estPasAPas() { return this.metier.estPasAPas(); }
+
+	/**
+	 * Retourne la tâche Début, ajoutée par le projet.
+	 * @return la tâche Début
+	 */
+	public Tache getDebut() { return this.metier.getDebut(); }
+
+	/**
+	 * Retourne la tâche Fin, ajoutée par le projet.
+	 * @return la tâche Fin
+	 */
+	public Tache getFin() { return this.metier.getFin(); }
+
+	/**
+	 * Formate une date du projet, donnée en jours depuis son début.
+	 * @param nbJours le nombre de jours depuis le début du projet
+	 * @return la date formatée en "j/m"
+	 */
+	public String formaterDate(int nbJours) { return this.metier.formaterDate(nbJours); }
+
+	/**
+	 * Compte les durées et les dates en jours ouvrés ou en jours du calendrier.
+	 * @param joursOuvres true pour compter en jours ouvrés
+	 */
+	public void setJoursOuvres(boolean joursOuvres) { this.metier.setJoursOuvres(joursOuvres); }
+
 	/**
 	 * Retourne le chemin du fichier de données actuellement utilisé.
 	 * @return le nom du fichier de données
@@ -107,6 +152,18 @@ public class Controleur
 	 */
 	public FramePrincipale getVue() { return this.vue; }
 
+	/**
+	 * Retourne l'époque de structure du projet, qui ne change que si les tâches sont remplacées.
+	 * @return l'époque de structure
+	 */
+	public long getEpoqueStructure() { return this.metier.getEpoqueStructure(); }
+
+	/**
+	 * Abonne une vue aux changements du projet.
+	 * @param abonne l'abonné, prévenu sur le thread du flux d'événements
+	 */
+	public void abonner(Flow.Subscriber<? super EvenementModele> abonne) { this.metier.abonner(abonne); }
+
 	/*------------------------------------------*/
 	/*    Fonctionnalités de chemin critique    */
 	/*------------------------------------------*/
@@ -117,10 +174,16 @@ public class Controleur
 	 */
 	public List<List<Tache>> calculerCheminCritique()
 	{
-		this.metier.calculerCheminCritique();
+		// Calculés une seule fois par modification du projet, puis partagés par toutes les vues
 		return this.metier.calculerCheminsCritiques();
 	}
 
+	/**
+	 * Retourne les arcs qui appartiennent à un chemin critique.
+	 * @return les clés des arcs, triées (voir {@link Mpm#cleArc})
+	 */
+	public long[] getArcsCritiques() { return this.metier.getArcsCritiques(); }
+
 	/*------------------------------------------*/
 	/*    Fonctionnalités dates au plus tot     */
 	/*------------------------------------------*/
@@ -199,56 +262,80 @@ public class Controleur
 	/**
 	 * Charge les tâches depuis un fichier texte, réinitialise les niveaux pour les calculs au plus tôt/au plus tard,
 	 * synchronise les positions des tâches entre le graphe et la grille, et réinitialise l'affichage.
+	 * La lecture se fait en arrière-plan ; l'affichage est mis à jour quand elle est terminée.
 	 *
 	 * @param chemin le chemin du fichier à charger
 	 */
 	public void chargerTachesDepuisFichier(String chemin)
 	{
-		this.metier.chargerTaches(chemin);
-		this.metier.resetNiveauCourantAuPlusTot();
-		this.metier.resetNiveauCourantAuPlusTard();
-		this.rafraichirAffichage();
+		this.chargerTachesDepuisFichier(chemin, null);
+	}
 
-		// Synchronise les positions calculées avec la grille
-		Map<Tache, Point> mapPos = this.getVue().getPanelGraphe().getMap();
-		var model = this.getGrilleDonneesModel();
-		for (Tache t : this.getTaches())
+	/**
+	 * Charge les tâches depuis un fichier texte en arrière-plan, puis met à jour l'affichage.
+	 *
+	 * @param chemin le chemin du fichier à charger
+	 * @param apres  traitement lancé sur l'EDT une fois les tâches chargées (peut être null)
+	 */
+	public void chargerTachesDepuisFichier(String chemin, Runnable apres)
+	{
+		this.serviceCalcul.soumettre(chemin, false, resultat ->
 		{
-			if (t.getNom().equals("Début") || t.getNom().equals("Fin"))
-				continue;
-			Point p = mapPos.get(t);
-			if (p == null)
-				continue;
-			for (int i = 0; i < model.getRowCount(); i++)
+			this.metier.adopter(resultat);
+			this.metier.resetNiveauCourantAuPlusTot();
+			this.metier.resetNiveauCourantAuPlusTard();
+			// Les tâches sans coordonnées sont placées puis enregistrées par la disposition automatique
+			this.rafraichirAffichage();
+
+			if (this.vue != null)
 			{
-				if (t.getNom().equals(model.getValueAt(i, 0)))
-				{
-					model.setValueAt(String.valueOf(p.x), i, 3); // colonne x
-					model.setValueAt(String.valueOf(p.y), i, 4); // colonne y
-					break;
-				}
+				this.vue.getPanelBouton().resetBoutons();
+				this.vue.getPanelGraphe().setModeCheminCritique(false);
 			}
-		}
 
-		if (this.vue != null)
-		{
-			this.vue.getPanelBouton().resetBoutons();
-			this.vue.getPanelGraphe().setModeCheminCritique(false);
-		}
+			if (apres != null)
+				apres.run();
+		});
 	}
 
 	/**
-	 * Recharge les tâches depuis le fichier courant et met à jour l'affichage.
+	 * Recharge les tâches depuis le fichier courant, recalcule les dates et les chemins critiques
+	 * en arrière-plan, puis met à jour l'affichage.
 	 */
 	public void rafraichirDepuisFichier()
 	{
-		this.metier.chargerTaches(this.getFichier());
-		this.metier.calculerDatesAuPlusTotParNiveau();
-		this.metier.calculerDatesAuPlusTardParNiveau();
-		this.getGrilleDonneesModel().fireTableDataChanged();
+		this.serviceCalcul.soumettre(this.getFichier(), true, resultat ->
+		{
+			this.metier.adopter(resultat);
+
+			if (this.vue != null)
+				this.vue.rafraichirAffichage();
+		});
+	}
 
+	/**
+	 * Annule le calcul en arrière-plan en cours ; l'affichage garde le dernier résultat publié.
+	 */
+	public void annulerCalcul() { this.serviceCalcul.annuler(); }
+
+	/**
+	 * Affiche l'avancement du calcul en arrière-plan.
+	 * @param etape       nom de l'étape en cours
+	 * @param pourcentage avancement global, de 0 à 100
+	 */
+	public void afficherAvancement(String etape, int pourcentage)
+	{
 		if (this.vue != null)
-			this.vue.rafraichirAffichage();
+			this.vue.getPanelBouton().afficherCalcul(etape, pourcentage);
+	}
+
+	/**
+	 * Masque l'avancement du calcul en arrière-plan.
+	 */
+	public void masquerAvancement()
+	{
+		if (this.vue != null)
+			this.vue.getPanelBouton().masquerCalcul();
 	}
 
 	/**
@@ -304,9 +391,84 @@ public class Controleur
 	 */
 	public void afficherCheminCritiqueEtRafraichir()
 	{
-		this.metier.calculerCheminCritique(); // met à jour lstTachesCritiques
-		new mpm.ihm.FrameCheminCritique(this);
-		this.rafraichirAffichage();
+		// L'énumération des chemins peut être longue : elle est faite en arrière-plan
+		this.serviceCalcul.soumettre(this.getFichier(), true, resultat ->
+		{
+			this.metier.adopter(resultat);
+			new mpm.ihm.FrameCheminCritique(this);
+			this.rafraichirAffichage();
+
+			if (this.vue != null)
+				this.vue.getPanelGraphe().setModeCheminCritique(true);
+		});
+	}
+
+	/**
+	 * Lance une simulation de Monte-Carlo des durées du projet, puis affiche son résultat.
+	 * Le graphe et les estimations sont relevés tout de suite ; les tirages se font en arrière-plan.
+	 * @param nbTirages nombre de projets simulés
+	 * @throws NumberFormatException si une estimation « o/m/p » de la grille est mal écrite
+	 */
+	public void lancerSimulation(int nbTirages)
+	{
+		SimulationPert simulation = new SimulationPert(this.metier);
+
+		this.serviceCalcul.simuler(simulation, nbTirages, resultat -> new mpm.ihm.FrameSimulation(this, resultat));
+	}
+
+	/**
+	 * Ordonnance les tâches sous limite de ressources, reporte les dates nivelées sur les tâches
+	 * puis affiche le résultat. Les demandes sont relevées tout de suite ; le placement se fait en arrière-plan.
+	 * @param capacites nombre d'unités de chaque ressource, par nom
+	 * @param regle     règle de priorité entre les tâches prêtes
+	 * @param secondes  temps accordé à l'amélioration du planning sur tous les cœurs (0 pour aucune)
+	 * @throws NumberFormatException    si une demande de ressources de la grille est mal écrite
+	 * @throws IllegalArgumentException si une tâche demande une ressource inconnue ou plus que sa capacité
+	 */
+	public void lancerNivellement(Map<String, Integer> capacites, OrdonnancementRessources.Regle regle, int secondes)
+	{
+		OrdonnancementRessources ordonnancement = new OrdonnancementRessources(this.metier, capacites);
+
+		this.serviceCalcul.niveler(ordonnancement, regle, 1000L * secondes, resultat ->
+		{
+			this.metier.appliquerNivellement(resultat);
+			new mpm.ihm.FrameNivellement(this, resultat);
+		});
+	}
+
+	/**
+	 * Cherche le nivellement le plus court, reporte ses dates sur les tâches puis affiche le résultat :
+	 * il est optimal si la recherche finit dans le temps accordé, sinon son écart à la borne inférieure est donné.
+	 * @param capacites nombre d'unités de chaque ressource, par nom
+	 * @param secondes  temps accordé à la recherche sur tous les cœurs
+	 * @throws NumberFormatException    si une demande de ressources de la grille est mal écrite
+	 * @throws IllegalArgumentException si une tâche demande une ressource inconnue ou plus que sa capacité
+	 */
+	public void lancerNivellementOptimal(Map<String, Integer> capacites, int secondes)
+	{
+		OrdonnancementRessources ordonnancement = new OrdonnancementRessources(this.metier, capacites);
+
+		this.serviceCalcul.nivelerOptimal(ordonnancement, 1000L * secondes, resultat ->
+		{
+			this.metier.appliquerNivellement(resultat);
+			new mpm.ihm.FrameNivellement(this, resultat);
+		});
+	}
+
+	/**
+	 * Cherche la façon la moins chère de raccourcir le projet jusqu'à une durée visée, puis affiche
+	 * les tâches accélérées et la courbe du coût. Les accélérations sont relevées tout de suite ;
+	 * le calcul se fait en arrière-plan et ne modifie pas le projet.
+	 * @param dureeCible durée du projet visée, en jours
+	 * @throws IllegalStateException    si aucun projet n'est chargé
+	 * @throws NumberFormatException    si une accélération « min/coût » de la grille est mal écrite
+	 * @throws IllegalArgumentException si une durée minimale dépasse la durée de sa tâche
+	 */
+	public void lancerAcceleration(int dureeCible)
+	{
+		AccelerationProjet acceleration = new AccelerationProjet(this.metier);
+
+		this.serviceCalcul.accelerer(acceleration, dureeCible, resultat -> new mpm.ihm.FrameAcceleration(this, resultat));
 	}
 
 	/**
@@ -339,16 +501,7 @@ public class Controleur
 		StringBuilder sb = new StringBuilder();
 		var model = this.getGrilleDonneesModel();
 		for (int i = 0; i < model.getRowCount(); i++)
-		{
-			String nom   = model.getValueAt(i, 0) != null ? model.getValueAt(i, 0).toString() : "";
-			String duree = model.getValueAt(i, 1) != null ? model.getValueAt(i, 1).toString() : "";
-			String prec  = model.getValueAt(i, 2) != null ? model.getValueAt(i, 2).toString() : "";
-			String x     = model.getValueAt(i, 3) != null ? model.getValueAt(i, 3).toString() : "";
-			String y     = model.getValueAt(i, 4) != null ? model.getValueAt(i, 4).toString() : "";
-			
-			sb.append(nom).append("|").append(duree).append("|").append(prec).append("|").append(x).append("|")
-					.append(y).append("\n");
-		}
+			sb.append(model.getLigneFichier(i)).append("\n");
 		// Supprime les états futurs si on annule puis modifie
 		while (historique.size() > indexHistorique + 1)
 		{
@@ -374,10 +527,6 @@ public class Controleur
 				writer.write(etatPrecedent);
 				writer.flush();
 				this.chargerTachesDepuisFichier(this.getFichier());
-				this.getGrilleDonneesModel().fireTableDataChanged();
-
-				if (this.vue != null)
-					this.vue.rafraichirAffichage();
 			} 
 			catch (Exception e)
 			{
@@ -402,10 +551,6 @@ public class Controleur
 				writer.write(etatSuivant);
 				writer.flush();
 				this.chargerTachesDepuisFichier(this.getFichier());
-				this.getGrilleDonneesModel().fireTableDataChanged();
-
-				if (this.vue != null)
-					this.vue.rafraichirAffichage();
 			} 
 			catch (Exception e)
 			{
@@ -423,8 +568,6 @@ public class Controleur
 	{
 		Controleur ctrl = new Controleur();
 		ctrl.vue.setVisible(true);
-		ctrl.getTachesCritiques(); // force la mise à jour de la liste
-		ctrl.calculerCheminCritique(); // calcule tous les chemins critiques (pour la fenêtre)
 		ctrl.rafraichirAffichage();
 	}
 }
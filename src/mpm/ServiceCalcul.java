@@ -0,0 +1,310 @@
+package mpm;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.SwingUtilities;
+import mpm.metier.AccelerationProjet;
+import mpm.metier.AmeliorationNivellement;
+import mpm.metier.Mpm;
+import mpm.metier.NivellementOptimal;
+import mpm.metier.OrdonnancementRessources;
+import mpm.metier.ResultatAcceleration;
+import mpm.metier.ResultatCalcul;
+import mpm.metier.ResultatNivellement;
+import mpm.metier.ResultatSimulation;
+import mpm.metier.SimulationPert;
+
+/**
+ * La classe {@code ServiceCalcul} fait les calculs longs (lecture du fichier, niveaux, dates,
+ * chemins critiques) sur un thread de travail, pour que la fenêtre ne se fige jamais.
+ *
+ * Fonctionnalités principales :
+ *   Un seul calcul utile à la fois : une nouvelle demande annule la précédente
+ *   Numéro de version : un résultat dépassé par une demande plus récente est jeté
+ *   Avancement et résultat remis au contrôleur sur l'EDT uniquement
+ *   Simulations de Monte-Carlo sur leur propre fil, sans retarder ni annuler les calculs du projet
+ *   Nivellements des ressources sur ce même fil, chacun annulant seulement le précédent ;
+ *   leur amélioration et la recherche du plus court se répartissent sur tous les cœurs
+ *   Accélérations du projet sur ce même fil, chacune annulant seulement la précédente
+ *   Barre d'avancement masquée seulement quand plus aucune sorte de calcul n'est en cours
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ServiceCalcul
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final Controleur      ctrl;
+	private final ExecutorService executeur;
+	private final AtomicLong      version;
+
+	private final ExecutorService executeurSimulation;
+	private final AtomicLong      versionSimulation;
+	private final AtomicLong      versionNivellement;
+	private final AtomicLong      versionAcceleration;
+
+	private Future<?> calculEnCours;
+	private Future<?> simulationEnCours;
+	private Future<?> nivellementEnCours;
+	private Future<?> accelerationEnCours;
+
+	private final Set<AtomicLong> sortesEnCours; // par numéro de version, lu et modifié sur l'EDT seulement
+
+	/**Constructeur de ServiceCalcul.
+	 * @param ctrl le contrôleur prévenu de l'avancement (sur l'EDT).
+	 */
+	public ServiceCalcul(Controleur ctrl)
+	{
+		this.ctrl          = ctrl;
+		this.version       = new AtomicLong();
+		this.sortesEnCours = new HashSet<>();
+		this.executeur = Executors.newSingleThreadExecutor(r ->
+		{
+			Thread t = new Thread(r, "calcul-mpm");
+			t.setDaemon(true);
+			return t;
+		});
+
+		this.versionSimulation   = new AtomicLong();
+		this.versionNivellement  = new AtomicLong();
+		this.versionAcceleration = new AtomicLong();
+		this.executeurSimulation = Executors.newSingleThreadExecutor(r ->
+		{
+			Thread t = new Thread(r, "simulation-mpm");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de calcul             */
+	/*------------------------------------------*/
+
+	/**Lance un calcul complet en arrière-plan. À appeler depuis l'EDT.
+	 * @param fichier      le fichier à lire.
+	 * @param avecDates    true pour calculer aussi les dates et les chemins critiques.
+	 * @param surResultat  traitement du résultat, appelé sur l'EDT si aucune demande plus récente n'est arrivée.
+	 */
+	public void soumettre(String fichier, boolean avecDates, Consumer<ResultatCalcul> surResultat)
+	{
+		long numero;
+
+		numero = this.version.incrementAndGet();
+		if (this.calculEnCours != null)
+			this.calculEnCours.cancel(true);
+
+		this.commencer("Calcul", this.version);
+		this.calculEnCours = this.executeur.submit(() ->
+		{
+			ResultatCalcul resultat;
+
+			try
+			{
+				resultat = Mpm.calculer(fichier, avecDates, new Mpm.Avancement()
+				{
+					public void etape(String libelle, int pourcentage)
+					{
+						SwingUtilities.invokeLater(() ->
+						{
+							if (numero == version.get())
+								ctrl.afficherAvancement(libelle, pourcentage);
+						});
+					}
+
+					public boolean estAnnule()
+					{
+						return Thread.currentThread().isInterrupted() || numero != version.get();
+					}
+				});
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+				resultat = null;
+			}
+
+			final ResultatCalcul fini = resultat;
+			SwingUtilities.invokeLater(() ->
+			{
+				// Résultat dépassé par une demande plus récente : on le jette
+				if (numero != version.get()) return;
+
+				terminer(version);
+				if (fini != null)
+					surResultat.accept(fini);
+			});
+		});
+	}
+
+	/**Lance une simulation de Monte-Carlo en arrière-plan. À appeler depuis l'EDT.
+	 * Une nouvelle simulation annule la précédente ; les tirages se répartissent sur tous les cœurs.
+	 * @param simulation  le graphe compilé.
+	 * @param nbTirages   nombre de projets simulés.
+	 * @param surResultat traitement du résultat, appelé sur l'EDT si la simulation n'a pas été annulée.
+	 */
+	public void simuler(SimulationPert simulation, int nbTirages, Consumer<ResultatSimulation> surResultat)
+	{
+		this.simulationEnCours = this.lancer("Simulation", this.versionSimulation, this.simulationEnCours,
+		                                     avancement -> simulation.simuler(nbTirages, SimulationPert.GRAINE_DEFAUT, avancement),
+		                                     surResultat);
+	}
+
+	/**Lance un ordonnancement sous limite de ressources en arrière-plan. À appeler depuis l'EDT.
+	 * Un nouveau nivellement annule le précédent ; l'amélioration s'arrête aussi sur le bouton d'annulation.
+	 * @param ordonnancement le graphe et les demandes relevés.
+	 * @param regle          la règle de priorité.
+	 * @param dureeMax       temps accordé à l'amélioration du planning, en millisecondes (0 pour aucune).
+	 * @param surResultat    traitement du résultat, appelé sur l'EDT si le nivellement n'a pas été annulé.
+	 */
+	public void niveler(OrdonnancementRessources ordonnancement, OrdonnancementRessources.Regle regle, long dureeMax,
+	                    Consumer<ResultatNivellement> surResultat)
+	{
+		this.nivellementEnCours = this.lancer("Nivellement", this.versionNivellement, this.nivellementEnCours,
+		                                      avancement -> dureeMax <= 0 ? ordonnancement.ordonnancer(regle)
+		                                                  : new AmeliorationNivellement(ordonnancement).ameliorer(dureeMax, AmeliorationNivellement.GRAINE_DEFAUT, avancement),
+		                                      surResultat);
+	}
+
+	/**Lance en arrière-plan la recherche du nivellement le plus court. À appeler depuis l'EDT.
+	 * Comme un nivellement, elle annule le précédent et s'arrête sur le bouton d'annulation.
+	 * @param ordonnancement le graphe et les demandes relevés.
+	 * @param dureeMax       temps accordé à la recherche, en millisecondes.
+	 * @param surResultat    traitement du résultat, appelé sur l'EDT si la recherche n'a pas été annulée.
+	 */
+	public void nivelerOptimal(OrdonnancementRessources ordonnancement, long dureeMax, Consumer<ResultatNivellement> surResultat)
+	{
+		this.nivellementEnCours = this.lancer("Nivellement", this.versionNivellement, this.nivellementEnCours,
+		                                      avancement -> new NivellementOptimal(ordonnancement).resoudre(dureeMax, avancement),
+		                                      surResultat);
+	}
+
+	/**Lance en arrière-plan l'accélération la moins chère du projet. À appeler depuis l'EDT.
+	 * Une nouvelle accélération annule la précédente.
+	 * @param acceleration le graphe et les accélérations relevés.
+	 * @param dureeCible   durée du projet visée, en jours.
+	 * @param surResultat  traitement du résultat, appelé sur l'EDT si l'accélération n'a pas été annulée.
+	 */
+	public void accelerer(AccelerationProjet acceleration, int dureeCible, Consumer<ResultatAcceleration> surResultat)
+	{
+		this.accelerationEnCours = this.lancer("Accélération", this.versionAcceleration, this.accelerationEnCours,
+		                                       avancement -> acceleration.accelerer(dureeCible, avancement),
+		                                       surResultat);
+	}
+
+	/**Fait un calcul d'analyse sur le fil des simulations, en annulant le précédent de même sorte.
+	 * Chaque sorte de calcul a son numéro de version : une simulation n'annule pas un nivellement.
+	 * @param libelle     nom du calcul, affiché au départ.
+	 * @param version     numéro de version de cette sorte de calcul.
+	 * @param enCours     le calcul précédent de cette sorte, ou null.
+	 * @param calcul      le calcul, qui rend null s'il est annulé.
+	 * @param surResultat traitement du résultat, appelé sur l'EDT.
+	 * @return Le calcul soumis, à garder pour l'annuler.
+	 */
+	private <R> Future<?> lancer(String libelle, AtomicLong version, Future<?> enCours,
+	                             Function<Mpm.Avancement, R> calcul, Consumer<R> surResultat)
+	{
+		long numero;
+
+		numero = version.incrementAndGet();
+		if (enCours != null)
+			enCours.cancel(true);
+
+		this.commencer(libelle, version);
+		return this.executeurSimulation.submit(() ->
+		{
+			R resultat;
+
+			try
+			{
+				if (numero != version.get()) resultat = null;
+				else
+				{
+					resultat = calcul.apply(new Mpm.Avancement()
+					{
+						public void etape(String etape, int pourcentage)
+						{
+							SwingUtilities.invokeLater(() ->
+							{
+								if (numero == version.get())
+									ctrl.afficherAvancement(etape, pourcentage);
+							});
+						}
+
+						public boolean estAnnule()
+						{
+							return numero != version.get();
+						}
+					});
+				}
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+				resultat = null;
+			}
+
+			final R fini = resultat;
+			SwingUtilities.invokeLater(() ->
+			{
+				if (numero != version.get()) return;
+
+				terminer(version);
+				if (fini != null)
+					surResultat.accept(fini);
+			});
+		});
+	}
+
+	/**Annule le calcul, la simulation, le nivellement et l'accélération en cours : leurs résultats ne seront pas publiés.
+	 */
+	public void annuler()
+	{
+		this.version.incrementAndGet();
+		if (this.calculEnCours != null)
+			this.calculEnCours.cancel(true);
+
+		this.versionSimulation.incrementAndGet();
+		if (this.simulationEnCours != null)
+			this.simulationEnCours.cancel(true);
+
+		this.versionNivellement.incrementAndGet();
+		if (this.nivellementEnCours != null)
+			this.nivellementEnCours.cancel(true);
+
+		this.versionAcceleration.incrementAndGet();
+		if (this.accelerationEnCours != null)
+			this.accelerationEnCours.cancel(true);
+
+		this.sortesEnCours.clear();
+		this.ctrl.masquerAvancement();
+	}
+
+	/**Note qu'une sorte de calcul est en cours et affiche la barre d'avancement. Sur l'EDT.
+	 * @param libelle nom du calcul, affiché au départ.
+	 * @param version numéro de version de cette sorte de calcul.
+	 */
+	private void commencer(String libelle, AtomicLong version)
+	{
+		this.sortesEnCours.add(version);
+		this.ctrl.afficherAvancement(libelle, 0);
+	}
+
+	/**Note que la dernière demande d'une sorte de calcul est finie, et masque la barre d'avancement
+	 * si plus aucune autre sorte n'est en attente ou en cours. Sur l'EDT.
+	 * @param version numéro de version de cette sorte de calcul.
+	 */
+	private void terminer(AtomicLong version)
+	{
+		this.sortesEnCours.remove(version);
+		if (this.sortesEnCours.isEmpty())
+			this.ctrl.masquerAvancement();
+	}
+}
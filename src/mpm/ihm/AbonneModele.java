@@ -0,0 +1,89 @@
+package mpm.ihm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import mpm.metier.EvenementModele;
+
+/**
+ * La classe {@code AbonneModele} reçoit les changements du projet (sur le thread du flux)
+ * et les remet à la vue sur l'EDT, regroupés par image : une rafale d'événements ne
+ * provoque qu'une seule mise à jour.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+abstract class AbonneModele implements Flow.Subscriber<EvenementModele>
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int DUREE_IMAGE = 16; // ms, environ 60 images par seconde
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final Queue<EvenementModele> enAttente;
+	private final AtomicBoolean          planifie;
+	private final Timer                  minuteur;
+
+	/**Constructeur d'AbonneModele.
+	 */
+	AbonneModele()
+	{
+		this.enAttente = new ConcurrentLinkedQueue<>();
+		this.planifie  = new AtomicBoolean();
+
+		this.minuteur = new Timer(DUREE_IMAGE, e -> this.vider());
+		this.minuteur.setRepeats(false);
+	}
+
+	/*------------------------------------------*/
+	/*    Réception (thread du flux)            */
+	/*------------------------------------------*/
+
+	public void onSubscribe(Flow.Subscription abonnement) { abonnement.request(Long.MAX_VALUE); }
+
+	public void onNext(EvenementModele evenement)
+	{
+		this.enAttente.add(evenement);
+
+		// Premier événement de l'image : la mise à jour est planifiée, les suivants la rejoignent
+		if (this.planifie.compareAndSet(false, true))
+			SwingUtilities.invokeLater(this.minuteur::restart);
+	}
+
+	public void onError(Throwable erreur) { erreur.printStackTrace(); }
+
+	public void onComplete() { }
+
+	/*------------------------------------------*/
+	/*    Traitement (EDT)                      */
+	/*------------------------------------------*/
+
+	private void vider()
+	{
+		List<EvenementModele> lot;
+		EvenementModele       e;
+
+		this.planifie.set(false);
+
+		lot = new ArrayList<>();
+		while ((e = this.enAttente.poll()) != null)
+			lot.add(e);
+
+		if (!lot.isEmpty())
+			this.traiter(lot);
+	}
+
+	/**Applique à la vue les événements reçus pendant une image, dans l'ordre. Appelé sur l'EDT.
+	 * @param lot les événements, jamais vide.
+	 */
+	protected abstract void traiter(List<EvenementModele> lot);
+}
@@ -0,0 +1,347 @@
+package mpm.ihm;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * La classe {@code CacheTuiles} garde le graphe déjà dessiné sous forme d'images de taille fixe (tuiles),
+ * une série de tuiles par niveau de zoom. Les tuiles manquantes sont dessinées par des threads de travail
+ * puis recopiées sur le panel depuis le thread de l'interface (EDT).
+ *
+ * Fonctionnalités principales :
+ *   Dessin des tuiles qui coupent la zone à afficher, et demande de celles qui manquent
+ *   Rendu des tuiles en arrière-plan à partir de la scène courante
+ *   Invalidation des seules tuiles touchées par une modification
+ *   Éviction des tuiles les moins récemment utilisées
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class CacheTuiles
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public  static final int    TAILLE_TUILE = 256;
+	public  static final double PAS_ZOOM     = 1.1;
+
+	private static final int    NB_MIN_TUILES      = 64;
+	private static final int    TUILES_PAR_VISIBLE = 2;  // tuiles gardées pour chaque tuile visible
+
+	private static final ExecutorService EXECUTEUR = Executors.newFixedThreadPool(
+		Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+		r ->
+		{
+			Thread t = new Thread(r, "rendu-tuiles");
+			t.setDaemon(true);
+			return t;
+		});
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private JComponent        panel;
+	private Map<Long, Tuile>  tuiles;
+	private int               nbMaxTuiles;
+
+	private SceneGraphe scene;
+	private boolean     modeCritique;
+
+	// Ce qui est affiché, lu par les threads de travail pour sauter les rendus devenus inutiles
+	private volatile int       niveauAffiche;
+	private volatile Rectangle zoneAffichee;
+
+	/**Constructeur de CacheTuiles.
+	 * @param panel le composant sur lequel les tuiles sont affichées (et qu'il faut redessiner quand une tuile est prête).
+	 */
+	public CacheTuiles(JComponent panel)
+	{
+		this.panel       = panel;
+		this.nbMaxTuiles = NB_MIN_TUILES;
+		this.tuiles      = new LinkedHashMap<>(64, 0.75f, true)
+		{
+			protected boolean removeEldestEntry(Map.Entry<Long, Tuile> plusAncienne)
+			{
+				if (this.size() <= CacheTuiles.this.nbMaxTuiles) return false;
+
+				plusAncienne.getValue().evincee = true;
+				return true;
+			}
+		};
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Retourne le facteur d'agrandissement correspondant à un niveau de zoom.
+	 * @param niveau niveau de zoom (0 pour la taille réelle, négatif pour dézoomer).
+	 * @return l'échelle de dessin.
+	 */
+	public static double echelle(int niveau) { return Math.pow(PAS_ZOOM, niveau); }
+
+	/*------------------*/
+	/*  Modificateurs   */
+	/*------------------*/
+
+	/**Change la scène à dessiner : toutes les tuiles deviennent périmées.
+	 * Les anciennes images restent affichées jusqu'à ce que les nouvelles soient prêtes.
+	 * @param scene        la nouvelle scène.
+	 * @param modeCritique true pour colorier les arcs critiques.
+	 */
+	public void setScene(SceneGraphe scene, boolean modeCritique)
+	{
+		this.scene        = scene;
+		this.modeCritique = modeCritique;
+
+		for (Tuile t : this.tuiles.values())
+			t.invalider();
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de cache              */
+	/*------------------------------------------*/
+
+	/**Rend périmées les tuiles (de tous les niveaux de zoom) qui coupent une zone de la scène.
+	 * @param zoneScene zone modifiée, en coordonnées de la scène.
+	 */
+	public void invalider(Rectangle zoneScene)
+	{
+		for (Tuile t : this.tuiles.values())
+			if (t.zoneScene().intersects(zoneScene))
+				t.invalider();
+	}
+
+	/**Invalide les tuiles qui coupent une zone de la scène et redessine tout de suite,
+	 * sur l'EDT, celles du niveau de zoom courant : on évite ainsi de revoir l'ancienne image
+	 * quand un nœud vient d'être lâché. Seules quelques tuiles sont concernées.
+	 * @param zoneScene zone modifiée, en coordonnées de la scène.
+	 * @param niveau    niveau de zoom courant.
+	 */
+	public void rafraichir(Rectangle zoneScene, int niveau)
+	{
+		int detail;
+
+		this.invalider(zoneScene);
+		detail = this.scene.choisirNiveau(echelle(niveau));
+
+		for (Tuile t : this.tuiles.values())
+		{
+			if (t.niveau == niveau && t.perimee && t.zoneScene().intersects(zoneScene))
+			{
+				t.image   = t.dessiner(this.scene, detail, this.panel.getBackground(), this.modeCritique);
+				t.perimee = false;
+				t.version++; // un rendu déjà lancé pour cette tuile sera ignoré
+			}
+		}
+	}
+
+	/**Dessine les tuiles qui coupent la zone donnée et demande le rendu de celles qui manquent ou sont périmées.
+	 * Doit être appelé depuis l'EDT.
+	 * @param g2     graphique du panel.
+	 * @param zone   zone à dessiner, en coordonnées du panel.
+	 * @param niveau niveau de zoom courant.
+	 */
+	public void dessiner(Graphics2D g2, Rectangle zone, int niveau)
+	{
+		List<Tuile> aDemander;
+		Tuile       t;
+		int         tx0, ty0, tx1, ty1, detail;
+
+		if (this.scene == null) return;
+
+		this.ajusterCapacite();
+		this.niveauAffiche = niveau;
+		this.zoneAffichee  = this.panel.getVisibleRect();
+
+		// Un seul niveau de détail par zoom, pour que les tuiles voisines se raccordent
+		detail = this.scene.choisirNiveau(echelle(niveau));
+
+		tx0 = Math.floorDiv(zone.x, TAILLE_TUILE);
+		ty0 = Math.floorDiv(zone.y, TAILLE_TUILE);
+		tx1 = Math.floorDiv(zone.x + zone.width,  TAILLE_TUILE);
+		ty1 = Math.floorDiv(zone.y + zone.height, TAILLE_TUILE);
+
+		aDemander = new ArrayList<>();
+		for (int tx = tx0; tx <= tx1; tx++)
+		{
+			for (int ty = ty0; ty <= ty1; ty++)
+			{
+				t = this.tuiles.get(cle(niveau, tx, ty));
+				if (t == null)
+				{
+					t = new Tuile(niveau, tx, ty);
+					this.tuiles.put(cle(niveau, tx, ty), t);
+				}
+
+				if (t.image != null)
+					g2.drawImage(t.image, tx * TAILLE_TUILE, ty * TAILLE_TUILE, null);
+
+				if ((t.image == null || t.perimee) && !t.demandee)
+					aDemander.add(t);
+			}
+		}
+
+		for (Tuile tuile : aDemander)
+			this.demander(tuile, detail);
+	}
+
+	/**Adapte le nombre de tuiles gardées à la partie visible du panel : assez pour la couvrir plusieurs fois
+	 * (un défilement ou un retour au zoom précédent retrouve ses tuiles), sans garder des images pour
+	 * une fenêtre bien plus grande qu'elle. Les tuiles les moins récemment utilisées partent en premier.
+	 */
+	private void ajusterCapacite()
+	{
+		Rectangle       visible;
+		Iterator<Tuile> itTuile;
+		int             nbVisibles;
+
+		visible    = this.panel.getVisibleRect();
+		nbVisibles = (visible.width  / TAILLE_TUILE + 2)
+		           * (visible.height / TAILLE_TUILE + 2);
+
+		this.nbMaxTuiles = Math.max(NB_MIN_TUILES, TUILES_PAR_VISIBLE * nbVisibles);
+
+		itTuile = this.tuiles.values().iterator();
+		while (this.tuiles.size() > this.nbMaxTuiles)
+		{
+			itTuile.next().evincee = true;
+			itTuile.remove();
+		}
+	}
+
+	/**Lance le rendu d'une tuile sur un thread de travail ; le résultat est installé sur l'EDT
+	 * seulement si la tuile n'a pas été invalidée entre-temps. Un rendu encore en file est sauté si la
+	 * tuile a été invalidée ou évincée, ou si elle n'est plus à l'écran (défilement, autre zoom) :
+	 * les tuiles visibles n'attendent pas derrière lui, et elle sera redemandée si elle réapparaît.
+	 * @param t      la tuile.
+	 * @param detail niveau de détail de son zoom (voir {@link SceneGraphe#choisirNiveau}).
+	 */
+	private void demander(Tuile t, int detail)
+	{
+		SceneGraphe scene;
+		Color       fond;
+		boolean     critique;
+		int         version;
+
+		scene    = this.scene;
+		fond     = this.panel.getBackground();
+		critique = this.modeCritique;
+		version  = t.version;
+
+		t.demandee = true;
+		EXECUTEUR.execute(() ->
+		{
+			if (t.version != version || t.evincee || !this.estAffichee(t))
+			{
+				SwingUtilities.invokeLater(() ->
+				{
+					t.demandee = false;
+					this.panel.repaint(t.tx * TAILLE_TUILE, t.ty * TAILLE_TUILE, TAILLE_TUILE, TAILLE_TUILE);
+				});
+				return;
+			}
+
+			BufferedImage image = t.dessiner(scene, detail, fond, critique);
+			SwingUtilities.invokeLater(() ->
+			{
+				t.demandee = false;
+				if (t.version == version && this.tuiles.get(cle(t.niveau, t.tx, t.ty)) == t)
+				{
+					t.image   = image;
+					t.perimee = false;
+				}
+				this.panel.repaint(t.tx * TAILLE_TUILE, t.ty * TAILLE_TUILE, TAILLE_TUILE, TAILLE_TUILE);
+			});
+		});
+	}
+
+	/**Indique si une tuile est au zoom affiché et coupe la partie visible du panel (appelé hors de l'EDT).
+	 */
+	private boolean estAffichee(Tuile t)
+	{
+		Rectangle zone = this.zoneAffichee;
+
+		return t.niveau == this.niveauAffiche
+		       && (zone == null || zone.intersects(t.tx * TAILLE_TUILE, t.ty * TAILLE_TUILE, TAILLE_TUILE, TAILLE_TUILE));
+	}
+
+	private static long cle(int niveau, int tx, int ty)
+	{
+		return ((long) (niveau & 0xFFFF) << 48) | ((long) (tx & 0xFFFFFF) << 24) | (ty & 0xFFFFFF);
+	}
+
+	/**Une tuile : son emplacement, sa dernière image et son état.
+	 * Les champs ne sont modifiés que depuis l'EDT ; version et evincee sont aussi lus par les threads de travail.
+	 */
+	private static class Tuile
+	{
+		private final int niveau, tx, ty;
+
+		private BufferedImage    image;
+		private boolean          perimee;
+		private boolean          demandee;
+		private volatile int     version;
+		private volatile boolean evincee;
+
+		private Tuile(int niveau, int tx, int ty)
+		{
+			this.niveau = niveau;
+			this.tx     = tx;
+			this.ty     = ty;
+		}
+
+		private void invalider()
+		{
+			this.perimee = true;
+			this.version++;
+		}
+
+		private Rectangle zoneScene()
+		{
+			double echelle = CacheTuiles.echelle(this.niveau);
+			return new Rectangle((int) Math.floor(this.tx * TAILLE_TUILE / echelle),
+			                     (int) Math.floor(this.ty * TAILLE_TUILE / echelle),
+			                     (int) Math.ceil(TAILLE_TUILE / echelle) + 1,
+			                     (int) Math.ceil(TAILLE_TUILE / echelle) + 1);
+		}
+
+		/**Dessine la tuile dans une nouvelle image (appelé hors de l'EDT).
+		 */
+		private BufferedImage dessiner(SceneGraphe scene, int detail, Color fond, boolean critique)
+		{
+			BufferedImage image;
+			Graphics2D    g2;
+			double        echelle;
+
+			echelle = CacheTuiles.echelle(this.niveau);
+			image   = new BufferedImage(TAILLE_TUILE, TAILLE_TUILE, BufferedImage.TYPE_INT_RGB);
+			g2      = image.createGraphics();
+
+			g2.setColor(fond);
+			g2.fillRect(0, 0, TAILLE_TUILE, TAILLE_TUILE);
+			g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+			g2.translate(-this.tx * TAILLE_TUILE, -this.ty * TAILLE_TUILE);
+			g2.scale(echelle, echelle);
+
+			// Les éléments qui débordent sur la tuile depuis une voisine sont aussi dessinés
+			scene.dessiner(g2, this.zoneScene(), detail, echelle, fond, critique);
+
+			g2.dispose();
+			return image;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package mpm.ihm;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import mpm.Controleur;
+import mpm.metier.ResultatAcceleration;
+import mpm.metier.Tache;
+
+/**
+ * La classe {@code FrameAcceleration} affiche dans une fenêtre le résultat d'une accélération du
+ * projet : la durée atteinte et son coût, les tâches raccourcies, et le coût total de chaque durée
+ * atteinte en chemin.
+ *
+ * Fonctionnalités principales :
+ *   Résumé : durée normale, durée visée, durée atteinte et coût total
+ *   Tâches accélérées, les plus chères d'abord
+ *   Courbe durée/coût du projet
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class FrameAcceleration extends JFrame
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Controleur           ctrl;
+	private ResultatAcceleration resultat;
+
+	/**Constructeur de FrameAcceleration.
+	 * @param ctrl     Permet de faire le lien avec Controleur et donc la class MPM.
+	 * @param resultat L'accélération à afficher.
+	 */
+	public FrameAcceleration(Controleur ctrl, ResultatAcceleration resultat)
+	{
+
+		/*-------------------------------*/
+		/*         Variables             */
+		/*-------------------------------*/
+
+		String      affichage ;
+		List<Tache> taches    ;
+		Object[][]  lignes    ;
+		Object[][]  points    ;
+		JScrollPane courbe    ;
+		Tache       tache     ;
+		int         id        ;
+
+		this.ctrl     = ctrl;
+		this.resultat = resultat;
+
+		this.setTitle("Accélération du projet");
+		this.setSize(750, 550);
+		this.setLayout(new BorderLayout());
+
+		affichage  = "<html>";
+		affichage += "Sans accélération : " + resultat.getDureeInitiale() + " jours, fin le "
+		           + this.ctrl.formaterDate(resultat.getDureeInitiale()) + "<br>";
+		affichage += "Visée : " + resultat.getDureeCible() + " jours<br>";
+		affichage += "Accéléré : " + resultat.getDureeAtteinte() + " jours, fin le "
+		           + this.ctrl.formaterDate(resultat.getDureeAtteinte()) + ", coût " + resultat.getCoutTotal() + "<br>";
+		if (!resultat.estCibleAtteinte())
+			affichage += "Un chemin critique n'a plus de tâche à accélérer : la durée visée est hors d'atteinte.<br>";
+		affichage += "</html>";
+
+		this.add(new JLabel(affichage), BorderLayout.NORTH);
+
+		// Tâches accélérées, les plus chères d'abord
+		taches = new ArrayList<>();
+		for (Tache t : resultat.getTaches())
+			if (resultat.getGain(t.getId()) > 0)
+				taches.add(t);
+		taches.sort(Comparator.comparingLong((Tache t) -> -resultat.getCout(t.getId())).thenComparing(Tache::getNom));
+
+		lignes = new Object[taches.size()][];
+		for (int i = 0; i < taches.size(); i++)
+		{
+			tache     = taches.get(i);
+			id        = tache.getId();
+			lignes[i] = new Object[] { tache.getNom(), resultat.getDureeNormale(id), resultat.getDuree(id),
+			                           resultat.getGain(id), resultat.getCout(id) };
+		}
+
+		this.add(new JScrollPane(new JTable(lignes, new String[] { "Tâche", "Durée normale", "Durée accélérée", "Jours gagnés", "Coût" })),
+		         BorderLayout.CENTER);
+
+		// Coût total de chaque durée atteinte
+		points = new Object[resultat.getNbPoints()][];
+		for (int i = 0; i < points.length; i++)
+			points[i] = new Object[] { resultat.getDureePoint(i), resultat.getCoutPoint(i) };
+
+		courbe = new JScrollPane(new JTable(points, new String[] { "Durée", "Coût total" }));
+		courbe.setPreferredSize(new Dimension(200, 0));
+		this.add(courbe, BorderLayout.EAST);
+
+		this.setVisible(true);
+	}
+}
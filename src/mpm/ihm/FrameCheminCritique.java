@@ -57,7 +57,7 @@ public class FrameCheminCritique extends JFrame
 				for (int j = 0; j < chemin.size(); j++) {
 					Tache t = chemin.get(j);
 
-					if (!t.getNom().equals("Début") && !t.getNom().equals("Fin"))
+					if (t != this.ctrl.getDebut() && t != this.ctrl.getFin())
 						affichage += t.getNom() + " ; ";
 				}
 				affichage += " } " + "<br>";
@@ -0,0 +1,92 @@
+package mpm.ihm;
+
+import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import mpm.Controleur;
+import mpm.metier.ResultatNivellement;
+import mpm.metier.Tache;
+
+/**
+ * La classe {@code FrameNivellement} affiche dans une fenêtre le résultat d'un ordonnancement sous
+ * limite de ressources : la durée du projet avant et après nivellement, l'occupation de chaque
+ * ressource, et pour chaque tâche sa date nivelée à côté de ses dates au plus tôt et au plus tard.
+ *
+ * Fonctionnalités principales :
+ *   Résumé : méthode employée, durées et dates de fin, capacité et pic de chaque ressource
+ *   Tâches rangées par date nivelée, avec le décalage dû aux ressources
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class FrameNivellement extends JFrame
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Controleur          ctrl;
+	private ResultatNivellement resultat;
+
+	/**Constructeur de FrameNivellement.
+	 * @param ctrl     Permet de faire le lien avec Controleur et donc la class MPM.
+	 * @param resultat Le nivellement à afficher.
+	 */
+	public FrameNivellement(Controleur ctrl, ResultatNivellement resultat)
+	{
+
+		/*-------------------------------*/
+		/*         Variables             */
+		/*-------------------------------*/
+
+		String      affichage ;
+		List<Tache> taches    ;
+		Object[][]  lignes    ;
+		Tache       tache     ;
+		int         id        ;
+
+		this.ctrl     = ctrl;
+		this.resultat = resultat;
+
+		this.setTitle("Nivellement des ressources");
+		this.setSize(650, 550);
+		this.setLayout(new BorderLayout());
+
+		affichage  = "<html>";
+		affichage += "Méthode : " + resultat.getMethode() + "<br>";
+		affichage += "Sans limite de ressources : " + resultat.getDureeSansRessources() + " jours, fin le "
+		           + this.ctrl.formaterDate(resultat.getDureeSansRessources()) + "<br>";
+		affichage += "Nivelé : " + resultat.getDureeProjet() + " jours, fin le "
+		           + this.ctrl.formaterDate(resultat.getDureeProjet()) + "<br>";
+		for (int r = 0; r < resultat.getNbRessources(); r++)
+			affichage += resultat.getRessource(r) + " : " + resultat.getPic(r) + " / " + resultat.getCapacite(r) + " au plus fort<br>";
+		affichage += "</html>";
+
+		this.add(new JLabel(affichage), BorderLayout.NORTH);
+
+		// Tâches du projet, par date nivelée
+		taches = new ArrayList<>();
+		for (Tache t : resultat.getTaches())
+			if (t != this.ctrl.getDebut() && t != this.ctrl.getFin())
+				taches.add(t);
+		taches.sort(Comparator.comparingInt((Tache t) -> resultat.getDateNivelee(t.getId())).thenComparing(Tache::getNom));
+
+		lignes = new Object[taches.size()][];
+		for (int i = 0; i < taches.size(); i++)
+		{
+			tache     = taches.get(i);
+			id        = tache.getId();
+			lignes[i] = new Object[] { tache.getNom(), resultat.getDateMin(id), resultat.getDateMax(id),
+			                           resultat.getDateNivelee(id), resultat.getDecalage(id) };
+		}
+
+		this.add(new JScrollPane(new JTable(lignes, new String[] { "Tâche", "Au plus tôt", "Au plus tard", "Nivelée", "Décalage" })),
+		         BorderLayout.CENTER);
+
+		this.setVisible(true);
+	}
+}
@@ -73,7 +73,6 @@ public class FramePrincipale extends JFrame
 		this.panelGrille.setPreferredSize(new Dimension(1400, 325));
 
 		this.panelGraphe = new PanelGraphe(this.ctrl);
-		this.panelGraphe.setPreferredSize(new Dimension(2800, 500));
 
 		sp = new JScrollPane( this.panelGraphe );
 
@@ -109,13 +108,12 @@ public class FramePrincipale extends JFrame
 	public PanelGrille getPanelGrille() { return this.panelGrille; }
 
 	/**Méthode qui sert à rafraichir la FramePrincipale.
+	 * La grille suit son modèle ligne par ligne ; le graphe n'est reconstruit que si les tâches ont été remplacées,
+	 * le détail des changements arrivant aux panels par le flux d'événements.
 	 */
 	public void rafraichirAffichage()
 	{
-		this.panelGrille.rafraichirModele();
-		this.panelGrille.repaint();
-		this.panelGraphe.recalculerPositions();
-		this.panelGraphe.repaint();
+		this.panelGraphe.rafraichir();
 	}
 
 
@@ -0,0 +1,149 @@
+package mpm.ihm;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import mpm.Controleur;
+import mpm.metier.ResultatSimulation;
+import mpm.metier.Tache;
+
+/**
+ * La classe {@code FrameSimulation} affiche dans une fenêtre le résultat d'une simulation de Monte-Carlo :
+ * la durée du projet à 50, 80 et 95 %, l'histogramme des durées tirées et l'indice de criticité des tâches.
+ *
+ * Fonctionnalités principales :
+ *   Résumé : durée prévue et probabilité de la tenir, moyenne, écart type, centiles et dates de fin
+ *   Histogramme des durées du projet, centiles marqués
+ *   Tâches rangées de la plus souvent critique à la moins souvent critique
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class FrameSimulation extends JFrame
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final double[] CENTILES = { 0.50, 0.80, 0.95 };
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Controleur         ctrl;
+	private ResultatSimulation resultat;
+
+	/**Constructeur de FrameSimulation.
+	 * @param ctrl     Permet de faire le lien avec Controleur et donc la class MPM.
+	 * @param resultat Le résultat de la simulation à afficher.
+	 */
+	public FrameSimulation(Controleur ctrl, ResultatSimulation resultat)
+	{
+
+		/*-------------------------------*/
+		/*         Variables             */
+		/*-------------------------------*/
+
+		String      affichage ;
+		List<Tache> taches    ;
+		Object[][]  lignes    ;
+		int         jours     ;
+
+		this.ctrl     = ctrl;
+		this.resultat = resultat;
+
+		this.setTitle("Simulation Monte-Carlo");
+		this.setSize(700, 550);
+		this.setLayout(new BorderLayout());
+
+		affichage  = "<html>";
+		affichage += resultat.getNbTirages() + " tirages<br>";
+		affichage += "Durée prévue : " + resultat.getDureePrevue() + " jours, tenue dans "
+		           + Math.round(100 * resultat.probabiliteAuPlus(resultat.getDureePrevue())) + " % des tirages<br>";
+		affichage += String.format("Durée moyenne : %.1f jours (écart type %.1f)<br>", resultat.getMoyenne(), resultat.getEcartType());
+		for (double c : CENTILES)
+		{
+			jours      = resultat.centile(c);
+			affichage += "P" + Math.round(100 * c) + " : " + jours + " jours, fin le " + this.ctrl.formaterDate(jours) + "<br>";
+		}
+		affichage += "</html>";
+
+		this.add(new JLabel(affichage), BorderLayout.NORTH);
+		this.add(new PanelHistogramme(), BorderLayout.CENTER);
+
+		// Tâches du projet, de la plus souvent critique à la moins souvent critique
+		taches = new ArrayList<>();
+		for (Tache t : resultat.getTaches())
+			if (t != this.ctrl.getDebut() && t != this.ctrl.getFin())
+				taches.add(t);
+		taches.sort(Comparator.comparingDouble((Tache t) -> -resultat.getIndiceCritique(t.getId())).thenComparing(Tache::getNom));
+
+		lignes = new Object[taches.size()][];
+		for (int i = 0; i < taches.size(); i++)
+			lignes[i] = new Object[] { taches.get(i).getNom(),
+			                           Math.round(1000 * resultat.getIndiceCritique(taches.get(i).getId())) / 10.0 + " %" };
+
+		JScrollPane defilement = new JScrollPane(new JTable(lignes, new String[] { "Tâche", "Indice de criticité" }));
+		defilement.setPreferredSize(new Dimension(220, 0));
+		this.add(defilement, BorderLayout.EAST);
+
+		this.setVisible(true);
+	}
+
+	/**Histogramme des durées du projet : une barre par jour entre la plus courte et la plus longue durée tirée.
+	 */
+	private class PanelHistogramme extends JPanel
+	{
+		public void paintComponent(Graphics g)
+		{
+			long[] histogramme;
+			long   max;
+			int    premier, dernier, largeur, hauteur, x, h;
+
+			super.paintComponent(g);
+
+			histogramme = resultat.getHistogramme();
+			premier     = 0;
+			while (premier < histogramme.length - 1 && histogramme[premier] == 0) premier++;
+			dernier     = histogramme.length - 1;
+			while (dernier > premier && histogramme[dernier] == 0) dernier--;
+
+			max = 1;
+			for (int j = premier; j <= dernier; j++)
+				max = Math.max(max, histogramme[j]);
+
+			largeur = this.getWidth() - 20;
+			hauteur = this.getHeight() - 30;
+
+			g.setColor(new Color(90, 130, 200));
+			for (int j = premier; j <= dernier; j++)
+			{
+				x = 10 + (int) ((long) largeur * (j - premier) / (dernier - premier + 1));
+				h = (int) ((long) hauteur * histogramme[j] / max);
+				g.fillRect(x, 10 + hauteur - h, Math.max(1, largeur / (dernier - premier + 1) - 1), h);
+			}
+
+			// Centiles
+			g.setColor(Color.RED);
+			for (double c : CENTILES)
+			{
+				x = 10 + (int) ((long) largeur * (resultat.centile(c) - premier) / (dernier - premier + 1));
+				g.drawLine(x, 10, x, 10 + hauteur);
+				g.drawString("P" + Math.round(100 * c), x + 2, 22);
+			}
+
+			g.setColor(Color.BLACK);
+			g.drawString(premier + " j", 10, this.getHeight() - 5);
+			g.drawString(dernier + " j", this.getWidth() - 50, this.getHeight() - 5);
+		}
+	}
+}
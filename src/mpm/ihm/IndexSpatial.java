@@ -0,0 +1,270 @@
+package mpm.ihm;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import mpm.metier.collection.TableEntiersObjets;
+
+/**
+ * La classe {@code IndexSpatial} range des éléments rectangulaires identifiés par un entier
+ * dans une grille uniforme de cellules, afin de retrouver rapidement ceux qui coupent une zone.
+ * Les cellules sont rangées par leurs coordonnées accolées en {@code long}, sans clé emballée.
+ *
+ * Fonctionnalités principales :
+ *   Insertion, retrait et déplacement d'un élément
+ *   Recherche des éléments qui coupent un rectangle (chaque élément n'est visité qu'une fois)
+ *   Les éléments trop grands (longs arcs) sont gardés à part et testés à chaque recherche
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class IndexSpatial
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int MAX_CELLULES_PAR_ELEMENT = 64;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private int                              tailleCellule;
+	private TableEntiersObjets<ListeCellule> cellules;
+	private ListeCellule                     grands;
+
+	private int[]     tabX, tabY, tabL, tabH;
+	private boolean[] presents;
+
+	/**Constructeur de IndexSpatial.
+	 * @param tailleCellule côté d'une cellule de la grille, en pixels.
+	 */
+	public IndexSpatial(int tailleCellule)
+	{
+		this.tailleCellule = tailleCellule;
+		this.cellules      = new TableEntiersObjets<>();
+		this.grands        = new ListeCellule();
+
+		this.tabX     = new int[16];
+		this.tabY     = new int[16];
+		this.tabL     = new int[16];
+		this.tabH     = new int[16];
+		this.presents = new boolean[16];
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités d'indexation          */
+	/*------------------------------------------*/
+
+	/**Ajoute un élément dans l'index.
+	 * @param id identifiant de l'élément (entier positif).
+	 * @param x  abscisse du coin haut gauche.
+	 * @param y  ordonnée du coin haut gauche.
+	 * @param l  largeur.
+	 * @param h  hauteur.
+	 */
+	public void inserer(int id, int x, int y, int l, int h)
+	{
+		int cx0, cy0, cx1, cy1;
+
+		this.agrandir(id);
+		this.tabX[id] = x;
+		this.tabY[id] = y;
+		this.tabL[id] = l;
+		this.tabH[id] = h;
+		this.presents[id] = true;
+
+		cx0 = this.cellule(x);
+		cy0 = this.cellule(y);
+		cx1 = this.cellule(x + l);
+		cy1 = this.cellule(y + h);
+
+		if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_CELLULES_PAR_ELEMENT)
+		{
+			this.grands.ajouter(id);
+			return;
+		}
+
+		for (int cx = cx0; cx <= cx1; cx++)
+		{
+			for (int cy = cy0; cy <= cy1; cy++)
+			{
+				ListeCellule liste = this.cellules.get(cle(cx, cy));
+				if (liste == null)
+				{
+					liste = new ListeCellule();
+					this.cellules.put(cle(cx, cy), liste);
+				}
+				liste.ajouter(id);
+			}
+		}
+	}
+
+	/**Retire un élément de l'index.
+	 * @param id identifiant de l'élément.
+	 */
+	public void retirer(int id)
+	{
+		int cx0, cy0, cx1, cy1;
+
+		if (id >= this.presents.length || !this.presents[id]) return;
+		this.presents[id] = false;
+
+		cx0 = this.cellule(this.tabX[id]);
+		cy0 = this.cellule(this.tabY[id]);
+		cx1 = this.cellule(this.tabX[id] + this.tabL[id]);
+		cy1 = this.cellule(this.tabY[id] + this.tabH[id]);
+
+		if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_CELLULES_PAR_ELEMENT)
+		{
+			this.grands.retirer(id);
+			return;
+		}
+
+		for (int cx = cx0; cx <= cx1; cx++)
+		{
+			for (int cy = cy0; cy <= cy1; cy++)
+			{
+				ListeCellule liste = this.cellules.get(cle(cx, cy));
+				if (liste != null && liste.retirer(id) && liste.taille == 0)
+					this.cellules.retirer(cle(cx, cy));
+			}
+		}
+	}
+
+	/**Déplace un élément déjà présent dans l'index.
+	 * @param id identifiant de l'élément.
+	 * @param x  nouvelle abscisse.
+	 * @param y  nouvelle ordonnée.
+	 * @param l  nouvelle largeur.
+	 * @param h  nouvelle hauteur.
+	 */
+	public void deplacer(int id, int x, int y, int l, int h)
+	{
+		this.retirer(id);
+		this.inserer(id, x, y, l, h);
+	}
+
+	/**Visite une seule fois chaque élément qui coupe la zone donnée.
+	 * La recherche ne modifie pas l'index : plusieurs lectures peuvent avoir lieu en même temps.
+	 * @param zone   rectangle de recherche.
+	 * @param action traitement appliqué à l'identifiant de chaque élément trouvé.
+	 */
+	public void rechercher(Rectangle zone, IntConsumer action)
+	{
+		int qx0, qy0, qx1, qy1;
+		int id;
+
+		qx0 = this.cellule(zone.x);
+		qy0 = this.cellule(zone.y);
+		qx1 = this.cellule(zone.x + zone.width);
+		qy1 = this.cellule(zone.y + zone.height);
+
+		// Si la zone couvre plus de cellules qu'il n'en existe, on parcourt les cellules existantes
+		if ((long) (qx1 - qx0 + 1) * (qy1 - qy0 + 1) > this.cellules.taille())
+		{
+			for (int i = 0; i < this.cellules.nbCases(); i++)
+			{
+				ListeCellule liste = this.cellules.valeurCase(i);
+				if (liste == null) continue;
+
+				int cx = (int) (this.cellules.cleCase(i) >> 32);
+				int cy = (int) this.cellules.cleCase(i);
+				if (cx < qx0 || cx > qx1 || cy < qy0 || cy > qy1) continue;
+				this.visiterCellule(liste, cx, cy, qx0, qy0, zone, action);
+			}
+		}
+		else
+		{
+			for (int cx = qx0; cx <= qx1; cx++)
+			{
+				for (int cy = qy0; cy <= qy1; cy++)
+				{
+					ListeCellule liste = this.cellules.get(cle(cx, cy));
+					if (liste != null)
+						this.visiterCellule(liste, cx, cy, qx0, qy0, zone, action);
+				}
+			}
+		}
+
+		for (int i = 0; i < this.grands.taille; i++)
+		{
+			id = this.grands.ids[i];
+			if (this.coupe(id, zone))
+				action.accept(id);
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Méthodes internes                     */
+	/*------------------------------------------*/
+
+	/**Visite les éléments d'une cellule en ne gardant que ceux dont cette cellule est la première
+	 * cellule commune avec la zone, ce qui évite les doublons sans mémoire partagée.
+	 */
+	private void visiterCellule(ListeCellule liste, int cx, int cy, int qx0, int qy0, Rectangle zone, IntConsumer action)
+	{
+		int id;
+
+		for (int i = 0; i < liste.taille; i++)
+		{
+			id = liste.ids[i];
+			if (Math.max(this.cellule(this.tabX[id]), qx0) != cx) continue;
+			if (Math.max(this.cellule(this.tabY[id]), qy0) != cy) continue;
+			if (this.coupe(id, zone))
+				action.accept(id);
+		}
+	}
+
+	private boolean coupe(int id, Rectangle zone)
+	{
+		return this.tabX[id] <= zone.x + zone.width  && this.tabX[id] + this.tabL[id] >= zone.x &&
+		       this.tabY[id] <= zone.y + zone.height && this.tabY[id] + this.tabH[id] >= zone.y;
+	}
+
+	private int cellule(int coord) { return Math.floorDiv(coord, this.tailleCellule); }
+
+	private static long cle(int cx, int cy) { return ((long) cx << 32) | (cy & 0xFFFFFFFFL); }
+
+	private void agrandir(int id)
+	{
+		int taille;
+
+		if (id < this.presents.length) return;
+
+		taille = Math.max(id + 1, this.presents.length * 2);
+		this.tabX     = Arrays.copyOf(this.tabX, taille);
+		this.tabY     = Arrays.copyOf(this.tabY, taille);
+		this.tabL     = Arrays.copyOf(this.tabL, taille);
+		this.tabH     = Arrays.copyOf(this.tabH, taille);
+		this.presents = Arrays.copyOf(this.presents, taille);
+	}
+
+	/**Liste d'identifiants d'une cellule, sans boxing.
+	 */
+	private static class ListeCellule
+	{
+		private int[] ids    = new int[4];
+		private int   taille = 0;
+
+		private void ajouter(int id)
+		{
+			if (this.taille == this.ids.length)
+				this.ids = Arrays.copyOf(this.ids, this.taille * 2);
+			this.ids[this.taille++] = id;
+		}
+
+		private boolean retirer(int id)
+		{
+			for (int i = 0; i < this.taille; i++)
+			{
+				if (this.ids[i] == id)
+				{
+					this.ids[i] = this.ids[--this.taille];
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -1,12 +1,16 @@
 package mpm.ihm;
 
 import java.awt.event.*;
+import java.util.Arrays;
+import java.util.Map;
 import javax.swing.*;
 import mpm.Controleur;
+import mpm.metier.Mpm;
+import mpm.metier.OrdonnancementRessources;
 
 /**
  * La classe {@code MaBarreMenu} représente la barre de menus principale de l'application.
- * Elle gère la création, l'organisation et les actions des menus (Fichier, Edition, Ajouter, Supprimer).
+ * Elle gère la création, l'organisation et les actions des menus (Fichier, Edition, Ajouter, Supprimer, Affichage, Analyse).
  *
  * Fonctionnalités principales :
  *   Création et organisation des menus et de leurs items
@@ -18,6 +22,12 @@ import mpm.Controleur;
 public class MaBarreMenu extends JMenuBar implements ActionListener
 {
 	
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final String PLUS_COURT = "Le plus court (recherche exacte)"; // choix du nivellement à côté des règles
+
 	/*------------------*/
 	/*    Attributs     */
 	/*------------------*/
@@ -37,6 +47,14 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 	private JMenuItem     menuiAjouterNouvelleTache;
 	private JMenuItem     menuiSupprimerSupprimerTache;
 
+	private JMenuItem     menuiAffichageDisposition;
+	private JMenuItem     menuiAffichageDispositionForces;
+	private JCheckBoxMenuItem menuiAffichageJoursOuvres;
+
+	private JMenuItem     menuiAnalyseSimulation;
+	private JMenuItem     menuiAnalyseNivellement;
+	private JMenuItem     menuiAnalyseAcceleration;
+
 	private Controleur    ctrl;
 	
 	private Object[] tacheCopiee;
@@ -57,6 +75,8 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 		JMenu menuEdition   = new JMenu("Edition");
 		JMenu menuAjouter   = new JMenu("Ajouter");
 		JMenu menuSupprimer = new JMenu("Supprimer");
+		JMenu menuAffichage = new JMenu("Affichage");
+		JMenu menuAnalyse   = new JMenu("Analyse");
 
 		this.menuiFichierNouveau         = new JMenuItem ("Nouveau"         );
 		this.menuiFichierOuvrir          = new JMenuItem ("Ouvrir"          );
@@ -75,6 +95,16 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 		this.menuiAjouterNouvelleTache    = new JMenuItem ("Ajouter une tâche"   );
 		this.menuiSupprimerSupprimerTache = new JMenuItem ("Supprimer une tâche" );
 
+		// les items du menu affichage
+		this.menuiAffichageDisposition       = new JMenuItem ("Disposition automatique"  );
+		this.menuiAffichageDispositionForces = new JMenuItem ("Disposition par forces"   );
+		this.menuiAffichageJoursOuvres       = new JCheckBoxMenuItem ("Jours ouvrés"     );
+
+		// les items du menu analyse
+		this.menuiAnalyseSimulation          = new JMenuItem ("Simulation Monte-Carlo"   );
+		this.menuiAnalyseNivellement         = new JMenuItem ("Nivellement des ressources");
+		this.menuiAnalyseAcceleration        = new JMenuItem ("Accélération du projet"    );
+
 
 
 		/*-------------------------------*/
@@ -99,12 +129,21 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 
 		menuAjouter.add  ( this.menuiAjouterNouvelleTache    );
 		menuSupprimer.add( this.menuiSupprimerSupprimerTache );
+		menuAffichage.add( this.menuiAffichageDisposition       );
+		menuAffichage.add( this.menuiAffichageDispositionForces );
+		menuAffichage.addSeparator();
+		menuAffichage.add( this.menuiAffichageJoursOuvres       );
+		menuAnalyse.add  ( this.menuiAnalyseSimulation          );
+		menuAnalyse.add  ( this.menuiAnalyseNivellement         );
+		menuAnalyse.add  ( this.menuiAnalyseAcceleration        );
 
 		// Des JMenu dans la JMenuBar
 		this.add( menuFichier );
 		this.add( menuEdition );
 		this.add( menuAjouter );
 		this.add( menuSupprimer );
+		this.add( menuAffichage );
+		this.add( menuAnalyse );
 
 		/*-------------------------------*/
 		/* Activation des composants     */
@@ -123,6 +162,12 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 		this.menuiEditionRefaire          .addActionListener ( this );
 		this.menuiAjouterNouvelleTache    .addActionListener ( this );
 		this.menuiSupprimerSupprimerTache .addActionListener ( this );
+		this.menuiAffichageDisposition    .addActionListener ( this );
+		this.menuiAffichageDispositionForces.addActionListener ( this );
+		this.menuiAffichageJoursOuvres    .addActionListener ( this );
+		this.menuiAnalyseSimulation       .addActionListener ( this );
+		this.menuiAnalyseNivellement      .addActionListener ( this );
+		this.menuiAnalyseAcceleration     .addActionListener ( this );
 
 		this.menuiFichierEnregistrer      .setAccelerator ( KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK                              ));  // pour CTRL+S
 		this.menuiFichierEnregistrerSous  .setAccelerator ( KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK + InputEvent.SHIFT_DOWN_MASK ));  // pour CTRL+SHIFT+S
@@ -139,6 +184,8 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 
 		this.menuiAjouterNouvelleTache    .setAccelerator ( KeyStroke.getKeyStroke(KeyEvent.VK_N, InputEvent.CTRL_DOWN_MASK + InputEvent.SHIFT_DOWN_MASK ));  // pour CTRL+SHIFT+N
 		this.menuiSupprimerSupprimerTache .setAccelerator ( KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, InputEvent.CTRL_DOWN_MASK                         ));  // pour CTRL+SUPPR
+		this.menuiAffichageDisposition    .setAccelerator ( KeyStroke.getKeyStroke(KeyEvent.VK_L, InputEvent.CTRL_DOWN_MASK ));  // pour CTRL+L
+		this.menuiAffichageDispositionForces.setAccelerator ( KeyStroke.getKeyStroke(KeyEvent.VK_L, InputEvent.CTRL_DOWN_MASK + InputEvent.SHIFT_DOWN_MASK ));  // pour CTRL+SHIFT+L
 
 	}
 
@@ -158,9 +205,16 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 		String       choix, nomOriginal, nouveauNom, nouveauFichier, fichier ;
 		String       prec, dureeStr, nvlDuree, nomASupprimer                 ;   
 		String       nvX, nom, nvY, nomTache, x, y, predecesseurs            ; 
+		String       tirages, capacitesTexte, secondesTexte, cibleTexte      ;
  
 		int          retour,yOriginal,duree                                  ;
 		int          ligneSelectionne,ligneInseree                           ;
+		int          nbTirages, secondes, dureeCible                         ;
+
+		Map<String, Integer>           capacites                             ;
+		OrdonnancementRessources.Regle regle                                 ;
+		Object[]                       methodes                              ;
+		Object                         methode                               ;
 
 		boolean      existe                                                  ;
 
@@ -188,10 +242,10 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 						if (choix == null || choix.isBlank())
 							throw new Exception("Aucun fichier sélectionné.");
 
-						this.ctrl.chargerTachesDepuisFichier(choix);
-						this.ctrl.getGrilleDonneesModel().setFichier(choix);
-						this.ctrl.rafraichirAffichage();
-						JOptionPane.showMessageDialog(this, "Données chargées depuis : " + choix, "Ouvrir", JOptionPane.INFORMATION_MESSAGE);
+						// La lecture se fait en arrière-plan : le message attend qu'elle soit finie
+						final String fichierOuvert = choix;
+						this.ctrl.chargerTachesDepuisFichier(fichierOuvert, () ->
+							JOptionPane.showMessageDialog(this, "Données chargées depuis : " + fichierOuvert, "Ouvrir", JOptionPane.INFORMATION_MESSAGE));
 					} 
 					catch (Exception ex) 
 					{
@@ -224,7 +278,6 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 							}
 						}
 						this.ctrl.getGrilleDonneesModel().sauvegarderDansFichier();
-						this.ctrl.getGrilleDonneesModel().fireTableDataChanged();
 						JOptionPane.showMessageDialog(this, "Données enregistrées dans : " + fichier, "Enregistrer", JOptionPane.INFORMATION_MESSAGE);
 					}
 					catch (Exception ex)
@@ -247,7 +300,6 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 						{
 							this.ctrl.sauvegarderTachesDansFichier(nouveauFichier); // <-- Ajout de la sauvegarde réelle
 							this.ctrl.getGrilleDonneesModel().sauvegarderDansFichier();
-							this.ctrl.getGrilleDonneesModel().fireTableDataChanged();
 							JOptionPane.showMessageDialog(this, "Données enregistrées sous : " + nouveauFichier, "Enregistrer sous", JOptionPane.INFORMATION_MESSAGE);
 						}
 						catch (Exception ex)
@@ -346,7 +398,6 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 
 					this.ctrl.ajouterTache(nouveauNom, Integer.parseInt(nvlDuree), prec, nvX, nvY);
 					this.ctrl.rafraichirAffichage();
-					this.ctrl.getGrilleDonneesModel().fireTableDataChanged();
 					JOptionPane.showMessageDialog(this, "Tâche collée sous le nom : " + nouveauNom);
 					break;
 
@@ -384,11 +435,12 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 						return;
 					}
 
-					x = JOptionPane.showInputDialog(this, "Position X de la tâche :", "0");
-					if (x == null || !x.matches("\\d+")) x = "0";
+					// Laissées vides, les coordonnées sont calculées par la disposition automatique
+					x = JOptionPane.showInputDialog(this, "Position X de la tâche (vide pour placer automatiquement) :", "");
+					if (x == null || !x.matches("\\d+")) x = "";
 
-					y = JOptionPane.showInputDialog(this, "Position Y de la tâche :", "0");
-					if (y == null || !y.matches("\\d+")) y = "0";
+					y = JOptionPane.showInputDialog(this, "Position Y de la tâche (vide pour placer automatiquement) :", "");
+					if (y == null || !y.matches("\\d+")) y = "";
 
 					predecesseurs = JOptionPane.showInputDialog(this, "Prédécesseurs (séparés par des virgules) :", "");
 					if (predecesseurs != null && !predecesseurs.isBlank()) 
@@ -406,14 +458,13 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 
 					this.ctrl.ajouterTache(nom, duree, predecesseurs == null ? "" : predecesseurs, x, y);
 					this.ctrl.rafraichirAffichage();
-					this.ctrl.getGrilleDonneesModel().fireTableDataChanged();
 					break;
 
 				case "Supprimer une tâche":
 					nomASupprimer = JOptionPane.showInputDialog(this, "Nom de la tâche à supprimer :");
 					if (nomASupprimer == null || nomASupprimer.isBlank()) break;
 
-					if ( nomASupprimer.equals("Debut") || nomASupprimer.equals("Fin") )
+					if ( nomASupprimer.equals(Mpm.NOM_DEBUT) || nomASupprimer.equals(Mpm.NOM_FIN) )
 					{
 						JOptionPane.showMessageDialog(this, "Vous ne pouvez pas supprimer les tâches 'Début' ou 'Fin'.", "Erreur", JOptionPane.ERROR_MESSAGE);
 						return;
@@ -423,6 +474,149 @@ public class MaBarreMenu extends JMenuBar implements ActionListener
 					this.ctrl.rafraichirDepuisFichier();
 					this.ctrl.rafraichirAffichage();
 					break;
+
+				case "Disposition automatique":
+					// Replace toutes les tâches en couches, en arrière-plan
+					this.ctrl.getVue().getPanelGraphe().lancerDisposition();
+					break;
+
+				case "Disposition par forces":
+					// Placement libre des tâches, animé pendant le calcul
+					this.ctrl.getVue().getPanelGraphe().lancerDispositionForces();
+					break;
+
+				case "Jours ouvrés":
+					// Dates affichées en jours ouvrés (sans week-ends ni jours fériés) ou en jours du calendrier
+					this.ctrl.setJoursOuvres(this.menuiAffichageJoursOuvres.isSelected());
+					break;
+
+				case "Simulation Monte-Carlo":
+					// Durées tirées selon les estimations « o/m/p » de la grille, en arrière-plan
+					tirages = JOptionPane.showInputDialog(this, "Nombre de tirages :", "10000");
+					if (tirages == null || tirages.isBlank()) break;
+
+					try
+					{
+						nbTirages = Integer.parseInt(tirages.trim());
+					}
+					catch (NumberFormatException ex)
+					{
+						JOptionPane.showMessageDialog(this, "Le nombre de tirages doit être un nombre entier.", "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+					if (nbTirages <= 0)
+					{
+						JOptionPane.showMessageDialog(this, "Le nombre de tirages doit être positif.", "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+
+					try
+					{
+						this.ctrl.lancerSimulation(nbTirages);
+					}
+					catch (NumberFormatException ex)
+					{
+						// Estimation mal écrite dans la grille : le message nomme la tâche
+						JOptionPane.showMessageDialog(this, ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+					}
+					break;
+
+				case "Nivellement des ressources":
+					// Tâches décalées pour ne jamais dépasser la capacité d'une ressource, en arrière-plan
+					try
+					{
+						capacites = OrdonnancementRessources.demandesMax(this.ctrl.getGrilleDonneesModel());
+					}
+					catch (NumberFormatException ex)
+					{
+						JOptionPane.showMessageDialog(this, ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+					if (capacites.isEmpty())
+					{
+						JOptionPane.showMessageDialog(this, "Aucune tâche ne demande de ressource (colonne « Ressources », par exemple « maçon:2,grue:1 »).",
+						                              "Nivellement", JOptionPane.INFORMATION_MESSAGE);
+						break;
+					}
+
+					// Capacités proposées : la plus forte demande de chaque ressource
+					capacitesTexte = capacites.toString().replace("=", ":").replace(" ", "");
+					capacitesTexte = JOptionPane.showInputDialog(this, "Capacité de chaque ressource :",
+					                                             capacitesTexte.substring(1, capacitesTexte.length() - 1));
+					if (capacitesTexte == null || capacitesTexte.isBlank()) break;
+
+					// Une règle de priorité, ou la recherche du planning le plus court
+					methodes = Arrays.copyOf(OrdonnancementRessources.Regle.values(), OrdonnancementRessources.Regle.values().length + 1, Object[].class);
+					methodes[methodes.length - 1] = MaBarreMenu.PLUS_COURT;
+					methode  = JOptionPane.showInputDialog(this, "Placement des tâches :", "Nivellement", JOptionPane.QUESTION_MESSAGE,
+					                                       null, methodes, OrdonnancementRessources.Regle.DATE_AU_PLUS_TARD);
+					if (methode == null) break;
+					regle = methode instanceof OrdonnancementRessources.Regle ? (OrdonnancementRessources.Regle) methode : null;
+
+					// Calcul sur tous les cœurs, arrêté par le bouton d'annulation ou le temps
+					secondesTexte = regle != null ? JOptionPane.showInputDialog(this, "Temps d'amélioration en secondes (0 pour aucune) :", "5")
+					                              : JOptionPane.showInputDialog(this, "Temps maximal de recherche en secondes :", "30");
+					if (secondesTexte == null) break;
+
+					try
+					{
+						secondes = secondesTexte.isBlank() ? 0 : Integer.parseInt(secondesTexte.trim());
+					}
+					catch (NumberFormatException ex)
+					{
+						JOptionPane.showMessageDialog(this, "Le temps d'amélioration doit être un nombre entier.", "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+					if (secondes < 0)
+					{
+						JOptionPane.showMessageDialog(this, "Le temps d'amélioration ne peut pas être négatif.", "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+
+					try
+					{
+						capacites = OrdonnancementRessources.lireRessources("Capacités", capacitesTexte);
+						if (regle != null) this.ctrl.lancerNivellement       (capacites, regle, secondes);
+						else               this.ctrl.lancerNivellementOptimal(capacites, secondes);
+					}
+					catch (IllegalArgumentException | IllegalStateException ex)
+					{
+						// Capacité mal écrite, ressource oubliée ou insuffisante : le message le dit
+						JOptionPane.showMessageDialog(this, ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+					}
+					break;
+
+				case "Accélération du projet":
+					// Tâches raccourcies au moindre coût selon la colonne « Accélération » (« min/coût »), en arrière-plan
+					cibleTexte = JOptionPane.showInputDialog(this, "Durée du projet visée, en jours :",
+					                                         this.ctrl.getFin() == null ? "" : String.valueOf(Math.max(0, this.ctrl.getFin().getDateMin() - 1)));
+					if (cibleTexte == null || cibleTexte.isBlank()) break;
+
+					try
+					{
+						dureeCible = Integer.parseInt(cibleTexte.trim());
+					}
+					catch (NumberFormatException ex)
+					{
+						JOptionPane.showMessageDialog(this, "La durée visée doit être un nombre entier.", "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+					if (dureeCible < 0)
+					{
+						JOptionPane.showMessageDialog(this, "La durée visée ne peut pas être négative.", "Erreur", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+
+					try
+					{
+						this.ctrl.lancerAcceleration(dureeCible);
+					}
+					catch (IllegalArgumentException | IllegalStateException ex)
+					{
+						// Accélération mal écrite ou durée minimale trop longue : le message nomme la tâche
+						JOptionPane.showMessageDialog(this, ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+					}
+					break;
 			}
 		}
 
@@ -10,6 +10,7 @@ import java.awt.event.ItemListener;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JRadioButton;
 import mpm.Controleur;
 
@@ -49,8 +50,12 @@ public class PanelBouton extends JPanel implements ActionListener, ItemListener
 	private JRadioButton rbJour;
 	private JRadioButton rbDate;
 
+	private JProgressBar barreCalcul;
+	private JButton      btnAnnulerCalcul;
+
 	private JPanel panelBtn;
 	private JPanel panelRb;
+	private JPanel panelCalcul;
 
 	/**Constructeur de PanelBouton.
 	 * @param ctrl Permet de faire le lien avec Controleur et donc la class MPM.
@@ -71,6 +76,7 @@ public class PanelBouton extends JPanel implements ActionListener, ItemListener
 
 		this.panelBtn = new JPanel((new FlowLayout()));
 		this.panelRb = new JPanel((new FlowLayout()));
+		this.panelCalcul = new JPanel((new FlowLayout()));
 
 		this.btnDteDeb        = new JButton("Date + tot"     );
 		this.btnDteFin        = new JButton("Date + tard"    );
@@ -86,11 +92,17 @@ public class PanelBouton extends JPanel implements ActionListener, ItemListener
 		bg                   .add(this.rbJour);
 		bg                   .add(this.rbDate);
 
+		this.barreCalcul      = new JProgressBar(0, 100);
+		this.btnAnnulerCalcul = new JButton("Annuler le calcul");
+
+		this.barreCalcul     .setStringPainted( true );
+
 		/* ----------------------------- */
 		/* Positionnement des composants */
 		/* ----------------------------- */
 		this                 .add( this.panelBtn, BorderLayout.CENTER );
 		this                 .add( this.panelRb, BorderLayout.EAST    );
+		this                 .add( this.panelCalcul, BorderLayout.WEST);
 
 		this.panelBtn        .add( this.btnDteDeb        );
 		this.panelBtn        .add( this.btnDteFin        );
@@ -99,6 +111,10 @@ public class PanelBouton extends JPanel implements ActionListener, ItemListener
 		this.panelRb         .add(this.rbJour);
 		this.panelRb         .add(this.rbDate);
 
+		this.panelCalcul     .add(this.barreCalcul     );
+		this.panelCalcul     .add(this.btnAnnulerCalcul);
+		this.panelCalcul     .setVisible( false );
+
 		this.btnDteDeb       .setEnabled( false );
 		this.btnDteFin       .setEnabled( false );
 		this.btnCheminCrtique.setEnabled( false );
@@ -110,6 +126,7 @@ public class PanelBouton extends JPanel implements ActionListener, ItemListener
 		this.btnDteDeb       .addActionListener( this );
 		this.btnDteFin       .addActionListener( this );
 		this.btnCheminCrtique.addActionListener( this );
+		this.btnAnnulerCalcul.addActionListener( this );
 
 		this.rbJour          .addItemListener( this   );
 		this.rbDate          .addItemListener( this   );
@@ -158,18 +175,41 @@ public class PanelBouton extends JPanel implements ActionListener, ItemListener
 			}
 		}
 
+		if ( e.getSource() == this.btnAnnulerCalcul )
+			this.ctrl.annulerCalcul();
+
 		if ( e.getSource() == this.btnCheminCrtique ) 
 		{
+			// Le mode chemin critique est activé quand le calcul en arrière-plan est fini
 			this.ctrl            .afficherCheminCritiqueEtRafraichir();
 			this.ctrl            .sauvegarderEtatAvantModification();
 
-			this.ctrl            .getVue().getPanelGraphe().setModeCheminCritique( true  );
 			this.btnDteDeb       .setEnabled( false                                      );
 			this.btnDteFin       .setEnabled( false                                      );
 			this.btnCheminCrtique.setEnabled( false                                      );
 		}
 	}
 
+	/**Affiche l'avancement d'un calcul en arrière-plan, avec le bouton pour l'annuler.
+	 * @param etape       nom de l'étape en cours.
+	 * @param pourcentage avancement global, de 0 à 100.
+	 */
+	public void afficherCalcul(String etape, int pourcentage)
+	{
+		this.barreCalcul.setValue ( pourcentage );
+		this.barreCalcul.setString( etape       );
+		this.panelCalcul.setVisible( true );
+		this.revalidate();
+	}
+
+	/**Masque l'avancement une fois le calcul terminé ou annulé.
+	 */
+	public void masquerCalcul()
+	{
+		this.panelCalcul.setVisible( false );
+		this.revalidate();
+	}
+
 	public void itemStateChanged(ItemEvent e) 
 	{
 		if ( this.rbDate.isSelected() ) 
@@ -0,0 +1,482 @@
+package mpm.ihm;
+
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableRowSorter;
+import mpm.Controleur;
+import mpm.metier.EvenementModele;
+import mpm.metier.GrilleDonneesModel;
+import mpm.metier.IndexRecherche;
+import mpm.metier.Tache;
+
+/**
+ * La classe {@code PanelFiltre} représente la barre de recherche placée au-dessus de la grille des tâches.
+ * Elle filtre les lignes affichées sans jamais modifier le modèle : la JTable garde toutes les tâches,
+ * seul son {@link TableRowSorter} en masque une partie.
+ *
+ * Fonctionnalités principales :
+ *   Recherche d'un texte dans les noms, par l'index de recherche de la grille
+ *   Filtre sur un prédécesseur, par le même index
+ *   Filtre sur un intervalle de durée, un intervalle de marge et les seules tâches critiques
+ *
+ * Les lignes retenues sont calculées une fois par saisie (après une courte pause de frappe)
+ * dans un ensemble de bits ; le filtre de la table ne fait ensuite que lire ce bit.
+ * Durées et marges sont rangées par valeur croissante : un intervalle se lit par deux recherches
+ * dichotomiques. Ces tables sont reconstruites seulement quand la grille ou le planning changent.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class PanelFiltre extends JPanel implements ActionListener
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int DELAI_SAISIE = 120; // ms sans frappe avant d'appliquer le filtre
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Controleur                          ctrl;
+	private TableRowSorter<GrilleDonneesModel>  trieur;
+
+	private JTextField txtRecherche;
+	private JTextField txtPredecesseur;
+	private JTextField txtDureeMin;
+	private JTextField txtDureeMax;
+	private JTextField txtMargeMin;
+	private JTextField txtMargeMax;
+	private JCheckBox  cbCritiques;
+	private JButton    btnEffacer;
+	private JLabel     lblNombre;
+
+	private Timer      minuteur;
+
+	// lignes retenues par le dernier filtre appliqué (indices du modèle)
+	private BitSet     lignesRetenues;
+
+	// durées et marges rangées par valeur, null tant qu'elles ne sont pas à jour
+	private Tri        triDurees;
+	private Tri        triMarges;
+
+	/**Constructeur de PanelFiltre.
+	 * @param ctrl   Permet de faire le lien avec Controleur et donc la class MPM.
+	 * @param trieur Le trieur de la JTable, sur lequel le filtre est posé.
+	 */
+	public PanelFiltre(Controleur ctrl, TableRowSorter<GrilleDonneesModel> trieur)
+	{
+		JPanel panelTexte;
+		JPanel panelValeurs;
+
+		this.ctrl   = ctrl;
+		this.trieur = trieur;
+		this.setLayout(new GridLayout(2, 1));
+
+		/*-------------------------*/
+		/* Création des composants */
+		/*-------------------------*/
+
+		panelTexte   = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		panelValeurs = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+		this.txtRecherche    = new JTextField( 12 );
+		this.txtPredecesseur = new JTextField( 8  );
+		this.txtDureeMin     = new JTextField( 3  );
+		this.txtDureeMax     = new JTextField( 3  );
+		this.txtMargeMin     = new JTextField( 3  );
+		this.txtMargeMax     = new JTextField( 3  );
+		this.cbCritiques     = new JCheckBox ( "Critiques" );
+		this.btnEffacer      = new JButton   ( "Effacer"   );
+		this.lblNombre       = new JLabel    ( ""          );
+
+		this.minuteur = new Timer(DELAI_SAISIE, e -> this.appliquer());
+		this.minuteur.setRepeats(false);
+
+		/*-----------------------------------*/
+		/*   Positionnement des composants   */
+		/*-----------------------------------*/
+
+		panelTexte  .add( new JLabel("Rechercher : "   ) );
+		panelTexte  .add( this.txtRecherche              );
+		panelTexte  .add( new JLabel("Prédécesseur : " ) );
+		panelTexte  .add( this.txtPredecesseur           );
+		panelTexte  .add( this.cbCritiques               );
+
+		panelValeurs.add( new JLabel("Durée : "        ) );
+		panelValeurs.add( this.txtDureeMin               );
+		panelValeurs.add( new JLabel("à"               ) );
+		panelValeurs.add( this.txtDureeMax               );
+		panelValeurs.add( new JLabel("Marge : "        ) );
+		panelValeurs.add( this.txtMargeMin               );
+		panelValeurs.add( new JLabel("à"               ) );
+		panelValeurs.add( this.txtMargeMax               );
+		panelValeurs.add( this.btnEffacer                );
+		panelValeurs.add( this.lblNombre                 );
+
+		this.add(panelTexte  );
+		this.add(panelValeurs);
+
+		/*-------------------------------*/
+		/*   Activation des composants   */
+		/*-------------------------------*/
+
+		for (JTextField txt : new JTextField[] { this.txtRecherche, this.txtPredecesseur,
+		                                         this.txtDureeMin,  this.txtDureeMax,
+		                                         this.txtMargeMin,  this.txtMargeMax })
+			txt.getDocument().addDocumentListener(new SaisieListener());
+
+		this.cbCritiques.addActionListener(this);
+		this.btnEffacer .addActionListener(this);
+
+		this.ctrl.getGrilleDonneesModel().addTableModelListener(new GrilleListener());
+		this.ctrl.abonner(new AbonneFiltre());
+
+		this.activerMarges();
+		this.afficherNombre();
+	}
+
+	/**Active les filtres sur les marges, sauf pendant un calcul des dates niveau par niveau.
+	 */
+	private void activerMarges()
+	{
+		boolean actif = !this.ctrl.estPasAPas();
+
+		this.txtMargeMin.setEnabled(actif);
+		this.txtMargeMax.setEnabled(actif);
+		this.cbCritiques.setEnabled(actif);
+	}
+
+	/**Gère la case des tâches critiques et le bouton d'effacement.
+	 * @param e l'événement d'action déclenché.
+	 */
+	public void actionPerformed(ActionEvent e)
+	{
+		if (e.getSource() == this.btnEffacer)
+		{
+			for (JTextField txt : new JTextField[] { this.txtRecherche, this.txtPredecesseur,
+			                                         this.txtDureeMin,  this.txtDureeMax,
+			                                         this.txtMargeMin,  this.txtMargeMax })
+				txt.setText("");
+			this.cbCritiques.setSelected(false);
+		}
+
+		this.minuteur.restart();
+	}
+
+	/*------------------------------------------*/
+	/*    Application du filtre                 */
+	/*------------------------------------------*/
+
+	/**Calcule les lignes retenues et pose le filtre sur la table (aucun filtre si tous les champs sont vides).
+	 */
+	private void appliquer()
+	{
+		GrilleDonneesModel grille;
+		IndexRecherche     index;
+		BitSet             retenues;
+		String             texte, pred;
+		Integer            dureeMin, dureeMax, margeMin, margeMax;
+		boolean            critiques;
+
+		this.activerMarges();
+
+		grille    = this.ctrl.getGrilleDonneesModel();
+		texte     = this.txtRecherche   .getText().trim();
+		pred      = this.txtPredecesseur.getText().trim();
+		dureeMin  = PanelFiltre.lireEntier(this.txtDureeMin);
+		dureeMax  = PanelFiltre.lireEntier(this.txtDureeMax);
+		margeMin  = PanelFiltre.lireEntier(this.txtMargeMin);
+		margeMax  = PanelFiltre.lireEntier(this.txtMargeMax);
+		critiques = this.cbCritiques.isSelected();
+
+		if (texte.isEmpty() && pred.isEmpty() && dureeMin == null && dureeMax == null
+		                    && margeMin == null && margeMax == null && !critiques)
+		{
+			this.lignesRetenues = null;
+			this.trieur.setRowFilter(null);
+			this.afficherNombre();
+			return;
+		}
+
+		retenues = null;
+		index    = grille.getIndexRecherche();
+
+		if (!texte.isEmpty())
+			retenues = PanelFiltre.restreindre(retenues, this.lignes(index.chercherNom(texte)));
+
+		if (!pred.isEmpty())
+			retenues = PanelFiltre.restreindre(retenues, this.lignes(index.chercherSuccesseurs(pred)));
+
+		if (dureeMin != null || dureeMax != null)
+			retenues = PanelFiltre.restreindre(retenues, this.getTriDurees().entre(dureeMin, dureeMax));
+
+		// Pendant un calcul niveau par niveau les marges n'existent pas encore : leurs filtres attendent
+		if (this.ctrl.estPasAPas())
+		{
+			margeMin  = null;
+			margeMax  = null;
+			critiques = false;
+		}
+
+		// Une tâche critique est une tâche sans marge
+		if (critiques)
+		{
+			margeMin = margeMin == null ? 0 : Math.max(margeMin, 0);
+			margeMax = margeMax == null ? 0 : Math.min(margeMax, 0);
+		}
+
+		if (margeMin != null || margeMax != null)
+			retenues = PanelFiltre.restreindre(retenues, this.getTriMarges().entre(margeMin, margeMax));
+
+		this.lignesRetenues = retenues;
+		this.trieur.setRowFilter(new FiltreLignes(retenues));
+		this.afficherNombre();
+	}
+
+	/**Convertit des noms de tâches en lignes de la grille.
+	 */
+	private BitSet lignes(Iterable<String> noms)
+	{
+		BitSet bits;
+		int    ligne;
+
+		bits = new BitSet();
+		for (String nom : noms)
+		{
+			ligne = this.ctrl.getGrilleDonneesModel().getLigne(nom);
+			if (ligne != -1)
+				bits.set(ligne);
+		}
+		return bits;
+	}
+
+	/**Garde les seules lignes présentes dans les deux ensembles ; null veut dire « toutes ».
+	 */
+	private static BitSet restreindre(BitSet retenues, BitSet bits)
+	{
+		if (retenues == null) return bits;
+		retenues.and(bits);
+		return retenues;
+	}
+
+	/**Lit un champ numérique : null s'il est vide ou invalide (le champ passe alors en rouge).
+	 */
+	private static Integer lireEntier(JTextField txt)
+	{
+		String texte = txt.getText().trim();
+
+		txt.setForeground(Color.BLACK);
+		if (texte.isEmpty()) return null;
+
+		try
+		{
+			return Integer.parseInt(texte);
+		}
+		catch (NumberFormatException ex)
+		{
+			txt.setForeground(Color.RED);
+			return null;
+		}
+	}
+
+	/**Met à jour le nombre de tâches affichées.
+	 */
+	private void afficherNombre()
+	{
+		this.lblNombre.setText(this.trieur.getViewRowCount() + " / " + this.trieur.getModelRowCount() + " tâches");
+	}
+
+	/*------------------------------------------*/
+	/*    Tables de valeurs                     */
+	/*------------------------------------------*/
+
+	/**Récupère les durées de la grille rangées par valeur, reconstruites si la grille a changé.
+	 */
+	private Tri getTriDurees()
+	{
+		GrilleDonneesModel grille;
+		int[]              valeurs;
+
+		if (this.triDurees == null)
+		{
+			grille  = this.ctrl.getGrilleDonneesModel();
+			valeurs = new int[grille.getRowCount()];
+			for (int i = 0; i < valeurs.length; i++)
+			{
+				try
+				{
+					valeurs[i] = Integer.parseInt(String.valueOf(grille.getValueAt(i, 1)).trim());
+				}
+				catch (NumberFormatException ex)
+				{
+					valeurs[i] = Integer.MIN_VALUE; // jamais retenue par un intervalle saisi
+				}
+			}
+			this.triDurees = new Tri(valeurs);
+		}
+		return this.triDurees;
+	}
+
+	/**Récupère les marges du projet rangées par valeur, reconstruites si le planning a changé.
+	 * Les marges sont calculées au besoin ; jamais pendant un calcul niveau par niveau.
+	 */
+	private Tri getTriMarges()
+	{
+		GrilleDonneesModel grille;
+		int[]              valeurs;
+		int                ligne;
+
+		if (this.triMarges == null)
+		{
+			this.ctrl.assurerMarges();
+
+			grille  = this.ctrl.getGrilleDonneesModel();
+			valeurs = new int[grille.getRowCount()];
+			Arrays.fill(valeurs, Integer.MIN_VALUE);
+			for (Tache t : this.ctrl.getTaches())
+			{
+				ligne = grille.getLigne(t.getNom());
+				if (ligne != -1)
+					valeurs[ligne] = t.getMarge();
+			}
+			this.triMarges = new Tri(valeurs);
+		}
+		return this.triMarges;
+	}
+
+	/**La classe {@code Tri} range les lignes par valeur croissante pour lire un intervalle
+	 * par recherche dichotomique plutôt que par un parcours de toute la grille.
+	 */
+	private static class Tri
+	{
+		private int[] valeurs; // triées
+		private int[] lignes;  // ligne de chaque valeur
+
+		private Tri(int[] parLigne)
+		{
+			long[] paires;
+
+			// valeur et ligne dans un seul long, pour trier les deux ensemble
+			paires = new long[parLigne.length];
+			for (int i = 0; i < parLigne.length; i++)
+				paires[i] = ((long) parLigne[i] << 32) | i;
+			Arrays.sort(paires);
+
+			this.valeurs = new int[paires.length];
+			this.lignes  = new int[paires.length];
+			for (int i = 0; i < paires.length; i++)
+			{
+				this.valeurs[i] = (int) (paires[i] >> 32);
+				this.lignes [i] = (int)  paires[i];
+			}
+		}
+
+		/**Lignes dont la valeur est dans [min, max] ; une borne null n'est pas limitée.
+		 */
+		private BitSet entre(Integer min, Integer max)
+		{
+			BitSet bits;
+			int    debut, fin;
+
+			bits  = new BitSet(this.lignes.length);
+			debut = this.premierSupOuEgal(min == null ? Integer.MIN_VALUE + 1 : min);
+			fin   = max == null ? this.valeurs.length
+			                    : (max == Integer.MAX_VALUE ? this.valeurs.length : this.premierSupOuEgal(max + 1));
+			for (int i = debut; i < fin; i++)
+				bits.set(this.lignes[i]);
+			return bits;
+		}
+
+		private int premierSupOuEgal(int valeur)
+		{
+			int bas, haut, milieu;
+
+			bas  = 0;
+			haut = this.valeurs.length;
+			while (bas < haut)
+			{
+				milieu = (bas + haut) >>> 1;
+				if (this.valeurs[milieu] < valeur) bas  = milieu + 1;
+				else                               haut = milieu;
+			}
+			return bas;
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Écouteurs                             */
+	/*------------------------------------------*/
+
+	/**La classe {@code FiltreLignes} ne retient que les lignes calculées par {@link #appliquer()}.
+	 */
+	private static class FiltreLignes extends RowFilter<GrilleDonneesModel, Integer>
+	{
+		private final BitSet retenues;
+
+		private FiltreLignes(BitSet retenues) { this.retenues = retenues; }
+
+		public boolean include(Entry<? extends GrilleDonneesModel, ? extends Integer> entree)
+		{
+			return this.retenues.get(entree.getIdentifier());
+		}
+	}
+
+	/**La classe {@code SaisieListener} relance le filtre après une pause de frappe.
+	 */
+	private class SaisieListener implements DocumentListener
+	{
+		public void insertUpdate (DocumentEvent e) { minuteur.restart(); }
+		public void removeUpdate (DocumentEvent e) { minuteur.restart(); }
+		public void changedUpdate(DocumentEvent e) { minuteur.restart(); }
+	}
+
+	/**La classe {@code GrilleListener} suit les changements de la grille : les lignes retenues
+	 * sont décalées par un ajout ou une suppression, et les durées peuvent avoir changé.
+	 */
+	private class GrilleListener implements TableModelListener
+	{
+		public void tableChanged(TableModelEvent e)
+		{
+			if (e.getType() != TableModelEvent.UPDATE || e.getColumn() == TableModelEvent.ALL_COLUMNS || e.getColumn() == 1)
+				triDurees = null;
+			if (e.getType() != TableModelEvent.UPDATE || e.getLastRow() == Integer.MAX_VALUE)
+				triMarges = null;
+
+			// La table met son trieur à jour après cet écouteur : le nombre est relu ensuite
+			if (lignesRetenues != null) minuteur.restart();
+			else                        SwingUtilities.invokeLater(PanelFiltre.this::afficherNombre);
+		}
+	}
+
+	/**La classe {@code AbonneFiltre} oublie les marges quand le planning est recalculé, et
+	 * active leurs filtres selon que les dates sont calculées niveau par niveau ou non.
+	 */
+	private class AbonneFiltre extends AbonneModele
+	{
+		protected void traiter(List<EvenementModele> lot)
+		{
+			triMarges = null;
+			activerMarges();
+			if (lignesRetenues != null) minuteur.restart();
+		}
+	}
+}
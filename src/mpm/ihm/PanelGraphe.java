@@ -1,21 +1,29 @@
 package mpm.ihm;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
+import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.swing.*;
 import mpm.Controleur;
+import mpm.metier.EvenementModele;
+import mpm.metier.GrilleDonneesModel;
 import mpm.metier.Tache;
-import mpm.metier.figure.Rectangle;
+import mpm.metier.disposition.Disposition;
+import mpm.metier.disposition.DispositionForces;
+import mpm.metier.disposition.DispositionHierarchique;
 
 /**
  * Classe PanelGraphe.
@@ -23,6 +31,8 @@ import mpm.metier.figure.Rectangle;
  */
 public class PanelGraphe extends JPanel 
 {
+	// Au-delà de ce nombre de nœuds changés d'un coup, on périme toutes les tuiles plutôt que zone par zone
+	private static final int SEUIL_MISE_A_JOUR_LOCALE = 256;
 
 	/*------------------*/
 	/* Attributs */
@@ -41,6 +51,22 @@ public class PanelGraphe extends JPanel
 
 	private boolean modeAffichageDateReelle;
 
+	private SceneGraphe scene;
+	private CacheTuiles cacheTuiles;
+
+	private int   niveauZoom;
+	private Point pointPan;
+
+	private BufferedImage calque;
+	private Rectangle     zoneCalque;
+	private Rectangle     zoneDepart;
+	private int           niveauCalque;
+
+	private TravailDisposition  travailDisposition;
+	private Map<String, Double> ordreDisposition;
+
+	private long epoqueScene;
+
 	/**
 	 * Constructeur de PanelGraphe.
 	 * 
@@ -55,6 +81,9 @@ public class PanelGraphe extends JPanel
 
 		this.modeAffichageDateReelle = false;
 
+		this.cacheTuiles = new CacheTuiles(this);
+		this.niveauZoom  = 0;
+
 		this.popupTache = new JPopupMenu();
 		this.popupTache.setEnabled( false );
 		this.popupTache.setBackground(this.getBackground());
@@ -68,42 +97,16 @@ public class PanelGraphe extends JPanel
 		gereSouris = new GereSouris();
 		this.addMouseListener(gereSouris);
 		this.addMouseMotionListener(gereSouris);
+		this.addMouseWheelListener(gereSouris);
 		this.addMouseMotionListener(new GereSurvolTache());
+
+		this.ctrl.abonner(new AbonneGraphe());
 	}
 
 	/*-----------------*/
 	/* Accesseurs      */
 	/*-----------------*/
 
-	/**
-	 * Méthodes qui récupère les arcs qui font partie du chemin critique pour les
-	 * colorier.
-	 * 
-	 * @return Retroune une liste de nom d'arcs comme suivant : <br>
-	 *         "nom de l'arc -> nom de l'arc+1".
-	 */
-	private List<String> getArcsCritiques() 
-	{
-		List<String> arcsCritiques;
-		List<List<Tache>> chemins;
-		Tache t1, t2;
-
-		arcsCritiques = new ArrayList<>();
-
-		chemins = ctrl.calculerCheminCritique();
-
-		for (List<Tache> chemin : chemins) 
-		{
-			for (int i = 0; i < chemin.size() - 1; i++) 
-			{
-				t1 = chemin.get(i);
-				t2 = chemin.get(i + 1);
-				arcsCritiques.add(t1.getNom() + "->" + t2.getNom());
-			}
-		}
-		return arcsCritiques;
-	}
-
 	public Map<Tache, Point> getMap() 
 	{
 		return this.mapTachePos;
@@ -123,6 +126,7 @@ public class PanelGraphe extends JPanel
 	public void setModeCheminCritique(boolean actif) 
 	{
 		this.modeCheminCritique = actif;
+		this.construireScene();
 		repaint();
 	}
 
@@ -143,6 +147,7 @@ public class PanelGraphe extends JPanel
 				break;
 			}
 		}
+		this.construireScene();
 		this.repaint();
 	}
 
@@ -154,294 +159,353 @@ public class PanelGraphe extends JPanel
 	public void setModeAffichageDateReelle(boolean b) 
 	{
 		this.modeAffichageDateReelle = b;
+		this.construireScene();
 		this.repaint(); // Ajout pour forcer la mise à jour immédiate
 	}
 
 	/**
-	 * Sert à recalculer les positions des tâches en fonction de leur niveau.
+	 * Sert à recalculer les positions des tâches à partir des colonnes x / y de la grille.
+	 * Les tâches sans coordonnées sont d'abord mises sur leur couche, puis placées
+	 * par la disposition automatique, calculée en arrière-plan.
 	 */
 	public void recalculerPositions() 
 	{
-		Map<Integer, List<Tache>> tachesParNiveau;
-
-		int niveauMax;
-		int x, y;
+		GrilleDonneesModel model;
+		Set<String>        aPlacer;
 
+		int   niveau, ligne, xMax;
+		int   x, y;
 		Tache debut, fin;
 
-		String nom;
-		String xStr, yStr;
-
-		tachesParNiveau = new HashMap<>();
-
-		niveauMax = 1;
+		model   = this.ctrl.getGrilleDonneesModel();
+		aPlacer = new HashSet<>();
 
 		debut = null;
-		fin = null;
-
-		xStr = null;
-		yStr = null;
+		fin   = null;
+		xMax  = 50;
 
 		this.mapTachePos.clear();
+		this.epoqueScene = this.ctrl.getEpoqueStructure();
 
 		for (Tache t : this.ctrl.getTaches()) 
 		{
-			if (t.getNom().equals("Début"))
+			if (t == this.ctrl.getDebut())
+			{
 				debut = t;
-			else if (t.getNom().equals("Fin"))
+				continue;
+			}
+			if (t == this.ctrl.getFin())
+			{
 				fin = t;
-			else 
+				continue;
+			}
+
+			// Ligne de la tâche dans le modèle, retrouvée par l'index des noms
+			niveau = t.getNiveauTache();
+			ligne  = model.getLigne(t.getNom());
+
+			try 
+			{
+				x = Integer.parseInt(String.valueOf(model.getValueAt(ligne, 3)).trim());
+				y = Integer.parseInt(String.valueOf(model.getValueAt(ligne, 4)).trim());
+			} 
+			catch (Exception e) 
 			{
-				int niveau = t.getNiveauTache();
-				niveauMax = Math.max(niveauMax, niveau);
-				tachesParNiveau.computeIfAbsent(niveau, k -> new ArrayList<>()).add(t);
+				x = DispositionHierarchique.MARGE + (niveau - 1) * DispositionHierarchique.ESPACEMENT_X;
+				y = DispositionHierarchique.MARGE;
+				aPlacer.add(t.getNom());
 			}
+
+			xMax = Math.max(xMax, x);
+			this.mapTachePos.put(t, new Point(x, y));
 		}
 
-		// Place "Début" tout à gauche
+		// "Début" tout à gauche et "Fin" tout à droite, à hauteur de leurs voisines
 		if (debut != null)
-			mapTachePos.put(debut, new Point(50, 50));
+			this.mapTachePos.put(debut, new Point(50, this.hauteurMoyenne(debut.getSuccesseurs())));
+		if (fin != null)
+			this.mapTachePos.put(fin, new Point(xMax + DispositionHierarchique.ESPACEMENT_X, this.hauteurMoyenne(fin.getPredecesseurs())));
 
-		// Place les autres tâches par niveau, mais utilise x / y du modèle
-		for (int niveau = 1; niveau <= niveauMax; niveau++) 
-		{
-			List<Tache> tachesNiveau = tachesParNiveau.get(niveau);
-			if (tachesNiveau == null)
-				continue;
+		this.construireScene();
 
-			for (Tache t : tachesNiveau) 
-			{
-				// Cherche la ligne correspondante dans le modèle pour récupérer x / y
-				nom = t.getNom();
-				for (int i = 0; i < ctrl.getGrilleDonneesModel().getRowCount(); i++) {
-					if (nom.equals(ctrl.getGrilleDonneesModel().getValueAt(i, 0))) {
-						xStr = String.valueOf(ctrl.getGrilleDonneesModel().getValueAt(i, 3));
-						yStr = String.valueOf(ctrl.getGrilleDonneesModel().getValueAt(i, 4));
-						break;
-					}
-				}
+		if (!aPlacer.isEmpty())
+			this.lancerDisposition(aPlacer);
+	}
 
-				try 
-				{
-					x = (xStr != null && !xStr.isBlank()) ? Integer.parseInt(xStr) : 50 + niveau * 180;
-				} 
-				catch (Exception e) 
-				{
-					x = 50 + niveau * 180;
-				}
+	/**
+	 * Sert à rafraîchir le graphe : les positions ne sont recalculées que si les tâches
+	 * ont été remplacées ; les autres changements arrivent par le flux d'événements.
+	 */
+	public void rafraichir() 
+	{
+		if (this.ctrl.getEpoqueStructure() != this.epoqueScene)
+			this.recalculerPositions();
+		this.repaint();
+	}
 
-				try 
-				{
-					y = (yStr != null && !yStr.isBlank()) ? Integer.parseInt(yStr) : 50;
-				} 
-				catch (Exception e) 
-				{
-					y = 50;
-				}
-				mapTachePos.put(t, new Point(x, y));
-			}
+	private int hauteurMoyenne(List<Tache> voisines) 
+	{
+		long somme;
+		int  nb;
+
+		somme = 0;
+		nb    = 0;
+		for (Tache t : voisines) 
+		{
+			Point p = this.mapTachePos.get(t);
+			if (p == null) continue;
+			somme += p.y;
+			nb++;
 		}
+		return nb == 0 ? 50 : (int) (somme / nb);
+	}
 
-		// Place "Fin" tout à droite
-		if (fin != null)
-			mapTachePos.put(fin, new Point(50 + (niveauMax + 1) * 180, 50));
+	/**
+	 * Lance la disposition automatique de toutes les tâches, en couches, en arrière-plan.
+	 * Une disposition déjà en cours est annulée.
+	 */
+	public void lancerDisposition() 
+	{
+		this.lancerDisposition(null);
+	}
 
+	/**
+	 * Lance la disposition libre (par forces) de toutes les tâches, en arrière-plan,
+	 * en partant des positions affichées. Une disposition déjà en cours est annulée.
+	 */
+	public void lancerDispositionForces() 
+	{
+		this.lancerDisposition(new DispositionForces(this.ctrl.getTaches(), this.mapTachePos), null);
 	}
 
 	/**
-	 * Sert à dessiner ou redessine le graphe entré en paramètre.
-	 * Affiche les carrés, les flèches, les noms des tâches ainsi que leur durée.
+	 * Lance la disposition en couches en arrière-plan. Le graphe est photographié ici, sur l'EDT ;
+	 * l'ordre des couches du calcul précédent est repris, si bien qu'une tâche ajoutée
+	 * ne bouleverse pas le reste du dessin.
 	 * 
-	 * @param g Graphe de type Graphics sur lequel nous allons dessiner.
+	 * @param aPlacer noms des tâches dont la position doit changer, ou null pour toutes.
 	 */
-	public void paintComponent(Graphics g) 
+	private void lancerDisposition(Set<String> aPlacer) 
 	{
-		super.paintComponent(g);
-
-		/*-------------------------------*/
-		/* Variables */
-		/*-------------------------------*/
-
-		Graphics2D g2;
-		FontMetrics fm, fmDate, fmValeur;
+		// Même demande déjà en cours : inutile de repartir de zéro
+		if (aPlacer != null && this.travailDisposition != null && !this.travailDisposition.isDone()
+		    && aPlacer.equals(this.travailDisposition.aPlacer))
+			return;
 
-		String tot, tard;
-		String nom;
-		String totDate, tardDate;
-		String arcKey;
-		String duree;
+		this.lancerDisposition(new DispositionHierarchique(this.ctrl.getTaches(), this.ordreDisposition), aPlacer);
+	}
 
-		int xTexte, yTexte;
-		int largeurNom, largeurDate, largeurTexte;
-		int x, y;
-		int largeur, hauteur;
-		int hauteurTitre, hauteurValeurs;
-		int largeurCase, yValeurs, yValeur;
-		int xTot;
-		int xStart, yStart;
-		int xEnd, yEnd;
-		int xMilieu, yMilieu;
+	private void lancerDisposition(Disposition disposition, Set<String> aPlacer) 
+	{
+		if (this.travailDisposition != null && !this.travailDisposition.isDone())
+			this.travailDisposition.cancel(false);
 
-		Point point, point1, point2;
-		Integer largeur1, largeur2;
+		this.travailDisposition = new TravailDisposition(disposition, aPlacer);
+		this.travailDisposition.execute();
+	}
 
-		List<String> arcsCritiques;
+	/**
+	 * Reporte une disposition (intermédiaire ou finale) sur les positions affichées.
+	 * Les tâches sont retrouvées par leur nom : la liste a pu être rechargée entre-temps.
+	 * 
+	 * @return les positions appliquées, par nom de tâche.
+	 */
+	private Map<String, Point> appliquerDisposition(Disposition disposition, int[] tabX, int[] tabY, Set<String> aPlacer) 
+	{
+		Map<String, Tache> parNom;
+		Map<String, Point> positions;
+		Tache              t;
+		String             nom;
 
-		g2 = (Graphics2D) g;
+		parNom = new HashMap<>();
+		for (Tache tache : this.ctrl.getTaches())
+			parNom.put(tache.getNom(), tache);
 
-		// calcul des largeurs des rectangles
-		Map<Tache, Integer> largeurRectangles = new HashMap<>();
-		for (Tache tache : this.ctrl.getTaches()) 
+		positions = new HashMap<>();
+		for (int i = 0; i < disposition.getNbTaches(); i++) 
 		{
-			fm = g.getFontMetrics();
-			largeurNom = fm.stringWidth(tache.getNom());
-			largeurDate = 0;
+			nom = disposition.getTache(i).getNom();
+			if (aPlacer != null && !aPlacer.contains(nom)) continue;
 
-			if (modeAffichageDateReelle) 
-			{
-				totDate = (tache.getDateMin() != -1) ? tache.formatDateFr(tache.getDateMin()) : "";
-				tardDate = (tache.getDateMax() != -1) ? tache.formatDateFr(tache.getDateMax()) : "";
-				fmDate = g.getFontMetrics(new Font("Serif", Font.PLAIN, 14));
-				largeurDate = Math.max(fmDate.stringWidth(totDate), fmDate.stringWidth(tardDate));
-			}
-			largeur = Math.max(80, Math.max(largeurNom, largeurDate * 2) + 40);
-			largeurRectangles.put(tache, largeur);
+			t = parNom.get(nom);
+			if (t == null || t == this.tacheSelectionnee) continue;
+
+			this.mapTachePos.put(t, new Point(tabX[i], tabY[i]));
+			positions.put(nom, new Point(tabX[i], tabY[i]));
 		}
 
-		// Dessin des tâches (nœuds)
-		for (Tache tache : this.ctrl.getTaches()) 
-		{
-			point = mapTachePos.get(tache);
-			if (point == null)
-				continue; // Sécurité
+		this.construireScene();
+		this.repaint();
+		return positions;
+	}
 
-			fm = g2.getFontMetrics();
-			largeurNom = fm.stringWidth(tache.getNom());
+	/**
+	 * Reconstruit la scène à dessiner (largeurs, textes, arcs et index spatiaux)
+	 * puis ajuste la taille du panel aux bornes du graphe.
+	 */
+	private void construireScene() 
+	{
+		long[] arcsCritiques;
 
-			largeurDate = 0;
-			if (modeAffichageDateReelle) 
-			{
-				totDate = (tache.getDateMin() != -1) ? tache.formatDateFr(tache.getDateMin()) : "";
-				tardDate = (tache.getDateMax() != -1) ? tache.formatDateFr(tache.getDateMax()) : "";
+		// Arcs critiques partagés avec les autres vues : pas de nouveau calcul dans la même époque
+		arcsCritiques = this.modeCheminCritique ? this.ctrl.getArcsCritiques() : null;
 
-				fmDate = g2.getFontMetrics(new Font("Serif", Font.PLAIN, 14));
+		this.scene = new SceneGraphe(this.ctrl.getTaches(), this.mapTachePos, this.modeAffichageDateReelle,
+		                             this.ctrl::formaterDate, arcsCritiques, this);
+		this.cacheTuiles.setScene(this.scene, this.modeCheminCritique);
+		this.revalidate();
+	}
 
-				largeurDate = Math.max(fmDate.stringWidth(totDate), fmDate.stringWidth(tardDate));
-			}
+	/**
+	 * Retourne le facteur d'agrandissement courant.
+	 * 
+	 * @return l'échelle de dessin.
+	 */
+	public double getEchelle() 
+	{
+		return CacheTuiles.echelle(this.niveauZoom);
+	}
 
-			x = point.x;
-			y = point.y;
+	/**
+	 * Change le niveau de zoom en gardant fixe le point du graphe situé sous la souris.
+	 * 
+	 * @param niveau  nouveau niveau de zoom.
+	 * @param ancrage point du panel qui doit rester sous la souris.
+	 */
+	public void zoomer(int niveau, Point ancrage) 
+	{
+		JViewport vue;
+		Point     position;
+		double    rapport;
 
-			// Largeur adaptative : max entre nom et date, fois 2 pour les deux cases, plus
-			// un peu de marge
-			largeur = Math.max(80, Math.max(largeurNom, largeurDate * 2) + 40);
-			hauteur = 80;
-			hauteurTitre = 25;
-			hauteurValeurs = hauteur - hauteurTitre;
-			largeurCase = largeur / 2;
-			yValeurs = y + hauteurTitre;
+		niveau = Math.max(-30, Math.min(15, niveau));
+		if (niveau == this.niveauZoom)
+			return;
 
-			if (modeAffichageDateReelle) 
-			{
-				tot = (tache.getDateMin() != -1) ? tache.formatDateFr(tache.getDateMin()) : "";
-				tard = (tache.getDateMax() != -1) ? tache.formatDateFr(tache.getDateMax()) : "";
-			} 
-			else 
-			{
-				tot = (tache.getDateMin() != -1) ? String.valueOf(tache.getDateMin()) : "";
-				tard = (tache.getDateMax() != -1) ? String.valueOf(tache.getDateMax()) : "";
-			}
+		rapport = CacheTuiles.echelle(niveau) / this.getEchelle();
+		this.niveauZoom = niveau;
+		this.revalidate();
 
-			// Rectangle principal
-			g2.setColor(Color.BLACK);
-			g2.setStroke(new BasicStroke(2.0f));
-			g2.drawRect(x, y, largeur, hauteur);
-			g2.drawLine(x, y + hauteurTitre, x + largeur, y + hauteurTitre);
-
-			// Texte du nom, centré
-			fm = g2.getFontMetrics();
-			nom = tache.getNom();
-			xTexte = x + (largeur - fm.stringWidth(nom)) / 2;
-			yTexte = y + (hauteurTitre + fm.getAscent()) / 2 - 2;
-			g2.setFont(new Font("Arial", Font.BOLD, 16));
-			g2.setColor(Color.BLACK);
-			g2.drawString(nom, xTexte, yTexte);
+		if (this.getParent() instanceof JViewport) 
+		{
+			vue = (JViewport) this.getParent();
+			position = vue.getViewPosition();
+			position.translate((int) Math.round(ancrage.x * rapport) - ancrage.x,
+			                   (int) Math.round(ancrage.y * rapport) - ancrage.y);
+			vue.validate();
+			vue.setViewPosition(new Point(Math.max(0, position.x), Math.max(0, position.y)));
+		}
+		this.repaint();
+	}
 
-			// Sous-rectangles pour les deux valeurs
-			g2.drawRect(x, yValeurs, largeurCase, hauteurValeurs);
-			g2.drawRect(x + largeurCase, yValeurs, largeurCase, hauteurValeurs);
+	/**
+	 * Dessine une fois, dans une image hors écran, tout ce qui est visible sauf le nœud déplacé
+	 * et ses arcs. Pendant le glissement, chaque image se contente de recopier ce calque puis
+	 * de dessiner le nœud et ses arcs.
+	 * 
+	 * @param i indice dans la scène du nœud qui va bouger.
+	 */
+	private void preparerCalque(int i) 
+	{
+		GraphicsConfiguration gc;
+		Graphics2D            g2;
+		Rectangle             zoneScene;
+		double                echelle;
 
-			g2.drawRect(x, yValeurs, largeurCase, hauteurValeurs);
-			g2.drawRect(x + largeurCase, yValeurs, largeurCase, hauteurValeurs);
+		this.zoneCalque = this.getVisibleRect();
+		if (this.zoneCalque.isEmpty())
+		{
+			this.calque = null;
+			return;
+		}
 
-			// === AJOUT : Affichage des dates au plus tôt et au plus tard ===
-			g2.setFont(new Font("Arial", Font.BOLD, 14));
-			g2.setColor(Color.BLACK);
+		echelle   = this.getEchelle();
+		zoneScene = new Rectangle((int) Math.floor(this.zoneCalque.x / echelle), (int) Math.floor(this.zoneCalque.y / echelle),
+		                          (int) Math.ceil(this.zoneCalque.width / echelle) + 1, (int) Math.ceil(this.zoneCalque.height / echelle) + 1);
 
-			// Centrage vertical dans la case
-			fmValeur = g2.getFontMetrics();
-			yValeur = yValeurs + (hauteurValeurs + fmValeur.getAscent()) / 2 - 2;
+		gc = this.getGraphicsConfiguration();
+		this.calque = (gc != null) ? gc.createCompatibleImage(this.zoneCalque.width, this.zoneCalque.height)
+		                           : new BufferedImage(this.zoneCalque.width, this.zoneCalque.height, BufferedImage.TYPE_INT_RGB);
 
-			// Au plus tôt (gauche)
-			xTot = x + (largeurCase - fmValeur.stringWidth(tot)) / 2;
-			g2.setColor(Color.BLUE);
-			g2.drawString(tot, xTot, yValeur);
+		g2 = this.calque.createGraphics();
+		g2.setColor(this.getBackground());
+		g2.fillRect(0, 0, this.zoneCalque.width, this.zoneCalque.height);
+		g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g2.translate(-this.zoneCalque.x, -this.zoneCalque.y);
+		g2.scale(echelle, echelle);
 
-			// Au plus tard (droite)
-			int xTard = x + largeurCase + (largeurCase - fmValeur.stringWidth(tard)) / 2;
-			g2.setColor(Color.RED);
-			g2.drawString(tard, xTard, yValeur);
+		this.niveauCalque = this.scene.choisirNiveau(echelle);
+		this.scene.dessiner(g2, zoneScene, this.niveauCalque, echelle, this.getBackground(), this.modeCheminCritique, i);
+		g2.dispose();
+	}
 
-			g2.setColor(Color.WHITE);
+	/**
+	 * Convertit une zone de la scène en zone du panel, selon le zoom courant.
+	 */
+	private Rectangle versPanel(Rectangle zoneScene) 
+	{
+		double echelle = this.getEchelle();
+		return new Rectangle((int) Math.floor(zoneScene.x * echelle), (int) Math.floor(zoneScene.y * echelle),
+		                     (int) Math.ceil(zoneScene.width * echelle) + 2, (int) Math.ceil(zoneScene.height * echelle) + 2);
+	}
 
-		}
+	/**
+	 * Retourne la taille préférée du panel : celle des bornes du graphe.
+	 * 
+	 * @return la dimension qui englobe toutes les tâches.
+	 */
+	public Dimension getPreferredSize() 
+	{
+		if (this.scene == null)
+			return super.getPreferredSize();
 
-		// Dessin des arcs (dépendances)
-		arcsCritiques = getArcsCritiques();
+		return this.versPanel(this.scene.getBornes()).getSize();
+	}
 
-		for (Tache tache : this.ctrl.getTaches()) 
-		{
-			point1 = mapTachePos.get(tache);
-			largeur1 = largeurRectangles.get(tache);
+	/**
+	 * Sert à dessiner ou redessine le graphe entré en paramètre.
+	 * Le graphe est recopié depuis le cache de tuiles ; seules les tuiles qui coupent
+	 * la zone de découpage sont dessinées (et rendues en arrière-plan si besoin).
+	 * 
+	 * @param g Graphe de type Graphics sur lequel nous allons dessiner.
+	 */
+	public void paintComponent(Graphics g) 
+	{
+		super.paintComponent(g);
 
-			for (Tache successeur : tache.getSuccesseurs()) 
-			{
-				point2 = mapTachePos.get(successeur);
-				largeur2 = largeurRectangles.get(successeur);
+		/*-------------------------------*/
+		/* Variables */
+		/*-------------------------------*/
 
-				if (point1 != null && point2 != null && largeur1 != null && largeur2 != null) 
-				{
-					arcKey = tache.getNom() + "->" + successeur.getNom();
-
-					if (modeCheminCritique && arcsCritiques.contains(arcKey))
-						g2.setColor(Color.RED);
-					else
-						g2.setColor(Color.BLUE);
-
-					// Départ : bord droit du rectangle source
-					xStart = point1.x + largeur1;
-					yStart = point1.y + 40;
-					// Arrivée : bord gauche du rectangle destination
-					xEnd = point2.x;
-					yEnd = point2.y + 40;
-
-					dessineFleche(g2, xStart, yStart, xEnd, yEnd);
-
-					// Affichage de la durée au milieu de l'arc
-					xMilieu = (xStart + xEnd) / 2;
-					yMilieu = (yStart + yEnd) / 2;
-
-					duree = "" + tache.getDuree();
-					fm = g2.getFontMetrics();
-					largeurTexte = fm.stringWidth(duree);
-
-					g2.setColor(this.getBackground());
-					g2.fillRect(xMilieu - largeurTexte / 2, yMilieu - 10, largeurTexte + 4, largeurTexte + 4);
-					g2.setColor(Color.BLACK);
-					g2.drawString(duree, xMilieu - largeurTexte / 2, yMilieu);
-				}
-			}
+		Graphics2D g2, gs;
+		Rectangle  zone;
+		int        i;
+
+		if (this.scene == null)
+			return;
+
+		g2   = (Graphics2D) g;
+		zone = g2.getClipBounds();
+		if (zone == null)
+			zone = this.getVisibleRect();
+
+		if (this.calque != null && this.tacheSelectionnee != null) 
+		{
+			// Glissement en cours : calque statique + nœud déplacé et ses arcs
+			i = this.scene.getIndice(this.tacheSelectionnee);
+			if (!this.zoneCalque.equals(this.getVisibleRect()))
+				this.preparerCalque(i);
+
+			g2.drawImage(this.calque, this.zoneCalque.x, this.zoneCalque.y, null);
+
+			gs = (Graphics2D) g2.create();
+			gs.scale(this.getEchelle(), this.getEchelle());
+			this.scene.dessinerNoeudEtArcs(gs, i, this.niveauCalque, this.getBackground(), this.modeCheminCritique);
+			gs.dispose();
+			return;
 		}
+
+		this.cacheTuiles.dessiner(g2, zone, this.niveauZoom);
 	}
 
 	/**
@@ -460,43 +524,6 @@ public class PanelGraphe extends JPanel
 			g2.setColor(Color.BLACK);
 	}
 
-	/**
-	 * Sert à dessiner une flèche sur le graphic donné en paramètre.02d
-	 * 
-	 * @param g2 graphique dans lequel nous allons dessiner la flèche.
-	 * 
-	 *           o * @param x1 entier qui est le coor
-	 * @param y1
-	 * 
-	 * @param x2
-	 * @param y2
-	 * 
-	 */
-	private void dessineFleche(Graphics2D g2, int x1, int y1, int x2, int y2) 
-	{
-		int tailleFleche = 10;
-
-		double dx = x2 - x1;
-		double dy = y2 - y1;
-		double angle = Math.atan2(dy, dx);
-
-		// Ligne principale
-		g2.drawLine(x1, y1, x2, y2);
-
-		// Calcul des points du triangle
-		int xFleche1 = (int) (x2 - tailleFleche * Math.cos(angle - Math.PI / 6));
-		int yFleche1 = (int) (y2 - tailleFleche * Math.sin(angle - Math.PI / 6));
-		int xFleche2 = (int) (x2 - tailleFleche * Math.cos(angle + Math.PI / 6));
-		int yFleche2 = (int) (y2 - tailleFleche * Math.sin(angle + Math.PI / 6));
-
-		int[] xPoints = { x2, xFleche1, xFleche2 };
-		int[] yPoints = { y2, yFleche1, yFleche2 };
-
-		g2.setColor(Color.BLUE);
-		g2.fillPolygon(xPoints, yPoints, 3);
-
-	}
-
 	public boolean estCheminCritique() 
 	{
 		return this.modeCheminCritique;
@@ -504,19 +531,22 @@ public class PanelGraphe extends JPanel
 
 	private Tache getTacheAt(int x, int y) 
 	{
-		for (Map.Entry<Tache, Point> entree : this.getMap().entrySet()) 
-		{
-			Point point = entree.getValue();
-			// Rectangle centré comme dans paintComponent
-			int largeur = Math.max(80, 120); // adapte si besoin
-			int hauteur = 80;
-			Rectangle rect = new Rectangle(point.x + largeur / 2, point.y + hauteur / 2, largeur, hauteur);
-			if (rect.possede(x, y)) 
-			{
-				return entree.getKey();
-			}
-		}
-		return null;
+		int i = this.scene.trouverNoeud((int) (x / this.getEchelle()), (int) (y / this.getEchelle()));
+		return i == -1 ? null : this.scene.getTache(i);
+	}
+
+	/**
+	 * Relit les prédécesseurs d'une tâche tels qu'ils sont écrits dans la grille.
+	 */
+	private String lirePredecesseurs(Tache tache) 
+	{
+		GrilleDonneesModel model;
+		int                ligne;
+
+		model = this.ctrl.getGrilleDonneesModel();
+		ligne = model.getLigne(tache.getNom());
+		if (ligne == -1 || model.getValueAt(ligne, 2) == null) return "";
+		return String.valueOf(model.getValueAt(ligne, 2));
 	}
 
 	private void afficherPopupTache(Tache tache, int x, int y) 
@@ -526,38 +556,232 @@ public class PanelGraphe extends JPanel
 		this.popupTache.add(new JMenuItem("Nom : " + tache.getNom()));
 		this.popupTache.addSeparator();
 		this.popupTache.add(new JMenuItem("Durée : " + tache.getDuree()));
-		this.popupTache.add(new JMenuItem("Prédécesseurs : " + (tache.getPredecesseurString() != null ? tache.getPredecesseurString() : "")));
+		this.popupTache.add(new JMenuItem("Prédécesseurs : " + this.lirePredecesseurs(tache)));
 		this.popupTache.addSeparator();
 		this.popupTache.add(new JMenuItem("Date au plus tôt : " + tache.getDateMin()));
 		this.popupTache.add(new JMenuItem("Date au plus tard : " + tache.getDateMax()));
 		this.popupTache.show(this, x, y + 10);
 	}
 
-	private class GereSouris extends MouseAdapter 
+	/**
+	 * Calcul d'une disposition hors de l'EDT : les dispositions intermédiaires sont affichées
+	 * au fil de l'eau (animation), la disposition finale est enregistrée dans la grille en une seule fois.
+	 */
+	private class TravailDisposition extends SwingWorker<Boolean, int[][]> 
 	{
-		public void mousePressed(MouseEvent e) 
+		private final Disposition disposition;
+		private final Set<String> aPlacer;
+
+		private TravailDisposition(Disposition disposition, Set<String> aPlacer) 
+		{
+			this.disposition = disposition;
+			this.aPlacer     = aPlacer;
+		}
+
+		protected Boolean doInBackground() 
+		{
+			return this.disposition.calculer(new Disposition.Suivi() 
+			{
+				public boolean estAnnule() { return TravailDisposition.this.isCancelled(); }
+
+				public void publier(int[] tabX, int[] tabY) { TravailDisposition.this.publish(new int[][] { tabX, tabY }); }
+			});
+		}
+
+		protected void process(List<int[][]> resultats) 
+		{
+			// Seul le plus récent compte
+			int[][] dernier = resultats.get(resultats.size() - 1);
+
+			if (this.isCancelled() || PanelGraphe.this.travailDisposition != this) return;
+			appliquerDisposition(this.disposition, dernier[0], dernier[1], this.aPlacer);
+		}
+
+		protected void done() 
+		{
+			Map<String, Point> positions;
+
+			if (this.isCancelled() || PanelGraphe.this.travailDisposition != this) return;
+
+			try 
+			{
+				if (!this.get()) return;
+			} 
+			catch (Exception e) 
+			{
+				e.printStackTrace();
+				return;
+			}
+
+			if (this.disposition instanceof DispositionHierarchique)
+				ordreDisposition = ((DispositionHierarchique) this.disposition).getOrdre();
+
+			positions = appliquerDisposition(this.disposition, this.disposition.getX(), this.disposition.getY(), this.aPlacer);
+			ctrl.getGrilleDonneesModel().modifierPositions(positions);
+			ctrl.sauvegarderEtatAvantModification();
+		}
+	}
+
+	/**
+	 * Applique au graphe les changements du projet, regroupés par image : seuls les nœuds
+	 * déplacés ou dont les dates ont changé sont mis à jour, et seules leurs tuiles sont redessinées.
+	 */
+	private class AbonneGraphe extends AbonneModele 
+	{
+		protected void traiter(List<EvenementModele> lot) 
 		{
-			for (Map.Entry<Tache, Point> entree : getMap().entrySet()) 
+			Set<String>     deplacees, recalculees;
+			List<Rectangle> zones;
+			Dimension       taille;
+
+			deplacees   = new HashSet<>();
+			recalculees = new HashSet<>();
+			for (EvenementModele e : lot) 
+			{
+				switch (e.getType()) 
+				{
+					case TACHE_DEPLACEE     : deplacees.addAll(e.getTaches());   break;
+					case PLANNING_RECALCULE : recalculees.addAll(e.getTaches()); break;
+
+					// Chargement, ajout, suppression, renommage : les objets Tache sont remplacés,
+					// ce que signale l'époque de structure ci-dessous
+					default : break;
+				}
+			}
+
+			// Tâches remplacées depuis la dernière scène : tout est à refaire
+			if (scene == null || ctrl.getEpoqueStructure() != epoqueScene) 
 			{
-				Point point = entree.getValue();
+				recalculerPositions();
+				repaint();
+				return;
+			}
 
-				Rectangle rect = new Rectangle(point.x + 60, point.y + 40, 120, 80);
+			// Les arcs critiques dépendent des dates : la scène est reconstruite
+			if (modeCheminCritique && !recalculees.isEmpty()) 
+			{
+				construireScene();
+				repaint();
+				return;
+			}
 
-				if (rect.possede(e.getX(), e.getY())) 
+			taille = getPreferredSize();
+			zones  = new ArrayList<>();
+			deplacerDepuisGrille(deplacees, zones);
+			for (String nom : recalculees) 
+			{
+				int i = scene.getIndice(nom);
+				if (i != -1)
+					zones.add(scene.actualiser(i));
+			}
+
+			if (zones.isEmpty()) return;
+
+			if (zones.size() > SEUIL_MISE_A_JOUR_LOCALE) 
+			{
+				cacheTuiles.setScene(scene, modeCheminCritique);
+				repaint();
+			}
+			else 
+			{
+				for (Rectangle zone : zones) 
 				{
-					PanelGraphe.this.tacheSelectionnee = entree.getKey();
+					cacheTuiles.invalider(zone);
+					repaint(versPanel(zone));
+				}
+			}
+
+			if (!taille.equals(getPreferredSize()))
+				revalidate();
+		}
+
+		/**
+		 * Reporte sur la scène les coordonnées de la grille pour les tâches données.
+		 * Les tâches déjà à la bonne place (par exemple celle qu'on vient de lâcher) ne bougent pas.
+		 */
+		private void deplacerDepuisGrille(Set<String> noms, List<Rectangle> zones) 
+		{
+			GrilleDonneesModel model;
+			Tache              t;
+			Point              p;
+			int                i, ligne, x, y;
+
+			model = ctrl.getGrilleDonneesModel();
+			for (String nom : noms) 
+			{
+				i     = scene.getIndice(nom);
+				ligne = model.getLigne(nom);
+				if (i == -1 || ligne == -1) continue;
 
-					decalage = new Point(e.getX() - point.x, e.getY() - point.y);
+				t = scene.getTache(i);
+				if (t == tacheSelectionnee) continue;
 
-					break;
+				try 
+				{
+					x = Integer.parseInt(String.valueOf(model.getValueAt(ligne, 3)).trim());
+					y = Integer.parseInt(String.valueOf(model.getValueAt(ligne, 4)).trim());
+				} 
+				catch (NumberFormatException e) 
+				{
+					continue;
 				}
+
+				p = mapTachePos.get(t);
+				if (p.x == x && p.y == y) continue;
+
+				p.setLocation(x, y);
+				zones.add(scene.deplacer(i, x, y));
+			}
+		}
+	}
+
+	private class GereSouris extends MouseAdapter 
+	{
+		public void mousePressed(MouseEvent e) 
+		{
+			Tache tache = getTacheAt(e.getX(), e.getY());
+
+			if (tache != null) 
+			{
+				Point point = getMap().get(tache);
+
+				PanelGraphe.this.tacheSelectionnee = tache;
+
+				decalage = new Point((int) (e.getX() / getEchelle()) - point.x, (int) (e.getY() / getEchelle()) - point.y);
+
+				zoneDepart = scene.zoneNoeudEtArcs(scene.getIndice(tache));
+				preparerCalque(scene.getIndice(tache));
+			}
+			else
+			{
+				// Clic dans le vide : on fait glisser la vue
+				pointPan = e.getLocationOnScreen();
 			}
 		}
 
 		public void mouseReleased(MouseEvent e) 
 		{
+			Tache     tache = PanelGraphe.this.tacheSelectionnee;
+			Rectangle zone;
+			Point     point;
+
+			if (tache != null && calque != null) 
+			{
+				// Fin du glissement : on retombe sur les tuiles, redessinées là où le nœud est passé
+				zone = scene.zoneNoeudEtArcs(scene.getIndice(tache));
+				zone.add(zoneDepart);
+				cacheTuiles.rafraichir(zone, niveauZoom);
+
+				// Met à jour la grille et le fichier une seule fois, à la position finale
+				point = getMap().get(tache);
+				ctrl.getGrilleDonneesModel().modifierPositions(Map.of(tache.getNom(), point));
+				repaint(versPanel(zone));
+			}
+			calque = null;
+
 			PanelGraphe.this.tacheSelectionnee = null;
 			decalage = null;
+			pointPan = null;
 
 			PanelGraphe.this.ctrl.sauvegarderEtatAvantModification();
 		}
@@ -566,24 +790,37 @@ public class PanelGraphe extends JPanel
 		{
 			if (PanelGraphe.this.tacheSelectionnee != null && decalage != null) 
 			{
-				int newX = e.getX() - decalage.x;
-				int newY = e.getY() - decalage.y;
+				int newX = (int) (e.getX() / getEchelle()) - decalage.x;
+				int newY = (int) (e.getY() / getEchelle()) - decalage.y;
 				getMap().get(PanelGraphe.this.tacheSelectionnee).setLocation(newX, newY);
 
-				// Met à jour la grille et le fichier
-				var model = ctrl.getGrilleDonneesModel();
-				for (int i = 0; i < model.getRowCount(); i++) 
-				{
-					if (PanelGraphe.this.tacheSelectionnee.getNom().equals(model.getValueAt(i, 0))) 
-					{
-						model.setValueAt(String.valueOf(newX), i, 3); // colonne x
-						model.setValueAt(String.valueOf(newY), i, 4); // colonne y
-						break;
-					}
-				}
-				repaint();
+				Dimension taille = getPreferredSize();
+				Rectangle zone = scene.deplacer(scene.getIndice(PanelGraphe.this.tacheSelectionnee), newX, newY);
+				if (!taille.equals(getPreferredSize()))
+					revalidate();
+
+				// Seule la zone du nœud et de ses arcs est redessinée, par-dessus le calque
+				repaint(versPanel(zone));
+			}
+			else if (pointPan != null && getParent() instanceof JViewport) 
+			{
+				JViewport vue      = (JViewport) getParent();
+				Point     position = vue.getViewPosition();
+				Point     souris   = e.getLocationOnScreen();
+
+				position.translate(pointPan.x - souris.x, pointPan.y - souris.y);
+				position.x = Math.max(0, Math.min(position.x, getWidth()  - vue.getWidth()));
+				position.y = Math.max(0, Math.min(position.y, getHeight() - vue.getHeight()));
+				vue.setViewPosition(position);
+
+				pointPan = souris;
 			}
 		}
+
+		public void mouseWheelMoved(MouseWheelEvent e) 
+		{
+			zoomer(niveauZoom - e.getWheelRotation(), e.getPoint());
+		}
 	}
 
 	private class GereSurvolTache extends MouseMotionAdapter 
@@ -1,13 +1,20 @@
 package mpm.ihm;
 
+import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
 import java.awt.event.*;
+import java.util.Comparator;
+import java.util.List;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableRowSorter;
 import mpm.Controleur;
+import mpm.metier.EvenementModele;
+import mpm.metier.GrilleDonneesModel;
 
 
 /**
@@ -19,6 +26,11 @@ import mpm.Controleur;
  *   Sélection et modification des propriétés d'une tâche
  *   Synchronisation des modifications avec le contrôleur et le graphe
  *   Vérification de la cohérence des données saisies par l'utilisateur
+ *   Mise à jour des champs quand la tâche sélectionnée change ailleurs (graphe, disposition, calcul)
+ *   Tri par colonne et filtre des lignes affichées (voir {@link PanelFiltre})
+ *
+ * Les lignes de la JTable sont celles de la vue (triées, filtrées) : elles sont converties en lignes
+ * du modèle avant toute lecture ou modification de la grille.
  *
  * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
  */
@@ -33,6 +45,11 @@ public class PanelGrille extends JPanel implements ActionListener
 	private JTable      tblGrilleDonneesModel;
 	private JScrollPane scrollPane;
 
+	//le trieur de la table, qui porte aussi le filtre, et le panneau de recherche
+	private TableRowSorter<GrilleDonneesModel> trieur;
+	private PanelFiltre                        panelFiltre;
+	private JPanel                             panelTable;
+
 	//les différents panel pour les différentes interactions
 	private JPanel      panelModifier;
 	private JPanel      panelNomTache;
@@ -54,6 +71,9 @@ public class PanelGrille extends JPanel implements ActionListener
 	//le controleur pour le modele MCV
 	private Controleur  ctrl;
 
+	//nom de la tâche sélectionnée, pour la retrouver quand les lignes sont remplacées
+	private String      nomSelectionne;
+
 	/**Constructeur de PanelGrille.
 	 * @param ctrl Permet de faire le lien avec Controleur et donc la class MPM.
 	 */
@@ -85,15 +105,24 @@ public class PanelGrille extends JPanel implements ActionListener
 
 		this.btnModifier        = new JButton("Modifier Tâche" );
 		
-		// Modèle vide au démarrage
-		this.tblGrilleDonneesModel = new JTable(new DefaultTableModel(
-			new Object[][]{},
-			new String[] { "Nom", "Durée", "Tâches Précédentes", "x", "y" }
-		));
+		// La table reste branchée sur le même modèle : il est relu, jamais remplacé
+		this.tblGrilleDonneesModel = new JTable(this.ctrl.getGrilleDonneesModel());
+		this.tblGrilleDonneesModel.setFillsViewportHeight(true);
 		this.scrollPane = new JScrollPane(this.tblGrilleDonneesModel);
 
+		// Durée et coordonnées sont du texte dans la grille : elles sont triées comme des nombres
+		this.trieur = new TableRowSorter<>(this.ctrl.getGrilleDonneesModel());
+		this.trieur.setComparator(1, PanelGrille.COMPARATEUR_NOMBRES);
+		this.trieur.setComparator(3, PanelGrille.COMPARATEUR_NOMBRES);
+		this.trieur.setComparator(4, PanelGrille.COMPARATEUR_NOMBRES);
+		this.tblGrilleDonneesModel.setRowSorter(this.trieur);
+
+		this.panelFiltre = new PanelFiltre(this.ctrl, this.trieur);
+		this.panelTable  = new JPanel(new BorderLayout());
+
 		// Ajout de l'écouteur de sélection de ligne
 		this.tblGrilleDonneesModel.getSelectionModel().addListSelectionListener(new SelectionRemplissageListener());
+		this.ctrl.getGrilleDonneesModel().addTableModelListener(new SelectionConserveeListener());
 
 		/*-----------------------------------*/
 		/*   Positionnement des composants   */
@@ -121,16 +150,43 @@ public class PanelGrille extends JPanel implements ActionListener
 		this.panelModifier      .add(this.panelCoord                                       );
 		this.panelModifier      .add(this.panelButton                                      );
 
+		this.panelTable         .add(this.panelFiltre, BorderLayout.NORTH                  );
+		this.panelTable         .add(this.scrollPane , BorderLayout.CENTER                 );
+
 		this                    .add(this.panelModifier                                    );
-		this                    .add(this.scrollPane                                       );
+		this                    .add(this.panelTable                                       );
 
 		/*-------------------------------*/
 		/*   Activation des composants   */
 		/*-------------------------------*/
 
 		this.btnModifier.addActionListener(this);
+
+		this.ctrl.abonner(new AbonneGrille());
 	}
 
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final long PAS_UN_NOMBRE = Long.MIN_VALUE; // rendu par lireNombre pour une case vide ou non numérique
+
+	// Compare deux cases numériques écrites en texte ; le texte non numérique passe après les nombres
+	private static final Comparator<Object> COMPARATEUR_NOMBRES = (a, b) ->
+	{
+		String ta, tb;
+		long   va, vb;
+
+		ta = String.valueOf(a);
+		tb = String.valueOf(b);
+		va = PanelGrille.lireNombre(ta);
+		vb = PanelGrille.lireNombre(tb);
+		if (va != PAS_UN_NOMBRE && vb != PAS_UN_NOMBRE) return Long.compare(va, vb);
+		if (va != PAS_UN_NOMBRE)                        return -1;
+		if (vb != PAS_UN_NOMBRE)                        return  1;
+		return ta.compareTo(tb);
+	};
+
 	/*-------------------------------*/
 	/*          Accesseurs           */
 	/*-------------------------------*/
@@ -164,11 +220,10 @@ public class PanelGrille extends JPanel implements ActionListener
   
 		int      selectedRow  ;
 		int      duree        ;
-		int      xInt, yInt   ;
 
 		if (e.getSource() == this.btnModifier)
 		{
-			selectedRow = this.tblGrilleDonneesModel.getSelectedRow() ;
+			selectedRow = this.getLigneSelectionnee() ;
 			if (selectedRow == -1) 
 			{
 				JOptionPane.showMessageDialog(this, "Veuillez sélectionner une tâche dans le tableau.", "Erreur", JOptionPane.ERROR_MESSAGE);
@@ -287,30 +342,23 @@ public class PanelGrille extends JPanel implements ActionListener
 				}
 			}
 
-			this.ctrl.getGrilleDonneesModel().setValueAt( nom, selectedRow, 0                   );
-			this.ctrl.getGrilleDonneesModel().setValueAt( String.valueOf(duree), selectedRow, 1 );
-			this.ctrl.getGrilleDonneesModel().setValueAt( predecesseurs, selectedRow, 2         );
-			this.ctrl.getGrilleDonneesModel().setValueAt( x, selectedRow, 3                     );
-			this.ctrl.getGrilleDonneesModel().setValueAt( y, selectedRow, 4                     );
-
-			try
-			{
-				xInt = Integer.parseInt(x);
-				yInt = Integer.parseInt(y);
-				this.ctrl.getVue().getPanelGraphe().setPositionTache(nom, xInt, yInt);
-			} 
-			catch (NumberFormatException ex)
-			{
-				// Ignore si x ou y ne sont pas des entiers
-				ex.printStackTrace();
-			}
-
+			// Toute la ligne d'un coup : un seul événement pour la table, une seule écriture du fichier.
+			// Les colonnes que le formulaire ne montre pas (estimation, ressources, accélération) sont gardées.
+			Object[] valeurs = new Object[this.ctrl.getGrilleDonneesModel().getColumnCount()];
+			for (int col = 5; col < valeurs.length; col++)
+				valeurs[col] = this.ctrl.getGrilleDonneesModel().getValueAt(selectedRow, col);
+			valeurs[0] = nom;
+			valeurs[1] = String.valueOf(duree);
+			valeurs[2] = predecesseurs;
+			valeurs[3] = x;
+			valeurs[4] = y;
+			this.ctrl.getGrilleDonneesModel().modifierLigne(selectedRow, valeurs);
+
+			// Le graphe suit les changements de la grille par le flux d'événements (déplacement compris)
 			this.txtNomTache     .setText("");
 			this.txtDureeTache   .setText("");
 			this.txtPredecesseurs.setText("");
 
-			// Rafraîchit le modèle de la table
-				this.ctrl.getGrilleDonneesModel().fireTableDataChanged();
 				this.ctrl.rafraichirDepuisFichier();
 				this.ctrl.rafraichirAffichage();
 
@@ -319,10 +367,6 @@ public class PanelGrille extends JPanel implements ActionListener
 		}
 	}
 
-	/**Raffraichit la grille.
-	 */
-	public void rafraichirModele() {this.tblGrilleDonneesModel.setModel(this.ctrl.getGrilleDonneesModel());}
-
 	/**Remplit les champs de saisie du panneau de modification avec les valeurs de la tâche sélectionnée dans la grille.
 	 * Si aucune ligne n'est sélectionnée, les champs sont vidés.
 	 */
@@ -339,10 +383,11 @@ public class PanelGrille extends JPanel implements ActionListener
 		String x             ;
 		String y             ;
 
-		int selectedRow = this.tblGrilleDonneesModel.getSelectedRow();
+		int selectedRow = this.getLigneSelectionnee();
 
 		if (selectedRow == -1) 
 		{
+			this.nomSelectionne = null;
 			this.txtNomTache     .setText("");
 			this.txtDureeTache   .setText("");
 			this.txtPredecesseurs.setText("");
@@ -355,6 +400,8 @@ public class PanelGrille extends JPanel implements ActionListener
 		x             = String.valueOf( this.ctrl.getGrilleDonneesModel().getValueAt(selectedRow, 3) );
 		y             = String.valueOf( this.ctrl.getGrilleDonneesModel().getValueAt(selectedRow, 4) );
 
+		this.nomSelectionne = nom;
+
 		this.txtNomTache         .setText( nom           );
 		this.txtDureeTache       .setText( duree         );
 		this.txtPredecesseurs    .setText( predecesseurs );
@@ -362,6 +409,114 @@ public class PanelGrille extends JPanel implements ActionListener
 		this.txtY                .setText( y             );
 	}
 
+	/**Récupère la ligne du modèle de la tâche sélectionnée dans la table.
+	 * @return L'indice de la ligne dans la grille, ou -1 si aucune ligne n'est sélectionnée.
+	 */
+	private int getLigneSelectionnee()
+	{
+		int ligne = this.tblGrilleDonneesModel.getSelectedRow();
+
+		if (ligne == -1 || ligne >= this.tblGrilleDonneesModel.getRowCount()) return -1;
+		return this.tblGrilleDonneesModel.convertRowIndexToModel(ligne);
+	}
+
+	/**Lit le nombre entier écrit dans une case de la grille, chiffre par chiffre : une case vide ou
+	 * non numérique ne lève pas d'exception, ce qui compte quand un tri compare des milliers de cases.
+	 * @param texte le texte de la case.
+	 * @return le nombre, ou PAS_UN_NOMBRE si la case n'en contient pas (ou s'il ne tient pas dans un long).
+	 */
+	private static long lireNombre(String texte)
+	{
+		int     debut, fin, chiffre;
+		long    valeur;
+		boolean negatif;
+
+		debut = 0;
+		fin   = texte.length();
+		while (debut < fin && texte.charAt(debut)   <= ' ') debut++;
+		while (fin > debut && texte.charAt(fin - 1) <= ' ') fin--;
+
+		negatif = debut < fin && texte.charAt(debut) == '-';
+		if (debut < fin && (negatif || texte.charAt(debut) == '+')) debut++;
+		if (debut == fin) return PAS_UN_NOMBRE;
+
+		// Cumulé en négatif, pour que Long.MAX_VALUE et les petits négatifs tiennent tous les deux
+		valeur = 0;
+		for (int i = debut; i < fin; i++)
+		{
+			chiffre = Character.digit(texte.charAt(i), 10);
+			if (chiffre < 0 || valeur < (Long.MIN_VALUE + chiffre) / 10) return PAS_UN_NOMBRE;
+			valeur = valeur * 10 - chiffre;
+		}
+
+		if (negatif)                    return valeur;
+		if (valeur == Long.MIN_VALUE)   return PAS_UN_NOMBRE;
+		return -valeur;
+	}
+
+	/**La classe {@code AbonneGrille} suit les changements du projet, regroupés par image.
+	 * La table reçoit déjà les changements de son modèle, ligne par ligne ; il reste à relire
+	 * les champs si la tâche sélectionnée a changé.
+	 */
+	private class AbonneGrille extends AbonneModele
+	{
+		protected void traiter(List<EvenementModele> lot)
+		{
+			String  nomSelection;
+			boolean touchee;
+			int     ligne;
+
+			ligne = getLigneSelectionnee();
+			if (ligne == -1 || ligne >= ctrl.getGrilleDonneesModel().getRowCount()) return;
+
+			nomSelection = String.valueOf(ctrl.getGrilleDonneesModel().getValueAt(ligne, 0));
+			touchee      = false;
+			for (EvenementModele e : lot)
+				if (e.getTaches().contains(nomSelection) || nomSelection.equals(e.getAncienNom()))
+					touchee = true;
+
+			if (touchee)
+				remplirChampsDepuisSelection();
+		}
+	}
+
+	/**La classe {@code SelectionConserveeListener} garde la tâche sélectionnée quand toutes les lignes
+	 * de la grille sont remplacées (rechargement après un ajout ou un renommage) : la JTable vide
+	 * alors sa sélection, qui est remise sur la ligne de la même tâche.
+	 */
+	private class SelectionConserveeListener implements TableModelListener
+	{
+		public void tableChanged(TableModelEvent e)
+		{
+			int    ligne;
+			String nom;
+
+			if (e.getType() != TableModelEvent.UPDATE) return;
+
+			// Prévenu avant la JTable (ajouté après elle) : la sélection et le tri sont encore ceux d'avant
+			ligne = getLigneSelectionnee();
+			if (e.getLastRow() != Integer.MAX_VALUE)
+			{
+				// Ligne sélectionnée modifiée (renommage) : on retient son nouveau nom
+				if (ligne >= e.getFirstRow() && ligne <= e.getLastRow())
+					nomSelectionne = String.valueOf(ctrl.getGrilleDonneesModel().getValueAt(ligne, 0));
+				return;
+			}
+
+			nom = nomSelectionne;
+			if (ligne == -1 || nom == null) return;
+
+			SwingUtilities.invokeLater(() ->
+			{
+				int nouvelle = ctrl.getGrilleDonneesModel().getLigne(nom);
+				if (nouvelle != -1)
+					nouvelle = tblGrilleDonneesModel.convertRowIndexToView(nouvelle);
+				if (nouvelle != -1)
+					tblGrilleDonneesModel.setRowSelectionInterval(nouvelle, nouvelle);
+			});
+		}
+	}
+
 	/**La classe {@code SelectionRemplissageListener} écoute la sélection de lignes dans la grille des tâches.
 	 * Elle permet de remplir automatiquement les champs de saisie avec les informations de la tâche sélectionnée.
 	 *
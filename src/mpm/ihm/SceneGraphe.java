@@ -0,0 +1,763 @@
+package mpm.ihm;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import mpm.metier.Mpm;
+import mpm.metier.Tache;
+import mpm.metier.collection.TableEntiers;
+import mpm.metier.collection.TableObjetsEntiers;
+
+/**
+ * La classe {@code SceneGraphe} contient tout ce qu'il faut pour dessiner le graphe MPM :
+ * positions et largeurs des rectangles, textes déjà formatés, arcs et index spatiaux.
+ * Elle est construite une fois par changement, puis seule la partie visible est dessinée.
+ *
+ * Fonctionnalités principales :
+ *   Recherche des nœuds et des arcs qui coupent la zone à dessiner
+ *   Choix d'un niveau de détail par zoom, selon l'échelle et la densité de la scène
+ *   Dessin détaillé, en boîtes avec arcs regroupés en faisceaux, ou en carte de densité
+ *   Déplacement d'un nœud avec mise à jour de l'index (les threads de rendu des tuiles lisent en parallèle)
+ *   Mise à jour des textes d'un seul nœud quand ses dates ou sa durée changent
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class SceneGraphe
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public static final int NIVEAU_DETAIL  = 0;
+	public static final int NIVEAU_BOITES  = 1;
+	public static final int NIVEAU_DENSITE = 2;
+
+	public static final int HAUTEUR       = 80;
+	public static final int HAUTEUR_TITRE = 25;
+
+	private static final int MARGE_ARC       = 12;
+	private static final int MARGE_BORNES    = 50;
+	private static final int TAILLE_CELLULE  = 256;
+	private static final int TAILLE_FAISCEAU = 48;
+	private static final int TAILLE_DENSITE  = 16;
+
+	// Cumuls des dessins en faisceaux et en densité, un jeu par fil de rendu
+	private static final ThreadLocal<Cumuls> CUMULS = ThreadLocal.withInitial(Cumuls::new);
+
+	private static final Font        POLICE_NOM    = new Font("Arial", Font.BOLD, 16);
+	private static final Font        POLICE_VALEUR = new Font("Arial", Font.BOLD, 14);
+	private static final Font        POLICE_DATE   = new Font("Serif", Font.PLAIN, 14);
+	private static final BasicStroke TRAIT         = new BasicStroke(2.0f);
+	private static final BasicStroke TRAIT_FIN     = new BasicStroke(1.0f);
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Tache[]                    taches;
+	private int[]                      indiceParId; // par numéro de tâche, -1 si elle n'est pas dessinée
+	private TableObjetsEntiers<String> indicesNoms;
+
+	private FontMetrics                fmNom, fmDate;
+	private boolean                    modeDate;
+	private IntFunction<String>        formatDate;
+
+	private int[]    tabX, tabY, tabLargeur;
+	private String[] tabNom, tabTot, tabTard, tabDuree;
+
+	private int[]     arcSource, arcCible;
+	private boolean[] arcCritique;
+	private int[][]   arcsIncidents;
+
+	private IndexSpatial indexNoeuds;
+	private IndexSpatial indexArcs;
+
+	private Rectangle bornes;
+	private double    densite; // nœuds par million de pixels de la scène, sur ses bornes de départ
+
+	private ReentrantReadWriteLock verrou;
+
+	/**Constructeur de SceneGraphe.
+	 * @param lstTaches     les tâches du projet.
+	 * @param positions     la position (coin haut gauche) de chaque tâche ; les tâches sans position sont ignorées.
+	 * @param modeDate      true pour afficher les dates réelles plutôt que les jours.
+	 * @param formatDate    met en forme une date réelle, donnée en jours depuis le début du projet.
+	 * @param arcsCritiques clés triées des arcs critiques (voir {@link Mpm#cleArc}), ou null si on ne les colorie pas.
+	 * @param composant     composant qui fournit les métriques des polices.
+	 */
+	public SceneGraphe(List<Tache> lstTaches, Map<Tache, Point> positions, boolean modeDate,
+	                   IntFunction<String> formatDate, long[] arcsCritiques, Component composant)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		List<Tache>   places;
+		List<int[]>   arcs;
+		int[]         degres;
+		Point         p;
+		Tache         t;
+		int           j, idMax;
+		int           n;
+
+		this.fmNom    = composant.getFontMetrics(POLICE_NOM);
+		this.fmDate   = composant.getFontMetrics(POLICE_DATE);
+		this.modeDate   = modeDate;
+		this.formatDate = formatDate;
+
+		places = new ArrayList<>();
+		for (Tache tache : lstTaches)
+			if (positions.get(tache) != null)
+				places.add(tache);
+
+		n = places.size();
+		this.taches      = places.toArray(new Tache[0]);
+		this.indicesNoms = new TableObjetsEntiers<>(n);
+		this.tabX        = new int[n];
+		this.tabY        = new int[n];
+		this.tabLargeur  = new int[n];
+		this.tabNom      = new String[n];
+		this.tabTot      = new String[n];
+		this.tabTard     = new String[n];
+		this.tabDuree    = new String[n];
+
+		this.indexNoeuds = new IndexSpatial(TAILLE_CELLULE);
+		this.indexArcs   = new IndexSpatial(TAILLE_CELLULE);
+		this.verrou      = new ReentrantReadWriteLock();
+
+		idMax = -1;
+		for (Tache tache : this.taches)
+			idMax = Math.max(idMax, tache.getId());
+		this.indiceParId = new int[idMax + 1];
+		Arrays.fill(this.indiceParId, -1);
+
+		for (int i = 0; i < n; i++)
+		{
+			t = this.taches[i];
+			p = positions.get(t);
+			this.indiceParId[t.getId()] = i;
+			this.indicesNoms.put(t.getNom(), i);
+
+			this.tabX[i] = p.x;
+			this.tabY[i] = p.y;
+			this.formater(i);
+
+			this.indexNoeuds.inserer(i, p.x, p.y, this.tabLargeur[i], HAUTEUR);
+			this.etendreBornes(p.x, p.y, this.tabLargeur[i], HAUTEUR);
+		}
+
+		// Arcs (dépendances)
+		arcs = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+		{
+			for (Tache succ : this.taches[i].getSuccesseurs())
+			{
+				j = this.getIndice(succ);
+				if (j != -1)
+					arcs.add(new int[] { i, j });
+			}
+		}
+
+		this.arcSource   = new int[arcs.size()];
+		this.arcCible    = new int[arcs.size()];
+		this.arcCritique = new boolean[arcs.size()];
+		for (int a = 0; a < arcs.size(); a++)
+		{
+			this.arcSource[a]   = arcs.get(a)[0];
+			this.arcCible[a]    = arcs.get(a)[1];
+			this.arcCritique[a] = arcsCritiques != null &&
+			                      Arrays.binarySearch(arcsCritiques, Mpm.cleArc(this.taches[this.arcSource[a]].getId(),
+			                                                                    this.taches[this.arcCible [a]].getId())) >= 0;
+
+			Rectangle r = this.zoneArc(a);
+			this.indexArcs.inserer(a, r.x, r.y, r.width, r.height);
+		}
+
+		// Arcs incidents à chaque nœud : on compte les degrés puis on remplit
+		degres = new int[n];
+		for (int a = 0; a < this.arcSource.length; a++)
+		{
+			degres[this.arcSource[a]]++;
+			degres[this.arcCible[a]]++;
+		}
+
+		this.arcsIncidents = new int[n][];
+		for (int i = 0; i < n; i++)
+		{
+			this.arcsIncidents[i] = new int[degres[i]];
+			degres[i] = 0;
+		}
+
+		for (int a = 0; a < this.arcSource.length; a++)
+		{
+			this.arcsIncidents[this.arcSource[a]][degres[this.arcSource[a]]++] = a;
+			this.arcsIncidents[this.arcCible [a]][degres[this.arcCible [a]]++] = a;
+		}
+
+		if (this.bornes == null)
+			this.bornes = new Rectangle(0, 0, 0, 0);
+
+		this.densite = n * 1e6 / Math.max(1.0, (double) this.bornes.width * this.bornes.height);
+	}
+
+	/*-----------------*/
+	/*   Accesseurs    */
+	/*-----------------*/
+
+	/**Retourne le rectangle qui englobe tous les nœuds, marge comprise.
+	 * @return les bornes de la scène.
+	 */
+	public Rectangle getBornes()
+	{
+		return new Rectangle(0, 0, this.bornes.x + this.bornes.width + MARGE_BORNES,
+		                           this.bornes.y + this.bornes.height + MARGE_BORNES);
+	}
+
+	/**Retourne l'indice d'une tâche dans la scène.
+	 * @param t la tâche.
+	 * @return son indice, ou -1 si elle n'est pas dessinée.
+	 */
+	public int getIndice(Tache t)
+	{
+		int i;
+
+		if (t.getId() < 0 || t.getId() >= this.indiceParId.length) return -1;
+
+		// Numéro d'une autre tâche si elle vient d'un autre projet : on vérifie que c'est bien elle
+		i = this.indiceParId[t.getId()];
+		return i != -1 && this.taches[i] == t ? i : -1;
+	}
+
+	/**Retourne l'indice d'une tâche dans la scène, à partir de son nom.
+	 * @param nom le nom de la tâche.
+	 * @return son indice, ou -1 si elle n'est pas dessinée.
+	 */
+	public int getIndice(String nom)
+	{
+		return this.indicesNoms.get(nom, -1);
+	}
+
+	/**Retourne la tâche d'indice donné.
+	 * @param i l'indice.
+	 * @return la tâche.
+	 */
+	public Tache getTache(int i) { return this.taches[i]; }
+
+	/**Retourne le rectangle occupé par le nœud d'indice donné.
+	 * @param i l'indice du nœud.
+	 * @return son rectangle.
+	 */
+	public Rectangle zoneNoeud(int i)
+	{
+		return new Rectangle(this.tabX[i], this.tabY[i], this.tabLargeur[i], HAUTEUR);
+	}
+
+	/**Retourne le rectangle occupé par un arc, étiquette et pointe comprises.
+	 * @param a l'indice de l'arc.
+	 * @return son rectangle.
+	 */
+	public Rectangle zoneArc(int a)
+	{
+		int xs, ys, xe, ye;
+
+		xs = this.tabX[this.arcSource[a]] + this.tabLargeur[this.arcSource[a]];
+		ys = this.tabY[this.arcSource[a]] + HAUTEUR / 2;
+		xe = this.tabX[this.arcCible[a]];
+		ye = this.tabY[this.arcCible[a]] + HAUTEUR / 2;
+
+		return new Rectangle(Math.min(xs, xe) - MARGE_ARC, Math.min(ys, ye) - MARGE_ARC,
+		                     Math.abs(xe - xs) + 2 * MARGE_ARC, Math.abs(ye - ys) + 2 * MARGE_ARC);
+	}
+
+	/**Retourne la zone à redessiner quand le nœud d'indice donné bouge : le nœud et ses arcs.
+	 * @param i l'indice du nœud.
+	 * @return le rectangle à redessiner.
+	 */
+	public Rectangle zoneNoeudEtArcs(int i)
+	{
+		Rectangle zone = this.zoneNoeud(i);
+		for (int a : this.arcsIncidents[i])
+			zone.add(this.zoneArc(a));
+		return zone;
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de recherche          */
+	/*------------------------------------------*/
+
+	/**Cherche le nœud situé sous un point ; si plusieurs se chevauchent, le dernier dessiné gagne.
+	 * @param x abscisse du point.
+	 * @param y ordonnée du point.
+	 * @return l'indice du nœud, ou -1 si aucun.
+	 */
+	public int trouverNoeud(int x, int y)
+	{
+		int[] trouve = { -1 };
+		this.indexNoeuds.rechercher(new Rectangle(x, y, 0, 0), i -> trouve[0] = Math.max(trouve[0], i));
+		return trouve[0];
+	}
+
+	/**Choisit le niveau de détail à utiliser pour une échelle donnée. Il ne dépend que de l'échelle et de
+	 * la densité de toute la scène : les tuiles d'un même zoom ont le même niveau, et un nœud ou un arc à
+	 * cheval sur deux tuiles est dessiné des deux côtés de la même façon.
+	 * @param echelle facteur d'agrandissement appliqué au dessin.
+	 * @return NIVEAU_DETAIL, NIVEAU_BOITES ou NIVEAU_DENSITE.
+	 */
+	public int choisirNiveau(double echelle)
+	{
+		double densite;
+
+		if (echelle < 0.2) return NIVEAU_DENSITE;
+
+		// Nombre de nœuds ramené à un million de pixels d'écran
+		densite = this.densite / (echelle * echelle);
+
+		if (densite > 20000) return NIVEAU_DENSITE;
+		if (echelle < 0.6 || densite > 1500) return NIVEAU_BOITES;
+
+		return NIVEAU_DETAIL;
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de déplacement        */
+	/*------------------------------------------*/
+
+	/**Déplace un nœud et met à jour l'index de ses arcs.
+	 * @param i l'indice du nœud.
+	 * @param x nouvelle abscisse.
+	 * @param y nouvelle ordonnée.
+	 * @return la zone à redessiner (ancienne et nouvelle position, arcs compris).
+	 */
+	public Rectangle deplacer(int i, int x, int y)
+	{
+		Rectangle zone, r;
+
+		zone = this.zoneNoeudEtArcs(i);
+
+		this.verrou.writeLock().lock();
+		try
+		{
+			this.tabX[i] = x;
+			this.tabY[i] = y;
+			this.indexNoeuds.deplacer(i, x, y, this.tabLargeur[i], HAUTEUR);
+			this.etendreBornes(x, y, this.tabLargeur[i], HAUTEUR);
+
+			for (int a : this.arcsIncidents[i])
+			{
+				r = this.zoneArc(a);
+				this.indexArcs.deplacer(a, r.x, r.y, r.width, r.height);
+			}
+		}
+		finally
+		{
+			this.verrou.writeLock().unlock();
+		}
+
+		zone.add(this.zoneNoeudEtArcs(i));
+		return zone;
+	}
+
+	/**Relit le nom, la durée et les dates d'une tâche après un changement, et ajuste la largeur de son nœud.
+	 * @param i l'indice du nœud.
+	 * @return la zone à redessiner (ancienne et nouvelle largeur, arcs compris).
+	 */
+	public Rectangle actualiser(int i)
+	{
+		Rectangle zone, r;
+
+		zone = this.zoneNoeudEtArcs(i);
+
+		this.verrou.writeLock().lock();
+		try
+		{
+			this.formater(i);
+			this.indexNoeuds.deplacer(i, this.tabX[i], this.tabY[i], this.tabLargeur[i], HAUTEUR);
+			this.etendreBornes(this.tabX[i], this.tabY[i], this.tabLargeur[i], HAUTEUR);
+
+			// Les arcs sortants partent du bord droit : ils suivent la largeur
+			for (int a : this.arcsIncidents[i])
+			{
+				r = this.zoneArc(a);
+				this.indexArcs.deplacer(a, r.x, r.y, r.width, r.height);
+			}
+		}
+		finally
+		{
+			this.verrou.writeLock().unlock();
+		}
+
+		zone.add(this.zoneNoeudEtArcs(i));
+		return zone;
+	}
+
+	/**Met en forme les textes du nœud i à partir de sa tâche, et calcule sa largeur.
+	 * @param i l'indice du nœud.
+	 */
+	private void formater(int i)
+	{
+		Tache t;
+		int   largeurDate;
+
+		t = this.taches[i];
+		this.tabNom[i]   = t.getNom();
+		this.tabDuree[i] = String.valueOf(t.getDuree());
+
+		largeurDate = 0;
+		if (this.modeDate)
+		{
+			this.tabTot[i]  = (t.getDateMin() != -1) ? this.formatDate.apply(t.getDateMin()) : "";
+			this.tabTard[i] = (t.getDateMax() != -1) ? this.formatDate.apply(t.getDateMax()) : "";
+			largeurDate = Math.max(this.fmDate.stringWidth(this.tabTot[i]), this.fmDate.stringWidth(this.tabTard[i]));
+		}
+		else
+		{
+			this.tabTot[i]  = (t.getDateMin() != -1) ? String.valueOf(t.getDateMin()) : "";
+			this.tabTard[i] = (t.getDateMax() != -1) ? String.valueOf(t.getDateMax()) : "";
+		}
+
+		// Largeur adaptative : max entre nom et date, fois 2 pour les deux cases, plus un peu de marge
+		this.tabLargeur[i] = Math.max(80, Math.max(this.fmNom.stringWidth(this.tabNom[i]), largeurDate * 2) + 40);
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de dessin             */
+	/*------------------------------------------*/
+
+	/**Dessine la partie de la scène qui coupe la zone donnée.
+	 * Peut être appelé depuis un thread de travail : la lecture est protégée contre les déplacements.
+	 * @param g2            graphique sur lequel dessiner (déjà mis à l'échelle).
+	 * @param zone          zone à dessiner, en coordonnées de la scène.
+	 * @param niveau        niveau de détail, le même pour toutes les zones d'un zoom (voir {@link #choisirNiveau}).
+	 * @param echelle       facteur d'agrandissement appliqué au dessin.
+	 * @param fond          couleur de fond, utilisée derrière les durées des arcs.
+	 * @param modeCritique  true pour colorier les arcs critiques.
+	 */
+	public void dessiner(Graphics2D g2, Rectangle zone, int niveau, double echelle, Color fond, boolean modeCritique)
+	{
+		this.dessiner(g2, zone, niveau, echelle, fond, modeCritique, -1);
+	}
+
+	/**Dessine la partie de la scène qui coupe la zone donnée, sauf un nœud et ses arcs.
+	 * Sert à préparer le calque statique pendant le déplacement de ce nœud.
+	 * @param g2            graphique sur lequel dessiner (déjà mis à l'échelle).
+	 * @param zone          zone à dessiner, en coordonnées de la scène.
+	 * @param niveau        niveau de détail, le même pour toutes les zones d'un zoom (voir {@link #choisirNiveau}).
+	 * @param echelle       facteur d'agrandissement appliqué au dessin.
+	 * @param fond          couleur de fond, utilisée derrière les durées des arcs.
+	 * @param modeCritique  true pour colorier les arcs critiques.
+	 * @param exclu         indice du nœud à ne pas dessiner, ou -1.
+	 */
+	public void dessiner(Graphics2D g2, Rectangle zone, int niveau, double echelle, Color fond, boolean modeCritique, int exclu)
+	{
+		this.verrou.readLock().lock();
+		try
+		{
+			switch (niveau)
+			{
+				case NIVEAU_DETAIL ->
+				{
+					this.indexNoeuds.rechercher(zone, i -> { if (i != exclu) this.dessinerNoeud(g2, i); });
+					this.indexArcs  .rechercher(zone, a -> { if (!this.estIncident(a, exclu)) this.dessinerArc(g2, a, fond, modeCritique); });
+				}
+				case NIVEAU_BOITES ->
+				{
+					this.dessinerFaisceaux(g2, zone, echelle, modeCritique, exclu);
+					g2.setStroke(TRAIT_FIN);
+					g2.setColor(Color.BLACK);
+					this.indexNoeuds.rechercher(zone, i -> { if (i != exclu) this.dessinerBoite(g2, i); });
+				}
+				default -> this.dessinerDensite(g2, zone, echelle, exclu);
+			}
+		}
+		finally
+		{
+			this.verrou.readLock().unlock();
+		}
+	}
+
+	/**Dessine seulement un nœud et ses arcs, au niveau de détail donné.
+	 * Le coût ne dépend que du nombre d'arcs du nœud : c'est ce qui est redessiné à chaque
+	 * image d'un déplacement, par-dessus le calque statique.
+	 * @param g2           graphique sur lequel dessiner (déjà mis à l'échelle).
+	 * @param i            indice du nœud.
+	 * @param niveau       niveau de détail retenu pour le calque statique.
+	 * @param fond         couleur de fond, utilisée derrière les durées des arcs.
+	 * @param modeCritique true pour colorier les arcs critiques.
+	 */
+	public void dessinerNoeudEtArcs(Graphics2D g2, int i, int niveau, Color fond, boolean modeCritique)
+	{
+		if (niveau == NIVEAU_DETAIL)
+		{
+			this.dessinerNoeud(g2, i);
+			for (int a : this.arcsIncidents[i])
+				this.dessinerArc(g2, a, fond, modeCritique);
+			return;
+		}
+
+		g2.setStroke(TRAIT_FIN);
+		for (int a : this.arcsIncidents[i])
+		{
+			g2.setColor(modeCritique && this.arcCritique[a] ? Color.RED : Color.BLUE);
+			g2.drawLine(this.tabX[this.arcSource[a]] + this.tabLargeur[this.arcSource[a]], this.tabY[this.arcSource[a]] + HAUTEUR / 2,
+			            this.tabX[this.arcCible[a]], this.tabY[this.arcCible[a]] + HAUTEUR / 2);
+		}
+		g2.setColor(Color.BLACK);
+		this.dessinerBoite(g2, i);
+	}
+
+	private boolean estIncident(int a, int i) { return this.arcSource[a] == i || this.arcCible[a] == i; }
+
+	private void dessinerBoite(Graphics2D g2, int i)
+	{
+		g2.drawRect(this.tabX[i], this.tabY[i], this.tabLargeur[i], HAUTEUR);
+	}
+
+	/**Dessine un nœud complet : rectangle, nom et les deux valeurs.
+	 */
+	private void dessinerNoeud(Graphics2D g2, int i)
+	{
+		FontMetrics fm;
+		int x, y, largeur, largeurCase, hauteurValeurs, yValeurs, yValeur;
+
+		x              = this.tabX[i];
+		y              = this.tabY[i];
+		largeur        = this.tabLargeur[i];
+		hauteurValeurs = HAUTEUR - HAUTEUR_TITRE;
+		largeurCase    = largeur / 2;
+		yValeurs       = y + HAUTEUR_TITRE;
+
+		// Rectangle principal
+		g2.setColor(Color.BLACK);
+		g2.setStroke(TRAIT);
+		g2.drawRect(x, y, largeur, HAUTEUR);
+		g2.drawLine(x, y + HAUTEUR_TITRE, x + largeur, y + HAUTEUR_TITRE);
+
+		// Texte du nom, centré
+		g2.setFont(POLICE_NOM);
+		fm = g2.getFontMetrics();
+		g2.drawString(this.tabNom[i], x + (largeur - fm.stringWidth(this.tabNom[i])) / 2,
+		                              y + (HAUTEUR_TITRE + fm.getAscent()) / 2 - 2);
+
+		// Sous-rectangles pour les deux valeurs
+		g2.drawRect(x, yValeurs, largeurCase, hauteurValeurs);
+		g2.drawRect(x + largeurCase, yValeurs, largeurCase, hauteurValeurs);
+
+		// Dates au plus tôt (gauche) et au plus tard (droite)
+		g2.setFont(POLICE_VALEUR);
+		fm = g2.getFontMetrics();
+		yValeur = yValeurs + (hauteurValeurs + fm.getAscent()) / 2 - 2;
+
+		g2.setColor(Color.BLUE);
+		g2.drawString(this.tabTot[i], x + (largeurCase - fm.stringWidth(this.tabTot[i])) / 2, yValeur);
+
+		g2.setColor(Color.RED);
+		g2.drawString(this.tabTard[i], x + largeurCase + (largeurCase - fm.stringWidth(this.tabTard[i])) / 2, yValeur);
+	}
+
+	/**Dessine un arc avec sa pointe et la durée de la tâche source en son milieu.
+	 */
+	private void dessinerArc(Graphics2D g2, int a, Color fond, boolean modeCritique)
+	{
+		FontMetrics fm;
+		String      duree;
+		int xStart, yStart, xEnd, yEnd, xMilieu, yMilieu, largeurTexte;
+
+		g2.setStroke(TRAIT);
+		g2.setColor(modeCritique && this.arcCritique[a] ? Color.RED : Color.BLUE);
+
+		// Départ : bord droit du rectangle source, arrivée : bord gauche du rectangle destination
+		xStart = this.tabX[this.arcSource[a]] + this.tabLargeur[this.arcSource[a]];
+		yStart = this.tabY[this.arcSource[a]] + HAUTEUR / 2;
+		xEnd   = this.tabX[this.arcCible[a]];
+		yEnd   = this.tabY[this.arcCible[a]] + HAUTEUR / 2;
+
+		dessineFleche(g2, xStart, yStart, xEnd, yEnd);
+
+		// Affichage de la durée au milieu de l'arc
+		xMilieu = (xStart + xEnd) / 2;
+		yMilieu = (yStart + yEnd) / 2;
+
+		duree = this.tabDuree[this.arcSource[a]];
+		g2.setFont(POLICE_VALEUR);
+		fm = g2.getFontMetrics();
+		largeurTexte = fm.stringWidth(duree);
+
+		g2.setColor(fond);
+		g2.fillRect(xMilieu - largeurTexte / 2, yMilieu - 10, largeurTexte + 4, largeurTexte + 4);
+		g2.setColor(Color.BLACK);
+		g2.drawString(duree, xMilieu - largeurTexte / 2, yMilieu);
+	}
+
+	/**Regroupe les arcs visibles dont les extrémités tombent dans les mêmes cellules
+	 * et dessine un seul trait par faisceau, d'autant plus épais qu'il contient d'arcs.
+	 */
+	private void dessinerFaisceaux(Graphics2D g2, Rectangle zone, double echelle, boolean modeCritique, int exclu)
+	{
+		Cumuls faisceaux;
+		double taille;
+		int    f, nb;
+
+		faisceaux = CUMULS.get();
+		faisceaux.vider(6);
+		taille    = TAILLE_FAISCEAU / echelle;
+
+		this.indexArcs.rechercher(zone, a ->
+		{
+			int  xs, ys, xe, ye;
+			long cs, ce;
+
+			if (this.estIncident(a, exclu)) return;
+
+			xs = this.tabX[this.arcSource[a]] + this.tabLargeur[this.arcSource[a]];
+			ys = this.tabY[this.arcSource[a]] + HAUTEUR / 2;
+			xe = this.tabX[this.arcCible[a]];
+			ye = this.tabY[this.arcCible[a]] + HAUTEUR / 2;
+
+			cs = (((long) Math.floor(xs / taille) & 0xFFFF) << 16) | ((long) Math.floor(ys / taille) & 0xFFFF);
+			ce = (((long) Math.floor(xe / taille) & 0xFFFF) << 16) | ((long) Math.floor(ye / taille) & 0xFFFF);
+			if (cs == ce) return; // arc interne à un amas : invisible à cette échelle
+
+			int    d = faisceaux.debut((cs << 32) | ce);
+			long[] v = faisceaux.valeurs;
+			v[d]++;
+			v[d + 1] += xs; v[d + 2] += ys;
+			v[d + 3] += xe; v[d + 4] += ye;
+			if (modeCritique && this.arcCritique[a]) v[d + 5] = 1;
+		});
+
+		for (int c = 0; c < faisceaux.nb; c++)
+		{
+			f  = c * 6;
+			nb = (int) faisceaux.valeurs[f];
+
+			g2.setStroke(new BasicStroke((float) (Math.min(6.0, 1.0 + Math.log(nb) / Math.log(2)) / echelle)));
+			g2.setColor(faisceaux.valeurs[f + 5] == 1 ? Color.RED : Color.BLUE);
+			g2.drawLine((int) (faisceaux.valeurs[f + 1] / nb), (int) (faisceaux.valeurs[f + 2] / nb),
+			            (int) (faisceaux.valeurs[f + 3] / nb), (int) (faisceaux.valeurs[f + 4] / nb));
+		}
+	}
+
+	/**Dessine une carte de densité : chaque cellule est d'autant plus foncée qu'elle contient de tâches.
+	 */
+	private void dessinerDensite(Graphics2D g2, Rectangle zone, double echelle, int exclu)
+	{
+		Cumuls comptes;
+		int    taille, max, cx, cy, alpha;
+
+		comptes = CUMULS.get();
+		comptes.vider(1);
+		taille  = Math.max(1, (int) Math.ceil(TAILLE_DENSITE / echelle));
+
+		this.indexNoeuds.rechercher(zone, i ->
+		{
+			if (i == exclu) return;
+
+			long cle = ((long) Math.floorDiv(this.tabX[i] + this.tabLargeur[i] / 2, taille) << 32) |
+			           (Math.floorDiv(this.tabY[i] + HAUTEUR / 2, taille) & 0xFFFFFFFFL);
+			comptes.valeurs[comptes.debut(cle)]++;
+		});
+
+		max = 1;
+		for (int c = 0; c < comptes.nb; c++)
+			max = (int) Math.max(max, comptes.valeurs[c]);
+
+		for (int c = 0; c < comptes.nb; c++)
+		{
+			cx    = (int) (comptes.cles[c] >> 32);
+			cy    = (int)  comptes.cles[c];
+			alpha = (int) (40 + 215 * comptes.valeurs[c] / max);
+
+			g2.setColor(new Color(200, 30, 30, alpha));
+			g2.fillRect(cx * taille, cy * taille, taille, taille);
+		}
+	}
+
+	/**Dessine une flèche du point (x1, y1) vers le point (x2, y2).
+	 * @param g2 graphique dans lequel nous allons dessiner la flèche.
+	 * @param x1 abscisse du départ.
+	 * @param y1 ordonnée du départ.
+	 * @param x2 abscisse de la pointe.
+	 * @param y2 ordonnée de la pointe.
+	 */
+	private static void dessineFleche(Graphics2D g2, int x1, int y1, int x2, int y2)
+	{
+		int tailleFleche = 10;
+
+		double angle = Math.atan2(y2 - y1, x2 - x1);
+
+		// Ligne principale
+		g2.drawLine(x1, y1, x2, y2);
+
+		// Calcul des points du triangle
+		int xFleche1 = (int) (x2 - tailleFleche * Math.cos(angle - Math.PI / 6));
+		int yFleche1 = (int) (y2 - tailleFleche * Math.sin(angle - Math.PI / 6));
+		int xFleche2 = (int) (x2 - tailleFleche * Math.cos(angle + Math.PI / 6));
+		int yFleche2 = (int) (y2 - tailleFleche * Math.sin(angle + Math.PI / 6));
+
+		g2.setColor(Color.BLUE);
+		g2.fillPolygon(new int[] { x2, xFleche1, xFleche2 }, new int[] { y2, yFleche1, yFleche2 }, 3);
+	}
+
+	private void etendreBornes(int x, int y, int l, int h)
+	{
+		if (this.bornes == null)
+			this.bornes = new Rectangle(x, y, l, h);
+		else
+			this.bornes.add(new Rectangle(x, y, l, h));
+	}
+
+	/**Cumuls par cellule d'un dessin en faisceaux ou en densité : chaque clé de cellule reçoit une plage
+	 * de valeurs à la suite des autres. Un jeu par fil de rendu (les tuiles se dessinent en parallèle),
+	 * vidé et réutilisé d'un dessin à l'autre : rien n'est alloué tant que le nombre de cellules ne grandit pas.
+	 */
+	private static final class Cumuls
+	{
+		private final TableEntiers numeros = new TableEntiers(256);
+		private long[]             cles    = new long[256];
+		private long[]             valeurs = new long[256];
+		private int                largeur;
+		private int                nb;
+
+		/**Vide les cumuls pour un nouveau dessin.
+		 * @param largeur nombre de valeurs par cellule.
+		 */
+		private void vider(int largeur)
+		{
+			this.numeros.vider();
+			this.largeur = largeur;
+			this.nb      = 0;
+		}
+
+		/**Début de la plage d'une cellule dans les valeurs, créée à zéro au premier passage.
+		 */
+		private int debut(long cle)
+		{
+			int c = this.numeros.get(cle, -1);
+
+			if (c == -1)
+			{
+				c = this.nb++;
+				this.numeros.put(cle, c);
+				if (c == this.cles.length)
+					this.cles = Arrays.copyOf(this.cles, c * 2);
+				if ((c + 1) * this.largeur > this.valeurs.length)
+					this.valeurs = Arrays.copyOf(this.valeurs, Math.max(this.valeurs.length * 2, (c + 1) * this.largeur));
+
+				this.cles[c] = cle;
+				Arrays.fill(this.valeurs, c * this.largeur, (c + 1) * this.largeur, 0L);
+			}
+			return c * this.largeur;
+		}
+	}
+}
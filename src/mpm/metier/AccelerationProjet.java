@@ -0,0 +1,480 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import mpm.metier.collection.TasLongs;
+
+/**
+ * La classe {@code AccelerationProjet} cherche la façon la moins chère de raccourcir un projet jusqu'à
+ * une durée visée, quand des tâches peuvent être accélérées : la colonne « Accélération » de la grille
+ * donne leur durée minimale et le coût de chaque jour gagné (par exemple « 3/150 »).
+ *
+ * Le projet est raccourci jour par jour. Chaque jour, tous les chemins critiques doivent perdre un jour :
+ * on accélère les tâches d'une coupe de coût minimal du sous-graphe critique, calculée par flot maximal
+ * ({@link ReseauFlot}). Chaque tâche y est un arc de capacité son coût par jour, infinie si elle ne peut
+ * plus être accélérée ; une coupe de capacité infinie veut dire que la durée visée est hors d'atteinte.
+ * Une tâche accélérée qui n'est plus critique reprend ensuite les jours que sa marge permet, les plus
+ * chères d'abord.
+ *
+ * Les dates ne sont jamais recalculées en entier : après chaque jour gagné, les dates au plus tôt sont
+ * repoussées vers l'aval des seules tâches modifiées, et leurs « queues » (plus long chemin de leur début
+ * à la fin du projet) vers l'amont, en s'arrêtant dès qu'une valeur ne change pas. Le sous-graphe
+ * critique est parcouru depuis Début : un jour coûte ainsi de l'ordre de la taille de ce sous-graphe.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class AccelerationProjet
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache> taches;   // par numéro
+	private final long        epoque;   // du projet relevé
+	private final int         idDebut, idFin;
+
+	private final int[]       ordre, rangs; // chaque tâche après ses prédécesseurs, et son rang dans cet ordre
+	private final int[]       debutPrc, prc;
+	private final int[]       debutSvt, svt;
+	private final int[]       dureesNormales, dureesMin;
+	private final long[]      couts;    // par jour gagné
+
+	/**Constructeur d'AccelerationProjet : relève le graphe du projet et les accélérations de sa grille.
+	 * Le projet peut ensuite changer : l'accélération garde ce qu'elle a relevé.
+	 * @param projet le projet, chargé.
+	 * @throws IllegalStateException    si aucun projet n'est chargé.
+	 * @throws NumberFormatException    si une accélération est mal écrite.
+	 * @throws IllegalArgumentException si une durée minimale dépasse la durée de sa tâche.
+	 */
+	public AccelerationProjet(Mpm projet)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		GrilleDonneesModel grille;
+		Adjacence          adjacence;
+		Tache              tache;
+		int[]              acceleration;
+		int                n, ligne;
+
+		if (projet.getDebut() == null || projet.getFin() == null)
+			throw new IllegalStateException("Aucun projet chargé.");
+
+		adjacence    = projet.getAdjacence();
+		grille       = projet.getGrilleDonneesModel();
+		this.taches  = Collections.unmodifiableList(new ArrayList<>(projet.getTaches()));
+		this.epoque  = projet.getEpoque();
+		this.idDebut = projet.getDebut().getId();
+		this.idFin   = projet.getFin  ().getId();
+		this.ordre   = projet.getOrdreParNiveau();
+		n            = this.taches.size();
+
+		this.rangs = new int[n];
+		for (int rang = 0; rang < n; rang++)
+			this.rangs[this.ordre[rang]] = rang;
+
+		this.debutPrc = adjacence.copierDebutsPredecesseurs();
+		this.prc      = adjacence.copierPredecesseurs();
+		this.debutSvt = adjacence.copierDebutsSuccesseurs();
+		this.svt      = adjacence.copierSuccesseurs();
+
+		// Durées et accélérations, lues dans la grille ; une tâche sans accélération garde sa durée
+		this.dureesNormales = new int [n];
+		this.dureesMin      = new int [n];
+		this.couts          = new long[n];
+		for (int id = 0; id < n; id++)
+		{
+			tache                   = this.taches.get(id);
+			this.dureesNormales[id] = tache.getDuree();
+			this.dureesMin     [id] = tache.getDuree();
+
+			ligne        = id == this.idDebut || id == this.idFin ? -1 : grille.getLigne(tache.getNom());
+			acceleration = ligne == -1 || grille.getColumnCount() <= 7 ? null
+			             : AccelerationProjet.lireAcceleration(tache.getNom(), grille.getValueAt(ligne, 7));
+			if (acceleration == null) continue;
+
+			if (acceleration[0] > tache.getDuree())
+				throw new IllegalArgumentException("Accélération de " + tache.getNom() + " : la durée minimale ("
+				                                   + acceleration[0] + ") dépasse la durée (" + tache.getDuree() + ").");
+
+			this.dureesMin[id] = acceleration[0];
+			this.couts    [id] = acceleration[1];
+		}
+	}
+
+	/**Lit une accélération.
+	 * @param nom   nom de la tâche (pour le message d'erreur).
+	 * @param texte l'accélération « durée minimale/coût par jour gagné », ou rien.
+	 * @return La durée minimale et le coût, ou null si l'accélération n'est pas renseignée.
+	 * @throws NumberFormatException si l'accélération est mal écrite ou si un nombre est négatif.
+	 */
+	public static int[] lireAcceleration(String nom, Object texte)
+	{
+		String[] parties;
+		int[]    acceleration;
+
+		if (texte == null || texte.toString().isBlank()) return null;
+
+		parties = texte.toString().split("/");
+		if (parties.length != 2)
+			throw new NumberFormatException("Accélération de " + nom + " : « durée minimale/coût par jour » attendu.");
+
+		acceleration = new int[] { Integer.parseInt(parties[0].trim()), Integer.parseInt(parties[1].trim()) };
+		if (acceleration[0] < 0 || acceleration[1] < 0)
+			throw new NumberFormatException("Accélération de " + nom + " : la durée et le coût ne peuvent pas être négatifs.");
+
+		return acceleration;
+	}
+
+	/*------------------------------------------*/
+	/*    Accélération                          */
+	/*------------------------------------------*/
+
+	/**Raccourcit le projet jour par jour jusqu'à la durée visée, ou tant que c'est possible.
+	 * @param dureeCible durée visée, en jours.
+	 * @param avancement suivi de l'avancement et de l'annulation.
+	 * @return Les durées accélérées et leur coût, avec le coût de chaque durée atteinte en chemin ;
+	 *         null si le calcul a été annulé.
+	 */
+	public ResultatAcceleration accelerer(int dureeCible, Mpm.Avancement avancement)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		Etat       etat;
+		ReseauFlot reseau;
+		int[]      dureesCourbe;
+		long[]     coutsCourbe;
+		long       cout, flot;
+		int        dureeInitiale, nbPoints;
+
+		etat          = new Etat();
+		reseau        = new ReseauFlot();
+		dureeInitiale = etat.duree();
+		dureesCourbe  = new int [Math.max(1, dureeInitiale - dureeCible) + 1];
+		coutsCourbe   = new long[dureesCourbe.length];
+		dureesCourbe[0] = dureeInitiale;
+		nbPoints        = 1;
+		cout            = 0;
+
+		while (etat.duree() > dureeCible)
+		{
+			if (avancement.estAnnule()) return null;
+
+			// Un jour de moins sur tous les chemins critiques, par la coupe la moins chère
+			flot = etat.couper(reseau);
+			if (flot >= ReseauFlot.INFINI) break;
+			etat.propager();
+			cout += flot - etat.relacher();
+
+			dureesCourbe[nbPoints] = etat.duree();
+			coutsCourbe [nbPoints] = cout;
+			nbPoints++;
+			avancement.etape("Accélération : " + etat.duree() + " jours, coût " + cout,
+			                 (int) (100L * (dureeInitiale - etat.duree()) / (dureeInitiale - dureeCible)));
+		}
+
+		return new ResultatAcceleration(this.taches, this.epoque, this.dureesNormales, etat.durees, this.couts, dureeCible,
+		                                Arrays.copyOf(dureesCourbe, nbPoints), Arrays.copyOf(coutsCourbe, nbPoints));
+	}
+
+	/*------------------------------------------*/
+	/*    Classes internes                      */
+	/*------------------------------------------*/
+
+	/**Les durées en cours et les dates qui en découlent, tenues à jour pas à pas.
+	 */
+	private final class Etat
+	{
+		private final int[]     durees;
+		private final int[]     tetes;    // date au plus tôt
+		private final int[]     queues;   // plus long chemin du début de la tâche à la fin du projet
+
+		private final int[]     locaux;   // numéro de la chaîne de chaque tâche critique
+		private final int[]     marques;  // passage où la tâche a été vue critique
+		private final int[]     critiques;
+		private final int[]     entrees, sorties, uniques; // liens critiques de chaque tâche, et son seul successeur critique
+		private final int[]     moinsCheres, dernieres;    // par chaîne
+		private final boolean[] enFile;
+		private final TasLongs  tas;
+		private final int[]     modifiees;
+		private int             nbModifiees, passage;
+
+		private final int[]     accelerees; // tâches raccourcies, dont certaines revenues depuis à la normale
+		private final boolean[] listees;
+		private int             nbAccelerees;
+		private long[]          cles;
+
+		private Etat()
+		{
+			int n = taches.size();
+
+			this.durees    = dureesNormales.clone();
+			this.tetes     = new int    [n];
+			this.queues    = new int    [n];
+			this.locaux    = new int    [n];
+			this.marques   = new int    [n];
+			this.critiques = new int    [n];
+			this.entrees   = new int    [n];
+			this.sorties   = new int    [n];
+			this.uniques   = new int    [n];
+			this.moinsCheres = new int  [n];
+			this.dernieres   = new int  [n];
+			this.enFile    = new boolean[n];
+			this.tas       = new TasLongs(n);
+			this.modifiees = new int    [n];
+
+			this.accelerees = new int    [n];
+			this.listees    = new boolean[n];
+			this.cles       = new long   [16];
+
+			// Dates complètes une seule fois ; elles sont ensuite mises à jour pas à pas
+			for (int t : ordre)
+				for (int k = debutPrc[t]; k < debutPrc[t + 1]; k++)
+					this.tetes[t] = Math.max(this.tetes[t], this.tetes[prc[k]] + this.durees[prc[k]]);
+			for (int i = n - 1; i >= 0; i--)
+			{
+				int t = ordre[i];
+				for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+					this.queues[t] = Math.max(this.queues[t], this.queues[svt[k]]);
+				this.queues[t] += this.durees[t];
+			}
+		}
+
+		/**Récupère la durée du projet.
+		 */
+		private int duree() { return this.queues[idDebut]; }
+
+		/**Indique si une tâche est sur un chemin critique.
+		 */
+		private boolean estCritique(int t) { return this.tetes[t] + this.queues[t] == this.duree(); }
+
+		/**Cherche une coupe de coût minimal du sous-graphe critique et raccourcit ses tâches d'un jour.
+		 * Les tâches critiques à la file (un seul lien critique entre deux tâches) forment une chaîne : une
+		 * coupe n'en raccourcit jamais qu'une, la moins chère, et la chaîne n'est qu'un arc du réseau.
+		 * @return Le coût de la coupe, au moins {@link ReseauFlot#INFINI} si aucune coupe n'est possible :
+		 *         un chemin critique n'a plus rien à accélérer.
+		 */
+		private long couper(ReseauFlot reseau)
+		{
+			long flot, capacite;
+			int  nb, nbChaines, t, s, lu;
+
+			// Sous-graphe critique, parcouru depuis Début par les arcs sans marge
+			this.passage++;
+			nb                        = 0;
+			this.critiques[nb++]      = idDebut;
+			this.marques  [idDebut]   = this.passage;
+			this.entrees  [idDebut]   = 0;
+			for (lu = 0; lu < nb; lu++)
+			{
+				t                 = this.critiques[lu];
+				this.sorties[t]   = 0;
+				for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+				{
+					s = svt[k];
+					if (this.tetes[t] + this.durees[t] + this.queues[s] != this.duree()) continue;
+
+					if (this.marques[s] != this.passage)
+					{
+						this.critiques[nb++] = s;
+						this.marques  [s]    = this.passage;
+						this.entrees  [s]    = 0;
+					}
+					this.entrees[s]++;
+					this.sorties[t]++;
+					this.uniques[t] = s;
+				}
+			}
+
+			// Chaînes : chacune part d'une tâche qui ne prolonge pas la précédente
+			nbChaines = 0;
+			for (int i = 0; i < nb; i++)
+			{
+				t = this.critiques[i];
+				if (this.entrees[t] == 1 && this.prolonge(t)) continue;
+
+				this.moinsCheres[nbChaines] = t;
+				this.locaux     [t]         = nbChaines;
+				while (this.sorties[t] == 1 && this.entrees[this.uniques[t]] == 1)
+				{
+					t              = this.uniques[t];
+					this.locaux[t] = nbChaines;
+					if (this.capacite(t) < this.capacite(this.moinsCheres[nbChaines])) this.moinsCheres[nbChaines] = t;
+				}
+				this.dernieres[nbChaines++] = t;
+			}
+
+			// Chaque chaîne est un arc entrée -> sortie ; les liens ne peuvent pas être coupés
+			reseau.vider(2 * nbChaines);
+			for (int c = 0; c < nbChaines; c++)
+			{
+				t        = this.dernieres[c];
+				capacite = this.capacite(this.moinsCheres[c]);
+				reseau.ajouterArc(2 * c, 2 * c + 1, capacite);
+				for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+				{
+					s = svt[k];
+					if (this.marques[s] == this.passage && this.tetes[t] + this.durees[t] + this.queues[s] == this.duree())
+						reseau.ajouterArc(2 * c + 1, 2 * this.locaux[s], ReseauFlot.INFINI);
+				}
+			}
+			flot = reseau.flotMaximal(2 * this.locaux[idDebut], 2 * this.locaux[idFin] + 1, ReseauFlot.INFINI);
+			if (flot >= ReseauFlot.INFINI) return flot;
+
+			// Chaînes coupées : entrée du côté de Début, sortie du côté de Fin
+			this.nbModifiees = 0;
+			for (int c = 0; c < nbChaines; c++)
+			{
+				if (!reseau.estCoteSource(2 * c) || reseau.estCoteSource(2 * c + 1)) continue;
+
+				t = this.moinsCheres[c];
+				if (!this.listees[t])
+				{
+					this.listees   [t]                   = true;
+					this.accelerees[this.nbAccelerees++] = t;
+				}
+				this.durees[t]--;
+				this.modifiees[this.nbModifiees++] = t;
+			}
+			return flot;
+		}
+
+		/**Indique si une tâche critique prolonge la chaîne de son seul prédécesseur critique.
+		 */
+		private boolean prolonge(int t)
+		{
+			int p;
+
+			for (int k = debutPrc[t]; k < debutPrc[t + 1]; k++)
+			{
+				p = prc[k];
+				if (this.marques[p] == this.passage && this.tetes[p] + this.durees[p] + this.queues[t] == this.duree())
+					return this.sorties[p] == 1;
+			}
+			return false;
+		}
+
+		/**Récupère la capacité d'une tâche dans le réseau : son coût par jour, infini si elle est à sa durée minimale.
+		 */
+		private long capacite(int t) { return this.durees[t] > dureesMin[t] ? couts[t] : ReseauFlot.INFINI; }
+
+		/**Rend à chaque tâche accélérée qui a de la marge les jours que la marge permet, les plus
+		 * chères d'abord : le projet ne s'allonge pas et coûte moins.
+		 * @return Le coût économisé.
+		 */
+		private long relacher()
+		{
+			long economie;
+			int  nb, garde, t, jours;
+
+			// Tâches accélérées avec de la marge, par coût décroissant ; les tâches revenues à la normale sont oubliées
+			nb    = 0;
+			garde = 0;
+			for (int i = 0; i < this.nbAccelerees; i++)
+			{
+				t = this.accelerees[i];
+				if (this.durees[t] == dureesNormales[t])
+				{
+					this.listees[t] = false;
+					continue;
+				}
+
+				this.accelerees[garde++] = t;
+				if (this.estCritique(t)) continue;
+
+				if (nb == this.cles.length) this.cles = Arrays.copyOf(this.cles, 2 * nb);
+				this.cles[nb++] = ((Integer.MAX_VALUE - couts[t]) << 32) | t;
+			}
+			this.nbAccelerees = garde;
+			Arrays.sort(this.cles, 0, nb);
+
+			economie = 0;
+			for (int i = 0; i < nb; i++)
+			{
+				t     = (int) this.cles[i];
+				jours = Math.min(dureesNormales[t] - this.durees[t], this.duree() - this.tetes[t] - this.queues[t]);
+				if (jours <= 0) continue;
+
+				this.durees[t]   += jours;
+				economie         += jours * couts[t];
+				this.modifiees[0] = t;
+				this.nbModifiees  = 1;
+				this.propager();
+			}
+			return economie;
+		}
+
+		/**Met à jour les dates après un changement de durée des tâches modifiées : les dates au plus tôt
+		 * vers l'aval dans l'ordre des niveaux, les queues vers l'amont dans l'ordre inverse, chacune
+		 * seulement tant qu'elle change.
+		 */
+		private void propager()
+		{
+			int n, t, s, p, valeur;
+
+			n = taches.size();
+
+			// Dates au plus tôt des successeurs
+			for (int i = 0; i < this.nbModifiees; i++)
+			{
+				t = this.modifiees[i];
+				for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+					this.mettreEnFile(svt[k], rangs[svt[k]]);
+			}
+			while (!this.tas.estVide())
+			{
+				s              = (int) this.tas.retirerMin();
+				this.enFile[s] = false;
+
+				valeur = 0;
+				for (int k = debutPrc[s]; k < debutPrc[s + 1]; k++)
+				{
+					p      = prc[k];
+					valeur = Math.max(valeur, this.tetes[p] + this.durees[p]);
+				}
+				if (valeur == this.tetes[s]) continue;
+
+				this.tetes[s] = valeur;
+				for (int k = debutSvt[s]; k < debutSvt[s + 1]; k++)
+					this.mettreEnFile(svt[k], rangs[svt[k]]);
+			}
+
+			// Queues des tâches modifiées et de leurs prédécesseurs
+			for (int i = 0; i < this.nbModifiees; i++)
+				this.mettreEnFile(this.modifiees[i], n - 1 - rangs[this.modifiees[i]]);
+			while (!this.tas.estVide())
+			{
+				t              = (int) this.tas.retirerMin();
+				this.enFile[t] = false;
+
+				valeur = 0;
+				for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+					valeur = Math.max(valeur, this.queues[svt[k]]);
+				valeur += this.durees[t];
+				if (valeur == this.queues[t]) continue;
+
+				this.queues[t] = valeur;
+				for (int k = debutPrc[t]; k < debutPrc[t + 1]; k++)
+					this.mettreEnFile(prc[k], n - 1 - rangs[prc[k]]);
+			}
+		}
+
+		/**Met une tâche dans le tas, une seule fois, rangée par la clé donnée.
+		 */
+		private void mettreEnFile(int t, int cle)
+		{
+			if (this.enFile[t]) return;
+
+			this.enFile[t] = true;
+			this.tas.ajouter(((long) cle << 32) | t);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package mpm.metier;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * La classe {@code Adjacence} range les liens de précédence de tout le projet dans quatre tableaux
+ * d'entiers (format « lignes compressées ») : pour la tâche de numéro i, ses prédécesseurs sont les
+ * numéros {@code prc[debutPrc[i]]} à {@code prc[debutPrc[i + 1] - 1]}, et de même pour ses successeurs.
+ *
+ * Les liens sont ainsi stockés une seule fois pour tout le projet, sans liste ni objet par tâche.
+ * Une adjacence n'est jamais modifiée : le projet en construit une nouvelle quand ses tâches changent.
+ *
+ * Fonctionnalités principales :
+ *   Parcours des prédécesseurs et successeurs d'une tâche par numéros (boucles de calcul)
+ *   Vues en listes de tâches, en lecture seule, pour les vues et la disposition
+ *   Comparaison de deux adjacences (même structure de projet)
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class Adjacence
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final Tache[] taches;   // par numéro
+
+	private final int[]   debutPrc; // taille nbTaches + 1
+	private final int[]   prc;
+	private final int[]   debutSvt; // taille nbTaches + 1
+	private final int[]   svt;
+
+	/**Constructeur d'Adjacence.
+	 * Les prédécesseurs (et successeurs) d'une tâche gardent l'ordre dans lequel les arcs sont donnés.
+	 * @param taches  tâches du projet, numérotées de 0 à taches.size() - 1 dans l'ordre de la liste.
+	 * @param sources numéro de la tâche de départ de chaque arc.
+	 * @param cibles  numéro de la tâche d'arrivée de chaque arc.
+	 * @param nbArcs  nombre d'arcs (les tableaux peuvent être plus grands).
+	 */
+	public Adjacence(List<Tache> taches, int[] sources, int[] cibles, int nbArcs)
+	{
+		int n;
+
+		n           = taches.size();
+		this.taches = taches.toArray(new Tache[n]);
+
+		this.debutPrc = new int[n + 1];
+		this.debutSvt = new int[n + 1];
+		this.prc      = new int[nbArcs];
+		this.svt      = new int[nbArcs];
+
+		Adjacence.ranger(cibles,  sources, nbArcs, this.debutPrc, this.prc);
+		Adjacence.ranger(sources, cibles,  nbArcs, this.debutSvt, this.svt);
+	}
+
+	/**Range les arcs par tâche (tri par dénombrement, stable).
+	 * @param cles    tâche à laquelle l'arc est rangé.
+	 * @param valeurs tâche à l'autre bout de l'arc.
+	 * @param nbArcs  nombre d'arcs.
+	 * @param debut   rempli : début de la plage de chaque tâche.
+	 * @param rangees rempli : les valeurs rangées par tâche.
+	 */
+	private static void ranger(int[] cles, int[] valeurs, int nbArcs, int[] debut, int[] rangees)
+	{
+		int[] position;
+
+		for (int a = 0; a < nbArcs; a++)
+			debut[cles[a] + 1]++;
+		for (int i = 1; i < debut.length; i++)
+			debut[i] += debut[i - 1];
+
+		position = Arrays.copyOf(debut, debut.length - 1);
+		for (int a = 0; a < nbArcs; a++)
+			rangees[position[cles[a]]++] = valeurs[a];
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre de tâches.
+	 * @return Entier qui représente le nombre de tâches.
+	 */
+	public int   getNbTaches        ()        { return this.taches.length;       }
+
+	/**Récupère le nombre d'arcs.
+	 * @return Entier qui représente le nombre d'arcs.
+	 */
+	public int   getNbArcs          ()        { return this.svt.length;          }
+
+	/**Récupère la tâche de numéro donné.
+	 * @param id numéro de la tâche.
+	 * @return La tâche.
+	 */
+	public Tache getTache           (int id)  { return this.taches[id];          }
+
+	/**Début de la plage des prédécesseurs d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Indice à passer à {@link #predecesseur(int)}.
+	 */
+	public int   debutPredecesseurs (int id)  { return this.debutPrc[id];        }
+
+	/**Fin (exclue) de la plage des prédécesseurs d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Indice de fin.
+	 */
+	public int   finPredecesseurs   (int id)  { return this.debutPrc[id + 1];    }
+
+	/**Numéro du prédécesseur rangé à l'indice k.
+	 * @param k indice dans la plage d'une tâche.
+	 * @return Numéro de la tâche.
+	 */
+	public int   predecesseur       (int k)   { return this.prc[k];              }
+
+	/**Début de la plage des successeurs d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Indice à passer à {@link #successeur(int)}.
+	 */
+	public int   debutSuccesseurs   (int id)  { return this.debutSvt[id];        }
+
+	/**Fin (exclue) de la plage des successeurs d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Indice de fin.
+	 */
+	public int   finSuccesseurs     (int id)  { return this.debutSvt[id + 1];    }
+
+	/**Numéro du successeur rangé à l'indice k.
+	 * @param k indice dans la plage d'une tâche.
+	 * @return Numéro de la tâche.
+	 */
+	public int   successeur         (int k)   { return this.svt[k];              }
+
+	/**Copie le début de la plage des prédécesseurs de chaque tâche, pour les calculs qui travaillent sur leurs propres tableaux.
+	 * @return Tableau de taille nbTaches + 1.
+	 */
+	int[]        copierDebutsPredecesseurs() { return this.debutPrc.clone(); }
+
+	/**Copie les prédécesseurs de toutes les tâches, rangés par tâche.
+	 * @return Tableau de taille nbArcs.
+	 */
+	int[]        copierPredecesseurs      () { return this.prc.clone();      }
+
+	/**Copie le début de la plage des successeurs de chaque tâche.
+	 * @return Tableau de taille nbTaches + 1.
+	 */
+	int[]        copierDebutsSuccesseurs  () { return this.debutSvt.clone(); }
+
+	/**Copie les successeurs de toutes les tâches, rangés par tâche.
+	 * @return Tableau de taille nbArcs.
+	 */
+	int[]        copierSuccesseurs        () { return this.svt.clone();      }
+
+	/**Récupère les prédécesseurs d'une tâche, en lecture seule.
+	 * @param id numéro de la tâche.
+	 * @return Vue en liste sur les tableaux (rien n'est recopié).
+	 */
+	public List<Tache> getPredecesseurs(int id) { return new Voisines(this.prc, this.debutPrc[id], this.debutPrc[id + 1]); }
+
+	/**Récupère les successeurs d'une tâche, en lecture seule.
+	 * @param id numéro de la tâche.
+	 * @return Vue en liste sur les tableaux (rien n'est recopié).
+	 */
+	public List<Tache> getSuccesseurs  (int id) { return new Voisines(this.svt, this.debutSvt[id], this.debutSvt[id + 1]); }
+
+	/*------------------------------------------*/
+	/*    Autres méthodes                       */
+	/*------------------------------------------*/
+
+	/**Indique si une autre adjacence relie les mêmes numéros de la même façon.
+	 * @param autre l'autre adjacence.
+	 * @return true si les arcs sont les mêmes.
+	 */
+	public boolean memesArcs(Adjacence autre)
+	{
+		return autre != null && Arrays.equals(this.debutPrc, autre.debutPrc) && Arrays.equals(this.prc, autre.prc);
+	}
+
+	/**Estime la place occupée en mémoire par les tableaux (hors tâches).
+	 * @return Nombre d'octets.
+	 */
+	public long tailleOctets()
+	{
+		return 4L * (this.debutPrc.length + this.prc.length + this.debutSvt.length + this.svt.length)
+		     + 4L * this.taches.length + 4 * 16;
+	}
+
+	/**Liste en lecture seule sur une plage d'un tableau de numéros.
+	 */
+	private class Voisines extends AbstractList<Tache> implements RandomAccess
+	{
+		private final int[] ids;
+		private final int   debut, fin;
+
+		private Voisines(int[] ids, int debut, int fin)
+		{
+			this.ids   = ids;
+			this.debut = debut;
+			this.fin   = fin;
+		}
+
+		public Tache get (int i) { return taches[this.ids[this.debut + Objects.checkIndex(i, this.size())]]; }
+		public int   size()      { return this.fin - this.debut;            }
+	}
+}
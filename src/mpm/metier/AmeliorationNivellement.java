@@ -0,0 +1,440 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La classe {@code AmeliorationNivellement} raccourcit un projet nivelé (voir {@link OrdonnancementRessources})
+ * en cherchant, pendant un temps donné, une meilleure liste de placement des tâches.
+ *
+ * Plusieurs méthodes tournent en même temps, une par cœur, chacune sur son propre fil :
+ *   passes avant-arrière : les tâches sont replacées le plus tard possible en partant de la fin, puis
+ *                          le plus tôt possible dans l'ordre obtenu, tant que le projet raccourcit ;
+ *   génétique            : une population de listes se croise (début d'une liste, reste dans l'ordre
+ *                          de l'autre) et mute (deux tâches voisines indépendantes échangées) ;
+ *   clés aléatoires      : chaque tâche a une priorité, bruitée à chaque essai, gardée si le projet
+ *                          ne s'allonge pas.
+ * Toutes partent des plannings des règles de priorité et du planning MPM, et partagent la meilleure
+ * solution trouvée : chaque méthode la propose sans verrou (comparer-échanger) et la reprend de temps
+ * en temps. Une liste respecte toujours les précédences ; la placer donne un planning valide.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class AmeliorationNivellement
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public static final long GRAINE_DEFAUT = 0x4E69766C6C656D65L;
+
+	private static final int TAILLE_POPULATION    = 24;
+	private static final int ESSAIS_AVANT_REPRISE = 64;  // essais sans progrès avant de repartir de la meilleure solution
+	private static final int ECART_CLES           = 1024; // écart entre les clés de deux places voisines
+
+	/**Méthodes d'amélioration, réparties entre les fils.
+	 */
+	private enum Methode { PASSES_AVANT_ARRIERE, GENETIQUE, CLES_ALEATOIRES }
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final OrdonnancementRessources  ordonnancement;
+	private final AtomicReference<Solution> meilleure;
+	private final LongAdder                 nbEssais;
+
+	/**Constructeur d'AmeliorationNivellement.
+	 * @param ordonnancement le graphe et les demandes relevés.
+	 */
+	public AmeliorationNivellement(OrdonnancementRessources ordonnancement)
+	{
+		this.ordonnancement = ordonnancement;
+		this.meilleure      = new AtomicReference<>();
+		this.nbEssais       = new LongAdder();
+	}
+
+	/*------------------------------------------*/
+	/*    Amélioration                          */
+	/*------------------------------------------*/
+
+	/**Cherche un planning plus court pendant un temps donné, sur tous les cœurs.
+	 * @param dureeMax   temps accordé, en millisecondes.
+	 * @param graine     graine des tirages ; le résultat dépend aussi du temps accordé à chaque fil.
+	 * @param avancement suivi de l'avancement et de l'annulation.
+	 * @return Le meilleur planning trouvé, jamais plus long que celui des règles de priorité ;
+	 *         null si le calcul a été annulé.
+	 * @throws RuntimeException l'erreur d'un fil, si l'un d'eux a échoué.
+	 */
+	public ResultatNivellement ameliorer(long dureeMax, long graine, Mpm.Avancement avancement)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		ExecutorService  fils;
+		List<Future<?>>  travaux;
+		SplittableRandom racine;
+		Solution         depart;
+		Throwable        echec;
+		long             debut, echeance;
+		int              nbFils;
+
+		debut    = System.nanoTime();
+		echeance = debut + TimeUnit.MILLISECONDS.toNanos(dureeMax);
+
+		// Départ : le meilleur des plannings des règles et du planning MPM
+		this.meilleure.set(null);
+		this.nbEssais.reset();
+		for (OrdonnancementRessources.Regle regle : OrdonnancementRessources.Regle.values())
+			Solution.proposer(this.meilleure, Solution.evaluer(this.ordonnancement, this.ordonnancement.liste(this.ordonnancement.priorites(regle))));
+		Solution.proposer(this.meilleure, Solution.evaluer(this.ordonnancement, this.ordonnancement.listeSansRessources()));
+		depart = this.meilleure.get();
+
+		// Au moins un fil par méthode, même sur une machine à un ou deux cœurs : chacune tourne jusqu'à l'échéance
+		nbFils = Math.max(Runtime.getRuntime().availableProcessors(), Methode.values().length);
+		racine = new SplittableRandom(graine);
+		fils   = Executors.newFixedThreadPool(nbFils, r ->
+		{
+			Thread t = new Thread(r, "amelioration-mpm");
+			t.setDaemon(true);
+			return t;
+		});
+
+		travaux = new ArrayList<>(nbFils);
+		for (int i = 0; i < nbFils; i++)
+		{
+			Methode          methode = Methode.values()[i % Methode.values().length];
+			SplittableRandom hasard  = racine.split();
+			travaux.add(fils.submit(() -> this.executer(methode, hasard, echeance, avancement)));
+		}
+		fils.shutdown();
+
+		try
+		{
+			while (!fils.awaitTermination(100, TimeUnit.MILLISECONDS))
+				avancement.etape("Amélioration : " + this.meilleure.get().duree + " jours",
+				                 (int) Math.min(99, 100 * (System.nanoTime() - debut) / Math.max(1, echeance - debut)));
+
+			// Un fil a échoué : l'erreur remonte à l'appelant plutôt que de rendre un planning incomplet
+			for (Future<?> travail : travaux)
+				travail.get();
+		}
+		catch (InterruptedException e)
+		{
+			fils.shutdownNow();
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch (ExecutionException e)
+		{
+			echec = e.getCause();
+			if (echec instanceof RuntimeException) throw (RuntimeException) echec;
+			if (echec instanceof Error)            throw (Error)            echec;
+			throw new IllegalStateException(echec);
+		}
+
+		if (avancement.estAnnule()) return null;
+
+		return this.ordonnancement.ordonnancer(this.meilleure.get().liste,
+		                                       "Amélioré de " + (depart.duree - this.meilleure.get().duree) + " jours ("
+		                                       + this.nbEssais.sum() + " plannings essayés sur " + nbFils + " fils)");
+	}
+
+	/**Fait tourner une méthode jusqu'à l'échéance ou l'annulation.
+	 */
+	private void executer(Methode methode, SplittableRandom hasard, long echeance, Mpm.Avancement avancement)
+	{
+		Fil fil = new Fil(hasard, echeance, avancement);
+
+		switch (methode)
+		{
+			case PASSES_AVANT_ARRIERE : this.passesAvantArriere(fil); break;
+			case GENETIQUE            : this.genetique         (fil); break;
+			default                   : this.clesAleatoires    (fil); break;
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Passes avant-arrière                  */
+	/*------------------------------------------*/
+
+	/**Justifie la meilleure solution à droite puis à gauche tant que le projet raccourcit,
+	 * puis repart d'une variante de la meilleure solution (quelques tâches voisines échangées).
+	 */
+	private void passesAvantArriere(Fil fil)
+	{
+		int[] liste;
+		int   duree, nouvelle;
+
+		while (!fil.estFini())
+		{
+			liste = this.meilleure.get().liste.clone();
+			this.muter(fil, liste, 1 + fil.hasard.nextInt(Math.max(1, liste.length / 100)));
+			duree = fil.placer(liste, false);
+
+			while (!fil.estFini())
+			{
+				// Le plus tard possible en partant de la fin, puis le plus tôt possible dans l'ordre obtenu
+				this.ordonnancement.listeParDates(fil.debuts, true, fil.cles, fil.liste);
+				fil.placer(fil.liste, true);
+				this.ordonnancement.listeParDates(fil.debuts, false, fil.cles, fil.liste);
+				nouvelle = fil.placer(fil.liste, false);
+				if (nouvelle >= duree) break;
+
+				duree = nouvelle;
+				liste = fil.liste.clone();
+			}
+			Solution.proposer(this.meilleure, new Solution(liste, duree));
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Génétique                             */
+	/*------------------------------------------*/
+
+	/**Algorithme génétique à population stable : deux parents tirés par tournoi donnent un enfant,
+	 * qui remplace le pire individu s'il est meilleur. La meilleure solution partagée est réintroduite
+	 * quand la population ne progresse plus.
+	 */
+	private void genetique(Fil fil)
+	{
+		List<Solution> population;
+		Solution       mere, pere, enfant;
+		int[]          liste;
+		int            pire, sansProgres;
+
+		population = new ArrayList<>(TAILLE_POPULATION);
+		population.add(this.meilleure.get());
+		while (population.size() < TAILLE_POPULATION && !fil.estFini())
+		{
+			liste = this.meilleure.get().liste.clone();
+			this.muter(fil, liste, 1 + liste.length / 20);
+			population.add(new Solution(liste, fil.placer(liste, false)));
+		}
+
+		sansProgres = 0;
+		while (!fil.estFini())
+		{
+			mere   = this.tournoi(fil, population);
+			pere   = this.tournoi(fil, population);
+			liste  = this.croiser(fil, mere.liste, pere.liste);
+			this.muter(fil, liste, 1 + fil.hasard.nextInt(Math.max(1, liste.length / 50)));
+			enfant = new Solution(liste, fil.placer(liste, false));
+
+			pire = 0;
+			for (int i = 1; i < population.size(); i++)
+				if (population.get(i).duree > population.get(pire).duree) pire = i;
+
+			if (enfant.duree < population.get(pire).duree)
+			{
+				population.set(pire, enfant);
+				sansProgres = Solution.proposer(this.meilleure, enfant) ? 0 : sansProgres + 1;
+			}
+			else if (++sansProgres >= ESSAIS_AVANT_REPRISE)
+			{
+				population.set(pire, this.meilleure.get());
+				sansProgres = 0;
+			}
+		}
+	}
+
+	private Solution tournoi(Fil fil, List<Solution> population)
+	{
+		Solution a = population.get(fil.hasard.nextInt(population.size()));
+		Solution b = population.get(fil.hasard.nextInt(population.size()));
+
+		return a.duree <= b.duree ? a : b;
+	}
+
+	/**Croisement en un point : le début de la mère, puis les autres tâches dans l'ordre du père.
+	 * Les deux listes respectent les précédences : l'enfant aussi.
+	 */
+	private int[] croiser(Fil fil, int[] mere, int[] pere)
+	{
+		int[] enfant;
+		int   coupure, nb;
+
+		enfant  = new int[mere.length];
+		coupure = fil.hasard.nextInt(mere.length);
+		for (nb = 0; nb < coupure; nb++)
+		{
+			enfant[nb]         = mere[nb];
+			fil.pris[mere[nb]] = true;
+		}
+		for (int t : pere)
+			if (!fil.pris[t]) enfant[nb++] = t;
+
+		for (int i = 0; i < coupure; i++)
+			fil.pris[mere[i]] = false;
+
+		return enfant;
+	}
+
+	/**Échange des tâches voisines de la liste, quand la première ne précède pas la seconde.
+	 */
+	private void muter(Fil fil, int[] liste, int nbEchanges)
+	{
+		int i, t;
+
+		for (int e = 0; e < nbEchanges && liste.length > 1; e++)
+		{
+			i = fil.hasard.nextInt(liste.length - 1);
+			if (this.ordonnancement.precede(liste[i], liste[i + 1])) continue;
+
+			t            = liste[i];
+			liste[i]     = liste[i + 1];
+			liste[i + 1] = t;
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Clés aléatoires                       */
+	/*------------------------------------------*/
+
+	/**Recherche locale sur des priorités : quelques priorités sont bruitées, la liste qui en découle est
+	 * placée, et le changement est gardé si le projet ne s'allonge pas. Après trop d'essais sans progrès,
+	 * les priorités repartent de la place des tâches dans la meilleure solution.
+	 */
+	private void clesAleatoires(Fil fil)
+	{
+		int[] cles, essai, liste;
+		int   duree, nouvelle, sansProgres, t;
+
+		cles        = new int[this.ordonnancement.getNbTaches()];
+		duree       = Integer.MAX_VALUE;
+		sansProgres = ESSAIS_AVANT_REPRISE;
+		while (!fil.estFini())
+		{
+			if (sansProgres >= ESSAIS_AVANT_REPRISE)
+			{
+				liste = this.meilleure.get().liste;
+				for (int rang = 0; rang < liste.length; rang++)
+					cles[liste[rang]] = rang * ECART_CLES;
+				duree       = this.meilleure.get().duree;
+				sansProgres = 0;
+			}
+
+			essai = cles.clone();
+			for (int e = 1 + fil.hasard.nextInt(Math.max(1, cles.length / 100)); e > 0; e--)
+			{
+				t        = fil.hasard.nextInt(cles.length);
+				essai[t] += (int) (fil.hasard.nextGaussian() * 8 * ECART_CLES);
+			}
+
+			liste    = this.ordonnancement.liste(essai);
+			nouvelle = fil.placer(liste, false);
+			if (nouvelle <= duree)
+			{
+				sansProgres = nouvelle < duree ? 0 : sansProgres + 1;
+				cles        = essai;
+				duree       = nouvelle;
+				Solution.proposer(this.meilleure, new Solution(liste, duree));
+			}
+			else sansProgres++;
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Classes internes                      */
+	/*------------------------------------------*/
+
+	/**Solution : une liste de placement et la durée du projet qu'elle donne. Jamais modifiée une fois créée.
+	 * Partagée avec {@link NivellementOptimal}, qui garde sa meilleure solution de la même façon.
+	 */
+	static final class Solution
+	{
+		final int[] liste;
+		final int   duree;
+
+		Solution(int[] liste, int duree)
+		{
+			this.liste = liste;
+			this.duree = duree;
+		}
+
+		/**Place une liste pour connaître la durée du projet (allocation d'un essai isolé).
+		 * @param ordonnancement le graphe et les demandes relevés.
+		 * @param liste          liste de placement des tâches.
+		 * @return Solution de cette liste.
+		 */
+		static Solution evaluer(OrdonnancementRessources ordonnancement, int[] liste)
+		{
+			return new Solution(liste, ordonnancement.placerListe(liste, false, new int[liste.length],
+			                                                      ordonnancement.nouveauxProfils()));
+		}
+
+		/**Propose une solution comme meilleure, sans verrou : elle ne remplace la meilleure connue que si
+		 * elle est strictement plus courte, même si d'autres fils proposent en même temps.
+		 * @param meilleure meilleure solution connue, partagée entre les fils.
+		 * @param solution  solution proposée.
+		 * @return true si elle est devenue la meilleure.
+		 */
+		static boolean proposer(AtomicReference<Solution> meilleure, Solution solution)
+		{
+			Solution actuelle;
+
+			do
+			{
+				actuelle = meilleure.get();
+				if (actuelle != null && actuelle.duree <= solution.duree) return false;
+			}
+			while (!meilleure.compareAndSet(actuelle, solution));
+
+			return true;
+		}
+	}
+
+	/**Ce qu'un fil garde d'un essai à l'autre : son hasard, ses profils et ses tableaux de travail.
+	 */
+	private final class Fil
+	{
+		private final SplittableRandom  hasard;
+		private final long              echeance;
+		private final Mpm.Avancement    avancement;
+
+		private final ProfilRessource[] profils;
+		private final int[]             debuts, liste;
+		private final long[]            cles;
+		private final boolean[]         pris;
+
+		private Fil(SplittableRandom hasard, long echeance, Mpm.Avancement avancement)
+		{
+			int n = ordonnancement.getNbTaches();
+
+			this.hasard     = hasard;
+			this.echeance   = echeance;
+			this.avancement = avancement;
+			this.profils    = ordonnancement.nouveauxProfils();
+			this.debuts     = new int    [n];
+			this.liste      = new int    [n];
+			this.cles       = new long   [n];
+			this.pris       = new boolean[n];
+		}
+
+		/**Indique si le fil doit s'arrêter : temps écoulé, calcul annulé ou fil interrompu.
+		 */
+		private boolean estFini()
+		{
+			return System.nanoTime() >= this.echeance || this.avancement.estAnnule() || Thread.currentThread().isInterrupted();
+		}
+
+		/**Place une liste ; les dates obtenues restent dans debuts.
+		 * @return La durée du projet.
+		 */
+		private int placer(int[] liste, boolean arriere)
+		{
+			nbEssais.increment();
+			return ordonnancement.placerListe(liste, arriere, this.debuts, this.profils);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package mpm.metier;
+
+import java.util.Arrays;
+
+import mpm.metier.collection.EnsembleBits;
+
+/**
+ * La classe {@code CalendrierOuvre} convertit les jours ouvrés d'un projet en jours du calendrier, et inversement.
+ * Un jour est ouvré s'il n'est ni un samedi, ni un dimanche, ni un jour férié ({@link DateFr#estFerie(int, int, int)}),
+ * ni une fermeture ajoutée par {@link #ajouterFermeture(DateFr)}.
+ *
+ * Deux tables, bâties une fois et allongées au besoin, rendent chaque conversion immédiate :
+ *   ouvresAvant[n] : nombre de jours ouvrés parmi les n premiers jours du calendrier (sommes cumulées)
+ *   calendaire[k]  : jour du calendrier du k-ième jour ouvré
+ *
+ * Les durées et les dates du projet comptées en jours ouvrés se calculent comme en jours du calendrier
+ * (les passes avant et arrière n'en voient pas la différence) : seul l'affichage les convertit.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class CalendrierOuvre
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int TAILLE_INITIALE = 512;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final long         jourDebut;  // jours écoulés du 1er janvier 1970 au début du projet
+	private final EnsembleBits fermetures; // jours du calendrier fermés, depuis le début
+
+	private volatile Tables    tables;
+
+	/**Tables de conversion, remplacées d'un bloc quand elles s'allongent (lecture sans verrou).
+	 */
+	private static final class Tables
+	{
+		private final int[] ouvresAvant; // taille nbJours + 1
+		private final int[] calendaire;  // taille ouvresAvant[nbJours]
+
+		private Tables(int[] ouvresAvant, int[] calendaire)
+		{
+			this.ouvresAvant = ouvresAvant;
+			this.calendaire  = calendaire;
+		}
+	}
+
+	/**Constructeur de CalendrierOuvre.
+	 * @param debut date de début du projet (seuls le jour, le mois et l'année comptent).
+	 */
+	public CalendrierOuvre(DateFr debut)
+	{
+		this.jourDebut  = CalendrierProjet.numeroJour(debut.get(DateFr.DAY_OF_MONTH), debut.get(DateFr.MONTH), debut.get(DateFr.YEAR));
+		this.fermetures = new EnsembleBits();
+		this.tables     = new Tables(new int[1], new int[0]);
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Ferme un jour (congés de l'entreprise, par exemple). Les tables sont rebâties à la demande.
+	 * @param date le jour fermé ; ignoré s'il précède le début du projet.
+	 */
+	public void ajouterFermeture(DateFr date)
+	{
+		this.ajouterFermeture(CalendrierProjet.numeroJour(date.get(DateFr.DAY_OF_MONTH), date.get(DateFr.MONTH), date.get(DateFr.YEAR)));
+	}
+
+	/**Ferme un jour.
+	 * @param numeroJour le jour fermé, en jours depuis le 1er janvier 1970.
+	 */
+	public synchronized void ajouterFermeture(long numeroJour)
+	{
+		if (numeroJour < this.jourDebut) return;
+
+		this.fermetures.ajouter((int) (numeroJour - this.jourDebut));
+		this.tables = new Tables(new int[1], new int[0]);
+	}
+
+	/*------------------------------------------*/
+	/*    Conversions                           */
+	/*------------------------------------------*/
+
+	/**Jour du calendrier d'un jour ouvré.
+	 * @param ouvres nombre de jours ouvrés depuis le début du projet (0 : premier jour ouvré).
+	 * @return Le nombre de jours du calendrier depuis le début du projet.
+	 */
+	public int versCalendaire(int ouvres)
+	{
+		Tables t = this.tables;
+
+		if (ouvres < 0) return ouvres;
+		if (ouvres >= t.calendaire.length) t = this.etendre(-1, ouvres);
+		return t.calendaire[ouvres];
+	}
+
+	/**Nombre de jours ouvrés avant un jour du calendrier : c'est aussi le rang du premier jour ouvré
+	 * à partir de ce jour-là.
+	 * @param calendaire nombre de jours du calendrier depuis le début du projet.
+	 * @return Le nombre de jours ouvrés.
+	 */
+	public int versOuvres(int calendaire)
+	{
+		Tables t = this.tables;
+
+		if (calendaire < 0) return calendaire;
+		if (calendaire >= t.ouvresAvant.length) t = this.etendre(calendaire, -1);
+		return t.ouvresAvant[calendaire];
+	}
+
+	/**Nombre de jours ouvrés entre deux jours du calendrier.
+	 * @param debut premier jour compté, depuis le début du projet.
+	 * @param fin   jour de fin (exclu), depuis le début du projet.
+	 * @return Le nombre de jours ouvrés.
+	 */
+	public int ouvresEntre(int debut, int fin) { return this.versOuvres(fin) - this.versOuvres(debut); }
+
+	/**Indique si un jour du calendrier est ouvré.
+	 * @param calendaire nombre de jours depuis le début du projet.
+	 * @return true si le jour est ouvré.
+	 */
+	public boolean estOuvre(int calendaire) { return this.ouvresEntre(calendaire, calendaire + 1) == 1; }
+
+	/**Allonge les tables jusqu'à couvrir le jour du calendrier et le jour ouvré demandés, puis les publie.
+	 * @param calendaire jour du calendrier à couvrir, ou -1.
+	 * @param ouvres     jour ouvré à couvrir, ou -1.
+	 */
+	private synchronized Tables etendre(int calendaire, int ouvres)
+	{
+		Tables t;
+		int[]  ouvresAvant, rangs;
+		int    ancien, nbJours, nbOuvres;
+
+		t = this.tables;
+		while (calendaire >= t.ouvresAvant.length || ouvres >= t.calendaire.length)
+		{
+			ancien      = t.ouvresAvant.length - 1;
+			nbJours     = Math.max(TAILLE_INITIALE, ancien * 2);
+			ouvresAvant = Arrays.copyOf(t.ouvresAvant, nbJours + 1);
+
+			for (int n = ancien; n < nbJours; n++)
+				ouvresAvant[n + 1] = ouvresAvant[n] + (this.ouvre(n) ? 1 : 0);
+
+			nbOuvres = ouvresAvant[nbJours];
+			rangs    = Arrays.copyOf(t.calendaire, nbOuvres);
+			for (int n = ancien; n < nbJours; n++)
+				if (ouvresAvant[n + 1] != ouvresAvant[n])
+					rangs[ouvresAvant[n]] = n;
+
+			t = new Tables(ouvresAvant, rangs);
+		}
+		this.tables = t;
+		return t;
+	}
+
+	/**Indique si un jour est ouvré, en le calculant (sert à bâtir les tables).
+	 */
+	private boolean ouvre(int calendaire)
+	{
+		long jour = this.jourDebut + calendaire;
+
+		if (CalendrierProjet.jourSemaine(jour) >= 6) return false;
+		if (this.fermetures.contient(calendaire))     return false;
+
+		return !DateFr.estFerie(CalendrierProjet.jourDuMois(jour), CalendrierProjet.mois(jour), CalendrierProjet.annee(jour));
+	}
+}
@@ -0,0 +1,192 @@
+package mpm.metier;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code CalendrierProjet} met en forme les dates d'un projet, données en jours depuis son début.
+ * Elle est construite une fois pour une date de début et garde une table de chaînes « jj/mm » déjà
+ * rendues, indexée par le nombre de jours : afficher une date revient à lire une case du tableau.
+ *
+ * La table s'allonge d'elle-même quand le planning dépasse sa fin (par doublement). Les jours sont
+ * calculés par arithmétique sur les numéros de jour depuis le 1er janvier 1970, sans calendrier Java.
+ * La lecture peut se faire depuis plusieurs fils : la table publiée est toujours entièrement remplie.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class CalendrierProjet
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int TAILLE_INITIALE = 512;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final long        jourDebut; // jours écoulés du 1er janvier 1970 au début du projet
+	private volatile String[] dates;     // « jj/mm » par jour depuis le début
+
+	/**Constructeur de CalendrierProjet.
+	 * @param debut date de début du projet (seuls le jour, le mois et l'année comptent).
+	 */
+	public CalendrierProjet(DateFr debut)
+	{
+		this(debut.get(DateFr.DAY_OF_MONTH), debut.get(DateFr.MONTH), debut.get(DateFr.YEAR));
+	}
+
+	/**Constructeur de CalendrierProjet.
+	 * @param jour  jour du mois du début du projet.
+	 * @param mois  mois du début du projet (1-12).
+	 * @param annee année du début du projet.
+	 */
+	public CalendrierProjet(int jour, int mois, int annee)
+	{
+		this.jourDebut = CalendrierProjet.numeroJour(jour, mois, annee);
+		this.dates     = new String[0];
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le numéro du jour de début, en jours depuis le 1er janvier 1970.
+	 * @return Le numéro du jour.
+	 */
+	public long getJourDebut() { return this.jourDebut; }
+
+	/*------------------------------------------*/
+	/*    Mise en forme                         */
+	/*------------------------------------------*/
+
+	/**Met en forme une date du projet en « jj/mm ».
+	 * @param nbJours nombre de jours depuis le début du projet.
+	 * @return La date ; la même chaîne est rendue à chaque appel pour un même jour.
+	 */
+	public String formater(int nbJours)
+	{
+		String[] table = this.dates;
+
+		if (nbJours >= 0 && nbJours < table.length) return table[nbJours];
+		if (nbJours < 0)                            return CalendrierProjet.rendre(this.jourDebut + nbJours);
+
+		return this.etendre(nbJours)[nbJours];
+	}
+
+	/**Allonge la table jusqu'à contenir le jour demandé, puis la publie.
+	 */
+	private synchronized String[] etendre(int nbJours)
+	{
+		String[] table;
+		int      ancienne;
+
+		table = this.dates;
+		if (nbJours < table.length) return table;
+
+		ancienne = table.length;
+		table    = Arrays.copyOf(table, Math.max(TAILLE_INITIALE, Math.max(nbJours + 1, ancienne * 2)));
+		for (int n = ancienne; n < table.length; n++)
+			table[n] = CalendrierProjet.rendre(this.jourDebut + n);
+
+		this.dates = table;
+		return table;
+	}
+
+	/**Rend un jour en « jj/mm ».
+	 */
+	private static String rendre(long numeroJour)
+	{
+		char[] c;
+		int    jour, mois;
+
+		jour = CalendrierProjet.jourDuMois(numeroJour);
+		mois = CalendrierProjet.mois      (numeroJour);
+
+		c = new char[] { (char) ('0' + jour / 10), (char) ('0' + jour % 10), '/',
+		                 (char) ('0' + mois / 10), (char) ('0' + mois % 10) };
+		return new String(c);
+	}
+
+	/*------------------------------------------*/
+	/*    Arithmétique des jours                */
+	/*------------------------------------------*/
+
+	/**Numéro d'un jour, en jours depuis le 1er janvier 1970 (calendrier grégorien).
+	 * @param jour  jour du mois.
+	 * @param mois  mois (1-12).
+	 * @param annee année.
+	 * @return Le numéro du jour.
+	 */
+	public static long numeroJour(int jour, int mois, int annee)
+	{
+		long a, ere, anEre, jourAn, jourEre;
+
+		// Année commençant en mars : le 29 février tombe à la fin
+		a       = mois <= 2 ? annee - 1 : annee;
+		ere     = Math.floorDiv(a, 400);
+		anEre   = a - ere * 400;
+		jourAn  = (153 * (mois + (mois > 2 ? -3 : 9)) + 2) / 5 + jour - 1;
+		jourEre = anEre * 365 + anEre / 4 - anEre / 100 + jourAn;
+		return ere * 146097 + jourEre - 719468;
+	}
+
+	/**Jour du mois d'un numéro de jour.
+	 * @param numeroJour jours depuis le 1er janvier 1970.
+	 * @return Le jour du mois (1-31).
+	 */
+	public static int jourDuMois(long numeroJour)
+	{
+		long jourAn = CalendrierProjet.jourDeLAnneeMars(numeroJour);
+		return (int) (jourAn - (153 * ((5 * jourAn + 2) / 153) + 2) / 5 + 1);
+	}
+
+	/**Mois d'un numéro de jour.
+	 * @param numeroJour jours depuis le 1er janvier 1970.
+	 * @return Le mois (1-12).
+	 */
+	public static int mois(long numeroJour)
+	{
+		long mp = (5 * CalendrierProjet.jourDeLAnneeMars(numeroJour) + 2) / 153;
+		return (int) (mp < 10 ? mp + 3 : mp - 9);
+	}
+
+	/**Année d'un numéro de jour.
+	 * @param numeroJour jours depuis le 1er janvier 1970.
+	 * @return L'année.
+	 */
+	public static int annee(long numeroJour)
+	{
+		long z, ere, jourEre, anEre, jourAn;
+
+		z       = numeroJour + 719468;
+		ere     = Math.floorDiv(z, 146097);
+		jourEre = z - ere * 146097;
+		anEre   = (jourEre - jourEre / 1460 + jourEre / 36524 - jourEre / 146096) / 365;
+		jourAn  = jourEre - (365 * anEre + anEre / 4 - anEre / 100);
+		return (int) (anEre + ere * 400 + ((5 * jourAn + 2) / 153 >= 10 ? 1 : 0));
+	}
+
+	/**Jour de la semaine d'un numéro de jour.
+	 * @param numeroJour jours depuis le 1er janvier 1970.
+	 * @return 1 pour lundi, ..., 7 pour dimanche.
+	 */
+	public static int jourSemaine(long numeroJour)
+	{
+		// Le 1er janvier 1970 était un jeudi
+		return Math.floorMod(numeroJour + 3, 7) + 1;
+	}
+
+	/**Rang d'un jour dans l'année commencée le 1er mars (0 pour le 1er mars).
+	 */
+	private static long jourDeLAnneeMars(long numeroJour)
+	{
+		long z, ere, jourEre, anEre;
+
+		z       = numeroJour + 719468;
+		ere     = Math.floorDiv(z, 146097);
+		jourEre = z - ere * 146097;
+		anEre   = (jourEre - jourEre / 1460 + jourEre / 36524 - jourEre / 146096) / 365;
+		return jourEre - (365 * anEre + anEre / 4 - anEre / 100);
+	}
+}
@@ -1,19 +1,26 @@
 package mpm.metier;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import mpm.metier.collection.EnsembleBits;
+
 /**
  * La classe {@code CheminCritique} gère le calcul du ou des chemins critiques dans un projet.
  * Elle permet de déterminer les tâches critiques, de calculer tous les chemins critiques possibles,
  * et de mettre à jour les marges des tâches.
  *
  * Fonctionnalités principales :
- *   Calcul du chemin critique principal à partir des dépendances et marges
+ *   Calcul du chemin critique principal en remontant les prédécesseurs déterminants depuis Fin
  *   Recherche de tous les chemins critiques possibles entre "Début" et "Fin"
  *   Mise à jour des marges pour toutes les tâches du projet
  *   Gestion de la liste des tâches du projet pour l'analyse du chemin critique
  *
+ * Début et Fin sont donnés par le projet avec la liste des tâches ; les tâches du chemin
+ * en cours sont marquées par leur numéro dans un ensemble de bits. Le prédécesseur déterminant
+ * de chaque tâche (voir {@link Tache#getDeterminant()}) est retenu par la passe avant des dates.
+ *
  * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
  */
 public class CheminCritique
@@ -23,8 +30,10 @@ public class CheminCritique
 	/*    Attributs     */
 	/*------------------*/
 	
-	private List<Tache> lstTachesCritiques;
-	private List<Tache> lstTaches;
+	private List<Tache>  lstTachesCritiques;
+	private List<Tache>  lstTaches;
+	private Tache        debut, fin;
+	private EnsembleBits surChemin; // gardé d'un calcul à l'autre
 	
 	/**Constructeur de CheminCritique.
 	 */
@@ -32,6 +41,7 @@ public class CheminCritique
 	{
 		this.lstTachesCritiques = new ArrayList<>();
 		this.lstTaches = new ArrayList<>();
+		this.surChemin = new EnsembleBits();
 	}
 
 	/*----------------------*/
@@ -39,15 +49,24 @@ public class CheminCritique
 	/*----------------------*/
 
 	/**Sert à modifier la liste de tâches par celle entrée en paramètre.
-	 * @param taches Liste de tâches
+	 * @param taches Liste de tâches, numérotées par le projet.
+	 * @param debut  tâche Début du projet.
+	 * @param fin    tâche Fin du projet.
 	 */
-	public void setTaches(List<Tache> taches) {this.lstTaches = taches;}
+	public void setTaches(List<Tache> taches, Tache debut, Tache fin)
+	{
+		this.lstTaches = taches;
+		this.debut     = debut;
+		this.fin       = fin;
+	}
 
 	/*------------------------------------------*/
 	/*    Fonctionnalités de chemin critique    */
 	/*------------------------------------------*/
 
-	/**Sert à trouver UN chemin critique.
+	/**Sert à trouver UN chemin critique : depuis Fin, chaque tâche mène à son prédécesseur déterminant,
+	 * qui finit quand elle commence. Le parcours ne lit que les tâches du chemin ; les dates au plus tôt
+	 * doivent être calculées.
 	 * @return Une liste de tâche qui font partie du chemin critique.
 	 */
 	public List<Tache> calculerCheminCritique()
@@ -57,54 +76,22 @@ public class CheminCritique
 		/*           Variables           */
 		/*-------------------------------*/
 
-		Tache tacheCourante,suivant;
-		int   minNiveau            ;
+		Tache tacheCourante;
 		
 		this.lstTachesCritiques.clear();
 
-		// Cherche la tâche "Fin"
-		tacheCourante = null;
-		for (Tache t : this.lstTaches)
-		{
-			if (t.getNom().equals("Fin"))
-			{
-				tacheCourante = t;
-				break;
-			}
-		}
-		if (tacheCourante == null)
+		// Part de la tâche "Fin"
+		if (this.fin == null)
 			return this.lstTachesCritiques;
-		
 
-		// Remonte le chemin critique en prenant à chaque fois le prédécesseur critique avec le niveau le plus bas
-		while (tacheCourante != null && !tacheCourante.getNom().equals("Début"))
+		// Remonte les prédécesseurs déterminants, sans Début ni Fin
+		tacheCourante = this.fin.getDeterminant();
+		while (tacheCourante != null && tacheCourante != this.debut)
 		{
-			this.lstTachesCritiques.add(0, tacheCourante);
-
-			suivant = null;
-			minNiveau = Integer.MAX_VALUE;
-			for (Tache pred : tacheCourante.getPredecesseurs())
-			{
-				if (pred.getMarge() == 0 && pred.getNiveauTache() < minNiveau)
-				{
-					minNiveau = pred.getNiveauTache();
-					suivant = pred;
-				}
-			}
-			tacheCourante = suivant;
+			this.lstTachesCritiques.add(tacheCourante);
+			tacheCourante = tacheCourante.getDeterminant();
 		}
-		// Ajoute "Début" si présent
-		if (tacheCourante != null && tacheCourante.getNom().equals("Début"))
-			this.lstTachesCritiques.add(0, tacheCourante);
-		
-
-		// Enlève "Début" et "Fin" si tu ne veux pas les afficher
-		if (!this.lstTachesCritiques.isEmpty() && this.lstTachesCritiques.get(0).getNom().equals("Début"))
-			this.lstTachesCritiques.remove(0);
-		
-		if (!this.lstTachesCritiques.isEmpty() && this.lstTachesCritiques.get(this.lstTachesCritiques.size() - 1).getNom().equals("Fin"))
-			this.lstTachesCritiques.remove(this.lstTachesCritiques.size() - 1);
-		
+		Collections.reverse(this.lstTachesCritiques);
 
 		return this.lstTachesCritiques;
 	}
@@ -122,60 +109,50 @@ public class CheminCritique
 		List<List<Tache>> cheminsCritiques  ;
 		List<Tache>       cheminCourant     ;
 
-		Tache             debut, fin        ;
-
 		cheminsCritiques = new ArrayList<>();
 		cheminCourant    = new ArrayList<>();
 
+		calculerMarge();
 
-		// Recherche des tâches "Début" et "Fin"
-		debut = null;
-		fin   = null;
-		for (Tache t : this.lstTaches)
-		{
-			calculerMarge();
-			if (t.getNom().equals("Début"))
-				debut = t;
-			
-			if (t.getNom().equals("Fin"))
-				fin = t;
-			
-		}
-
-		if (debut == null || fin == null)
+		if (this.debut == null || this.fin == null)
 			return cheminsCritiques;
 		
-		trouverCheminsCritiquesRec(debut, fin, cheminCourant, cheminsCritiques);
+		this.surChemin.vider();
+		trouverCheminsCritiquesRec(this.debut, cheminCourant, this.surChemin, cheminsCritiques);
 
 		return cheminsCritiques;
 	}
 
 	/**Vérifie que le chemin critique est bon.
 	 * @param courant tache courante regargé.
-	 * @param fin     tache "Fin".
 	 * @param chemin  Liste de tâches.
+	 * @param surChemin numéros des tâches du chemin, pour savoir en temps constant si une tâche y est déjà.
 	 * @param result  Liste de liste de tâches qui sont les tâches faisaient partie d'un chemin critique.
 	 */
-	private void trouverCheminsCritiquesRec(Tache courant, Tache fin, List<Tache> chemin, List<List<Tache>> result)
+	private void trouverCheminsCritiquesRec(Tache courant, List<Tache> chemin, EnsembleBits surChemin, List<List<Tache>> result)
 	{
 		
 		/*-------------------------------*/
 		/*           Variable            */
 		/*-------------------------------*/
 		boolean estCritique;
+
+		// Calcul annulé (le thread de calcul a été interrompu)
+		if (Thread.currentThread().isInterrupted()) return;
 		
 		// On ajoute au chemin que si marge=0 ou Début/Fin
-		if (courant.getNom().equals("Début") || courant.getNom().equals("Fin") || courant.getMarge() == 0)
+		if (courant == this.debut || courant == this.fin || courant.getMarge() == 0)
 		{
 			chemin.add(courant);
+			surChemin.ajouter(courant.getId());
 
-			if (courant == fin)
+			if (courant == this.fin)
 			{
 				// Vérifie que toutes les tâches du chemin (hors Début et Fin) ont bien marge=0
 				estCritique = true;
 				for (Tache t : chemin)
 				{
-					if (!t.getNom().equals("Début") && !t.getNom().equals("Fin") && t.getMarge() != 0)
+					if (t != this.debut && t != this.fin && t.getMarge() != 0)
 					{
 						estCritique = false;
 						break;
@@ -189,12 +166,13 @@ public class CheminCritique
 			{
 				for (Tache succ : courant.getSuccesseurs())
 				{
-					if (!chemin.contains(succ))
-						trouverCheminsCritiquesRec(succ, fin, chemin, result);
+					if (!surChemin.contient(succ.getId()))
+						trouverCheminsCritiquesRec(succ, chemin, surChemin, result);
 					
 				}
 			}
 			chemin.remove(chemin.size() - 1);
+			surChemin.retirer(courant.getId());
 		}
 	}
 
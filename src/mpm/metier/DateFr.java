@@ -2,12 +2,20 @@ package mpm.metier;
 
 import java.util.GregorianCalendar;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Classe DateFr qui étend GregorianCalendar pour gérer les dates au format européen.
  */
 public class DateFr extends GregorianCalendar 
 {
+	/** Nombre d'années dont les jours fériés restent en cache. */
+	private static final int NB_ANNEES_CACHE = 64;
+
+	/** Jours fériés par année, un bit par jour de l'année. */
+	private static final ConcurrentMap<Integer, long[]> FERIES = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructeur par défaut.
 	 * Initialise la date à la date et l'heure courantes.
@@ -25,7 +33,7 @@ public class DateFr extends GregorianCalendar
 	 */
 	public DateFr(int jour, int mois, int annee) 
 	{
-		this(annee, mois - 1, jour, 0, 0, 0);
+		super(annee, mois - 1, jour, 0, 0, 0);
 	}
 
 	/**
@@ -116,8 +124,8 @@ public class DateFr extends GregorianCalendar
 		{
 			char c = format.charAt(i);
 			switch (c) {
-				case 'j' -> sb.append(String.format("%02d", get(DAY_OF_MONTH)));
-				case 'm' -> sb.append(String.format("%02d", get(MONTH)));
+				case 'j' -> DateFr.deuxChiffres(sb, get(DAY_OF_MONTH));
+				case 'm' -> DateFr.deuxChiffres(sb, get(MONTH));
 				case 'a' -> sb.append(get(YEAR));
 				default  -> sb.append(c);
 			}
@@ -125,6 +133,15 @@ public class DateFr extends GregorianCalendar
 		return sb.toString();
 	}
 
+	/**
+	 * Ajoute un nombre sur deux chiffres (comme "%02d", sans passer par String.format).
+	 */
+	private static void deuxChiffres(StringBuilder sb, int n)
+	{
+		if (n < 10) sb.append('0');
+		sb.append(n);
+	}
+
 
 	/**
 	 * Vérifie si le jour courant est un jour férié en France.
@@ -132,30 +149,68 @@ public class DateFr extends GregorianCalendar
 	 */
 	public boolean estFerie() 
 	{
-		int jour = get(DAY_OF_MONTH);
-		int mois = get(MONTH);
+		return DateFr.estFerie(get(DAY_OF_MONTH), get(MONTH), get(YEAR));
+	}
 
-		// Jours fixes
-		if ((jour == 1 && mois == 1)  || // Jour de l'an
-			(jour == 1 && mois == 5)  || // Fête du travail
-			(jour == 8 && mois == 5)  || // Victoire 1945
-			(jour == 14 && mois == 7) || // Fête Nationale
-			(jour == 11 && mois == 11))  // Armistice 1918
-			return true;
+	/**
+	 * Vérifie si un jour est férié en France, sans créer de date.
+	 * Les jours fériés d'une année sont calculés une fois, rangés dans un bit par jour de l'année,
+	 * et gardés en cache : la vérification revient à lire un bit.
+	 * @param jour Le jour du mois.
+	 * @param mois Le mois (1-12).
+	 * @param annee L'année.
+	 * @return true si le jour est férié, false sinon.
+	 */
+	public static boolean estFerie(int jour, int mois, int annee) 
+	{
+		int    rang   = DateFr.rangDansAnnee(jour, mois, annee);
+		long[] feries = DateFr.feries(annee);
 
+		return (feries[rang >>> 6] & (1L << rang)) != 0;
+	}
+
+	/**
+	 * Renvoie les jours fériés d'une année (un bit par jour, 0 pour le 1er janvier), depuis le cache.
+	 * Le cache est borné : plein, il est vidé avant d'accueillir une nouvelle année.
+	 */
+	private static long[] feries(int annee) 
+	{
+		long[] feries = FERIES.get(annee);
+
+		if (feries == null) 
+		{
+			if (FERIES.size() >= NB_ANNEES_CACHE) FERIES.clear();
+			feries = FERIES.computeIfAbsent(annee, DateFr::calculerFeries);
+		}
+		return feries;
+	}
+
+	private static long[] calculerFeries(int annee) 
+	{
+		long[] feries = new long[(366 + 63) / 64];
+		int    paques = DateFr.calculerPaques(annee);
+
+		// Jours fixes
+		int[] fixes = { DateFr.rangDansAnnee(1, 1, annee),   // Jour de l'an
+		                DateFr.rangDansAnnee(1, 5, annee),   // Fête du travail
+		                DateFr.rangDansAnnee(8, 5, annee),   // Victoire 1945
+		                DateFr.rangDansAnnee(14, 7, annee),  // Fête Nationale
+		                DateFr.rangDansAnnee(11, 11, annee), // Armistice 1918
 		// Jours variables (simplification)
-		GregorianCalendar paques = calculerPaques(get(YEAR));
+		                paques, paques + 1,                  // Dimanche et lundi de Pâques
+		                paques + 39,                         // Ascension
+		                paques + 49, paques + 50 };          // Pentecôte
 
-		if (equals(paques) || equals(addDays(paques, 1)) || // Dimanche et lundi de Pâques
-			equals(addDays(paques, 39)) || // Ascension
-			equals(addDays(paques, 49)) || equals(addDays(paques, 50)))  // Pentecôte
-			return true;
-		
+		for (int rang : fixes)
+			feries[rang >>> 6] |= 1L << rang;
 
-		return false;
+		return feries;
 	}
 
-	private GregorianCalendar calculerPaques(int annee)
+	/**
+	 * Calcule le rang du dimanche de Pâques dans l'année (0 pour le 1er janvier).
+	 */
+	private static int calculerPaques(int annee)
 	
 	{
 		int cycleMetonique = annee % 19;
@@ -173,14 +228,15 @@ public class DateFr extends GregorianCalendar
 		int mois = (epacte + jourSemaine - 7 * correctionLunaire + 114) / 31; 
 		int jour = ((epacte + jourSemaine - 7 * correctionLunaire + 114) % 31) + 1;
 
-		return new GregorianCalendar(annee, mois - 1, jour);
+		return DateFr.rangDansAnnee(jour, mois, annee);
 	}
 
-	private GregorianCalendar addDays(GregorianCalendar date, int days) 
+	/**
+	 * Calcule le rang d'un jour dans son année (0 pour le 1er janvier).
+	 */
+	private static int rangDansAnnee(int jour, int mois, int annee) 
 	{
-		GregorianCalendar newDate = (GregorianCalendar) date.clone();
-		newDate.add(DAY_OF_MONTH, days);
-		return newDate;
+		return (int) (CalendrierProjet.numeroJour(jour, mois, annee) - CalendrierProjet.numeroJour(1, 1, annee));
 	}
 
 	/**
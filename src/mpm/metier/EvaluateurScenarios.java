@@ -0,0 +1,486 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import mpm.metier.collection.ListeEntiers;
+import mpm.metier.collection.TableEntiers;
+import mpm.metier.collection.TableObjetsEntiers;
+
+/**
+ * La classe {@code EvaluateurScenarios} date d'un coup de nombreuses variantes d'un même projet
+ * ({@link Scenario}), sans recharger le projet pour chacune.
+ *
+ * Le projet de base est compilé une fois en un graphe immuable (prédécesseurs et successeurs en
+ * tableaux, ordre où chaque tâche suit ses prédécesseurs), partagé par tous les scénarios :
+ *   les scénarios qui ne changent que des durées sont datés NB_VOIES à la fois sur ce graphe,
+ *   une voie par scénario, par la même {@link PasseAuPlusTot} que les simulations ;
+ *   un scénario qui change des dépendances est daté seul, sur une copie du graphe modifiée
+ *   pour lui (tâches reliées à Début et Fin comme au chargement, cycle refusé).
+ * Les groupes de scénarios sont répartis sur tous les cœurs ; chaque fil a ses tableaux de dates,
+ * alloués pour une évaluation et rendus à sa fin.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class EvaluateurScenarios
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int NB_VOIES = 32;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache>                taches;  // par numéro
+	private final TableObjetsEntiers<String> numeros;
+	private final int                        idDebut, idFin;
+
+	private final Graphe   base;
+	private final int[]    sources, cibles;          // arcs du projet, sans les liens ajoutés vers Début et Fin
+	private final double[] durees;
+
+	private final int      dureeBase;
+	private final int[]    margesBase;
+
+	private final PasseAuPlusTot passe;
+
+	/**Constructeur d'EvaluateurScenarios : compile le projet de base.
+	 * Le projet peut ensuite changer : l'évaluateur garde ce qu'il a relevé.
+	 * @param projet le projet de base, chargé.
+	 * @throws IllegalStateException si aucun projet n'est chargé.
+	 */
+	public EvaluateurScenarios(Mpm projet)
+	{
+		this(projet, PasseAuPlusTot.choisir());
+	}
+
+	/**Constructeur d'EvaluateurScenarios avec une passe au plus tôt donnée (pour comparer les passes).
+	 * @param projet le projet de base, chargé.
+	 * @param passe  la passe au plus tôt par voies.
+	 * @throws IllegalStateException si aucun projet n'est chargé.
+	 */
+	public EvaluateurScenarios(Mpm projet, PasseAuPlusTot passe)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		Adjacence    adjacence;
+		ListeEntiers src, dst;
+		Tampon       tampon;
+		int          n, cible;
+
+		if (projet.getDebut() == null || projet.getFin() == null)
+			throw new IllegalStateException("Aucun projet chargé.");
+
+		this.passe   = passe;
+		this.taches  = Collections.unmodifiableList(new ArrayList<>(projet.getTaches()));
+		this.idDebut = projet.getDebut().getId();
+		this.idFin   = projet.getFin  ().getId();
+		adjacence    = projet.getAdjacence();
+		n            = this.taches.size();
+
+		this.numeros = new TableObjetsEntiers<>(n);
+		this.durees  = new double[n];
+		for (Tache t : this.taches)
+		{
+			this.numeros.put(t.getNom(), t.getId());
+			this.durees[t.getId()] = t.getDuree();
+		}
+
+		// Arcs donnés par le fichier : ceux vers Début et Fin sont refaits pour chaque graphe modifié
+		src = new ListeEntiers(adjacence.getNbArcs());
+		dst = new ListeEntiers(adjacence.getNbArcs());
+		for (int id = 0; id < n; id++)
+		{
+			for (int k = adjacence.debutSuccesseurs(id); k < adjacence.finSuccesseurs(id); k++)
+			{
+				cible = adjacence.successeur(k);
+				if (id != this.idDebut && cible != this.idFin)
+				{
+					src.ajouter(id);
+					dst.ajouter(cible);
+				}
+			}
+		}
+		this.sources = src.toArray();
+		this.cibles  = dst.toArray();
+		this.base    = this.relier(this.sources, this.cibles, this.sources.length);
+
+		// Dates du projet de base, avec les mêmes passes que les scénarios, sur une seule voie
+		tampon = new Tampon(n, 1);
+		System.arraycopy(this.durees, 0, tampon.fin, 0, n);
+		this.dater(this.base, tampon, 1);
+
+		this.dureeBase  = (int) Math.round(tampon.fin[this.idFin]);
+		this.margesBase = new int[n];
+		for (int id = 0; id < n; id++)
+			this.margesBase[id] = (int) Math.round(tampon.tard[id] - tampon.debut[id]);
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère la durée du projet de base.
+	 * @return Nombre de jours.
+	 */
+	public int         getDureeBase()       { return this.dureeBase;      }
+
+	/**Récupère la marge d'une tâche dans le projet de base.
+	 * @param id numéro de la tâche.
+	 * @return Nombre de jours.
+	 */
+	public int         getMargeBase(int id) { return this.margesBase[id]; }
+
+	/**Récupère les tâches du projet de base.
+	 * @return Liste de Tache par numéro (non modifiable).
+	 */
+	public List<Tache> getTaches   ()       { return this.taches;         }
+
+	/*------------------------------------------*/
+	/*    Évaluation                            */
+	/*------------------------------------------*/
+
+	/**Date tous les scénarios, en parallèle.
+	 * @param scenarios les variantes du projet de base.
+	 * @return Un résultat par scénario, dans le même ordre.
+	 */
+	public List<ResultatScenario> evaluer(List<Scenario> scenarios)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		ResultatScenario[] resultats;
+		List<int[]>        lots;
+		ListeEntiers       durees;
+		int                nbParts;
+
+		// Scénarios de durées groupés par NB_VOIES ; les autres seuls
+		lots   = new ArrayList<>();
+		durees = new ListeEntiers();
+		for (int i = 0; i < scenarios.size(); i++)
+		{
+			if (scenarios.get(i).modifieDependances())
+			{
+				lots.add(new int[] { i });
+				continue;
+			}
+
+			durees.ajouter(i);
+			if (durees.taille() == NB_VOIES)
+			{
+				lots.add(durees.toArray());
+				durees.vider();
+			}
+		}
+		if (!durees.estVide()) lots.add(durees.toArray());
+
+		// Une part de lots par cœur, chacune avec ses tableaux de dates : rien ne reste attaché aux fils après
+		resultats = new ResultatScenario[scenarios.size()];
+		nbParts   = Math.min(lots.size(), Runtime.getRuntime().availableProcessors());
+		IntStream.range(0, nbParts).parallel().forEach(p ->
+		{
+			Tampon tampon = new Tampon(this.durees.length, NB_VOIES);
+			for (int l = p; l < lots.size(); l += nbParts)
+				this.evaluerLot(scenarios, lots.get(l), resultats, tampon);
+		});
+
+		return Arrays.asList(resultats);
+	}
+
+	/**Date un lot de scénarios : plusieurs scénarios de durées sur le graphe de base, ou un seul scénario
+	 * qui change des dépendances, sur son propre graphe.
+	 */
+	private void evaluerLot(List<Scenario> scenarios, int[] lot, ResultatScenario[] resultats, Tampon tampon)
+	{
+		Graphe    graphe;
+		Scenario  scenario;
+		String    erreur;
+		boolean[] valide;
+		int       nbVoies;
+
+		nbVoies = lot.length == 1 ? 1 : NB_VOIES;
+		graphe  = this.base;
+		valide  = new boolean[lot.length];
+
+		for (int t = 0; t < this.durees.length; t++)
+			Arrays.fill(tampon.fin, t * nbVoies, (t + 1) * nbVoies, this.durees[t]);
+
+		for (int j = 0; j < lot.length; j++)
+		{
+			scenario = scenarios.get(lot[j]);
+			erreur   = this.appliquerDurees(scenario, tampon.fin, j, nbVoies);
+			if (erreur == null && scenario.modifieDependances())
+			{
+				try
+				{
+					graphe = this.modifierGraphe(scenario);
+				}
+				catch (IllegalArgumentException e)
+				{
+					erreur = e.getMessage();
+				}
+			}
+
+			if (erreur != null) resultats[lot[j]] = new ResultatScenario(scenario.getNom(), erreur);
+			else                valide[j]         = true;
+		}
+
+		this.dater(graphe, tampon, nbVoies);
+
+		for (int j = 0; j < lot.length; j++)
+			if (valide[j])
+				resultats[lot[j]] = this.relever(scenarios.get(lot[j]).getNom(), tampon, j, nbVoies);
+	}
+
+	/**Remplace les durées d'un scénario dans sa voie.
+	 * @return null, ou le message d'erreur si une tâche est inconnue.
+	 */
+	private String appliquerDurees(Scenario scenario, double[] fin, int voie, int nbVoies)
+	{
+		int id;
+
+		for (Map.Entry<String, Integer> entree : scenario.getDurees().entrySet())
+		{
+			id = this.numero(entree.getKey());
+			if (id == -1) return "Tâche inconnue : " + entree.getKey();
+
+			fin[id * nbVoies + voie] = entree.getValue();
+		}
+		return null;
+	}
+
+	/**Passe au plus tôt puis au plus tard sur toutes les voies. En entrée, fin contient les durées.
+	 */
+	private void dater(Graphe graphe, Tampon tampon, int nbVoies)
+	{
+		double[] debut, fin, tard;
+		int      t, base, succ, finProjet;
+
+		debut = tampon.debut;
+		fin   = tampon.fin;
+		tard  = tampon.tard;
+
+		this.passe.calculer(graphe.ordre, graphe.debutPrc, graphe.prc, debut, fin, nbVoies);
+
+		// Date au plus tard (de début) : au plus tard la fin du projet, moins la durée
+		finProjet = this.idFin * nbVoies;
+		for (int i = graphe.ordre.length - 1; i >= 0; i--)
+		{
+			t    = graphe.ordre[i];
+			base = t * nbVoies;
+
+			System.arraycopy(fin, finProjet, tard, base, nbVoies);
+			for (int k = graphe.debutSvt[t]; k < graphe.debutSvt[t + 1]; k++)
+			{
+				succ = graphe.svt[k] * nbVoies;
+				for (int j = 0; j < nbVoies; j++)
+					tard[base + j] = Math.min(tard[base + j], tard[succ + j]);
+			}
+			for (int j = 0; j < nbVoies; j++)
+				tard[base + j] -= fin[base + j] - debut[base + j];
+		}
+	}
+
+	/**Relève le résultat d'une voie : durée, tâches critiques et marges modifiées.
+	 */
+	private ResultatScenario relever(String nom, Tampon tampon, int voie, int nbVoies)
+	{
+		int duree, marge, i;
+
+		tampon.critiques.vider();
+		tampon.idsMarges.vider();
+		tampon.ecartsMarges.vider();
+		for (int id = 0; id < this.margesBase.length; id++)
+		{
+			i     = id * nbVoies + voie;
+			marge = (int) Math.round(tampon.tard[i] - tampon.debut[i]);
+
+			if (marge == 0) tampon.critiques.ajouter(id);
+			if (marge != this.margesBase[id])
+			{
+				tampon.idsMarges   .ajouter(id);
+				tampon.ecartsMarges.ajouter(marge - this.margesBase[id]);
+			}
+		}
+
+		duree = (int) Math.round(tampon.fin[this.idFin * nbVoies + voie]);
+		return new ResultatScenario(nom, this.taches, duree, duree - this.dureeBase, tampon.critiques.toArray(),
+		                            tampon.idsMarges.toArray(), tampon.ecartsMarges.toArray());
+	}
+
+	/*------------------------------------------*/
+	/*    Graphes                               */
+	/*------------------------------------------*/
+
+	/**Numéro d'une tâche du fichier (ni Début ni Fin), ou -1.
+	 */
+	private int numero(String nom)
+	{
+		int id = this.numeros.get(nom, -1);
+		return id == this.idDebut || id == this.idFin ? -1 : id;
+	}
+
+	/**Construit le graphe d'un scénario : les arcs du projet, moins les retirés, plus les ajoutés.
+	 * @throws IllegalArgumentException si une tâche est inconnue, si un arc retiré n'existe pas,
+	 *                                  ou si un arc ajouté crée un cycle.
+	 */
+	private Graphe modifierGraphe(Scenario scenario)
+	{
+		TableEntiers arcs;
+		int[]        src, dst;
+		int          nb, p, t, a;
+
+		// Arcs présents, par clé (voir Mpm.cleArc) : l'indice de l'arc, pour le retirer
+		arcs = new TableEntiers(this.sources.length + scenario.getArcsAjoutes().size());
+		src  = Arrays.copyOf(this.sources, this.sources.length + scenario.getArcsAjoutes().size());
+		dst  = Arrays.copyOf(this.cibles,  src.length);
+		nb   = this.sources.length;
+		for (a = 0; a < nb; a++)
+			arcs.put(Mpm.cleArc(src[a], dst[a]), a);
+
+		for (String[] arc : scenario.getArcsRetires())
+		{
+			p = this.numeroArc(arc[0]);
+			t = this.numeroArc(arc[1]);
+			if (!arcs.contient(Mpm.cleArc(p, t)))
+				throw new IllegalArgumentException(arc[0] + " ne précède pas " + arc[1] + ".");
+
+			// Le dernier arc prend la place du retiré
+			a = arcs.get(Mpm.cleArc(p, t), -1);
+			arcs.retirer(Mpm.cleArc(p, t));
+			nb--;
+			if (a != nb)
+			{
+				src[a] = src[nb];
+				dst[a] = dst[nb];
+				arcs.put(Mpm.cleArc(src[a], dst[a]), a);
+			}
+		}
+
+		for (String[] arc : scenario.getArcsAjoutes())
+		{
+			p = this.numeroArc(arc[0]);
+			t = this.numeroArc(arc[1]);
+			if (p == t) throw new IllegalArgumentException("Une tâche ne peut pas être son propre prédécesseur.");
+			if (arcs.contient(Mpm.cleArc(p, t))) continue;
+
+			arcs.put(Mpm.cleArc(p, t), nb);
+			src[nb] = p;
+			dst[nb] = t;
+			nb++;
+		}
+
+		return this.relier(src, dst, nb);
+	}
+
+	private int numeroArc(String nom)
+	{
+		int id = this.numero(nom);
+		if (id == -1) throw new IllegalArgumentException("Tâche inconnue : " + nom);
+		return id;
+	}
+
+	/**Relie les tâches sans prédécesseur à Début et celles sans successeur à Fin, comme au chargement,
+	 * puis range les arcs en graphe.
+	 * @throws IllegalArgumentException si les arcs forment un cycle.
+	 */
+	private Graphe relier(int[] src, int[] dst, int nbArcs)
+	{
+		int[] nbPrc, nbSvt, sources, cibles;
+		int   n, nb;
+
+		n     = this.taches.size();
+		nbPrc = new int[n];
+		nbSvt = new int[n];
+		for (int a = 0; a < nbArcs; a++)
+		{
+			nbSvt[src[a]]++;
+			nbPrc[dst[a]]++;
+		}
+
+		sources = Arrays.copyOf(src, nbArcs + 2 * n);
+		cibles  = Arrays.copyOf(dst, nbArcs + 2 * n);
+		nb      = nbArcs;
+		for (int id = 0; id < n; id++)
+		{
+			if (id == this.idDebut || id == this.idFin) continue;
+
+			if (nbSvt[id] == 0) { sources[nb] = id;           cibles[nb++] = this.idFin; }
+			if (nbPrc[id] == 0) { sources[nb] = this.idDebut; cibles[nb++] = id;         }
+		}
+
+		return new Graphe(new Adjacence(this.taches, sources, cibles, nb));
+	}
+
+	/**Graphe immuable : prédécesseurs et successeurs en tableaux, et un ordre où chaque tâche suit
+	 * tous ses prédécesseurs (algorithme de Kahn).
+	 */
+	private static final class Graphe
+	{
+		private final int[] ordre;
+		private final int[] debutPrc, prc;
+		private final int[] debutSvt, svt;
+
+		private Graphe(Adjacence adjacence)
+		{
+			int[] restants;
+			int   n, lu, ecrit, t, s;
+
+			n             = adjacence.getNbTaches();
+			this.debutPrc = adjacence.copierDebutsPredecesseurs();
+			this.prc      = adjacence.copierPredecesseurs();
+			this.debutSvt = adjacence.copierDebutsSuccesseurs();
+			this.svt      = adjacence.copierSuccesseurs();
+
+			this.ordre = new int[n];
+			restants   = new int[n];
+			ecrit      = 0;
+			for (int id = 0; id < n; id++)
+			{
+				restants[id] = this.debutPrc[id + 1] - this.debutPrc[id];
+				if (restants[id] == 0) this.ordre[ecrit++] = id;
+			}
+			for (lu = 0; lu < ecrit; lu++)
+			{
+				t = this.ordre[lu];
+				for (int k = this.debutSvt[t]; k < this.debutSvt[t + 1]; k++)
+				{
+					s = this.svt[k];
+					if (--restants[s] == 0) this.ordre[ecrit++] = s;
+				}
+			}
+
+			if (ecrit < n) throw new IllegalArgumentException("Les dépendances du scénario forment un cycle.");
+		}
+	}
+
+	/**Tableaux de travail d'un fil, rangés par voies (voir {@link PasseAuPlusTot}).
+	 */
+	private static final class Tampon
+	{
+		private final double[]     debut, fin, tard; // taille nbTaches * nbVoies
+		private final ListeEntiers critiques, idsMarges, ecartsMarges;
+
+		private Tampon(int nbTaches, int nbVoies)
+		{
+			this.debut        = new double[nbTaches * nbVoies];
+			this.fin          = new double[nbTaches * nbVoies];
+			this.tard         = new double[nbTaches * nbVoies];
+			this.critiques    = new ListeEntiers();
+			this.idsMarges    = new ListeEntiers();
+			this.ecartsMarges = new ListeEntiers();
+		}
+	}
+}
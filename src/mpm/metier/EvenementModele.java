@@ -0,0 +1,93 @@
+package mpm.metier;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * La classe {@code EvenementModele} décrit un changement du projet, publié par {@link Mpm}
+ * aux vues abonnées (voir {@link Mpm#abonner}). Un événement dit ce qui a changé et pour
+ * quelles tâches ; les vues relisent ensuite les valeurs à jour dans le modèle.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class EvenementModele
+{
+	/**Nature d'un changement.
+	 */
+	public enum Type
+	{
+		TACHE_AJOUTEE,
+		TACHE_SUPPRIMEE,
+		TACHE_RENOMMEE,
+		DUREE_MODIFIEE,
+		PREDECESSEURS_MODIFIES,
+		TACHE_DEPLACEE,
+		PLANNING_RECALCULE,
+		PROJET_CHARGE
+	}
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final Type        type;
+	private final Set<String> taches;
+	private final String      ancienNom;
+
+	/**Constructeur d'EvenementModele pour plusieurs tâches.
+	 * @param type   nature du changement.
+	 * @param taches noms des tâches concernées (vide pour PROJET_CHARGE : tout a changé).
+	 */
+	public EvenementModele(Type type, Set<String> taches)
+	{
+		this.type      = type;
+		this.taches    = Collections.unmodifiableSet(new LinkedHashSet<>(taches));
+		this.ancienNom = null;
+	}
+
+	/**Constructeur d'EvenementModele pour une seule tâche.
+	 * @param type nature du changement.
+	 * @param nom  nom de la tâche concernée.
+	 */
+	public EvenementModele(Type type, String nom)
+	{
+		this(type, nom, null);
+	}
+
+	/**Constructeur d'EvenementModele pour une tâche, avec son nom précédent (renommage).
+	 * @param type      nature du changement.
+	 * @param nom       nom (nouveau) de la tâche concernée.
+	 * @param ancienNom nom précédent, ou null.
+	 */
+	public EvenementModele(Type type, String nom, String ancienNom)
+	{
+		this.type      = type;
+		this.taches    = Collections.singleton(nom);
+		this.ancienNom = ancienNom;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère la nature du changement.
+	 * @return Le type de l'événement.
+	 */
+	public Type        getType     () { return this.type;      }
+
+	/**Récupère les noms des tâches concernées (ensemble non modifiable).
+	 * @return Ensemble de noms.
+	 */
+	public Set<String> getTaches   () { return this.taches;    }
+
+	/**Récupère le nom précédent de la tâche, pour un renommage.
+	 * @return Le nom précédent, ou null.
+	 */
+	public String      getAncienNom() { return this.ancienNom; }
+
+	public String toString()
+	{
+		return this.type + (this.ancienNom != null ? " " + this.ancienNom + " ->" : "") + " " + this.taches;
+	}
+}
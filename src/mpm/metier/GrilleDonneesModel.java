@@ -2,9 +2,18 @@ package mpm.metier;
 
 import iut.algo.Decomposeur;
 import javax.swing.table.*;
+import java.awt.Point;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.SubmissionPublisher;
+
+import mpm.metier.collection.TableObjetsEntiers;
 
 
 /**
@@ -12,10 +21,14 @@ import java.util.Scanner;
  * Elle permet le chargement, l'affichage, la modification et la sauvegarde des tâches dans un fichier texte,
  * tout en assurant la synchronisation avec l'interface graphique.
  *
+ * Le projet garde un seul modèle pendant toute sa vie : un rechargement remplace les lignes
+ * sans remplacer le modèle, et la JTable n'est prévenue que des lignes qui ont réellement changé.
+ *
  * Fonctionnalités principales :
  *   Chargement des tâches depuis un fichier texte
  *   Affichage et édition des tâches dans un tableau (JTable)
- *   Ajout, suppression et modification des tâches
+ *   Ajout, suppression et modification des tâches, annoncées ligne par ligne
+ *   Index de recherche par nom et par prédécesseur, tenu à jour au fil des modifications
  *   Sauvegarde automatique des modifications dans le fichier associé
  *   Synchronisation des données avec le contrôleur et la vue
  *
@@ -28,92 +41,37 @@ public class GrilleDonneesModel extends AbstractTableModel
 	/*    Attributs     */
 	/*------------------*/
 
-	private String[]   tabEntetes;
-	private Object[][] tabDonnees;
+	private String[]       tabEntetes;
+	private List<Object[]> lstLignes;
 
 	private String fichier;
 
+	private TableObjetsEntiers<String> indexNoms;      // gardé entre deux reconstructions
+	private boolean                    indexNomsAJour;
+	private IndexRecherche             indexRecherche;
+
+	private SubmissionPublisher<EvenementModele> publieur;
+
 	/**Constructeur par défaut de GrilleDonnnesModel.
 	 */
 	public GrilleDonneesModel()
 	{
-		this.tabEntetes = new String[] { "Nom","Durée","Tâches Précédentes", "x", "y" };
+		this.tabEntetes = new String[] { "Nom","Durée","Tâches Précédentes", "x", "y", "Estimation (o/m/p)", "Ressources", "Accélération (durée/coût)" };
 
 		this.fichier = null;
 
-		this.tabDonnees = new Object[0][5];
+		this.lstLignes = new ArrayList<>();
 	}
 
 	/**Constructeur de GrilleDonnneesModel avec un paramètre.
 	 * @param fichier String qui représente le fichier à lire.
 	 */
-	public GrilleDonneesModel(String fichier) 
+	public GrilleDonneesModel(String fichier)
 	{
-		/*-------------------------------*/
-		/*           Variables           */
-		/*-------------------------------*/
-
-		Scanner  scFichier              ;
-		          
-		String   ligne                  ;
-		
-		int      nbTotalLigne, nbLigne  ;
-		
-		String[] parties                ;
-		String   nom, duree, prec, x, y ;
-
-		nbTotalLigne = 0;
-		
-		this.fichier = fichier;
-
-
-		this.tabEntetes = new String[] { "Nom","Durée","Tâches Précédentes", "x", "y" };
-
-		// Compter le nombre de lignes non vides dans le fichier
-		try 
-		{
-			scFichier = new Scanner(new FileInputStream(this.fichier), StandardCharsets.UTF_8);
+		this.tabEntetes = new String[] { "Nom","Durée","Tâches Précédentes", "x", "y", "Estimation (o/m/p)", "Ressources", "Accélération (durée/coût)" };
 
-			while (scFichier.hasNextLine())
-			{
-				ligne = scFichier.nextLine().trim();
-				if (!ligne.isEmpty()) nbTotalLigne++;
-			}
-
-		} 
-		catch (Exception e)
-		{
-			e.printStackTrace();
-		}
-
-		this.tabDonnees = new Object[nbTotalLigne][5];
-
-		nbLigne = 0;
-
-		// Remplir le tableau avec les données du fichier
-		try 
-		{
-			scFichier = new Scanner(new FileInputStream(this.fichier), StandardCharsets.UTF_8);
-
-			while (scFichier.hasNextLine())
-			{
-				ligne = scFichier.nextLine().trim();
-				if (ligne.isEmpty()) continue;
-
-				parties = ligne.split("\\|");
-				nom     = parties.length > 0 ? parties[0].trim() : "";
-				duree   = parties.length > 1 ? parties[1].trim() : "";
-				prec    = parties.length > 2 ? parties[2].trim() : "";
-				x       = parties.length > 3 ? parties[3].trim() : "";
-				y       = parties.length > 4 ? parties[4].trim() : "";
-
-				this.tabDonnees[nbLigne++] = new Object[] { nom, duree, prec, x, y };
-			}
-		} 
-		catch (Exception e)
-		{
-			e.printStackTrace();
-		}
+		this.fichier   = fichier;
+		this.lstLignes = GrilleDonneesModel.lire(fichier);
 	}
 
 	/*------------------------------------------*/
@@ -123,38 +81,77 @@ public class GrilleDonneesModel extends AbstractTableModel
 	/**Récupère le fichier qui a été lu.
 	 * @return Une chaîne de caractère qui représente le chemin du fichier.
 	 */
-	public String getFichier    ()                 { return this.fichier;                   }
-	
-	/**Récupère le nombre de ligne de la grille 
+	public String   getFichier    ()                 { return this.fichier;                 }
+
+	/**Récupère le nombre de ligne de la grille
 	 * @return Entier qui représente le nombre de ligne de la grille.
 	 */
-	public int    getRowCount   ()                 { return this.tabDonnees.length;            }
+	public int      getRowCount   ()                 { return this.lstLignes.size();        }
 
 	/**Récupère le nombre de colonne de la grille.
 	 * @return Entier qui représente le nombre de colonne de la grille.
 	 */
-	public int    getColumnCount()                 { return this.tabEntetes.length;            }
+	public int      getColumnCount()                 { return this.tabEntetes.length;       }
 
 	/**Récupère le nom de la colonne de la colonne entrée en paramètre.
 	 * @param col Entier qui représente la colonne que l'on veut récupérer son nom.
 	 * @return Une chîne de caractères qui est le nom de la colonne entrée en paramètre.
 	 */
-	public String getColumnName (int col)          { return this.tabEntetes[col];              }
+	public String   getColumnName (int col)          { return this.tabEntetes[col];         }
 
 	/**Return la valeur à la ligne et la colonne entrée en paramètre.
 	 * @param lig Entier qui représente la ligne.
 	 * @param col Entier qui représente la colonne.
-	 * 
+	 *
 	 * @return La valeur à la position ligne, colonne spécifié en paramètre.
 	 */
-	public Object getValueAt    (int lig, int col) { return this.tabDonnees[lig][col];         }
- 
-	/**Récupère la classe à la ligne 0 et la colonne spécifié en paramètre.
+	public Object   getValueAt    (int lig, int col) { return this.lstLignes.get(lig)[col]; }
+
+	/**Récupère la classe des valeurs d'une colonne : toutes les cases sont du texte,
+	 * tel qu'il est écrit dans le fichier, même quand la grille est vide.
 	 * @param colonne Entier qui représente la colonne.
-	 * 
-	 * @return La classe de la valeur à la ligne 0 et la colonnne entrée en paramètre.
+	 *
+	 * @return String.class.
+	 */
+	public Class<?> getColumnClass(int colonne)      { return String.class;                 }
+
+	/**Récupère la ligne de la tâche dont le nom est entré en paramètre.
+	 * L'index des noms est reconstruit seulement après un ajout, une suppression ou un rechargement.
+	 * @param nom Nom de la tâche recherchée.
+	 *
+	 * @return L'indice de la ligne, ou -1 si aucune tâche ne porte ce nom.
+	 */
+	public int getLigne(String nom)
+	{
+		if (!this.indexNomsAJour)
+		{
+			if (this.indexNoms == null) this.indexNoms = new TableObjetsEntiers<>(this.lstLignes.size());
+			else                        this.indexNoms.vider();
+
+			for (int i = 0; i < this.lstLignes.size(); i++)
+				if (this.lstLignes.get(i)[0] != null)
+					this.indexNoms.putSiAbsente(this.lstLignes.get(i)[0].toString(), i);
+			this.indexNomsAJour = true;
+		}
+
+		return this.indexNoms.get(nom, -1);
+	}
+
+	/**Récupère l'index de recherche des tâches, construit à la première demande
+	 * puis tenu à jour à chaque modification de la grille.
+	 * @return L'index de recherche.
 	 */
-	public Class  getColumnClass(int colonne)      { return getValueAt(0, colonne).getClass(); }
+	public IndexRecherche getIndexRecherche()
+	{
+		if (this.indexRecherche == null)
+		{
+			this.indexRecherche = new IndexRecherche();
+			for (Object[] ligne : this.lstLignes)
+				if (ligne[0] != null)
+					this.indexRecherche.ajouter(ligne[0].toString(), ligne[2] != null ? ligne[2].toString() : null);
+		}
+		return this.indexRecherche;
+	}
 
 	/*------------------------------------------*/
 	/*               Modificateurs              */
@@ -164,6 +161,11 @@ public class GrilleDonneesModel extends AbstractTableModel
 	 */
 	public void setFichier(String fc) 	{this.fichier = fc;}
 
+	/**Branche la grille sur le flux d'événements du projet (voir {@link Mpm#abonner}).
+	 * @param publieur le flux, ou null pour ne rien publier.
+	 */
+	void setPublieur(SubmissionPublisher<EvenementModele> publieur) { this.publieur = publieur; }
+
 	/**Permet de modifer la valeur à la ligne et la colonne entrées en paramètre.
 	 * @param valeur  La valeur de base sera remplacée par celle-ci.
 	 * @param ligne   Coordonnée de la case pour sa ligne.
@@ -171,45 +173,61 @@ public class GrilleDonneesModel extends AbstractTableModel
 	 */
 	public void setValueAt(Object val, int lig, int col)
 	{
-		
+
 		/*-------------------------------*/
 		/*           Variables           */
 		/*-------------------------------*/
-		
-		String   nom, duree, prec, x, y ;
+
+		Object[] ligne  ;
+		Object   ancien ;
 
 		// Met à jour la valeur dans le tableau
-		if (col >= 0 && col < tabDonnees[lig].length) 
+		ligne = this.lstLignes.get(lig);
+		if (col >= 0 && col < ligne.length)
 		{
-			this.tabDonnees[lig][col] = val;
+			ancien     = ligne[col];
+			ligne[col] = val;
+			if (col == 0) this.renommerDansIndex(ancien, val, lig);
+			if (col == 0) this.indexerLigne(ancien, lig);
+			if (col == 2) this.indexerLigne(ligne[0], lig);
 			this.fireTableCellUpdated(lig, col);
 
+			if (!Objects.equals(String.valueOf(ancien), String.valueOf(val)))
+				this.publierModification(lig, col, ancien);
+
 			// Met à jour le fichier texte
-			try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
-					new FileOutputStream(this.fichier, false), StandardCharsets.UTF_8))) 
-			{
-				for (int i = 0; i < this.tabDonnees.length; i++) 
-				{
-					nom   = this.tabDonnees[i][0] != null ? this.tabDonnees[i][0].toString() : "";
-					duree = this.tabDonnees[i][1] != null ? this.tabDonnees[i][1].toString() : "";
-					prec  = this.tabDonnees[i][2] != null ? this.tabDonnees[i][2].toString() : "";
-					x     = this.tabDonnees[i][3] != null ? this.tabDonnees[i][3].toString() : "";
-					y     = this.tabDonnees[i][4] != null ? this.tabDonnees[i][4].toString() : "";
-					writer.println(nom + "|" + duree + "|" + prec + "|" + x + "|" + y);
-				}
-			} 
-			catch (IOException e) 
-			{
-				e.printStackTrace();
-			}
+			this.sauvegarderDansFichier();
 		}
 	}
 
+	/**Remplace toute une ligne d'un coup : la table n'est prévenue qu'une fois
+	 * et le fichier n'est réécrit qu'une fois.
+	 * @param lig     Indice de la ligne.
+	 * @param valeurs Nouvelles valeurs : nom, durée, prédécesseurs, x, y, estimation, ressources, accélération.
+	 */
+	public void modifierLigne(int lig, Object[] valeurs)
+	{
+		Object[] ancienne;
+
+		ancienne = this.lstLignes.get(lig);
+		this.lstLignes.set(lig, Arrays.copyOf(valeurs, this.tabEntetes.length));
+		this.renommerDansIndex(ancienne[0], valeurs[0], lig);
+		if (!Objects.equals(ancienne[0], valeurs[0]) || !Objects.equals(ancienne[2], valeurs[2]))
+			this.indexerLigne(ancienne[0], lig);
+
+		this.fireTableRowsUpdated(lig, lig);
+		this.sauvegarderDansFichier();
+
+		for (int col = 0; col < this.tabEntetes.length; col++)
+			if (!Objects.equals(String.valueOf(ancienne[col]), String.valueOf(this.lstLignes.get(lig)[col])))
+				this.publierModification(lig, col, ancienne[col]);
+	}
+
 	/**Permet de dire si une case à la ligne et colonne entrées en paramètre est modifiable ou non.
 	 * @param ligne   Coordonnées de la case.
 	 * @param colonne Coordonnées de la case.
 	 */
-	public boolean isCellEditable(int row, int col) { return ( col == 0 || col == 1 || col == 2) || (col == 3 || col == 4);  }
+	public boolean isCellEditable(int row, int col) { return ( col == 0 || col == 1 || col == 2) || (col == 3 || col == 4) || col == 5 || col == 6 || col == 7;  }
 
 	/*------------------------------------------*/
 	/*    Fonctionnalités de taches             */
@@ -222,7 +240,7 @@ public class GrilleDonneesModel extends AbstractTableModel
 	 * @param coordX        Coordonnée X de la tâche à ajouter en String.
 	 * @param coordY        Coordonnée X de la tâche à ajouter en String.
 	 */
-	public void ajouterTache(String nom, int duree, String predecesseurs, String x, String y) 
+	public void ajouterTache(String nom, int duree, String predecesseurs, String x, String y)
 	{
 
 		/*-------------------------------*/
@@ -230,115 +248,335 @@ public class GrilleDonneesModel extends AbstractTableModel
 		/*-------------------------------*/
 
 		int ind;
-		Object[][] nvTab;
 
 		ind = 0;
 
-		while (ind < this.tabDonnees.length && nom.compareToIgnoreCase(this.tabDonnees[ind][0].toString()) > 0) 
+		while (ind < this.lstLignes.size() && nom.compareToIgnoreCase(this.lstLignes.get(ind)[0].toString()) > 0)
 			ind++;
-		
-
-		nvTab = new Object[this.tabDonnees.length + 1][5];
 
-		for (int i = 0, j = 0; i < nvTab.length; i++) 
-		{
-			if (i == ind) 
-				nvTab[i] = new Object[] { nom, String.valueOf(duree), predecesseurs, x, y };
-			
-			else 
-				nvTab[i] = this.tabDonnees[j++];
-		}
-
-		this.tabDonnees = nvTab;
-		fireTableDataChanged();
+		this.lstLignes.add(ind, new Object[] { nom, String.valueOf(duree), predecesseurs, x, y, "", "", "" });
+		this.indexNomsAJour = false;
+		if (this.indexRecherche != null) this.indexRecherche.ajouter(nom, predecesseurs);
+		fireTableRowsInserted(ind, ind);
 		sauvegarderDansFichier();
+
+		this.publier(new EvenementModele(EvenementModele.Type.TACHE_AJOUTEE, nom));
 	}
 
 	/**Sert à supprimer une tâche dans la grille.
 	 * @param nom Nom de la tâche à supprimer.
 	 */
-	public void supprimerTache(String nom) 
+	public void supprimerTache(String nom)
 	{
-		
+
 		/*-------------------------------*/
 		/*           Variables           */
 		/*-------------------------------*/
 
-		Object[][] nvTab;
-		int        ind  ;
+		int ind;
+
+		ind = this.getLigne(nom);
+		if (ind == -1) return;
 
-		ind = -1;
+		this.lstLignes.remove(ind);
+		this.indexNomsAJour = false;
+		if (this.indexRecherche != null) this.indexRecherche.retirer(nom);
 
-		for (int i = 0; i < this.tabDonnees.length; i++) 
+		fireTableRowsDeleted(ind, ind);
+		sauvegarderDansFichier();
+
+		this.publier(new EvenementModele(EvenementModele.Type.TACHE_SUPPRIMEE, nom));
+	}
+
+	/**Modifie les coordonnées de plusieurs tâches d'un coup.
+	 * La grille n'est prévenue qu'une fois et le fichier n'est réécrit qu'une fois.
+	 * @param positions Association nom de tâche, nouvelle position ; les noms absents de la grille sont ignorés.
+	 */
+	public void modifierPositions(Map<String, Point> positions)
+	{
+		int ligne, min, max;
+
+		min = Integer.MAX_VALUE;
+		max = -1;
+		for (Map.Entry<String, Point> entree : positions.entrySet())
 		{
-			if (this.tabDonnees[i][0].equals(nom)) 
-			{
-				ind = i;
-				break;
-			}
+			ligne = this.getLigne(entree.getKey());
+			if (ligne == -1) continue;
+
+			this.lstLignes.get(ligne)[3] = String.valueOf(entree.getValue().x);
+			this.lstLignes.get(ligne)[4] = String.valueOf(entree.getValue().y);
+			min = Math.min(min, ligne);
+			max = Math.max(max, ligne);
 		}
-		if (ind == -1) return;
 
-		nvTab = new Object[this.tabDonnees.length - 1][5];
+		if (max == -1) return;
+
+		this.fireTableRowsUpdated(min, max);
+		this.sauvegarderDansFichier();
+
+		this.publier(new EvenementModele(EvenementModele.Type.TACHE_DEPLACEE, positions.keySet()));
+	}
+
+	/**Tient l'index des noms à jour après le renommage d'une ligne, sans le reconstruire.
+	 */
+	private void renommerDansIndex(Object ancien, Object nouveau, int lig)
+	{
+		int autre;
+
+		if (!this.indexNomsAJour || Objects.equals(ancien, nouveau)) return;
 
-		for (int i = 0, j = 0; i < this.tabDonnees.length; i++) 
+		if (ancien != null && this.indexNoms.get(ancien.toString(), -1) == lig)
+			this.indexNoms.retirer(ancien.toString());
+
+		if (nouveau != null)
 		{
-			if (i != ind) nvTab[j++] = this.tabDonnees[i];
+			// En cas de doublon, l'index garde la première ligne, comme à la construction
+			autre = this.indexNoms.get(nouveau.toString(), -1);
+			if (autre == -1 || autre > lig)
+				this.indexNoms.put(nouveau.toString(), lig);
 		}
-		this.tabDonnees = nvTab;
+	}
 
-		fireTableDataChanged();
-		sauvegarderDansFichier();
+	/**Met à jour l'index de recherche pour une ligne dont le nom ou les prédécesseurs ont changé.
+	 * @param ancienNom nom de la tâche avant la modification.
+	 * @param lig       ligne modifiée.
+	 */
+	private void indexerLigne(Object ancienNom, int lig)
+	{
+		Object[] ligne;
+
+		if (this.indexRecherche == null) return;
+
+		ligne = this.lstLignes.get(lig);
+		if (ancienNom != null) this.indexRecherche.retirer(ancienNom.toString());
+		if (ligne[0]  != null) this.indexRecherche.ajouter(ligne[0].toString(), ligne[2] != null ? ligne[2].toString() : null);
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités d'événements          */
+	/*------------------------------------------*/
+
+	/**Publie le changement d'une case, traduit en événement selon sa colonne.
+	 * @param lig    ligne modifiée.
+	 * @param col    colonne modifiée.
+	 * @param ancien valeur avant la modification.
+	 */
+	private void publierModification(int lig, int col, Object ancien)
+	{
+		EvenementModele.Type type;
+		String               nom;
+
+		nom = String.valueOf(this.lstLignes.get(lig)[0]);
+		switch (col)
+		{
+			case 0 :
+				this.publier(new EvenementModele(EvenementModele.Type.TACHE_RENOMMEE, nom, String.valueOf(ancien)));
+				return;
+
+			case 1  :
+			case 5  :
+			case 6  :
+			case 7  : type = EvenementModele.Type.DUREE_MODIFIEE;         break;
+			case 2  : type = EvenementModele.Type.PREDECESSEURS_MODIFIES; break;
+			default : type = EvenementModele.Type.TACHE_DEPLACEE;         break;
+		}
+		this.publier(new EvenementModele(type, nom));
+	}
+
+	/**Publie un événement si quelqu'un écoute.
+	 * @param evenement l'événement à publier.
+	 */
+	void publier(EvenementModele evenement)
+	{
+		if (this.publieur != null && this.publieur.hasSubscribers())
+			this.publieur.submit(evenement);
 	}
 
 	/*------------------------------------------*/
 	/*    Fonctionnalités de fichier            */
 	/*------------------------------------------*/
 
-	/**Permet de sauvegarder les données dans un fichier.
-	 * Elle écrit dans celui-ci sous la forme nom|durée|prédecesseurs|coordX|coordY .
+	/**Relit le fichier entré en paramètre dans ce même modèle.
+	 * @param fichier String qui représente le fichier à lire.
 	 */
-	public void sauvegarderDansFichier() 
+	public void charger(String fichier)
 	{
-		try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(this.fichier, false), StandardCharsets.UTF_8))) 
+		this.remplacer(fichier, GrilleDonneesModel.lire(fichier));
+	}
+
+	/**Reprend les lignes d'une grille lue ailleurs (par exemple en arrière-plan) dans ce même modèle.
+	 * @param autre la grille dont on reprend le fichier et les lignes.
+	 */
+	public void reprendre(GrilleDonneesModel autre)
+	{
+		List<Object[]> lignes;
+
+		lignes = new ArrayList<>(autre.lstLignes.size());
+		for (Object[] ligne : autre.lstLignes)
+			lignes.add(ligne.clone());
+
+		this.remplacer(autre.fichier, lignes);
+	}
+
+	/**Remplace les lignes du modèle en ne prévenant la table que de ce qui change.
+	 * Si les tâches sont les mêmes, dans le même ordre, seules les plages de lignes modifiées
+	 * sont annoncées ; sinon toute la table l'est, mais ses colonnes sont gardées.
+	 */
+	private void remplacer(String fichier, List<Object[]> lignes)
+	{
+		boolean predsModifies;
+		int     debut;
+
+		this.fichier = fichier;
+
+		if (!this.memesNoms(lignes))
 		{
-			for (Object[] ligne : this.tabDonnees) 
-			writer.println(ligne[0] + "|" + ligne[1] + "|" + ligne[2] + "|" + ligne[3] + "|" + ligne[4]);
-		} 
-		catch (IOException e) 
+			this.lstLignes      = lignes;
+			this.indexNomsAJour = false;
+			this.indexRecherche = null;
+			this.fireTableDataChanged();
+			return;
+		}
+
+		// Mêmes noms dans le même ordre : l'index reste bon, on annonce les plages modifiées
+		debut = -1;
+		for (int i = 0; i <= lignes.size(); i++)
 		{
-			e.printStackTrace();
+			if (i < lignes.size() && !Arrays.equals(this.lstLignes.get(i), lignes.get(i)))
+			{
+				predsModifies = !Objects.equals(this.lstLignes.get(i)[2], lignes.get(i)[2]);
+				this.lstLignes.set(i, lignes.get(i));
+				if (predsModifies) this.indexerLigne(lignes.get(i)[0], i);
+				if (debut == -1) debut = i;
+			}
+			else if (debut != -1)
+			{
+				this.fireTableRowsUpdated(debut, i - 1);
+				debut = -1;
+			}
 		}
 	}
 
-	/**Permet de sauvegarder des tâches dans un nouveau fichier.
-	 * @param nouveauFichier Nom du nouveau fichier en String.
-	 */
-	public void sauvegarderTachesDansFichier(String nouveauFichier)
+	private boolean memesNoms(List<Object[]> lignes)
 	{
+		if (lignes.size() != this.lstLignes.size()) return false;
+
+		for (int i = 0; i < lignes.size(); i++)
+			if (!Objects.equals(lignes.get(i)[0], this.lstLignes.get(i)[0]))
+				return false;
 
+		return true;
+	}
+
+	/**Lit un fichier de tâches, une ligne de la grille par ligne non vide.
+	 * @param fichier String qui représente le fichier à lire.
+	 * @return Les lignes lues ; vide si le fichier ne peut pas être lu.
+	 */
+	private static List<Object[]> lire(String fichier)
+	{
 		/*-------------------------------*/
 		/*           Variables           */
 		/*-------------------------------*/
 
-		String   nom, duree, prec, x, y ;
+		List<Object[]> lignes                 ;
+		String         ligne                  ;
+		String[]       parties                ;
+		String         nom, duree, prec, x, y ;
+		String         estimation, ressources ;
+		String         acceleration           ;
 
-		try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
-				new FileOutputStream(nouveauFichier, false), StandardCharsets.UTF_8)))
+		lignes = new ArrayList<>();
+
+		try (Scanner scFichier = new Scanner(new FileInputStream(fichier), StandardCharsets.UTF_8))
 		{
-			for (int i = 0; i < this.getRowCount(); i++)
+			while (scFichier.hasNextLine())
 			{
-				nom   = this.getValueAt(i, 0) != null ? this.getValueAt(i, 0).toString() : "";
-				duree = this.getValueAt(i, 1) != null ? this.getValueAt(i, 1).toString() : "";
-				prec  = this.getValueAt(i, 2) != null ? this.getValueAt(i, 2).toString() : "";
-				x     = this.getValueAt(i, 3) != null ? this.getValueAt(i, 3).toString() : "";
-				y     = this.getValueAt(i, 4) != null ? this.getValueAt(i, 4).toString() : "";
-				writer.println(nom + "|" + duree + "|" + prec + "|" + x + "|" + y);
+				ligne = scFichier.nextLine().trim();
+				if (ligne.isEmpty()) continue;
+
+				parties = ligne.split("\\|");
+				nom     = parties.length > 0 ? parties[0].trim() : "";
+				duree   = parties.length > 1 ? parties[1].trim() : "";
+				prec    = parties.length > 2 ? parties[2].trim() : "";
+				x       = parties.length > 3 ? parties[3].trim() : "";
+				y       = parties.length > 4 ? parties[4].trim() : "";
+
+				// Estimation à trois points « o/m/p », facultative (voir SimulationPert)
+				estimation = parties.length > 5 ? parties[5].trim() : "";
+
+				// Ressources demandées « ressource:quantité,… », facultatives (voir OrdonnancementRessources)
+				ressources = parties.length > 6 ? parties[6].trim() : "";
+
+				// Accélération « durée minimale/coût par jour gagné », facultative (voir AccelerationProjet)
+				acceleration = parties.length > 7 ? parties[7].trim() : "";
+
+				lignes.add(new Object[] { nom, duree, prec, x, y, estimation, ressources, acceleration });
 			}
 		}
 		catch (Exception e)
 		{
 			e.printStackTrace();
 		}
+
+		return lignes;
+	}
+
+	/**Permet de sauvegarder les données dans un fichier.
+	 * Elle écrit dans celui-ci sous la forme nom|durée|prédecesseurs|coordX|coordY|estimation|ressources|accélération ,
+	 * les trois dernières n'étant écrites que si elles sont renseignées.
+	 */
+	public void sauvegarderDansFichier()
+	{
+		this.sauvegarderTachesDansFichier(this.fichier);
+	}
+
+	/**Permet de sauvegarder des tâches dans un nouveau fichier.
+	 * @param nouveauFichier Nom du nouveau fichier en String.
+	 */
+	public void sauvegarderTachesDansFichier(String nouveauFichier)
+	{
+		if (nouveauFichier == null) return;
+
+		try (PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(nouveauFichier, false), StandardCharsets.UTF_8))))
+		{
+			for (int lig = 0; lig < this.lstLignes.size(); lig++)
+				writer.println(this.getLigneFichier(lig));
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/**Met une ligne de la grille sous la forme écrite dans le fichier : les cinq premières colonnes
+	 * toujours, les suivantes seulement jusqu'à la dernière renseignée. Un fichier sans estimation
+	 * ni ressources ni accélération est donc réécrit tel qu'il a été lu.
+	 * @param lig Indice de la ligne.
+	 * @return La ligne, colonnes séparées par « | ».
+	 */
+	public String getLigneFichier(int lig)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		StringBuilder sb        ;
+		Object[]      ligne     ;
+		int           nbColonnes;
+
+		ligne      = this.lstLignes.get(lig);
+		nbColonnes = ligne.length;
+		while (nbColonnes > 5 && (ligne[nbColonnes - 1] == null || ligne[nbColonnes - 1].toString().isEmpty()))
+			nbColonnes--;
+
+		sb = new StringBuilder();
+		for (int col = 0; col < nbColonnes; col++)
+		{
+			if (col > 0) sb.append('|');
+			if (ligne[col] != null) sb.append(ligne[col]);
+		}
+		return sb.toString();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * La classe {@code IndexRecherche} retrouve des tâches par morceau de nom ou par prédécesseur
+ * sans parcourir toute la grille. Elle est tenue à jour au fil des ajouts, suppressions et
+ * renommages par {@link GrilleDonneesModel}.
+ *
+ * Fonctionnalités principales :
+ *   Recherche d'un texte dans les noms par trigrammes (trois caractères et plus)
+ *   Recherche par début de nom pour les textes plus courts
+ *   Recherche des tâches qui ont un prédécesseur donné
+ *
+ * Chaque tâche reçoit un numéro croissant ; une tâche modifiée est retirée puis ajoutée
+ * sous un nouveau numéro. Les numéros retirés restent dans les listes jusqu'au prochain
+ * compactage, qui a lieu quand ils deviennent plus nombreux que les tâches vivantes.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class IndexRecherche
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public static final int TAILLE_NGRAMME = 3;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Map<String, Integer>          idParNom;
+	private List<String>                  noms;          // par numéro, null une fois retiré
+	private List<String[]>                predecesseurs; // par numéro
+	private Map<String, ListeIds>         nGrammes;
+	private Map<String, ListeIds>         successeurs;
+	private NavigableMap<String, Integer> prefixes;      // nom en minuscules + '\0' + numéro
+
+	private int nbRetires;
+
+	/**Constructeur d'IndexRecherche : index vide.
+	 */
+	public IndexRecherche()
+	{
+		this.vider();
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de mise à jour        */
+	/*------------------------------------------*/
+
+	/**Vide l'index.
+	 */
+	public void vider()
+	{
+		this.idParNom      = new HashMap<>();
+		this.noms          = new ArrayList<>();
+		this.predecesseurs = new ArrayList<>();
+		this.nGrammes      = new HashMap<>();
+		this.successeurs   = new HashMap<>();
+		this.prefixes      = new TreeMap<>();
+		this.nbRetires     = 0;
+	}
+
+	/**Ajoute une tâche ; une tâche de même nom déjà présente est remplacée.
+	 * @param nom           nom de la tâche.
+	 * @param predecesseurs prédécesseurs sous la forme : tache1,tache2 (peut être null).
+	 */
+	public void ajouter(String nom, String predecesseurs)
+	{
+		String[] preds;
+		String   min;
+		int      id;
+
+		if (nom == null || nom.isEmpty()) return;
+		this.retirer(nom);
+
+		id    = this.noms.size();
+		preds = (predecesseurs == null || predecesseurs.isBlank()) ? new String[0] : predecesseurs.split(",");
+		for (int i = 0; i < preds.length; i++)
+			preds[i] = preds[i].trim();
+
+		this.noms.add(nom);
+		this.predecesseurs.add(preds);
+		this.idParNom.put(nom, id);
+
+		min = nom.toLowerCase(Locale.ROOT);
+		this.prefixes.put(min + '\0' + id, id);
+
+		// Chaque trigramme une seule fois par nom, pour garder les listes sans doublon
+		for (String g : IndexRecherche.decouper(min))
+			this.nGrammes.computeIfAbsent(g, k -> new ListeIds()).ajouter(id);
+
+		for (String p : preds)
+			if (!p.isEmpty())
+				this.successeurs.computeIfAbsent(p, k -> new ListeIds()).ajouter(id);
+	}
+
+	/**Retire une tâche.
+	 * @param nom nom de la tâche ; rien ne se passe s'il est absent.
+	 */
+	public void retirer(String nom)
+	{
+		Integer id;
+
+		if (nom == null) return;
+
+		id = this.idParNom.remove(nom);
+		if (id == null) return;
+
+		this.prefixes.remove(nom.toLowerCase(Locale.ROOT) + '\0' + id);
+		this.noms.set(id, null);
+		this.nbRetires++;
+
+		if (this.nbRetires > this.idParNom.size() && this.nbRetires > 64)
+			this.compacter();
+	}
+
+	/**Reconstruit l'index avec les seules tâches vivantes, renumérotées.
+	 */
+	private void compacter()
+	{
+		List<String>   anciensNoms;
+		List<String[]> anciensPreds;
+
+		anciensNoms  = this.noms;
+		anciensPreds = this.predecesseurs;
+
+		this.vider();
+		for (int i = 0; i < anciensNoms.size(); i++)
+			if (anciensNoms.get(i) != null)
+				this.ajouter(anciensNoms.get(i), String.join(",", anciensPreds.get(i)));
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de recherche          */
+	/*------------------------------------------*/
+
+	/**Cherche les tâches dont le nom contient un texte, sans tenir compte des majuscules.
+	 * En dessous de trois caractères, seul le début du nom est comparé.
+	 * @param texte le texte cherché.
+	 * @return les noms trouvés, dans l'ordre d'ajout.
+	 */
+	public Set<String> chercherNom(String texte)
+	{
+		Set<String> trouves;
+		ListeIds[]  listes;
+		String      q, nom;
+		String[]    grammes;
+		int[]       candidats;
+		int         nb;
+
+		trouves = new LinkedHashSet<>();
+		q       = texte.toLowerCase(Locale.ROOT);
+
+		if (q.length() < TAILLE_NGRAMME)
+		{
+			for (int id : this.prefixes.subMap(q, true, q + Character.MAX_VALUE, true).values())
+				trouves.add(this.noms.get(id));
+			return trouves;
+		}
+
+		grammes = IndexRecherche.decouper(q).toArray(new String[0]);
+		listes  = new ListeIds[grammes.length];
+		for (int i = 0; i < grammes.length; i++)
+		{
+			listes[i] = this.nGrammes.get(grammes[i]);
+			if (listes[i] == null) return trouves;
+		}
+
+		// On part de la liste la plus courte et on garde ce qui est dans toutes les autres
+		Arrays.sort(listes, (a, b) -> Integer.compare(a.taille, b.taille));
+		candidats = Arrays.copyOf(listes[0].ids, listes[0].taille);
+		nb        = candidats.length;
+		for (int i = 1; i < listes.length && nb > 0; i++)
+			nb = IndexRecherche.intersecter(candidats, nb, listes[i]);
+
+		// Les trigrammes ne disent rien de leur ordre : on vérifie le texte sur les seuls candidats
+		for (int i = 0; i < nb; i++)
+		{
+			nom = this.noms.get(candidats[i]);
+			if (nom != null && nom.toLowerCase(Locale.ROOT).contains(q))
+				trouves.add(nom);
+		}
+		return trouves;
+	}
+
+	/**Cherche les tâches qui ont un prédécesseur donné.
+	 * @param predecesseur le nom exact du prédécesseur.
+	 * @return les noms des tâches qui le suivent directement.
+	 */
+	public Set<String> chercherSuccesseurs(String predecesseur)
+	{
+		Set<String> trouves;
+		ListeIds    liste;
+		String      nom;
+
+		trouves = new LinkedHashSet<>();
+		liste   = this.successeurs.get(predecesseur.trim());
+		if (liste == null) return trouves;
+
+		for (int i = 0; i < liste.taille; i++)
+		{
+			nom = this.noms.get(liste.ids[i]);
+			if (nom != null)
+				trouves.add(nom);
+		}
+		return trouves;
+	}
+
+	/*------------------------------------------*/
+	/*    Méthodes internes                     */
+	/*------------------------------------------*/
+
+	/**Découpe un texte (déjà en minuscules) en trigrammes distincts.
+	 */
+	private static Set<String> decouper(String texte)
+	{
+		Set<String> grammes = new LinkedHashSet<>();
+		for (int i = 0; i + TAILLE_NGRAMME <= texte.length(); i++)
+			grammes.add(texte.substring(i, i + TAILLE_NGRAMME));
+		return grammes;
+	}
+
+	/**Garde dans candidats (triés, nb premiers) ceux qui sont aussi dans la liste.
+	 * @return le nombre de candidats restants, rangés au début du tableau.
+	 */
+	private static int intersecter(int[] candidats, int nb, ListeIds liste)
+	{
+		int i, j, k;
+
+		i = 0;
+		j = 0;
+		k = 0;
+		while (i < nb && j < liste.taille)
+		{
+			if      (candidats[i] < liste.ids[j]) i++;
+			else if (candidats[i] > liste.ids[j]) j++;
+			else
+			{
+				candidats[k++] = candidats[i];
+				i++;
+				j++;
+			}
+		}
+		return k;
+	}
+
+	/**Liste de numéros croissants : les numéros sont donnés dans l'ordre, un ajout est donc toujours en fin.
+	 */
+	private static class ListeIds
+	{
+		private int[] ids    = new int[4];
+		private int   taille = 0;
+
+		private void ajouter(int id)
+		{
+			if (this.taille == this.ids.length)
+				this.ids = Arrays.copyOf(this.ids, this.taille * 2);
+			this.ids[this.taille++] = id;
+		}
+	}
+}
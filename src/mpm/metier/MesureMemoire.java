@@ -0,0 +1,188 @@
+package mpm.metier;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * La classe {@code MesureMemoire} mesure la place qu'occupe un projet en mémoire, par tâche.
+ * Elle écrit un projet généré dans un fichier temporaire, le charge, puis compare la mémoire
+ * occupée avant et après : d'abord le projet complet (tâches, liens et grille), puis la grille seule.
+ *
+ * Avec l'option {@code -hors-tas}, le projet est lu dans un {@link StockageHorsTas} (tampons directs, ou
+ * fichier projeté si un chemin suit l'option) : on mesure alors le tas, la place hors du tas et la durée des calculs.
+ *
+ * Utilisation : {@code java -Xmx1g mpm.metier.MesureMemoire [nbTaches] [-hors-tas [fichierMappe]]}
+ * (un million de tâches par défaut).
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class MesureMemoire
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int NB_TACHES_DEFAUT = 1_000_000;
+	private static final int NB_PREDS_MAX     = 3;   // prédécesseurs tirés par tâche
+	private static final int PORTEE_PREDS     = 200; // parmi les tâches juste avant
+
+	private MesureMemoire() { }
+
+	/**Lance la mesure et affiche le rapport.
+	 * @param args nombre de tâches du projet généré, puis l'option -hors-tas (facultatifs).
+	 */
+	public static void main(String[] args)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		File               fichier;
+		Mpm                projet;
+		GrilleDonneesModel grille;
+		long               avant, apresProjet, apresGrille;
+		long               octetsProjet, octetsGrille;
+		int                nbTaches, opt;
+
+		nbTaches = args.length > 0 && !args[0].startsWith("-") ? Integer.parseInt(args[0]) : NB_TACHES_DEFAUT;
+		opt      = Arrays.asList(args).indexOf("-hors-tas");
+
+		try
+		{
+			fichier = File.createTempFile("mesure-mpm", ".data");
+			fichier.deleteOnExit();
+			MesureMemoire.genererProjet(fichier, nbTaches);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return;
+		}
+
+		if (opt != -1)
+		{
+			MesureMemoire.mesurerHorsTas(fichier, opt + 1 < args.length ? new File(args[opt + 1]) : null, nbTaches);
+			return;
+		}
+
+		// Projet complet : tâches, adjacence et grille
+		avant  = MesureMemoire.memoireOccupee();
+		projet = new Mpm();
+		projet.chargerTaches(fichier.getPath());
+		apresProjet  = MesureMemoire.memoireOccupee();
+		octetsProjet = apresProjet - avant;
+
+		// Grille seule, chargée une seconde fois à côté du projet
+		grille       = new GrilleDonneesModel(fichier.getPath());
+		apresGrille  = MesureMemoire.memoireOccupee();
+		octetsGrille = apresGrille - apresProjet;
+
+		System.out.println("Tâches chargées       : " + projet.getTaches().size());
+		System.out.println("Arcs                  : " + projet.getAdjacence().getNbArcs());
+		System.out.println("Adjacence (tableaux)  : " + MesureMemoire.enMo(projet.getAdjacence().tailleOctets()));
+		System.out.println("Projet complet        : " + MesureMemoire.enMo(octetsProjet)
+		                   + " soit " + octetsProjet / nbTaches + " octets par tâche");
+		System.out.println("  dont grille         : " + MesureMemoire.enMo(octetsGrille)
+		                   + " soit " + octetsGrille / nbTaches + " octets par tâche");
+		System.out.println("  dont tâches et liens: " + MesureMemoire.enMo(octetsProjet - octetsGrille)
+		                   + " soit " + (octetsProjet - octetsGrille) / nbTaches + " octets par tâche");
+		System.out.println("Mémoire maximale      : " + MesureMemoire.enMo(Runtime.getRuntime().maxMemory()));
+
+		// Garde le projet et la grille vivants jusqu'à la fin de la mesure
+		Reference.reachabilityFence(projet);
+		Reference.reachabilityFence(grille);
+	}
+
+	/**Lit le projet hors du tas, fait les calculs dessus et affiche le rapport.
+	 */
+	private static void mesurerHorsTas(File fichier, File fichierMappe, int nbTaches)
+	{
+		StockageHorsTas stockage;
+		long            avant, apres, debut, duree;
+
+		avant = MesureMemoire.memoireOccupee();
+		try
+		{
+			stockage = StockageHorsTas.charger(fichier.getPath(), fichierMappe);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return;
+		}
+		apres = MesureMemoire.memoireOccupee();
+
+		debut = System.nanoTime();
+		stockage.calculer();
+		duree = System.nanoTime() - debut;
+
+		System.out.println("Tâches chargées       : " + stockage.getNbTaches());
+		System.out.println("Arcs                  : " + stockage.getNbArcs());
+		System.out.println("Hors du tas           : " + MesureMemoire.enMo(stockage.getTailleOctets())
+		                   + " soit " + stockage.getTailleOctets() / nbTaches + " octets par tâche"
+		                   + (fichierMappe != null ? " (fichier " + fichierMappe + ")" : ""));
+		System.out.println("Sur le tas            : " + MesureMemoire.enMo(apres - avant));
+		System.out.println("Calculs               : " + duree / 1_000_000 + " ms, fin du projet au jour "
+		                   + stockage.getDateMin(stockage.getNbTaches() - 1)
+		                   + ", " + stockage.getArcsCritiques().length + " arcs critiques");
+	}
+
+	/**Écrit un projet de nbTaches tâches : chacune dépend de quelques tâches écrites juste avant.
+	 */
+	private static void genererProjet(File fichier, int nbTaches) throws IOException
+	{
+		SplittableRandom hasard;
+		StringBuilder    preds;
+		int              nbPreds;
+
+		hasard = new SplittableRandom(42);
+		try (BufferedWriter ecrivain = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fichier), StandardCharsets.UTF_8)))
+		{
+			for (int i = 0; i < nbTaches; i++)
+			{
+				preds   = new StringBuilder();
+				nbPreds = i == 0 ? 0 : hasard.nextInt(NB_PREDS_MAX + 1);
+				for (int p = 0; p < nbPreds; p++)
+				{
+					if (p > 0) preds.append(',');
+					preds.append('T').append(Math.max(0, i - 1 - hasard.nextInt(PORTEE_PREDS)));
+				}
+				ecrivain.write("T" + i + "|" + (1 + hasard.nextInt(20)) + "|" + preds + "|" + (i % 1000) * 10 + "|" + (i / 1000) * 10);
+				ecrivain.newLine();
+			}
+		}
+	}
+
+	/**Mémoire occupée après plusieurs passages du ramasse-miettes.
+	 */
+	private static long memoireOccupee()
+	{
+		Runtime rt = Runtime.getRuntime();
+
+		for (int i = 0; i < 4; i++)
+		{
+			System.gc();
+			try
+			{
+				Thread.sleep(100);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static String enMo(long octets)
+	{
+		return String.format("%.1f Mo", octets / (1024.0 * 1024.0));
+	}
+}
@@ -17,10 +17,23 @@ package mpm.metier;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+import mpm.metier.collection.ListeEntiers;
+import mpm.metier.collection.TableObjetsEntiers;
 
 
 public class Mpm
 {
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public static final String NOM_DEBUT = "Début";
+	public static final String NOM_FIN   = "Fin";
+
 	/*------------------*/
 	/*    Attributs     */
 	/*------------------*/
@@ -29,15 +42,66 @@ public class Mpm
 	private List<Tache>        lstTaches;
 	private GrilleDonneesModel grilleDonneesModel;
 
+	// Tâches ajoutées par le projet autour du graphe, retenues pour ne jamais les chercher par leur nom
+	private Tache debut, fin;
+
+	// Liens de précédence de toutes les tâches, rangés par numéro (voir Adjacence)
+	private Adjacence adjacence;
+
+	// Date de début du projet, partagée par toutes les tâches, et ses dates déjà mises en forme
+	private DateFr           dateDebut;
+	private CalendrierProjet calendrier;
+	private CalendrierOuvre  calendrierOuvre; // null : durées et dates en jours du calendrier
+
 	private CheminCritique cheminCritique;
 
 	// attribut d'instance
 	private int niveauCourantAuPlusTot;
 	private int niveauCourantAuPlusTard;
+	private boolean pasAPas; // dates en cours de calcul niveau par niveau, à ne pas recalculer en entier
+
+	private ListeEntiers  lstNiveau;     // niveaux présents, triés
+	private int[]         parNiveau;     // numéros des tâches rangés par niveau
+	private int[]         debutNiveaux;  // plage de chaque niveau dans parNiveau
+
+	// Numéro de chaque tâche par nom, gardé d'un chargement à l'autre
+	private TableObjetsEntiers<String> numerosParNom;
 
-	private List<Integer> lstNiveau;
 	private List<Tache>   lstTachesCritiques;
 
+	private List<List<Tache>> cheminsCritiques;
+	private long[]            arcsCritiques; // clés d'arcs (voir cleArc), triées
+
+	// Époque : augmentée à chaque modification du projet. Chaque donnée dérivée retient
+	// l'époque à laquelle elle a été calculée et n'est recalculée que si elle a changé.
+	private long epoque;
+	private long epoqueNiveaux, epoqueDates, epoqueMarges, epoqueChemin, epoqueChemins, epoqueArcs;
+
+	// Époque de structure : augmentée seulement quand les objets Tache ou leurs arcs sont remplacés
+	private long epoqueStructure;
+
+	// Époque à laquelle les dates nivelées des tâches ont été calculées
+	private long epoqueNivellement;
+
+	// Flux des changements vers les vues, créé au premier abonné
+	private SubmissionPublisher<EvenementModele> publieur;
+
+	/**Interface de suivi d'un calcul complet : étape en cours et annulation.
+	 */
+	public interface Avancement
+	{
+		/**Signale le début d'une étape.
+		 * @param libelle     nom de l'étape.
+		 * @param pourcentage avancement global, de 0 à 100.
+		 */
+		void etape(String libelle, int pourcentage);
+
+		/**Indique si le calcul doit s'arrêter.
+		 * @return true si le calcul est annulé.
+		 */
+		boolean estAnnule();
+	}
+
 	/*---------------*/
 	/* Constructeur  */
 	/*---------------*/
@@ -47,15 +111,27 @@ public class Mpm
 	public Mpm()
 	{
 		this.lstTaches          = new ArrayList<>();
-		this.lstNiveau          = new ArrayList<>();
+		this.lstNiveau          = new ListeEntiers();
+		this.parNiveau          = new int[0];
+		this.debutNiveaux       = new int[0];
+		this.numerosParNom      = new TableObjetsEntiers<>();
 		this.lstTachesCritiques = new ArrayList<>();
 
 		this.grilleDonneesModel = new GrilleDonneesModel();
 
 		this.cheminCritique     = new CheminCritique();
 
+		this.adjacence          = new Adjacence(this.lstTaches, new int[0], new int[0], 0);
+		this.dateDebut          = new DateFr();
+		this.calendrier         = new CalendrierProjet(this.dateDebut);
+
 		this.niveauCourantAuPlusTot  = 0;
 		this.niveauCourantAuPlusTard = 0;
+
+		this.epoque = 0;
+		this.invaliderDates();
+		this.epoqueNiveaux     = -1;
+		this.epoqueNivellement = -1;
 	}
 
 	/*---------------*/
@@ -67,11 +143,26 @@ public class Mpm
 	 */
 	public List<Tache>        getTaches                 ()  { return this.lstTaches;                       }
 
-	/**Récupère la liste des tâches critiques.
+	/**Récupère la liste des tâches critiques, telle que le dernier calcul l'a laissée (voir {@link #calculerCheminCritique()}).
 	 * @return List Tache.
 	 */
 	public List<Tache>        getTachesCritiques        ()  { return this.lstTachesCritiques;              }
 
+	/**Récupère la tâche Début, qui précède toutes les tâches sans prédécesseur.
+	 * @return La tâche Début, ou null si aucun projet n'est chargé.
+	 */
+	public Tache              getDebut                  ()  { return this.debut;                           }
+
+	/**Récupère la tâche Fin, qui suit toutes les tâches sans successeur.
+	 * @return La tâche Fin, ou null si aucun projet n'est chargé.
+	 */
+	public Tache              getFin                    ()  { return this.fin;                             }
+
+	/**Récupère les liens de précédence du projet, rangés par numéro de tâche.
+	 * @return L'adjacence du projet.
+	 */
+	public Adjacence          getAdjacence              ()  { return this.adjacence;                       }
+
 	/**Récupère la grilleDonneesModel
 	 * @return La grille.
 	 */
@@ -90,7 +181,35 @@ public class Mpm
 	/**Récupère le nombre de niveau.
 	 * @return Entier qui représente la taille des niveaux.
 	 */
-	public int                getNbNiveaux              ()  { return this.lstNiveau.size();                }
+	public int                getNbNiveaux              ()  { this.assurerNiveaux(); return this.lstNiveau.taille(); }
+
+	/**Récupère l'époque du projet, augmentée à chaque modification.
+	 * Deux lectures qui donnent la même époque voient les mêmes données dérivées.
+	 * @return Entier long qui représente l'époque.
+	 */
+	public long               getEpoque                 ()  { return this.epoque;                          }
+
+	/**Récupère l'époque de structure, qui ne change que si les tâches ou leurs liens sont remplacés.
+	 * Tant qu'elle ne change pas, les vues peuvent garder leurs objets Tache.
+	 * @return Entier long qui représente l'époque de structure.
+	 */
+	public long               getEpoqueStructure        ()  { return this.epoqueStructure;                 }
+
+	/**Récupère le calendrier des jours ouvrés, si les dates sont comptées en jours ouvrés.
+	 * @return Le calendrier, ou null si elles sont comptées en jours du calendrier.
+	 */
+	public CalendrierOuvre    getCalendrierOuvre        ()  { return this.calendrierOuvre;                 }
+
+	/**Indique si les dates nivelées des tâches (voir {@link Tache#getDateNivelee()}) sont à jour.
+	 * @return true si le projet n'a pas changé depuis le dernier nivellement appliqué.
+	 */
+	public boolean            estNivele                 ()  { return this.epoqueNivellement == this.epoque; }
+
+	/**Indique si les dates sont en cours de calcul niveau par niveau : les recalculer en entier
+	 * effacerait l'étape affichée.
+	 * @return true entre la remise à zéro des niveaux et le dernier niveau au plus tard.
+	 */
+	public boolean            estPasAPas                ()  { return this.pasAPas;                         }
 	
 	/*------------------*/
 	/* Modificateurs    */
@@ -101,6 +220,25 @@ public class Mpm
 	 */
 	public void setFichier(String fc) { this.grilleDonneesModel.setFichier(fc); }
 
+	/**Compte les durées et les dates en jours ouvrés (sans week-ends ni jours fériés), ou en jours du calendrier.
+	 * Les calculs sont les mêmes dans les deux cas : seules les dates affichées changent, et sont annoncées aux vues.
+	 * @param joursOuvres true pour compter en jours ouvrés.
+	 */
+	public void setJoursOuvres(boolean joursOuvres)
+	{
+		Set<String> noms;
+
+		if (joursOuvres == (this.calendrierOuvre != null)) return;
+
+		this.calendrierOuvre = joursOuvres ? new CalendrierOuvre(this.dateDebut) : null;
+
+		noms = new LinkedHashSet<>();
+		for (Tache t : this.lstTaches)
+			noms.add(t.getNom());
+		if (!noms.isEmpty())
+			this.publier(new EvenementModele(EvenementModele.Type.PLANNING_RECALCULE, noms));
+	}
+
 	/*---------------------------------*/
 	/*    Fonctionnalités de taches    */
 	/*---------------------------------*/
@@ -115,27 +253,36 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 		
-		Map<String, Tache> tachesMap               ;
+		TableObjetsEntiers<String> numeros         ;
+		List<String>               predsTexte      ;
+		Arcs                       arcs            ;
 
-		String[]           deps                    ;
-		String[]           parties                 ;
+		String[]                   deps            ;
+		String[]                   parties         ;
 
-		String             ligne                   ;
-		String             nom, x, y               ;
+		String                     ligne           ;
+		String                     nom             ;
 
-		int                duree, niveau           ; 
+		int                        duree           ;
+		int[]                      nbPrc, nbSvt    ;
 
-		Tache              tache , debut, fin, pred;
+		Tache                      tache           ;
+		int                        pred            ;
 		
-		tachesMap = new HashMap<>();
+		numeros    = this.numerosParNom;
+		numeros.vider();
+		predsTexte = new ArrayList<>();
 		this.lstTaches.clear();
-		this.lstNiveau.clear();
+		this.lstNiveau.vider();
 		this.niveauCourantAuPlusTot = 0;
+		this.nouvelleEpoque();
+		this.epoqueStructure++;
 
 		// Ajoute Début
-		debut = new Tache("Début", 0, null, "196", "162");
-		this.lstTaches.add(debut);
-		tachesMap.put("Début", debut);
+		this.debut = new Tache(NOM_DEBUT, 0);
+		numeros.put(NOM_DEBUT, this.lstTaches.size());
+		this.lstTaches.add(this.debut);
+		predsTexte.add(null);
 
 		try (BufferedReader reader = new BufferedReader(new FileReader(fichier)))
 		{
@@ -147,14 +294,13 @@ public class Mpm
 
 				nom   = parties[0].trim();
 				duree = Integer.parseInt(parties[1].trim());
-				x     = parties.length > 3 ? parties[3].trim() : "0";
-				y     = parties.length > 4 ? parties[4].trim() : "0";
-
-				tache    = new Tache(nom, duree, parties.length > 2 ? parties[2].trim() : null, x, y);
 
-				tachesMap.put(nom, tache);
+				// Les coordonnées restent dans la grille ; les prédécesseurs ne servent que jusqu'à la liaison
+				tache    = new Tache(nom, duree);
 
+				numeros.put(nom, this.lstTaches.size());
 				lstTaches.add(tache);
+				predsTexte.add(parties.length > 2 ? parties[2].trim() : null);
 			}
 		}
 		catch (IOException | NumberFormatException e) 
@@ -164,23 +310,29 @@ public class Mpm
 		}
 
 		// Ajoute Fin
-		fin = new Tache("Fin", 0, null, "0", "0");
-		this.lstTaches.add(fin);
-		tachesMap.put("Fin", fin);
-
-		// Résolution des dépendances
+		this.fin = new Tache(NOM_FIN, 0);
+		numeros.put(NOM_FIN, this.lstTaches.size());
+		this.lstTaches.add(this.fin);
+		predsTexte.add(null);
+		this.numeroter();
+
+		// Résolution des dépendances : les arcs sont relevés par numéros, puis rangés en une fois
+		arcs  = new Arcs();
+		nbPrc = new int[this.lstTaches.size()];
+		nbSvt = new int[this.lstTaches.size()];
 		for (Tache t : lstTaches)
 		{
-			if (t.getPredecesseurString() != null)
+			if (predsTexte.get(t.getId()) != null)
 			{
-				deps = t.getPredecesseurString().split(",");
+				deps = predsTexte.get(t.getId()).split(",");
 				for (String depNom : deps)
 				{
-					pred = tachesMap.get(depNom.trim());
-					if (pred != null)
+					pred = numeros.get(depNom.trim(), -1);
+					if (pred != -1)
 					{
-						t.addPredecesseur(pred);
-						pred.addSuccesseur(t);
+						arcs.ajouter(pred, t.getId());
+						nbPrc[t.getId()]++;
+						nbSvt[pred]++;
 					}
 				}
 			}
@@ -189,43 +341,495 @@ public class Mpm
 		// Relie à "Fin" uniquement les tâches sans successeur (hors Fin et Début)
 		for (Tache t : lstTaches)
 		{
-			if ( ! t.getNom().equals("Fin") && ! t.getNom().equals("Début") && t.getSuccesseurs().isEmpty())
+			if (t != this.fin && t != this.debut && nbSvt[t.getId()] == 0)
 			{
-				t.addSuccesseur(fin);
-				fin.addPredecesseur(t);
+				arcs.ajouter(t.getId(), this.fin.getId());
+				nbPrc[this.fin.getId()]++;
 			}
 		}
 
-		// Relie les tâches de niveau 1 à "Début" (optionnel)
+		// Relie les tâches de niveau 1 à "Début" ; jamais Début à Fin (projet vide)
 		for (Tache t : lstTaches)
 		{
-			if (t != debut && t.getPredecesseurs().isEmpty())
+			if (t != this.debut && t != this.fin && nbPrc[t.getId()] == 0)
+				arcs.ajouter(this.debut.getId(), t.getId());
+		}
+
+		this.relier(arcs);
+
+		// Calcul des niveaux (et de lstNiveau)
+		this.assurerNiveaux();
+
+		// Même modèle relu : la table qui l'affiche n'a pas à être rebranchée
+		this.grilleDonneesModel.charger(fichier);
+
+		this.publier(new EvenementModele(EvenementModele.Type.PROJET_CHARGE, Collections.emptySet()));
+	}
+
+
+	/**Lit un fichier et fait tous les calculs sur un nouveau projet, sans toucher à celui-ci.
+	 * Peut donc être appelé hors de l'EDT pendant que l'interface affiche l'ancien projet.
+	 * @param fichier   String qui représente le nom du fichier à lire.
+	 * @param avecDates true pour calculer aussi les dates, les marges et les chemins critiques.
+	 * @param avancement suivi des étapes et annulation.
+	 * @return Le résultat, ou null si le calcul a été annulé.
+	 */
+	public static ResultatCalcul calculer(String fichier, boolean avecDates, Avancement avancement)
+	{
+		
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		Mpm               calcul  ;
+		List<List<Tache>> chemins ;
+
+		calcul  = new Mpm();
+		chemins = null;
+
+		avancement.etape("Lecture du fichier", 0);
+		calcul.chargerTaches(fichier);
+		if (avancement.estAnnule()) return null;
+
+		if (avecDates)
+		{
+			avancement.etape("Dates au plus tôt et au plus tard", 25);
+			calcul.assurerDates();
+			if (avancement.estAnnule()) return null;
+
+			avancement.etape("Marges", 50);
+			calcul.assurerMarges();
+			if (avancement.estAnnule()) return null;
+
+			avancement.etape("Chemins critiques", 75);
+			chemins = calcul.calculerCheminsCritiques();
+			if (avancement.estAnnule()) return null;
+		}
+
+		avancement.etape("Terminé", 100);
+		return new ResultatCalcul(fichier, calcul.lstTaches, calcul.debut, calcul.fin, calcul.adjacence,
+		                          calcul.lstNiveau.toArray(), calcul.grilleDonneesModel, chemins);
+	}
+
+	/**Remplace le projet courant par le résultat d'un calcul en arrière-plan. À appeler sur l'EDT.
+	 * Si les tâches et leurs liens n'ont pas changé, les valeurs calculées sont recopiées dans les
+	 * tâches actuelles et seules les tâches modifiées sont annoncées aux vues.
+	 * @param resultat le résultat à reprendre.
+	 */
+	public void adopter(ResultatCalcul resultat)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		Set<String> modifiees, deplacees;
+		boolean     memeStructure;
+
+		memeStructure = this.memeStructure(resultat.getTaches(), resultat.getAdjacence());
+		modifiees     = null;
+		deplacees     = null;
+
+		if (memeStructure)
+		{
+			modifiees = this.reprendreValeurs(resultat.getTaches());
+			deplacees = this.positionsModifiees(this.grilleDonneesModel, resultat.getGrilleDonneesModel());
+		}
+		else
+		{
+			// Les tâches arrivent déjà numérotées, dans l'ordre de la liste
+			this.lstTaches = new ArrayList<>(resultat.getTaches());
+			this.debut     = resultat.getDebut();
+			this.fin       = resultat.getFin();
+			this.adjacence = resultat.getAdjacence();
+			this.cheminCritique.setTaches(this.lstTaches, this.debut, this.fin);
+			this.epoqueStructure++;
+		}
+
+		this.rangerParNiveau();
+		this.grilleDonneesModel.reprendre(resultat.getGrilleDonneesModel());
+
+		this.niveauCourantAuPlusTot  = 0;
+		this.niveauCourantAuPlusTard = 0;
+		this.pasAPas                 = false;
+
+		// Ce que le calcul a déjà produit compte pour la nouvelle époque
+		this.nouvelleEpoque();
+		this.epoqueNiveaux = this.epoque;
+		if (resultat.datesCalculees())
+		{
+			this.cheminsCritiques = memeStructure ? this.traduireChemins(resultat.getCheminsCritiques())
+			                                      : resultat.getCheminsCritiques();
+			this.epoqueDates      = this.epoque;
+			this.epoqueMarges     = this.epoque;
+			this.epoqueChemins    = this.epoque;
+		}
+
+		if (!memeStructure)
+		{
+			this.publier(new EvenementModele(EvenementModele.Type.PROJET_CHARGE, Collections.emptySet()));
+			return;
+		}
+
+		if (!deplacees.isEmpty())
+			this.publier(new EvenementModele(EvenementModele.Type.TACHE_DEPLACEE, deplacees));
+		if (!modifiees.isEmpty())
+			this.publier(new EvenementModele(EvenementModele.Type.PLANNING_RECALCULE, modifiees));
+	}
+
+	/**Indique si une liste de tâches a les mêmes noms, dans le même ordre, et les mêmes arcs que le projet.
+	 * Mêmes noms dans le même ordre veut dire mêmes numéros : les arcs se comparent tableau contre tableau.
+	 */
+	private boolean memeStructure(List<Tache> taches, Adjacence adjacence)
+	{
+		if (taches.size() != this.lstTaches.size()) return false;
+
+		for (int i = 0; i < taches.size(); i++)
+			if (!this.lstTaches.get(i).getNom().equals(taches.get(i).getNom()))
+				return false;
+
+		return this.adjacence.memesArcs(adjacence);
+	}
+
+	/**Recopie durées, niveaux, dates et marges dans les tâches du projet (même structure).
+	 * @return les noms des tâches dont l'affichage change.
+	 */
+	private Set<String> reprendreValeurs(List<Tache> taches)
+	{
+		Set<String> modifiees;
+		Tache       t, n;
+
+		modifiees = new LinkedHashSet<>();
+		for (int i = 0; i < taches.size(); i++)
+		{
+			t = this.lstTaches.get(i);
+			n = taches.get(i);
+			if (t.getDuree() != n.getDuree() || t.getNiveauTache() != n.getNiveauTache() ||
+			    t.getDateMin() != n.getDateMin() || t.getDateMax() != n.getDateMax())
+				modifiees.add(t.getNom());
+
+			t.setDuree      (n.getDuree());
+			t.setNiveauTache(n.getNiveauTache());
+			t.setDateMin    (n.getDateMin());
+			t.setDateMax    (n.getDateMax());
+			t.setMarge      (n.getMarge());
+			t.setDeterminant(n.getDeterminant() == null ? -1 : n.getDeterminant().getId(), n.getNbDeterminants());
+		}
+		return modifiees;
+	}
+
+	/**Traduit des chemins calculés sur d'autres objets Tache vers les tâches du projet.
+	 * Même structure, donc même ordre : une tâche garde son numéro d'un projet à l'autre.
+	 */
+	private List<List<Tache>> traduireChemins(List<List<Tache>> chemins)
+	{
+		List<List<Tache>> traduits;
+		List<Tache>       chemin;
+
+		traduits = new ArrayList<>(chemins.size());
+		for (List<Tache> c : chemins)
+		{
+			chemin = new ArrayList<>(c.size());
+			for (Tache t : c)
+				chemin.add(this.lstTaches.get(t.getId()));
+			traduits.add(chemin);
+		}
+		return traduits;
+	}
+
+	/**Compare les coordonnées de deux grilles, tâche par tâche.
+	 * @return les noms des tâches de la nouvelle grille dont x ou y a changé.
+	 */
+	private Set<String> positionsModifiees(GrilleDonneesModel ancienne, GrilleDonneesModel nouvelle)
+	{
+		Set<String> deplacees;
+		String      nom;
+		int         ligne;
+
+		deplacees = new LinkedHashSet<>();
+		for (int i = 0; i < nouvelle.getRowCount(); i++)
+		{
+			nom   = String.valueOf(nouvelle.getValueAt(i, 0));
+			ligne = ancienne.getLigne(nom);
+			if (ligne == -1 ||
+			    !String.valueOf(ancienne.getValueAt(ligne, 3)).equals(String.valueOf(nouvelle.getValueAt(i, 3))) ||
+			    !String.valueOf(ancienne.getValueAt(ligne, 4)).equals(String.valueOf(nouvelle.getValueAt(i, 4))))
+				deplacees.add(nom);
+		}
+		return deplacees;
+	}
+
+	/*------------------------------------------*/
+	/*    Flux des changements                  */
+	/*------------------------------------------*/
+
+	/**Abonne une vue aux changements du projet. Les événements sont remis dans l'ordre,
+	 * sur un thread dédié : c'est à l'abonné de repasser sur l'EDT.
+	 * @param abonne l'abonné.
+	 */
+	public void abonner(Flow.Subscriber<? super EvenementModele> abonne)
+	{
+		if (this.publieur == null)
+		{
+			this.publieur = new SubmissionPublisher<>(Executors.newSingleThreadExecutor(r ->
+			{
+				Thread t = new Thread(r, "evenements-mpm");
+				t.setDaemon(true);
+				return t;
+			}), Flow.defaultBufferSize());
+			this.grilleDonneesModel.setPublieur(this.publieur);
+		}
+		this.publieur.subscribe(abonne);
+	}
+
+	/**Publie un événement si quelqu'un écoute.
+	 */
+	private void publier(EvenementModele evenement)
+	{
+		if (this.publieur != null && this.publieur.hasSubscribers())
+			this.publieur.submit(evenement);
+	}
+
+	/**Retient les dates de toutes les tâches, avant un calcul, pour n'annoncer ensuite que celles qui changent.
+	 * @return les dates (au plus tôt, au plus tard) à la suite, ou null si personne n'écoute.
+	 */
+	private int[] photographierDates()
+	{
+		int[] dates;
+
+		if (this.publieur == null || !this.publieur.hasSubscribers()) return null;
+
+		dates = new int[this.lstTaches.size() * 2];
+		for (int i = 0; i < this.lstTaches.size(); i++)
+		{
+			dates[i * 2]     = this.lstTaches.get(i).getDateMin();
+			dates[i * 2 + 1] = this.lstTaches.get(i).getDateMax();
+		}
+		return dates;
+	}
+
+	/**Annonce les tâches dont les dates ont changé depuis la photographie.
+	 * @param avant photographie prise par {@link #photographierDates()}, ou null.
+	 */
+	private void publierPlanning(int[] avant)
+	{
+		Set<String> modifiees;
+		Tache       t;
+
+		if (avant == null) return;
+
+		modifiees = new LinkedHashSet<>();
+		for (int i = 0; i < this.lstTaches.size(); i++)
+		{
+			t = this.lstTaches.get(i);
+			if (avant[i * 2] != t.getDateMin() || avant[i * 2 + 1] != t.getDateMax())
+				modifiees.add(t.getNom());
+		}
+
+		if (!modifiees.isEmpty())
+			this.publier(new EvenementModele(EvenementModele.Type.PLANNING_RECALCULE, modifiees));
+	}
+
+	/**Formate une date à partir du nombre de jours écoulés depuis le début du projet.
+	 * La chaîne est lue dans le calendrier du projet (voir {@link CalendrierProjet}) : rien n'est alloué.
+	 * En jours ouvrés, le jour est d'abord converti en jour du calendrier (voir {@link CalendrierOuvre}).
+	 * @param nbJours le nombre de jours (ouvrés ou non) depuis le début du projet
+	 * @return la date formatée en "jj/mm"
+	 */
+	public String formaterDate(int nbJours)
+	{
+		CalendrierOuvre ouvre = this.calendrierOuvre;
+
+		return this.calendrier.formater(ouvre != null ? ouvre.versCalendaire(nbJours) : nbJours);
+	}
+
+	/*------------------------------------------*/
+	/*    Numérotation des tâches               */
+	/*------------------------------------------*/
+
+	/**Numérote les tâches selon leur place dans la liste, après chaque changement de structure.
+	 */
+	private void numeroter()
+	{
+		for (int i = 0; i < this.lstTaches.size(); i++)
+			this.lstTaches.get(i).setId(i);
+	}
+
+	/**Range les arcs relevés dans une nouvelle adjacence et y relie toutes les tâches (déjà numérotées).
+	 * @param arcs les arcs, par numéros de tâches.
+	 */
+	private void relier(Arcs arcs)
+	{
+		this.adjacence = new Adjacence(this.lstTaches, arcs.sources, arcs.cibles, arcs.nb);
+		for (Tache t : this.lstTaches)
+			t.setAdjacence(this.adjacence);
+	}
+
+	/**Renumérote les tâches après un changement de la liste et reporte les arcs sur les nouveaux numéros.
+	 * @param retiree tâche retirée de la liste dont les arcs sont oubliés, ou null.
+	 */
+	private void reconstruireAdjacence(Tache retiree)
+	{
+		Adjacence ancienne;
+		Arcs      arcs;
+		Tache     source, cible;
+
+		ancienne = this.adjacence;
+		arcs     = new Arcs();
+
+		// L'ancienne adjacence garde ses propres tableaux : on la parcourt par ses anciens numéros
+		this.numeroter();
+		for (int i = 0; i < ancienne.getNbTaches(); i++)
+		{
+			source = ancienne.getTache(i);
+			if (source == retiree) continue;
+
+			for (int k = ancienne.debutSuccesseurs(i); k < ancienne.finSuccesseurs(i); k++)
 			{
-				t.addPredecesseur(debut);
-				debut.addSuccesseur(t);
+				cible = ancienne.getTache(ancienne.successeur(k));
+				if (cible != retiree)
+					arcs.ajouter(source.getId(), cible.getId());
 			}
 		}
+		this.relier(arcs);
+	}
 
-		// Calcul des niveaux
-		this.calculerNiveau();
+	/**Arcs relevés par numéros de tâches, avant d'être rangés dans une adjacence.
+	 */
+	private static class Arcs
+	{
+		private int[] sources = new int[16];
+		private int[] cibles  = new int[16];
+		private int   nb      = 0;
 
-		// Mets à jour lstNiveau
-		this.lstNiveau.clear();
-		for (Tache t : lstTaches)
+		private void ajouter(int source, int cible)
 		{
-			niveau = t.getNiveauTache();
-			if (!this.lstNiveau.contains(niveau))
-				this.lstNiveau.add(niveau);
+			if (this.nb == this.sources.length)
+			{
+				this.sources = Arrays.copyOf(this.sources, this.nb * 2);
+				this.cibles  = Arrays.copyOf(this.cibles,  this.nb * 2);
+			}
+			this.sources[this.nb] = source;
+			this.cibles [this.nb] = cible;
+			this.nb++;
 		}
-		Collections.sort(this.lstNiveau);
+	}
+
+	/**Construit la clé d'un arc à partir des numéros de ses deux tâches.
+	 * @param source numéro de la tâche de départ.
+	 * @param cible  numéro de la tâche d'arrivée.
+	 * @return la clé : la source dans les 32 bits de poids fort, la cible dans les autres.
+	 */
+	public static long cleArc(int source, int cible)
+	{
+		return ((long) source << 32) | (cible & 0xFFFFFFFFL);
+	}
+
+	/*------------------------------------------*/
+	/*    Cache des données dérivées            */
+	/*------------------------------------------*/
+
+	/**Passe à une nouvelle époque : toutes les données dérivées devront être recalculées.
+	 */
+	private void nouvelleEpoque()
+	{
+		this.epoque++;
+	}
+
+	/**Oublie les données qui dépendent des dates (après un calcul pas à pas, par exemple).
+	 */
+	private void invaliderDates()
+	{
+		this.epoqueDates   = -1;
+		this.epoqueMarges  = -1;
+		this.epoqueChemin  = -1;
+		this.epoqueChemins = -1;
+		this.epoqueArcs    = -1;
+	}
+
+	/**Calcule les niveaux et la liste des niveaux présents, une fois par époque.
+	 */
+	private void assurerNiveaux()
+	{
+		if (this.epoqueNiveaux == this.epoque) return;
+
+		this.calculerNiveau();
+		this.rangerParNiveau();
+
+		this.epoqueNiveaux = this.epoque;
+	}
+
+	/**Relève les niveaux présents et range les numéros des tâches par niveau (tri par dénombrement,
+	 * dans l'ordre de la liste) : les calculs par niveau ne parcourent ainsi que les tâches du niveau.
+	 * Les tableaux sont gardés d'un calcul à l'autre tant qu'ils sont assez grands.
+	 */
+	private void rangerParNiveau()
+	{
+		int max, niv;
+
+		max = 0;
+		for (Tache t : this.lstTaches)
+			max = Math.max(max, t.getNiveauTache());
+
+		if (this.debutNiveaux.length < max + 2) this.debutNiveaux = new int[max + 2];
+		else                                    Arrays.fill(this.debutNiveaux, 0, max + 2, 0);
+		if (this.parNiveau.length < this.lstTaches.size())
+			this.parNiveau = new int[this.lstTaches.size()];
+
+		for (Tache t : this.lstTaches)
+			this.debutNiveaux[t.getNiveauTache() + 1]++;
+
+		this.lstNiveau.vider();
+		for (niv = 0; niv <= max; niv++)
+			if (this.debutNiveaux[niv + 1] > 0)
+				this.lstNiveau.ajouter(niv);
+
+		for (niv = 1; niv <= max + 1; niv++)
+			this.debutNiveaux[niv] += this.debutNiveaux[niv - 1];
+
+		// Chaque début avance pendant le rangement, puis est remis en place
+		for (Tache t : this.lstTaches)
+			this.parNiveau[this.debutNiveaux[t.getNiveauTache()]++] = t.getId();
+		for (niv = max + 1; niv > 0; niv--)
+			this.debutNiveaux[niv] = this.debutNiveaux[niv - 1];
+		this.debutNiveaux[0] = 0;
+	}
 
-		// Sécurité : Début ne doit jamais être reliée à Fin
-		debut.getSuccesseurs().remove(fin);
-		fin.getPredecesseurs().remove(debut);
+	/**Range les numéros des tâches dans un ordre où chaque tâche suit tous ses prédécesseurs
+	 * (par niveau croissant), pour les calculs qui refont les passes hors du projet.
+	 * @return Une copie : les numéros des tâches, par niveau.
+	 */
+	int[] getOrdreParNiveau()
+	{
+		this.assurerNiveaux();
+		return Arrays.copyOf(this.parNiveau, this.lstTaches.size());
+	}
+
+	/**Calcule toutes les dates au plus tôt et au plus tard, une fois par époque.
+	 */
+	private void assurerDates()
+	{
+		if (this.epoqueDates == this.epoque) return;
+
+		this.calculerDatesAuPlusTotParNiveau();
+		this.calculerDatesAuPlusTardParNiveau();
 
-		this.grilleDonneesModel = new GrilleDonneesModel(fichier); 
+		this.epoqueDates = this.epoque;
+		this.pasAPas     = false;
 	}
 
+	/**Calcule les dates et les marges, une fois par époque. Pendant un calcul niveau par niveau
+	 * (voir {@link #estPasAPas()}), les dates sont recalculées en entier et l'étape affichée est perdue.
+	 */
+	public void assurerMarges()
+	{
+		if (this.epoqueMarges == this.epoque) return;
+
+		this.assurerDates();
+		for (Tache t : this.lstTaches)
+			t.calculerMarge();
+
+		this.epoqueMarges = this.epoque;
+	}
 
 	/*------------------------------------------*/
 	/*    Fonctionnalités dates au plus tot     */
@@ -239,27 +843,25 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 
-		int max, val;
+		Adjacence adj   ;
+		int       niveau;
+		int[]     avant ;
+
+		this.assurerNiveaux();
+		adj   = this.adjacence;
+		this.invaliderDates();
+		avant = this.photographierDates();
 
-		for (Tache t : lstTaches) 
-			t.setDateMin(0);
+		for (Tache tache : lstTaches) 
+			tache.setDateMin(0);
 
-		for (int niveau : this.lstNiveau)
+		for (int p = 0; p < this.lstNiveau.taille(); p++)
 		{
-			for (Tache t : lstTaches)
-			{
-				if (t.getNiveauTache() == niveau)
-				{
-					max = 0;
-					for (Tache pred : t.getPredecesseurs())
-					{
-						val = pred.getDateMin() + pred.getDuree();
-						if (val > max) max = val;
-					}
-					t.setDateMin(max);
-				}
-			}
+			niveau = this.lstNiveau.get(p);
+			for (int i = this.debutNiveaux[niveau]; i < this.debutNiveaux[niveau + 1]; i++)
+				this.placerAuPlusTot(adj, adj.getTache(this.parNiveau[i]));
 		}
+		this.publierPlanning(avant);
 	}
 
 	/**Permet de calculer la date au plus tôt du niveau suivant de la tâche.
@@ -272,27 +874,58 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 
-		int niveau, max, val;
+		Adjacence adj   ;
+		int       niveau;
+		int[]     avant ;
 		
+		this.assurerNiveaux();
+		adj = this.adjacence;
 		this.niveauCourantAuPlusTot++;
-		if (this.niveauCourantAuPlusTot >= lstNiveau.size()) return false;
+		if (this.niveauCourantAuPlusTot >= lstNiveau.taille()) return false;
+
+		this.pasAPas = true;
+		this.invaliderDates();
+		avant = this.photographierDates();
 
 		niveau = lstNiveau.get(this.niveauCourantAuPlusTot);
-		for (Tache t : lstTaches)
+		for (int i = this.debutNiveaux[niveau]; i < this.debutNiveaux[niveau + 1]; i++)
+			this.placerAuPlusTot(adj, adj.getTache(this.parNiveau[i]));
+		this.publierPlanning(avant);
+		return this.niveauCourantAuPlusTot < lstNiveau.taille() - 1;
+
+	}
+
+	/**Fixe la date au plus tôt d'une tâche d'après ses prédécesseurs, déjà placés, et retient celui
+	 * qui la détermine : le dernier à finir, celui de plus bas niveau en cas d'égalité.
+	 * @param adj les liens du projet.
+	 * @param t   la tâche.
+	 */
+	private void placerAuPlusTot(Adjacence adj, Tache t)
+	{
+		Tache pred, determinant;
+		int   max, val, nb;
+
+		determinant = null;
+		max         = 0;
+		nb          = 0;
+		for (int k = adj.debutPredecesseurs(t.getId()); k < adj.finPredecesseurs(t.getId()); k++)
 		{
-			if (t.getNiveauTache() == niveau)
+			pred = adj.getTache(adj.predecesseur(k));
+			val  = pred.getDateMin() + pred.getDuree();
+			if (determinant == null || val > max)
 			{
-				max = 0;
-				for (Tache pred : t.getPredecesseurs())
-				{
-					val = pred.getDateMin() + pred.getDuree();
-					if (val > max) max = val;
-				}
-				t.setDateMin(max);
+				max         = val;
+				determinant = pred;
+				nb          = 1;
+			}
+			else if (val == max)
+			{
+				nb++;
+				if (pred.getNiveauTache() < determinant.getNiveauTache()) determinant = pred;
 			}
 		}
-		return this.niveauCourantAuPlusTot < lstNiveau.size() - 1;
-
+		t.setDateMin    (max);
+		t.setDeterminant(determinant == null ? -1 : determinant.getId(), nb);
 	}
 
 	/**Permet de réinitialiser le niveau courant pour les dates au plus tôt.
@@ -300,15 +933,21 @@ public class Mpm
 	 */
 	public void resetNiveauCourantAuPlusTot()
 	{
+		int[] avant;
+
 		this.niveauCourantAuPlusTot = 0;
+		this.pasAPas                = true;
+		this.invaliderDates();
+		avant = this.photographierDates();
 
 		for (Tache t : lstTaches)
 		{
-			if (t.getNom().equals("Début"))
+			if (t == this.debut)
 				t.setDateMin(0);
 			else
 				t.setDateMin(-1);
 		}
+		this.publierPlanning(avant);
 	}
 
 	/*-------------------------------------------*/
@@ -324,39 +963,44 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 
-		List<Integer> niveauxDesc             ;
+		Adjacence     adj                     ;
+		Tache         t                       ;
 
+		int           niveau                  ;
 		int           finProjet, datePossible ;
+		int[]         avant                   ;
+
+		this.assurerNiveaux();
+		adj   = this.adjacence;
+		this.invaliderDates();
+		avant = this.photographierDates();
 		
 		// Trouve la date de fin du projet
 		finProjet = 0;
-		for (Tache t : lstTaches)
-			finProjet = Math.max(finProjet, t.getDateMin() + t.getDuree());
+		for (Tache tache : lstTaches)
+			finProjet = Math.max(finProjet, tache.getDateMin() + tache.getDuree());
 
 		// Initialise les dates au plus tard
-		for (Tache t : lstTaches)
-			t.setDateMax(finProjet - t.getDuree());
+		for (Tache tache : lstTaches)
+			tache.setDateMax(finProjet - tache.getDuree());
 
 		// Parcours les niveaux dans l'ordre décroissant
-		niveauxDesc = new ArrayList<>(this.lstNiveau);
-		Collections.reverse(niveauxDesc);
-
-		for (int niveau : niveauxDesc)
+		for (int p = this.lstNiveau.taille() - 1; p >= 0; p--)
 		{
-			for (Tache t : lstTaches)
+			niveau = this.lstNiveau.get(p);
+			for (int i = this.debutNiveaux[niveau]; i < this.debutNiveaux[niveau + 1]; i++)
 			{
-				if (t.getNiveauTache() == niveau)
+				t = adj.getTache(this.parNiveau[i]);
+				for (int k = adj.debutSuccesseurs(t.getId()); k < adj.finSuccesseurs(t.getId()); k++)
 				{
-					for (Tache succ : t.getSuccesseurs())
-					{
-						datePossible = succ.getDateMax() - t.getDuree();
+					datePossible = adj.getTache(adj.successeur(k)).getDateMax() - t.getDuree();
 
-						if (datePossible < t.getDateMax())
-							t.setDateMax(datePossible);
-					}
+					if (datePossible < t.getDateMax())
+						t.setDateMax(datePossible);
 				}
 			}
 		}
+		this.publierPlanning(avant);
 	}
 
 	/**Permet de calculer la date au plus tard du niveau suivant de la tâche.
@@ -370,33 +1014,41 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 
-		int niveau, min, val;
+		Adjacence adj             ;
+		Tache     t               ;
+		int       niveau, min, val;
+		int[]     avant           ;
 
 		// On utilise un index pour parcourir lstNiveau du dernier au premier
-		if (this.niveauCourantAuPlusTard >= lstNiveau.size()) return false; // Plus de niveaux
+		this.assurerNiveaux();
+		adj = this.adjacence;
+		if (this.niveauCourantAuPlusTard >= lstNiveau.taille()) return false; // Plus de niveaux
 
-		niveau = lstNiveau.get(lstNiveau.size() - 1 - this.niveauCourantAuPlusTard);
-		for (Tache t : lstTaches)
+		this.invaliderDates();
+		avant = this.photographierDates();
+
+		niveau = lstNiveau.get(lstNiveau.taille() - 1 - this.niveauCourantAuPlusTard);
+		for (int i = this.debutNiveaux[niveau]; i < this.debutNiveaux[niveau + 1]; i++)
 		{
-			if (t.getNiveauTache() == niveau)
+			t = adj.getTache(this.parNiveau[i]);
+			if (adj.debutSuccesseurs(t.getId()) == adj.finSuccesseurs(t.getId()))
+				t.setDateMax(t.getDateMin());  // Pour "Fin" ou tâche terminale
+			
+			else
 			{
-				if (t.getSuccesseurs().isEmpty())
-					t.setDateMax(t.getDateMin());  // Pour "Fin" ou tâche terminale
-				
-				else
+				min = Integer.MAX_VALUE;
+				for (int k = adj.debutSuccesseurs(t.getId()); k < adj.finSuccesseurs(t.getId()); k++)
 				{
-					min = Integer.MAX_VALUE;
-					for (Tache succ : t.getSuccesseurs())
-					{
-						val = succ.getDateMax() - t.getDuree();
-						if (val < min) min = val;
-					}
-					t.setDateMax(min);
+					val = adj.getTache(adj.successeur(k)).getDateMax() - t.getDuree();
+					if (val < min) min = val;
 				}
+				t.setDateMax(min);
 			}
 		}
 		this.niveauCourantAuPlusTard++; // On passe au niveau précédent (plus petit)
-		return this.niveauCourantAuPlusTard < lstNiveau.size();
+		this.pasAPas = this.niveauCourantAuPlusTard < lstNiveau.taille();
+		this.publierPlanning(avant);
+		return this.niveauCourantAuPlusTard < lstNiveau.taille();
 	}
 
 	/**Permet de réinitialiser le niveau courant pour les dates au plus tard.
@@ -408,13 +1060,14 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 
-		int finProjet;
+		int   finProjet;
+		int[] avant    ;
 		
 		this.niveauCourantAuPlusTard = 0;
-		finProjet = 0;
-		for (Tache t : lstTaches)
-			if (t.getNom().equals("Fin"))
-				finProjet = t.getDateMin();
+		this.pasAPas                 = true;
+		this.invaliderDates();
+		avant = this.photographierDates();
+		finProjet = this.fin != null ? this.fin.getDateMin() : 0;
 
 		if (finProjet == 0)
 			System.out.println("Attention : calcule d'abord les dates au plus tôt !");
@@ -422,6 +1075,7 @@ public class Mpm
 
 		for (Tache t : lstTaches)
 			t.setDateMax(finProjet);
+		this.publierPlanning(avant);
 	}
 
 	/*-------------------------------*/
@@ -439,32 +1093,45 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 
-		GrilleDonneesModel model   ;
-		int                lig     ;
-		Object             nomCell ;
+		GrilleDonneesModel model ;
+		int                lig   ;
 
 		model = this.getGrilleDonneesModel();
-		lig = -1;
-		for (int i = 0; i < model.getRowCount(); i++)
-		{
-			nomCell = model.getValueAt(i, 0);
+		lig   = model.getLigne(ancienNom);
+		if (lig == -1) return; // tâche non trouvée
 
-			if (nomCell != null && nomCell.toString().equals(ancienNom))
-			{
-				lig= i;
-				break;
-			}
-		}
-		if (lig== -1) return; // tâche non trouvée
+		this.nouvelleEpoque();
 
-		model.setValueAt(ancienNom, lig, 0); // le nom ne change pas
-		model.setValueAt(String.valueOf(nouvelleDuree), lig, 1);
-		model.setValueAt(nouveauxPredecesseurs, lig, 2);
+		// Le nom, la position, l'estimation, les ressources et l'accélération ne changent pas ; une seule écriture du fichier
+		model.modifierLigne(lig, new Object[] { ancienNom, String.valueOf(nouvelleDuree), nouveauxPredecesseurs,
+		                                        model.getValueAt(lig, 3), model.getValueAt(lig, 4), model.getValueAt(lig, 5),
+		                                        model.getValueAt(lig, 6), model.getValueAt(lig, 7) });
 	}
 
-	/**Permet de trier les tâches.
+	/**Reporte sur les tâches les dates d'un nivellement, si le projet n'a pas changé depuis.
+	 * @param resultat le nivellement (voir {@link OrdonnancementRessources}).
+	 * @return true si les dates ont été reportées.
 	 */
-	public void trierTaches()  { Collections.sort(lstTaches, Comparator.comparing(Tache::getNom));}
+	public boolean appliquerNivellement(ResultatNivellement resultat)
+	{
+		if (resultat.getEpoque() != this.epoque) return false;
+
+		for (Tache t : this.lstTaches)
+			t.setDateNivelee(resultat.getDateNivelee(t.getId()));
+
+		this.epoqueNivellement = this.epoque;
+		return true;
+	}
+
+	/**Permet de trier les tâches. Les numéros changent : les données dérivées et la structure passent à une nouvelle époque.
+	 */
+	public void trierTaches()
+	{
+		Collections.sort(lstTaches, Comparator.comparing(Tache::getNom));
+		this.reconstruireAdjacence(null);
+		this.nouvelleEpoque();
+		this.epoqueStructure++;
+	}
 
 	/**Permet d'ajouter une tâche à la liste des tâches.
 	 * @param nom           Nom de la tâche à ajouter.
@@ -475,7 +1142,7 @@ public class Mpm
 	 */
 	public void ajouterTache(String nom, int duree, String predecesseurs, String x, String y)
 	{
-		this.lstTaches.add(new Tache(nom, duree, predecesseurs, x, y));
+		this.lstTaches.add(new Tache(nom, duree));
 		this.trierTaches();
 	}
 	
@@ -489,24 +1156,32 @@ public class Mpm
 		/*-------------------------------*/
 		
 		Iterator<Tache> itTache;
-		Tache t;
+		Tache t, retiree;
 		
 		itTache = lstTaches.iterator();
+		retiree = null;
 
 		while (itTache.hasNext())
 		{
 			t = itTache.next();
 			if (t.getNom().equals(nom))
 			{
-				for (Tache succ : t.getSuccesseurs())
-					succ.getPredecesseurs().remove(t);
-
-				for (Tache pred : t.getPredecesseurs())
-					pred.getSuccesseurs().remove(t);
+				if (t == this.debut) this.debut = null;
+				if (t == this.fin  ) this.fin   = null;
 
+				retiree = t;
 				itTache.remove();
 			}
 		}
+
+		// Les arcs de la tâche retirée disparaissent avec elle
+		if (retiree != null)
+		{
+			this.reconstruireAdjacence(retiree);
+			retiree.setAdjacence(null);
+		}
+		this.nouvelleEpoque();
+		this.epoqueStructure++;
 	}
 
 	/**Permet de sauvegarder les tâches dans un autre fichier.
@@ -522,17 +1197,19 @@ public class Mpm
 		/*           Variables           */
 		/*-------------------------------*/
 		
-		boolean modif;
+		Adjacence adj  ;
+		boolean   modif;
 
+		adj = this.adjacence;
 		do
 		{
 			modif = false;
 			for (Tache t : this.lstTaches)
 			{
 				int niveau = 1;
-				for (Tache pred : t.getPredecesseurs())
+				for (int k = adj.debutPredecesseurs(t.getId()); k < adj.finPredecesseurs(t.getId()); k++)
 				{
-					niveau = Math.max(niveau, pred.getNiveauTache() + 1);
+					niveau = Math.max(niveau, adj.getTache(adj.predecesseur(k)).getNiveauTache() + 1);
 				}
 				if (t.getNiveauTache() != niveau)
 				{
@@ -544,22 +1221,169 @@ public class Mpm
 	}
 
 
+	/**Calcule niveaux, dates et marges hors du tas (voir {@link StockageHorsTas}), puis les reporte dans les tâches.
+	 * Mêmes résultats que le calcul par niveaux, sans parcourir les tâches une fois par niveau.
+	 * @param fichierMappe fichier dans lequel projeter les colonnes, ou null pour des tampons directs.
+	 * @throws IOException si le fichier ne peut pas être projeté.
+	 */
+	public void calculerHorsTas(File fichierMappe) throws IOException
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		StockageHorsTas stockage;
+		int[]           avant   ;
+
+		this.invaliderDates();
+		avant    = this.photographierDates();
+
+		stockage = StockageHorsTas.depuisProjet(this, fichierMappe);
+		stockage.calculerNiveaux();
+		stockage.calculerDatesAuPlusTot();
+		stockage.calculerDatesAuPlusTard();
+		stockage.calculerMarges();
+		stockage.reporter(this.lstTaches);
+
+		this.rangerParNiveau();
+
+		this.epoqueNiveaux = this.epoque;
+		this.epoqueDates   = this.epoque;
+		this.epoqueMarges  = this.epoque;
+		this.pasAPas       = false;
+		this.publierPlanning(avant);
+	}
+
+
 	/*------------------------------------------*/
 	/*    Fonctionnalités chemin critique       */
 	/*------------------------------------------*/
 
-	/**Permet de calculer le chemin critique.
+	/**Permet de calculer les chemins critiques.
+	 * Le calcul (dates, marges et énumération) n'est fait qu'une fois par époque.
 	 * @return Une liste de liste de tâches qui sont tous les chemins critiques.
 	 */
 	public List<List<Tache>> calculerCheminsCritiques()
 	{
-		this.cheminCritique.setTaches(this.lstTaches); 
-		return this.cheminCritique.calculerLesCheminsCritiques();
+		if (this.epoqueChemins != this.epoque)
+		{
+			this.assurerMarges();
+			this.cheminCritique.setTaches(this.lstTaches, this.debut, this.fin);
+			this.cheminsCritiques = this.cheminCritique.calculerLesCheminsCritiques();
+			this.epoqueChemins    = this.epoque;
+		}
+		return this.cheminsCritiques;
 	}
 
-	/**Permet de calculer un chemin critique.
+	/**Permet de calculer un chemin critique, une fois par époque.
 	 * @return Une liste de tâches qui sont dans le chemin critique.
 	 */
-	public List<Tache>        calculerCheminCritique    ()  { return this.cheminCritique.calculerCheminCritique();             }
+	public List<Tache> calculerCheminCritique()
+	{
+		if (this.epoqueChemin != this.epoque)
+		{
+			this.assurerMarges();
+			this.cheminCritique.setTaches(this.lstTaches, this.debut, this.fin);
+			this.lstTachesCritiques = new ArrayList<>(this.cheminCritique.calculerCheminCritique());
+			this.epoqueChemin       = this.epoque;
+		}
+		return this.lstTachesCritiques;
+	}
+
+	/**Retourne les arcs des chemins critiques, une fois par époque.
+	 * @return Clés des arcs (voir {@link #cleArc}), triées et sans doublon ; le tableau ne doit pas être modifié.
+	 */
+	public long[] getArcsCritiques()
+	{
+		long[] cles;
+		int    nb;
+
+		if (this.epoqueArcs != this.epoque)
+		{
+			nb = 0;
+			for (List<Tache> chemin : this.calculerCheminsCritiques())
+				nb += Math.max(chemin.size() - 1, 0);
+
+			cles = new long[nb];
+			nb   = 0;
+			for (List<Tache> chemin : this.calculerCheminsCritiques())
+				for (int i = 0; i < chemin.size() - 1; i++)
+					cles[nb++] = Mpm.cleArc(chemin.get(i).getId(), chemin.get(i + 1).getId());
+
+			// Les chemins partagent des arcs : on trie puis on retire les doublons
+			Arrays.sort(cles);
+			nb = 0;
+			for (int i = 0; i < cles.length; i++)
+				if (i == 0 || cles[i] != cles[i - 1])
+					cles[nb++] = cles[i];
+
+			this.arcsCritiques = Arrays.copyOf(cles, nb);
+			this.epoqueArcs    = this.epoque;
+		}
+		return this.arcsCritiques;
+	}
+
+	/**Indique si l'arc entre deux tâches fait partie d'un chemin critique.
+	 * @param source tâche de départ.
+	 * @param cible  tâche d'arrivée.
+	 * @return true si l'arc est critique.
+	 */
+	public boolean estArcCritique(Tache source, Tache cible)
+	{
+		return Arrays.binarySearch(this.getArcsCritiques(), Mpm.cleArc(source.getId(), cible.getId())) >= 0;
+	}
 	
-}
\ No newline at end of file
+
+	/*------------------------------------------*/
+	/*    Prédécesseurs déterminants            */
+	/*------------------------------------------*/
+
+	/**Retourne le prédécesseur qui fixe la date au plus tôt d'une tâche, retenu par la passe avant :
+	 * la tâche commence quand il finit. Tel que le dernier calcul des dates l'a laissé, sans nouveau calcul :
+	 * pendant un calcul pas à pas (voir {@link #estPasAPas()}), seules les tâches des niveaux déjà placés sont à jour.
+	 * @param tache la tâche.
+	 * @return Le prédécesseur (celui de plus bas niveau en cas d'égalité), ou null pour Début.
+	 */
+	public Tache getDeterminant(Tache tache)
+	{
+		return tache.getDeterminant();
+	}
+
+	/**Retourne tous les prédécesseurs qui fixent ensemble la date au plus tôt d'une tâche (à égalité).
+	 * Seuls les prédécesseurs de la tâche sont lus, et seulement s'il y a égalité. Sans nouveau calcul,
+	 * comme {@link #getDeterminant(Tache)} : partiel pendant un calcul pas à pas.
+	 * @param tache la tâche.
+	 * @return Les prédécesseurs qui finissent à sa date au plus tôt ; aucun pour Début.
+	 */
+	public List<Tache> getDeterminants(Tache tache)
+	{
+		List<Tache> determinants;
+
+		if (tache.getNbDeterminants() <= 1)
+			return tache.getDeterminant() == null ? Collections.emptyList() : Collections.singletonList(tache.getDeterminant());
+
+		determinants = new ArrayList<>(tache.getNbDeterminants());
+		for (Tache pred : tache.getPredecesseurs())
+			if (pred.getDateMin() + pred.getDuree() == tache.getDateMin())
+				determinants.add(pred);
+		return determinants;
+	}
+
+	/**Explique la date au plus tôt d'une tâche : la suite des prédécesseurs déterminants depuis Début,
+	 * chacun commençant quand le précédent finit. Pour Fin, c'est un chemin critique.
+	 * Le coût est la longueur de la chaîne, sans relire le projet ni recalculer les dates : partielle
+	 * pendant un calcul pas à pas (voir {@link #getDeterminant(Tache)}).
+	 * @param tache la tâche.
+	 * @return Les tâches de Début à la tâche comprises.
+	 */
+	public List<Tache> getChaineDeterminante(Tache tache)
+	{
+		List<Tache> chaine;
+
+		chaine = new ArrayList<>();
+		for (Tache t = tache; t != null; t = t.getDeterminant())
+			chaine.add(t);
+		Collections.reverse(chaine);
+		return chaine;
+	}
+}
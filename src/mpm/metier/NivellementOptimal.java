@@ -0,0 +1,440 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import mpm.metier.AmeliorationNivellement.Solution;
+
+/**
+ * La classe {@code NivellementOptimal} cherche la plus courte durée possible d'un projet nivelé
+ * (voir {@link OrdonnancementRessources}) par séparation et évaluation : elle convient aux projets
+ * de quelques dizaines à quelques centaines de tâches.
+ *
+ * Chaque nœud de l'arbre est un début de liste de placement : ses fils ajoutent une des tâches dont
+ * tous les prédécesseurs sont placés, au premier jour où elle tient. Un nœud est abandonné quand :
+ *   sa borne inférieure atteint la meilleure durée connue ; la borne est le plus long chemin des
+ *   tâches restantes depuis leur date au plus tôt (la durée sans ressources, à la racine), et pour
+ *   chaque ressource le travail restant divisé par sa capacité, suivi de la plus courte queue ;
+ *   il est dominé : chaque tâche doit commencer au plus tôt le jour de la tâche placée avant elle
+ *   (l'ordre des niveaux départage un même jour). Tout planning se ramène, sans s'allonger, à un
+ *   planning dont la liste suit ainsi les dates de début : l'optimum reste dans l'arbre.
+ *
+ * La première solution vient d'une courte {@link AmeliorationNivellement} : plus elle est bonne, plus
+ * l'arbre est élagué tôt. Les branches se répartissent ensuite sur tous les cœurs par vol de travail
+ * (ForkJoinPool) : un fil ne cède une branche que lorsque sa file est presque vide. La meilleure
+ * solution est partagée sans verrou. Le calcul s'arrête au bout du temps accordé : il rend alors la
+ * meilleure solution trouvée et son écart à la borne inférieure.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class NivellementOptimal
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int SEUIL_PARTAGE      = 8;    // tâches restantes sous lesquelles une branche n'est plus cédée
+	private static final int NOEUDS_ENTRE_TESTS = 1024; // nœuds entre deux tests du temps et de l'annulation
+	private static final int PART_AMELIORATION  = 10;   // le dixième du temps va à la première solution
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final OrdonnancementRessources  ordonnancement;
+	private final int                       n;
+	private final int[]                     ordre, rangs;           // rang de chaque tâche dans l'ordre des niveaux
+	private final int[]                     durees, queues;         // queue : plus long chemin du début de la tâche à la fin
+	private final int[]                     parPriorite, priorites; // fils essayés par date au plus tard minimale
+	private final int[]                     debutPrc, prc, debutSvt, svt;
+	private final int[]                     debutDem, ressDem, qteDem, capacites;
+
+	private final AtomicReference<Solution> meilleure;
+	private final LongAdder                 nbNoeuds;
+	private final DoubleAdder               explore;                // part de l'arbre parcourue ou écartée
+
+	private volatile boolean                arrete;
+	private long                            echeance;
+	private Mpm.Avancement                  avancement;
+
+	/**Constructeur de NivellementOptimal.
+	 * @param ordonnancement le graphe et les demandes relevés.
+	 */
+	public NivellementOptimal(OrdonnancementRessources ordonnancement)
+	{
+		int[] datesMax;
+
+		this.ordonnancement = ordonnancement;
+		this.n              = ordonnancement.getNbTaches();
+		this.ordre          = ordonnancement.getOrdre();
+		this.durees         = ordonnancement.getDurees();
+		this.debutPrc       = ordonnancement.getDebutPrc();
+		this.prc            = ordonnancement.getPrc();
+		this.debutSvt       = ordonnancement.getDebutSvt();
+		this.svt            = ordonnancement.getSvt();
+		this.debutDem       = ordonnancement.getDebutDem();
+		this.ressDem        = ordonnancement.getRessDem();
+		this.qteDem         = ordonnancement.getQteDem();
+		this.capacites      = ordonnancement.getCapacites();
+
+		this.rangs = new int[this.n];
+		for (int rang = 0; rang < this.n; rang++)
+			this.rangs[this.ordre[rang]] = rang;
+
+		datesMax    = ordonnancement.getDatesMax();
+		this.queues = new int[this.n];
+		for (int id = 0; id < this.n; id++)
+			this.queues[id] = ordonnancement.getDureeSansRessources() - datesMax[id];
+
+		this.parPriorite = ordonnancement.liste(ordonnancement.priorites(OrdonnancementRessources.Regle.DATE_AU_PLUS_TARD));
+		this.priorites   = new int[this.n];
+		for (int i = 0; i < this.n; i++)
+			this.priorites[this.parPriorite[i]] = i;
+
+		this.meilleure = new AtomicReference<>();
+		this.nbNoeuds  = new LongAdder();
+		this.explore   = new DoubleAdder();
+	}
+
+	/*------------------------------------------*/
+	/*    Résolution                            */
+	/*------------------------------------------*/
+
+	/**Cherche le planning le plus court, sur tous les cœurs, pendant au plus un temps donné.
+	 * @param dureeMax   temps accordé, en millisecondes.
+	 * @param avancement suivi de l'avancement (meilleure durée, borne et écart) et de l'annulation.
+	 * @return Le meilleur planning trouvé, optimal si la recherche a pu finir ; null si elle a été annulée.
+	 * @throws RuntimeException l'erreur d'une branche, si l'une d'elles a échoué.
+	 */
+	public ResultatNivellement resoudre(long dureeMax, Mpm.Avancement avancement)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		ResultatNivellement depart;
+		ForkJoinPool        fils;
+		ForkJoinTask<?>     racine;
+		Throwable           echec;
+		int[]               debuts, liste;
+		int                 borne, duree, nbFils;
+		boolean             complete;
+
+		this.echeance   = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dureeMax);
+		this.avancement = avancement;
+		this.arrete     = false;
+		this.meilleure.set(null);
+		this.nbNoeuds.reset();
+		this.explore.reset();
+
+		// Première solution : une part du temps est laissée aux métaheuristiques, pour élaguer tôt
+		depart = new AmeliorationNivellement(this.ordonnancement).ameliorer(dureeMax / PART_AMELIORATION,
+		                                                                    AmeliorationNivellement.GRAINE_DEFAUT, avancement);
+		if (depart == null) return null;
+
+		debuts = new int[this.n];
+		liste  = new int[this.n];
+		for (int id = 0; id < this.n; id++)
+			debuts[id] = depart.getDateNivelee(id);
+		this.ordonnancement.listeParDates(debuts, false, new long[this.n], liste);
+		Solution.proposer(this.meilleure, Solution.evaluer(this.ordonnancement, liste));
+
+		borne    = new Exploration().borneInferieure();
+		nbFils   = Runtime.getRuntime().availableProcessors();
+		complete = true;
+
+		if (this.meilleure.get().duree > borne)
+		{
+			fils   = new ForkJoinPool(nbFils);
+			racine = fils.submit(new Branche(new int[0], 1.0));
+			fils.shutdown();
+
+			try
+			{
+				while (!fils.awaitTermination(100, TimeUnit.MILLISECONDS))
+				{
+					duree = this.meilleure.get().duree;
+					avancement.etape("Recherche exacte : " + duree + " jours, borne " + borne + ", écart "
+					                 + NivellementOptimal.ecart(duree, borne) + " %",
+					                 (int) Math.min(99, 100 * this.explore.sum()));
+				}
+			}
+			catch (InterruptedException e)
+			{
+				this.arrete = true;
+				fils.shutdownNow();
+				Thread.currentThread().interrupt();
+				return null;
+			}
+
+			// Une branche a échoué : ce n'est pas un arrêt sur le temps, l'erreur remonte
+			if (racine.isCompletedAbnormally())
+			{
+				echec = racine.getException();
+				if (echec instanceof RuntimeException) throw (RuntimeException) echec;
+				if (echec instanceof Error)            throw (Error)            echec;
+				throw new IllegalStateException(echec);
+			}
+			complete = !this.arrete && racine.isCompletedNormally();
+		}
+
+		if (avancement.estAnnule()) return null;
+
+		duree = this.meilleure.get().duree;
+		return this.ordonnancement.ordonnancer(this.meilleure.get().liste, complete
+		       ? "Optimal (" + this.nbNoeuds.sum() + " nœuds explorés sur " + nbFils + " fils)"
+		       : "Recherche exacte arrêtée : écart de " + (duree - borne) + " jours (" + NivellementOptimal.ecart(duree, borne)
+		         + " %) à la borne de " + borne + " jours, " + this.nbNoeuds.sum() + " nœuds explorés");
+	}
+
+	/**Calcule l'écart relatif entre une durée et sa borne inférieure.
+	 * @return Pourcentage de la durée, arrondi à l'entier.
+	 */
+	private static long ecart(int duree, int borne)
+	{
+		return duree == 0 ? 0 : Math.round(100.0 * (duree - borne) / duree);
+	}
+
+	/*------------------------------------------*/
+	/*    Classes internes                      */
+	/*------------------------------------------*/
+
+	/**Une branche de l'arbre, cédée à un autre fil : elle replace son début de liste puis l'explore.
+	 */
+	private final class Branche extends RecursiveAction
+	{
+		private final int[]  prefixe;
+		private final double poids;   // part de l'arbre sous la branche
+
+		private Branche(int[] prefixe, double poids)
+		{
+			this.prefixe = prefixe;
+			this.poids   = poids;
+		}
+
+		protected void compute()
+		{
+			Exploration exploration = new Exploration();
+
+			for (int t : this.prefixe)
+				exploration.poser(t);
+			exploration.explorer(this.poids);
+			nbNoeuds.add(exploration.noeuds);
+		}
+	}
+
+	/**Le planning partiel d'une branche, modifié en place pendant la descente et défait en remontant.
+	 */
+	private final class Exploration
+	{
+		private final ProfilRessource[] profils;
+		private final int[]             debuts, restants, liste, fins, plusTot;
+		private final boolean[]         poses;
+		private final int[]             debutsTravail, queuesTravail; // par ressource
+		private final long[]            occupations;
+		private final long[][]          cles;     // fils de chaque profondeur : (début << 32) | priorité
+		private int                     nb;       // tâches placées
+		private long                    noeuds;
+
+		private Exploration()
+		{
+			this.profils           = ordonnancement.nouveauxProfils();
+			this.debuts            = new int    [n];
+			this.restants          = new int    [n];
+			this.liste             = new int    [n];
+			this.fins              = new int    [n + 1]; // fin du projet partiel à chaque profondeur
+			this.plusTot           = new int    [n];
+			this.poses             = new boolean[n];
+			this.debutsTravail     = new int    [capacites.length];
+			this.queuesTravail     = new int    [capacites.length];
+			this.occupations       = new long   [capacites.length];
+			this.cles              = new long   [n + 1][];
+
+			for (int id = 0; id < n; id++)
+				this.restants[id] = debutPrc[id + 1] - debutPrc[id];
+		}
+
+		/**Calcule le jour où une tâche est prête : tous ses prédécesseurs sont placés.
+		 */
+		private int prete(int t)
+		{
+			int prete = 0;
+
+			for (int k = debutPrc[t]; k < debutPrc[t + 1]; k++)
+				prete = Math.max(prete, this.debuts[prc[k]] + durees[prc[k]]);
+			return prete;
+		}
+
+		/**Place une tâche prête au premier jour où elle tient.
+		 */
+		private void poser(int t)
+		{
+			this.debuts[t] = ordonnancement.placer(this.profils, t, this.prete(t));
+			this.poses [t] = true;
+			for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+				this.restants[svt[k]]--;
+
+			this.liste[this.nb]     = t;
+			this.fins [this.nb + 1] = Math.max(this.fins[this.nb], this.debuts[t] + durees[t]);
+			this.nb++;
+		}
+
+		/**Revient sur la dernière tâche placée.
+		 */
+		private void retirer()
+		{
+			int t = this.liste[--this.nb];
+
+			ordonnancement.liberer(this.profils, t, this.debuts[t]);
+			this.poses[t] = false;
+			for (int k = debutSvt[t]; k < debutSvt[t + 1]; k++)
+				this.restants[svt[k]]++;
+		}
+
+		/**Calcule une durée que ne peut pas battre un planning complétant ce planning partiel : les
+		 * tâches restantes commencent au plus tôt le jour de la dernière placée (règle de dominance).
+		 */
+		private int borneInferieure()
+		{
+			int dernier, borne, t, p, r, fin;
+
+			dernier = this.nb == 0 ? 0 : this.debuts[this.liste[this.nb - 1]];
+			borne   = this.fins[this.nb];
+
+			// Chemins : chaque tâche restante au plus tôt, suivie de sa queue
+			for (int rang = 0; rang < n; rang++)
+			{
+				t = ordre[rang];
+				if (this.poses[t]) continue;
+
+				this.plusTot[t] = dernier;
+				for (int k = debutPrc[t]; k < debutPrc[t + 1]; k++)
+				{
+					p               = prc[k];
+					this.plusTot[t] = Math.max(this.plusTot[t], (this.poses[p] ? this.debuts[p] : this.plusTot[p]) + durees[p]);
+				}
+				borne = Math.max(borne, this.plusTot[t] + queues[t]);
+			}
+
+			// Énergie : le travail d'une ressource, restant ou placé après ce jour, tient dans sa capacité à
+			// partir du plus tôt où il peut commencer ; la tâche qui le finit est encore suivie de sa queue
+			for (r = 0; r < capacites.length; r++)
+			{
+				this.occupations  [r] = 0;
+				this.debutsTravail[r] = Integer.MAX_VALUE;
+				this.queuesTravail[r] = Integer.MAX_VALUE;
+			}
+			for (t = 0; t < n; t++)
+			{
+				fin = this.poses[t] ? this.debuts[t] + durees[t] : this.plusTot[t] + durees[t];
+				if (durees[t] == 0 || this.poses[t] && fin <= dernier) continue;
+
+				for (int k = debutDem[t]; k < debutDem[t + 1]; k++)
+				{
+					r                     = ressDem[k];
+					this.occupations[r]  += (long) (this.poses[t] ? fin - Math.max(this.debuts[t], dernier) : durees[t]) * qteDem[k];
+					this.debutsTravail[r] = Math.min(this.debutsTravail[r], this.poses[t] ? dernier : this.plusTot[t]);
+					this.queuesTravail[r] = Math.min(this.queuesTravail[r], queues[t] - durees[t]);
+				}
+			}
+			for (r = 0; r < capacites.length; r++)
+				if (this.occupations[r] > 0)
+					borne = (int) Math.max(borne, this.debutsTravail[r] + (this.occupations[r] + capacites[r] - 1) / capacites[r]
+					                              + this.queuesTravail[r]);
+
+			return borne;
+		}
+
+		/**Explore en profondeur le sous-arbre du planning partiel, en cédant des branches aux fils inoccupés.
+		 * @param poids part de l'arbre sous ce nœud, ajoutée à la part explorée une fois le nœud traité.
+		 */
+		private void explorer(double poids)
+		{
+			List<Branche> cedees;
+			Branche       branche;
+			long[]        cles;
+			int[]         prefixe;
+			int           profondeur, dernier, nbFils, nbTotal, t, debut;
+			double        part;
+
+			if ((++this.noeuds & (NOEUDS_ENTRE_TESTS - 1)) == 0
+			    && (System.nanoTime() >= echeance || avancement.estAnnule() || Thread.currentThread().isInterrupted()))
+				arrete = true;
+			if (arrete) return;
+
+			if (this.nb == n)
+			{
+				Solution.proposer(meilleure, new Solution(this.liste.clone(), this.fins[n]));
+				explore.add(poids);
+				return;
+			}
+			if (this.borneInferieure() >= meilleure.get().duree)
+			{
+				explore.add(poids);
+				return;
+			}
+
+			// Fils : les tâches prêtes qui ne commencent pas avant la dernière placée
+			profondeur = this.nb;
+			dernier    = profondeur == 0 ? -1 : this.liste[profondeur - 1];
+			cles       = this.cles[profondeur];
+			if (cles == null) cles = this.cles[profondeur] = new long[Math.min(n - profondeur, 8)];
+
+			nbFils  = 0;
+			nbTotal = 0;
+			for (t = 0; t < n; t++)
+			{
+				if (this.poses[t] || this.restants[t] != 0) continue;
+
+				debut = ordonnancement.placer(this.profils, t, this.prete(t));
+				ordonnancement.liberer(this.profils, t, debut);
+				nbTotal++;
+
+				if (dernier != -1 && (debut < this.debuts[dernier] || debut == this.debuts[dernier] && rangs[t] < rangs[dernier]))
+					continue;
+
+				if (nbFils == cles.length) cles = this.cles[profondeur] = Arrays.copyOf(cles, 2 * nbFils);
+				cles[nbFils++] = ((long) debut << 32) | priorites[t];
+			}
+
+			part = poids / nbTotal;
+			explore.add(part * (nbTotal - nbFils));
+			Arrays.sort(cles, 0, nbFils);
+
+			cedees = null;
+			for (int i = 0; i < nbFils && !arrete; i++)
+			{
+				t = parPriorite[(int) cles[i]];
+
+				// Fil voisin sans travail : il prend la branche, ce fil garde au moins le dernier fils
+				if (i < nbFils - 1 && n - profondeur > SEUIL_PARTAGE && ForkJoinTask.getSurplusQueuedTaskCount() < 2)
+				{
+					if (cedees == null) cedees = new ArrayList<>();
+					prefixe             = Arrays.copyOf(this.liste, profondeur + 1);
+					prefixe[profondeur] = t;
+					branche             = new Branche(prefixe, part);
+					branche.fork();
+					cedees.add(branche);
+				}
+				else
+				{
+					this.poser(t);
+					this.explorer(part);
+					this.retirer();
+				}
+			}
+
+			if (cedees != null)
+				for (Branche cedee : cedees)
+					cedee.join();
+		}
+	}
+}
@@ -0,0 +1,530 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import mpm.metier.collection.TableObjetsEntiers;
+import mpm.metier.collection.TasLongs;
+
+/**
+ * La classe {@code OrdonnancementRessources} date les tâches d'un projet quand les ressources sont
+ * limitées : une tâche ne commence que lorsque ses prédécesseurs sont finis et que chaque ressource
+ * qu'elle demande (colonne « Ressources » de la grille, par exemple « maçon:2,grue:1 ») a assez
+ * d'unités libres pendant toute sa durée.
+ *
+ * Les tâches sont placées une à une (schéma sériel) : parmi celles dont tous les prédécesseurs sont
+ * placés, la plus prioritaire selon la {@link Regle} choisie est mise au premier jour où elle tient.
+ * Les tâches prêtes attendent dans un tas, et l'occupation de chaque ressource est un
+ * {@link ProfilRessource} : placer une tâche coûte O(log n) par ressource demandée, et un saut
+ * pour chaque jour trop chargé rencontré.
+ *
+ * Le graphe, les durées et les demandes sont relevés à la construction ; le même ordonnancement
+ * peut ensuite être lancé avec plusieurs règles.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class OrdonnancementRessources
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	/**Règles de priorité entre les tâches prêtes.
+	 */
+	public enum Regle
+	{
+		/**Date au plus tard la plus tôt d'abord. */
+		DATE_AU_PLUS_TARD ("Date au plus tard minimale"),
+
+		/**Tâche qui a le plus de successeurs directs d'abord. */
+		NB_SUCCESSEURS    ("Plus de successeurs"),
+
+		/**Tâche sur le plus long chemin du projet d'abord (marge la plus petite). */
+		PLUS_LONG_CHEMIN  ("Plus long chemin");
+
+		private final String libelle;
+
+		Regle(String libelle) { this.libelle = libelle; }
+
+		/**Récupère le nom de la règle, pour l'affichage.
+		 * @return Le nom.
+		 */
+		public String toString() { return this.libelle; }
+	}
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache> taches;   // par numéro
+	private final long        epoque;   // du projet relevé
+	private final int         idDebut, idFin;
+
+	private final int[]       ordre;    // chaque tâche après ses prédécesseurs
+	private final int[]       debutPrc, prc;
+	private final int[]       debutSvt, svt;
+	private final int[]       durees;
+
+	private final String[]    ressources;
+	private final int[]       capacites;
+	private final int[]       debutDem, ressDem, qteDem; // demandes de chaque tâche
+
+	private final int[]       datesMin, datesMax;        // sans limite de ressources
+	private final int         dureeSansRessources;
+
+	/**Constructeur d'OrdonnancementRessources : relève le graphe du projet et les demandes de sa grille.
+	 * Le projet peut ensuite changer : l'ordonnancement garde ce qu'il a relevé.
+	 * @param projet    le projet, chargé.
+	 * @param capacites nombre d'unités de chaque ressource, par nom.
+	 * @throws IllegalStateException    si aucun projet n'est chargé.
+	 * @throws NumberFormatException    si une demande de ressources est mal écrite.
+	 * @throws IllegalArgumentException si une tâche demande une ressource inconnue ou plus que sa capacité.
+	 */
+	public OrdonnancementRessources(Mpm projet, Map<String, Integer> capacites)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		GrilleDonneesModel         grille;
+		Adjacence                  adjacence;
+		TableObjetsEntiers<String> numeros;
+		Map<String, Integer>       demandes;
+		Tache                      tache;
+		int[]                      ress, qte;
+		int                        n, ligne, r, nbDem, finProjet, t;
+
+		if (projet.getDebut() == null || projet.getFin() == null)
+			throw new IllegalStateException("Aucun projet chargé.");
+
+		adjacence    = projet.getAdjacence();
+		grille       = projet.getGrilleDonneesModel();
+		this.taches  = Collections.unmodifiableList(new ArrayList<>(projet.getTaches()));
+		this.epoque  = projet.getEpoque();
+		this.idDebut = projet.getDebut().getId();
+		this.idFin   = projet.getFin  ().getId();
+		this.ordre   = projet.getOrdreParNiveau();
+		n            = this.taches.size();
+
+		this.debutPrc = adjacence.copierDebutsPredecesseurs();
+		this.prc      = adjacence.copierPredecesseurs();
+		this.debutSvt = adjacence.copierDebutsSuccesseurs();
+		this.svt      = adjacence.copierSuccesseurs();
+
+		// Ressources, dans l'ordre donné
+		this.ressources = new String[capacites.size()];
+		this.capacites  = new int   [capacites.size()];
+		numeros         = new TableObjetsEntiers<>(capacites.size());
+		r               = 0;
+		for (Map.Entry<String, Integer> entree : capacites.entrySet())
+		{
+			if (entree.getValue() < 0)
+				throw new IllegalArgumentException("La capacité de " + entree.getKey() + " ne peut pas être négative.");
+
+			this.ressources[r] = entree.getKey();
+			this.capacites [r] = entree.getValue();
+			numeros.put(entree.getKey(), r++);
+		}
+
+		// Durées et demandes, lues dans la grille
+		this.durees   = new int[n];
+		this.debutDem = new int[n + 1];
+		nbDem         = 0;
+		ress          = new int[16];
+		qte           = new int[16];
+		for (int id = 0; id < n; id++)
+		{
+			tache            = this.taches.get(id);
+			this.durees[id]  = tache.getDuree();
+			ligne            = id == this.idDebut || id == this.idFin ? -1 : grille.getLigne(tache.getNom());
+			demandes         = ligne == -1 || grille.getColumnCount() <= 6 ? null
+			                 : OrdonnancementRessources.lireRessources("Ressources de " + tache.getNom(), grille.getValueAt(ligne, 6));
+
+			if (demandes != null)
+			{
+				for (Map.Entry<String, Integer> demande : demandes.entrySet())
+				{
+					r = numeros.get(demande.getKey(), -1);
+					if (r == -1)
+						throw new IllegalArgumentException(tache.getNom() + " demande une ressource inconnue : " + demande.getKey() + ".");
+					if (demande.getValue() > this.capacites[r])
+						throw new IllegalArgumentException(tache.getNom() + " demande " + demande.getValue() + " " + demande.getKey()
+						                                   + " pour une capacité de " + this.capacites[r] + ".");
+					if (demande.getValue() == 0) continue;
+
+					if (nbDem == ress.length)
+					{
+						ress = Arrays.copyOf(ress, 2 * nbDem);
+						qte  = Arrays.copyOf(qte,  2 * nbDem);
+					}
+					ress[nbDem] = r;
+					qte [nbDem] = demande.getValue();
+					nbDem++;
+				}
+			}
+			this.debutDem[id + 1] = nbDem;
+		}
+		this.ressDem = Arrays.copyOf(ress, nbDem);
+		this.qteDem  = Arrays.copyOf(qte,  nbDem);
+
+		// Dates sans limite de ressources : elles servent aux règles et au décalage de chaque tâche
+		this.datesMin = new int[n];
+		this.datesMax = new int[n];
+		for (int id : this.ordre)
+			for (int k = this.debutPrc[id]; k < this.debutPrc[id + 1]; k++)
+				this.datesMin[id] = Math.max(this.datesMin[id], this.datesMin[this.prc[k]] + this.durees[this.prc[k]]);
+
+		finProjet = this.datesMin[this.idFin] + this.durees[this.idFin];
+		for (int i = n - 1; i >= 0; i--)
+		{
+			t                = this.ordre[i];
+			this.datesMax[t] = finProjet;
+			for (int k = this.debutSvt[t]; k < this.debutSvt[t + 1]; k++)
+				this.datesMax[t] = Math.min(this.datesMax[t], this.datesMax[this.svt[k]]);
+			this.datesMax[t] -= this.durees[t];
+		}
+		this.dureeSansRessources = finProjet;
+	}
+
+	/**Lit une demande de ressources.
+	 * @param nom   origine du texte, en tête du message d'erreur (« Ressources de T1 », « Capacités »).
+	 * @param texte la demande « ressource:quantité,ressource:quantité », ou rien ; une ressource sans
+	 *              quantité en demande une unité. Les capacités s'écrivent de la même façon.
+	 * @return Quantité demandée par ressource, dans l'ordre du texte, ou null si rien n'est demandé.
+	 * @throws NumberFormatException si la demande est mal écrite ou si une quantité est négative.
+	 */
+	public static Map<String, Integer> lireRessources(String nom, Object texte)
+	{
+		Map<String, Integer> demandes;
+		String[]             parties;
+		String               ressource;
+		int                  separateur, quantite;
+
+		if (texte == null || texte.toString().isBlank()) return null;
+
+		demandes = new LinkedHashMap<>();
+		for (String demande : texte.toString().split(","))
+		{
+			separateur = demande.indexOf(':');
+			ressource  = (separateur == -1 ? demande : demande.substring(0, separateur)).trim();
+			if (ressource.isEmpty())
+				throw new NumberFormatException(nom + " : « ressource:quantité » attendu.");
+
+			parties  = separateur == -1 ? null : demande.substring(separateur + 1).split(":");
+			quantite = parties == null ? 1 : Integer.parseInt(parties[0].trim());
+			if (parties != null && parties.length > 1)
+				throw new NumberFormatException(nom + " : « ressource:quantité » attendu.");
+			if (quantite < 0)
+				throw new NumberFormatException(nom + " : une quantité ne peut pas être négative.");
+
+			demandes.merge(ressource, quantite, Integer::sum);
+		}
+		return demandes;
+	}
+
+	/**Relève les ressources demandées dans une grille, avec la plus forte demande de chacune :
+	 * c'est la plus petite capacité qui permet de placer toutes les tâches.
+	 * @param grille la grille du projet.
+	 * @return Demande maximale par ressource, dans l'ordre de première apparition.
+	 * @throws NumberFormatException si une demande de ressources est mal écrite.
+	 */
+	public static Map<String, Integer> demandesMax(GrilleDonneesModel grille)
+	{
+		Map<String, Integer> max, demandes;
+
+		max = new LinkedHashMap<>();
+		for (int lig = 0; grille.getColumnCount() > 6 && lig < grille.getRowCount(); lig++)
+		{
+			demandes = OrdonnancementRessources.lireRessources("Ressources de " + grille.getValueAt(lig, 0), grille.getValueAt(lig, 6));
+			if (demandes != null)
+				for (Map.Entry<String, Integer> demande : demandes.entrySet())
+					max.merge(demande.getKey(), demande.getValue(), Math::max);
+		}
+		return max;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère la durée du projet sans limite de ressources.
+	 * @return Nombre de jours.
+	 */
+	public int      getDureeSansRessources() { return this.dureeSansRessources; }
+
+	/**Récupère les noms des ressources, dans l'ordre des capacités données.
+	 * @return Tableau, qui ne doit pas être modifié.
+	 */
+	public String[] getRessources         () { return this.ressources;          }
+
+	/*------------------------------------------*/
+	/*    Ordonnancement                        */
+	/*------------------------------------------*/
+
+	/**Place toutes les tâches selon une règle de priorité.
+	 * @param regle la règle qui départage les tâches prêtes.
+	 * @return Les dates nivelées.
+	 */
+	public ResultatNivellement ordonnancer(Regle regle)
+	{
+		return this.ordonnancer(this.liste(this.priorites(regle)), regle.toString());
+	}
+
+	/**Place les tâches une à une dans l'ordre d'une liste, chacune au premier jour où elle tient.
+	 * @param liste   numéros de toutes les tâches, chacune après tous ses prédécesseurs.
+	 * @param methode comment la liste a été obtenue, repris dans le résultat.
+	 * @return Les dates nivelées.
+	 */
+	public ResultatNivellement ordonnancer(int[] liste, String methode)
+	{
+		ProfilRessource[] profils;
+		int[]             debuts, pics;
+		int               duree;
+
+		profils = this.nouveauxProfils();
+		debuts  = new int[this.taches.size()];
+		duree   = this.placerListe(liste, false, debuts, profils);
+
+		pics = new int[profils.length];
+		for (int r = 0; r < profils.length; r++)
+			pics[r] = profils[r].getPic();
+
+		return new ResultatNivellement(this.taches, this.epoque, methode, debuts, this.datesMin, this.datesMax,
+		                               duree, this.dureeSansRessources, this.ressources, this.capacites, pics);
+	}
+
+	/*------------------------------------------*/
+	/*    Briques des améliorations             */
+	/*------------------------------------------*/
+
+	/**Récupère le nombre de tâches, Début et Fin compris.
+	 */
+	int getNbTaches() { return this.taches.size(); }
+
+	/**Tableaux relevés, pour les recherches du paquetage : ils ne doivent pas être modifiés.
+	 * Les prédécesseurs de t sont prc[debutPrc[t]] à prc[debutPrc[t + 1] - 1], ses successeurs et ses
+	 * demandes se lisent de la même façon.
+	 */
+	int[] getOrdre    () { return this.ordre;     }
+	int[] getDurees   () { return this.durees;    }
+	int[] getDatesMax () { return this.datesMax;  }
+	int[] getDebutPrc () { return this.debutPrc;  }
+	int[] getPrc      () { return this.prc;       }
+	int[] getDebutSvt () { return this.debutSvt;  }
+	int[] getSvt      () { return this.svt;       }
+	int[] getDebutDem () { return this.debutDem;  }
+	int[] getRessDem  () { return this.ressDem;   }
+	int[] getQteDem   () { return this.qteDem;    }
+	int[] getCapacites() { return this.capacites; }
+
+	/**Crée un profil vide par ressource.
+	 */
+	ProfilRessource[] nouveauxProfils()
+	{
+		ProfilRessource[] profils = new ProfilRessource[this.ressources.length];
+
+		for (int r = 0; r < profils.length; r++)
+			profils[r] = new ProfilRessource(this.dureeSansRessources + 1);
+		return profils;
+	}
+
+	/**Calcule les priorités d'une règle, la plus petite d'abord.
+	 */
+	int[] priorites(Regle regle)
+	{
+		int[] priorites = new int[this.taches.size()];
+
+		for (int id = 0; id < priorites.length; id++)
+		{
+			switch (regle)
+			{
+				case DATE_AU_PLUS_TARD : priorites[id] = this.datesMax[id];                         break;
+				case NB_SUCCESSEURS    : priorites[id] = this.debutSvt[id] - this.debutSvt[id + 1]; break;
+				default                : priorites[id] = this.datesMax[id] - this.datesMin[id];     break;
+			}
+		}
+		return priorites;
+	}
+
+	/**Range toutes les tâches, chacune après ses prédécesseurs : parmi les tâches dont tous les
+	 * prédécesseurs sont rangés, la plus petite priorité d'abord, le plus petit numéro en cas d'égalité.
+	 * Dans le schéma sériel, cet ordre ne dépend pas des dates : il est fixé avant de placer les tâches.
+	 * @param priorites priorité de chaque tâche, par numéro.
+	 * @return Les numéros des tâches, dans l'ordre où les placer.
+	 */
+	int[] liste(int[] priorites)
+	{
+		TasLongs pretes;
+		int[]    restants, liste;
+		int      n, t, s, nb;
+
+		n        = this.taches.size();
+		restants = new int[n];
+		liste    = new int[n];
+		pretes   = new TasLongs(n);
+		for (int id = 0; id < n; id++)
+		{
+			restants[id] = this.debutPrc[id + 1] - this.debutPrc[id];
+			if (restants[id] == 0) pretes.ajouter(((long) priorites[id] << 32) | id);
+		}
+
+		nb = 0;
+		while (!pretes.estVide())
+		{
+			t           = (int) pretes.retirerMin();
+			liste[nb++] = t;
+			for (int k = this.debutSvt[t]; k < this.debutSvt[t + 1]; k++)
+			{
+				s = this.svt[k];
+				if (--restants[s] == 0) pretes.ajouter(((long) priorites[s] << 32) | s);
+			}
+		}
+		return liste;
+	}
+
+	/**Range les tâches par date de début, pour les replacer vers l'avant, ou par date de fin décroissante,
+	 * pour les replacer vers l'arrière. Les égalités suivent l'ordre des niveaux : la liste respecte
+	 * ainsi les précédences, même avec des tâches de durée nulle.
+	 * @param debuts  date de début de chaque tâche, par numéro.
+	 * @param arriere true pour ranger par fin décroissante.
+	 * @param cles    tableau de travail, d'une case par tâche.
+	 * @param liste   reçoit les numéros des tâches.
+	 */
+	void listeParDates(int[] debuts, boolean arriere, long[] cles, int[] liste)
+	{
+		int t, rang;
+
+		for (rang = 0; rang < this.ordre.length; rang++)
+		{
+			t          = this.ordre[rang];
+			cles[rang] = arriere ? ((long) -(debuts[t] + this.durees[t]) << 32) | (this.ordre.length - 1 - rang)
+			                     : ((long)   debuts[t]                   << 32) | rang;
+		}
+		Arrays.sort(cles, 0, this.ordre.length);
+
+		for (int i = 0; i < this.ordre.length; i++)
+		{
+			rang     = (int) cles[i];
+			liste[i] = this.ordre[arriere ? this.ordre.length - 1 - rang : rang];
+		}
+	}
+
+	/**Range les tâches par date au plus tôt, sans limite de ressources (le planning MPM).
+	 * @return Les numéros des tâches, dans l'ordre où les placer.
+	 */
+	int[] listeSansRessources()
+	{
+		int[] liste = new int[this.taches.size()];
+
+		this.listeParDates(this.datesMin, false, new long[liste.length], liste);
+		return liste;
+	}
+
+	/**Indique si une tâche précède directement une autre.
+	 */
+	boolean precede(int avant, int apres)
+	{
+		for (int k = this.debutPrc[apres]; k < this.debutPrc[apres + 1]; k++)
+			if (this.prc[k] == avant) return true;
+		return false;
+	}
+
+	/**Place les tâches d'une liste une à une, chacune au premier jour où elle tient.
+	 * Vers l'arrière, les dates sont comptées depuis la fin et chaque tâche est placée après ses
+	 * successeurs, le plus tard possible ; elles sont ensuite ramenées au début du projet.
+	 * @param liste   numéros de toutes les tâches, chacune après ses prédécesseurs (ses successeurs vers l'arrière).
+	 * @param arriere true pour placer vers l'arrière.
+	 * @param debuts  reçoit la date de début de chaque tâche, par numéro.
+	 * @param profils un profil par ressource, vidé avant de placer.
+	 * @return La durée du projet.
+	 */
+	int placerListe(int[] liste, boolean arriere, int[] debuts, ProfilRessource[] profils)
+	{
+		int prete, duree, v;
+
+		for (ProfilRessource profil : profils)
+			profil.vider();
+
+		duree = 0;
+		for (int t : liste)
+		{
+			prete = 0;
+			if (arriere)
+			{
+				for (int k = this.debutSvt[t]; k < this.debutSvt[t + 1]; k++)
+				{
+					v     = this.svt[k];
+					prete = Math.max(prete, debuts[v] + this.durees[v]);
+				}
+			}
+			else
+			{
+				for (int k = this.debutPrc[t]; k < this.debutPrc[t + 1]; k++)
+				{
+					v     = this.prc[k];
+					prete = Math.max(prete, debuts[v] + this.durees[v]);
+				}
+			}
+
+			debuts[t] = this.placer(profils, t, prete);
+			duree     = Math.max(duree, debuts[t] + this.durees[t]);
+		}
+
+		if (arriere)
+			for (int t : liste)
+				debuts[t] = duree - debuts[t] - this.durees[t];
+
+		return duree;
+	}
+
+	/**Cherche le premier jour, à partir de la date où la tâche est prête, où chaque ressource qu'elle
+	 * demande a assez d'unités libres pendant toute sa durée, puis y réserve ces unités.
+	 * @return Le jour de début.
+	 */
+	int placer(ProfilRessource[] profils, int t, int prete)
+	{
+		boolean deplacee;
+		int     debut, fin, r, jour;
+
+		debut = prete;
+		if (this.durees[t] == 0) return debut;
+
+		// Chaque jour trop chargé repousse le début au lendemain ; on recommence tant qu'une ressource a repoussé
+		do
+		{
+			deplacee = false;
+			for (int k = this.debutDem[t]; k < this.debutDem[t + 1]; k++)
+			{
+				r = this.ressDem[k];
+				while ((jour = profils[r].dernierAuDessus(debut, debut + this.durees[t], this.capacites[r] - this.qteDem[k])) != -1)
+				{
+					debut    = jour + 1;
+					deplacee = true;
+				}
+			}
+		}
+		while (deplacee && this.debutDem[t + 1] - this.debutDem[t] > 1);
+
+		fin = debut + this.durees[t];
+		for (int k = this.debutDem[t]; k < this.debutDem[t + 1]; k++)
+			profils[this.ressDem[k]].occuper(debut, fin, this.qteDem[k]);
+
+		return debut;
+	}
+
+	/**Rend les unités prises par une tâche placée, pour revenir sur son placement.
+	 * @param debut le jour de début rendu par {@link #placer}.
+	 */
+	void liberer(ProfilRessource[] profils, int t, int debut)
+	{
+		int fin = debut + this.durees[t];
+
+		for (int k = this.debutDem[t]; k < this.debutDem[t + 1]; k++)
+			profils[this.ressDem[k]].occuper(debut, fin, -this.qteDem[k]);
+	}
+}
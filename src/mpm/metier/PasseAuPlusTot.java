@@ -0,0 +1,47 @@
+package mpm.metier;
+
+/**
+ * L'interface {@code PasseAuPlusTot} décrit la passe au plus tôt faite sur plusieurs tirages à la fois.
+ * Les valeurs sont rangées par voies : pour la tâche t et le tirage j, la case est {@code t * nbVoies + j}.
+ * Les tirages d'une même tâche se suivent donc en mémoire, et la passe fait pour chaque tâche la même
+ * opération sur toutes ses voies : début = max(fin des prédécesseurs), fin = début + durée.
+ *
+ * Deux réalisations donnent exactement les mêmes dates (max et + sur des réels) :
+ *   {@link PasseAuPlusTotVectorielle} : instructions vectorielles de l'API jdk.incubator.vector
+ *   {@link PasseAuPlusTotScalaire}    : simples boucles sur les voies, à défaut du module
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public interface PasseAuPlusTot
+{
+	/**Fait la passe au plus tôt sur toutes les voies.
+	 * @param ordre    numéros des tâches, chacune après ses prédécesseurs.
+	 * @param debutPrc début de la plage des prédécesseurs de chaque tâche dans prc (taille nbTaches + 1).
+	 * @param prc      numéros des prédécesseurs.
+	 * @param debut    rempli : date au plus tôt de chaque tâche, par voie.
+	 * @param fin      en entrée la durée de chaque tâche, en sortie sa date de fin au plus tôt, par voie.
+	 * @param nbVoies  nombre de tirages traités ensemble.
+	 */
+	void calculer(int[] ordre, int[] debutPrc, int[] prc, double[] debut, double[] fin, int nbVoies);
+
+	/**Retourne le nom de la réalisation, pour les mesures.
+	 * @return le nom.
+	 */
+	String getNom();
+
+	/**Choisit la passe vectorielle si le module jdk.incubator.vector est chargé, la passe scalaire sinon.
+	 * @return la passe à utiliser.
+	 */
+	static PasseAuPlusTot choisir()
+	{
+		try
+		{
+			// Chargée par son nom : sans le module, seule cette classe manque, et rien d'autre n'échoue
+			return (PasseAuPlusTot) Class.forName("mpm.metier.PasseAuPlusTotVectorielle").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError e)
+		{
+			return new PasseAuPlusTotScalaire();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package mpm.metier;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code PasseAuPlusTotScalaire} fait la passe au plus tôt par voies avec de simples boucles.
+ * C'est la passe utilisée quand le module jdk.incubator.vector n'est pas chargé ; ses boucles sur les
+ * voies, sans branchement, restent vectorisables par le compilateur à la volée.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class PasseAuPlusTotScalaire implements PasseAuPlusTot
+{
+	/**Fait la passe au plus tôt sur toutes les voies (voir {@link PasseAuPlusTot#calculer}).
+	 */
+	public void calculer(int[] ordre, int[] debutPrc, int[] prc, double[] debut, double[] fin, int nbVoies)
+	{
+		int t, base, source;
+
+		for (int i = 0; i < ordre.length; i++)
+		{
+			t    = ordre[i];
+			base = t * nbVoies;
+
+			if (debutPrc[t] == debutPrc[t + 1])
+			{
+				Arrays.fill(debut, base, base + nbVoies, 0.0);
+				continue;
+			}
+
+			source = prc[debutPrc[t]] * nbVoies;
+			System.arraycopy(fin, source, debut, base, nbVoies);
+			for (int k = debutPrc[t] + 1; k < debutPrc[t + 1]; k++)
+			{
+				source = prc[k] * nbVoies;
+				for (int j = 0; j < nbVoies; j++)
+					debut[base + j] = Math.max(debut[base + j], fin[source + j]);
+			}
+
+			for (int j = 0; j < nbVoies; j++)
+				fin[base + j] += debut[base + j];
+		}
+	}
+
+	public String getNom() { return "scalaire"; }
+}
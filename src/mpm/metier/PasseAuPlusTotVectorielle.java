@@ -0,0 +1,69 @@
+package mpm.metier;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * La classe {@code PasseAuPlusTotVectorielle} fait la passe au plus tôt par voies avec l'API vectorielle :
+ * chaque max et chaque addition porte sur autant de tirages que le processeur en tient dans un registre
+ * (4 réels en AVX2, 8 en AVX-512). Les voies en trop à la fin d'une tâche sont faites une à une.
+ *
+ * Elle n'est chargée que par {@link PasseAuPlusTot#choisir()}, qui se rabat sur la passe scalaire
+ * si la machine virtuelle a été lancée sans {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class PasseAuPlusTotVectorielle implements PasseAuPlusTot
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final VectorSpecies<Double> ESPECE = DoubleVector.SPECIES_PREFERRED;
+
+	/**Fait la passe au plus tôt sur toutes les voies (voir {@link PasseAuPlusTot#calculer}).
+	 */
+	public void calculer(int[] ordre, int[] debutPrc, int[] prc, double[] debut, double[] fin, int nbVoies)
+	{
+		DoubleVector max;
+		int          t, base, borne, j;
+		double       m;
+
+		borne = ESPECE.loopBound(nbVoies);
+		for (int i = 0; i < ordre.length; i++)
+		{
+			t    = ordre[i];
+			base = t * nbVoies;
+
+			if (debutPrc[t] == debutPrc[t + 1])
+			{
+				Arrays.fill(debut, base, base + nbVoies, 0.0);
+				continue;
+			}
+
+			for (j = 0; j < borne; j += ESPECE.length())
+			{
+				max = DoubleVector.fromArray(ESPECE, fin, prc[debutPrc[t]] * nbVoies + j);
+				for (int k = debutPrc[t] + 1; k < debutPrc[t + 1]; k++)
+					max = max.max(DoubleVector.fromArray(ESPECE, fin, prc[k] * nbVoies + j));
+
+				max.intoArray(debut, base + j);
+				max.add(DoubleVector.fromArray(ESPECE, fin, base + j)).intoArray(fin, base + j);
+			}
+
+			for (; j < nbVoies; j++)
+			{
+				m = fin[prc[debutPrc[t]] * nbVoies + j];
+				for (int k = debutPrc[t] + 1; k < debutPrc[t + 1]; k++)
+					m = Math.max(m, fin[prc[k] * nbVoies + j]);
+
+				debut[base + j]  = m;
+				fin  [base + j] += m;
+			}
+		}
+	}
+
+	public String getNom() { return "vectorielle (" + ESPECE.length() + " voies)"; }
+}
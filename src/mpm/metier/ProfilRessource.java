@@ -0,0 +1,157 @@
+package mpm.metier;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code ProfilRessource} tient l'occupation d'une ressource jour par jour, pendant un
+ * ordonnancement : combien d'unités sont déjà prises par les tâches placées.
+ *
+ * L'occupation est rangée dans un arbre d'intervalles (arbre de segments) : chaque nœud couvre une
+ * plage de jours et garde l'ajout fait sur toute la plage et le pic de la plage. Occuper une plage et
+ * chercher le dernier jour trop chargé d'une plage coûtent ainsi O(log h), h étant l'horizon, quelle
+ * que soit la longueur des tâches. L'horizon double de lui-même quand une tâche le dépasse.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ProfilRessource
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private int[] pics;   // pic de la plage du nœud, ajouts des ancêtres non compris
+	private int[] ajouts; // unités prises sur toute la plage du nœud
+	private int   taille; // nombre de jours couverts, puissance de deux
+
+	/**Constructeur de ProfilRessource, sans aucune occupation.
+	 * @param horizon nombre de jours prévus (l'arbre grandit au besoin).
+	 */
+	public ProfilRessource(int horizon)
+	{
+		this.taille = Integer.highestOneBit(Math.max(horizon, 2) - 1) << 1;
+		this.pics   = new int[2 * this.taille];
+		this.ajouts = new int[2 * this.taille];
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre de jours couverts sans grandir.
+	 * @return Nombre de jours.
+	 */
+	public int getHorizon() { return this.taille;  }
+
+	/**Récupère la plus forte occupation, tous jours confondus.
+	 * @return Nombre d'unités.
+	 */
+	public int getPic    () { return this.pics[1]; }
+
+	/**Calcule l'occupation d'un jour.
+	 * @param jour le jour.
+	 * @return Nombre d'unités prises ce jour-là.
+	 */
+	public int getOccupation(int jour)
+	{
+		int occupation, noeud;
+
+		if (jour < 0 || jour >= this.taille) return 0;
+
+		occupation = 0;
+		for (noeud = this.taille + jour; noeud >= 1; noeud >>>= 1)
+			occupation += this.ajouts[noeud];
+		return occupation;
+	}
+
+	/**Cherche le dernier jour d'une plage où l'occupation dépasse un seuil.
+	 * @param debut premier jour de la plage.
+	 * @param fin   jour qui suit la plage.
+	 * @param seuil occupation admise.
+	 * @return Le jour, ou -1 si aucun jour de la plage ne dépasse le seuil.
+	 */
+	public int dernierAuDessus(int debut, int fin, int seuil)
+	{
+		if (debut >= this.taille || seuil >= this.pics[1]) return -1;
+		return this.dernierAuDessus(1, 0, this.taille, debut, Math.min(fin, this.taille), seuil, 0);
+	}
+
+	private int dernierAuDessus(int noeud, int bas, int haut, int debut, int fin, int seuil, int ajoutParents)
+	{
+		int milieu, jour;
+
+		if (haut <= debut || fin <= bas || this.pics[noeud] + ajoutParents <= seuil) return -1;
+		if (haut - bas == 1) return bas;
+
+		// La moitié haute d'abord : on cherche le dernier jour
+		ajoutParents += this.ajouts[noeud];
+		milieu        = (bas + haut) >>> 1;
+		jour          = this.dernierAuDessus(2 * noeud + 1, milieu, haut, debut, fin, seuil, ajoutParents);
+		if (jour != -1) return jour;
+
+		return this.dernierAuDessus(2 * noeud, bas, milieu, debut, fin, seuil, ajoutParents);
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Prend des unités sur une plage de jours.
+	 * @param debut    premier jour de la plage.
+	 * @param fin      jour qui suit la plage.
+	 * @param quantite nombre d'unités prises chaque jour.
+	 */
+	public void occuper(int debut, int fin, int quantite)
+	{
+		if (debut >= fin) return;
+
+		while (fin > this.taille) this.grandir();
+		this.occuper(1, 0, this.taille, debut, fin, quantite);
+	}
+
+	private void occuper(int noeud, int bas, int haut, int debut, int fin, int quantite)
+	{
+		int milieu;
+
+		if (haut <= debut || fin <= bas) return;
+
+		if (debut <= bas && haut <= fin)
+		{
+			this.ajouts[noeud] += quantite;
+			this.pics  [noeud] += quantite;
+			return;
+		}
+
+		milieu = (bas + haut) >>> 1;
+		this.occuper(2 * noeud,     bas,    milieu, debut, fin, quantite);
+		this.occuper(2 * noeud + 1, milieu, haut,   debut, fin, quantite);
+		this.pics[noeud] = Math.max(this.pics[2 * noeud], this.pics[2 * noeud + 1]) + this.ajouts[noeud];
+	}
+
+	/**Double l'horizon : l'ancien arbre devient la moitié basse du nouveau, niveau par niveau.
+	 */
+	private void grandir()
+	{
+		int[] pics, ajouts;
+
+		pics   = new int[4 * this.taille];
+		ajouts = new int[4 * this.taille];
+		for (int niveau = 1; niveau <= this.taille; niveau <<= 1)
+		{
+			System.arraycopy(this.pics,   niveau, pics,   2 * niveau, niveau);
+			System.arraycopy(this.ajouts, niveau, ajouts, 2 * niveau, niveau);
+		}
+		pics[1] = pics[2];
+
+		this.pics    = pics;
+		this.ajouts  = ajouts;
+		this.taille *= 2;
+	}
+
+	/**Libère toute la ressource, en gardant l'horizon atteint.
+	 */
+	public void vider()
+	{
+		Arrays.fill(this.pics,   0);
+		Arrays.fill(this.ajouts, 0);
+	}
+}
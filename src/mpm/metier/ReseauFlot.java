@@ -0,0 +1,219 @@
+package mpm.metier;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code ReseauFlot} est un réseau de transport : des nœuds numérotés, des arcs de capacité
+ * donnée, et le calcul du flot maximal d'une source à un puits par l'algorithme de Dinic. Le flot
+ * maximal est aussi la capacité de la coupe minimale, lue ensuite avec {@link #estCoteSource(int)}.
+ *
+ * Les arcs sont rangés en listes chaînées dans des tableaux (chaque arc suivi de son arc retour),
+ * sans objet par arc ; le réseau se vide et se remplit de nouveau sans réallouer. Les chemins sont
+ * suivis sans récursion : un réseau peut avoir des chemins de centaines de milliers de nœuds.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ReseauFlot
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	/**Capacité d'un arc qu'aucune coupe ne doit traverser. */
+	public static final long INFINI = Long.MAX_VALUE / 4;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private int[]  premiers;   // premier arc de chaque nœud, -1 si aucun
+	private int[]  suivants;   // arc suivant du même nœud
+	private int[]  cibles;
+	private long[] residus;    // capacité restante ; l'arc retour est l'arc ^ 1
+	private int    nbNoeuds, nbArcs;
+
+	private int[]  niveaux, courants, file, chemin;
+
+	/**Constructeur de ReseauFlot, sans nœud.
+	 */
+	public ReseauFlot()
+	{
+		this.premiers = new int [16];
+		this.suivants = new int [32];
+		this.cibles   = new int [32];
+		this.residus  = new long[32];
+		this.niveaux  = new int [16];
+		this.courants = new int [16];
+		this.file     = new int [16];
+		this.chemin   = new int [16];
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Vide le réseau et prépare des nœuds sans arc.
+	 * @param nbNoeuds nombre de nœuds, numérotés à partir de 0.
+	 */
+	public void vider(int nbNoeuds)
+	{
+		if (nbNoeuds > this.premiers.length)
+		{
+			this.premiers = new int[nbNoeuds];
+			this.niveaux  = new int[nbNoeuds];
+			this.courants = new int[nbNoeuds];
+			this.file     = new int[nbNoeuds];
+			this.chemin   = new int[nbNoeuds];
+		}
+		Arrays.fill(this.premiers, 0, nbNoeuds, -1);
+		this.nbNoeuds = nbNoeuds;
+		this.nbArcs   = 0;
+	}
+
+	/**Ajoute un arc et son arc retour, de capacité nulle.
+	 * @param source   nœud de départ.
+	 * @param cible    nœud d'arrivée.
+	 * @param capacite capacité, au plus {@link #INFINI}.
+	 */
+	public void ajouterArc(int source, int cible, long capacite)
+	{
+		if (this.nbArcs + 2 > this.cibles.length)
+		{
+			this.suivants = Arrays.copyOf(this.suivants, 2 * this.nbArcs);
+			this.cibles   = Arrays.copyOf(this.cibles,   2 * this.nbArcs);
+			this.residus  = Arrays.copyOf(this.residus,  2 * this.nbArcs);
+		}
+
+		this.cibles  [this.nbArcs] = cible;
+		this.residus [this.nbArcs] = capacite;
+		this.suivants[this.nbArcs] = this.premiers[source];
+		this.premiers[source]      = this.nbArcs++;
+
+		this.cibles  [this.nbArcs] = source;
+		this.residus [this.nbArcs] = 0;
+		this.suivants[this.nbArcs] = this.premiers[cible];
+		this.premiers[cible]       = this.nbArcs++;
+	}
+
+	/*------------------------------------------*/
+	/*    Flot maximal                          */
+	/*------------------------------------------*/
+
+	/**Calcule le flot maximal de la source au puits, en s'arrêtant dès qu'il atteint une limite.
+	 * Les nœuds du côté de la source dans la coupe minimale se lisent ensuite avec {@link #estCoteSource(int)}.
+	 * @param source nœud de départ du flot.
+	 * @param puits  nœud d'arrivée du flot.
+	 * @param limite flot au-delà duquel la valeur exacte n'intéresse plus (par exemple {@link #INFINI}).
+	 * @return Le flot maximal, ou une valeur d'au moins la limite si elle est atteinte.
+	 */
+	public long flotMaximal(int source, int puits, long limite)
+	{
+		long flot = 0;
+
+		while (flot < limite && this.niveler(source, puits))
+		{
+			for (int v = 0; v < this.nbNoeuds; v++)
+				this.courants[v] = this.premiers[v];
+			flot += this.pousser(source, puits, limite - flot);
+		}
+		return flot;
+	}
+
+	/**Indique si un nœud est du côté de la source dans la coupe minimale : encore atteignable depuis
+	 * la source par des arcs non saturés. À appeler après {@link #flotMaximal}, s'il n'a pas atteint sa limite.
+	 * @param noeud le nœud.
+	 * @return true s'il est du côté de la source.
+	 */
+	public boolean estCoteSource(int noeud) { return this.niveaux[noeud] >= 0; }
+
+	/**Numérote les nœuds par distance à la source dans le réseau résiduel (parcours en largeur).
+	 * @return true si le puits est atteint.
+	 */
+	private boolean niveler(int source, int puits)
+	{
+		int debut, fin, v, w;
+
+		Arrays.fill(this.niveaux, 0, this.nbNoeuds, -1);
+		this.niveaux[source] = 0;
+		this.file[0]         = source;
+		debut                = 0;
+		fin                  = 1;
+		while (debut < fin)
+		{
+			v = this.file[debut++];
+			for (int a = this.premiers[v]; a != -1; a = this.suivants[a])
+			{
+				w = this.cibles[a];
+				if (this.residus[a] > 0 && this.niveaux[w] < 0)
+				{
+					this.niveaux[w]  = this.niveaux[v] + 1;
+					this.file[fin++] = w;
+				}
+			}
+		}
+		return this.niveaux[puits] >= 0;
+	}
+
+	/**Pousse du flot le long de chemins de niveaux croissants jusqu'à bloquer le réseau de niveaux.
+	 * Le chemin en cours est une pile d'arcs ; un nœud sans issue est retiré des niveaux.
+	 * @return Le flot poussé, au plus la limite.
+	 */
+	private long pousser(int source, int puits, long limite)
+	{
+		long flot, goulot;
+		int  profondeur, v, a, premierSature;
+
+		flot       = 0;
+		profondeur = 0;
+		v          = source;
+		while (flot < limite)
+		{
+			if (v == puits)
+			{
+				// Chemin trouvé : on pousse son goulot et on repart du premier arc saturé
+				goulot = limite - flot;
+				for (int i = 0; i < profondeur; i++)
+					goulot = Math.min(goulot, this.residus[this.chemin[i]]);
+
+				premierSature = -1;
+				for (int i = 0; i < profondeur; i++)
+				{
+					a = this.chemin[i];
+					this.residus[a]     -= goulot;
+					this.residus[a ^ 1] += goulot;
+					if (premierSature == -1 && this.residus[a] == 0) premierSature = i;
+				}
+				flot += goulot;
+
+				if (premierSature == -1) break;
+				profondeur = premierSature;
+				v          = profondeur == 0 ? source : this.cibles[this.chemin[profondeur - 1]];
+				continue;
+			}
+
+			// Premier arc utilisable du nœud : non saturé, vers le niveau suivant
+			for (a = this.courants[v]; a != -1; a = this.suivants[a])
+				if (this.residus[a] > 0 && this.niveaux[this.cibles[a]] == this.niveaux[v] + 1) break;
+			this.courants[v] = a;
+
+			if (a != -1)
+			{
+				this.chemin[profondeur++] = a;
+				v                         = this.cibles[a];
+			}
+			else if (v == source)
+			{
+				break;
+			}
+			else
+			{
+				// Impasse : le nœud n'est plus essayé et on recule d'un arc
+				this.niveaux[v] = -1;
+				profondeur--;
+				v = profondeur == 0 ? source : this.cibles[this.chemin[profondeur - 1]];
+				this.courants[v] = this.suivants[this.courants[v]];
+			}
+		}
+		return flot;
+	}
+}
@@ -0,0 +1,130 @@
+package mpm.metier;
+
+import java.util.List;
+
+/**
+ * La classe {@code ResultatAcceleration} regroupe un projet raccourci par accélération de tâches (voir
+ * {@link AccelerationProjet}) : pour chaque tâche, sa durée normale, sa durée accélérée et ce que
+ * coûtent les jours gagnés ; et la courbe du coût total en fonction de la durée du projet.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ResultatAcceleration
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache> taches;   // par numéro
+	private final long        epoque;   // du projet accéléré
+
+	private final int[]       dureesNormales, durees;
+	private final long[]      couts;    // par jour gagné
+	private final int         dureeCible;
+
+	private final int[]       dureesCourbe;
+	private final long[]      coutsCourbe;
+
+	/**Constructeur de ResultatAcceleration.
+	 * @param taches         tâches du projet, par numéro.
+	 * @param epoque         époque du projet accéléré (voir {@link Mpm#getEpoque()}).
+	 * @param dureesNormales durée normale de chaque tâche, par numéro.
+	 * @param durees         durée accélérée de chaque tâche, par numéro.
+	 * @param couts          coût de chaque jour gagné, par numéro.
+	 * @param dureeCible     durée du projet visée.
+	 * @param dureesCourbe   durées successives du projet, de la durée normale à la durée atteinte.
+	 * @param coutsCourbe    coût total de chacune de ces durées.
+	 */
+	public ResultatAcceleration(List<Tache> taches, long epoque, int[] dureesNormales, int[] durees, long[] couts,
+	                            int dureeCible, int[] dureesCourbe, long[] coutsCourbe)
+	{
+		this.taches         = taches;
+		this.epoque         = epoque;
+		this.dureesNormales = dureesNormales;
+		this.durees         = durees;
+		this.couts          = couts;
+		this.dureeCible     = dureeCible;
+		this.dureesCourbe   = dureesCourbe;
+		this.coutsCourbe    = coutsCourbe;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère les tâches du projet.
+	 * @return Liste de Tache par numéro (non modifiable).
+	 */
+	public List<Tache> getTaches        ()       { return this.taches;                                        }
+
+	/**Récupère l'époque du projet accéléré.
+	 * @return Entier long qui représente l'époque.
+	 */
+	public long        getEpoque        ()       { return this.epoque;                                        }
+
+	/**Récupère la durée du projet sans accélération.
+	 * @return Nombre de jours.
+	 */
+	public int         getDureeInitiale ()       { return this.dureesCourbe[0];                               }
+
+	/**Récupère la durée du projet accéléré.
+	 * @return Nombre de jours, au moins la durée visée.
+	 */
+	public int         getDureeAtteinte ()       { return this.dureesCourbe[this.dureesCourbe.length - 1];    }
+
+	/**Récupère la durée du projet visée.
+	 * @return Nombre de jours.
+	 */
+	public int         getDureeCible    ()       { return this.dureeCible;                                    }
+
+	/**Indique si la durée visée a été atteinte.
+	 * @return false si des chemins critiques n'avaient plus rien à accélérer avant.
+	 */
+	public boolean     estCibleAtteinte ()       { return this.getDureeAtteinte() <= this.dureeCible;         }
+
+	/**Récupère le coût total de l'accélération.
+	 * @return Somme des jours gagnés par leur coût.
+	 */
+	public long        getCoutTotal     ()       { return this.coutsCourbe[this.coutsCourbe.length - 1];      }
+
+	/**Récupère la durée normale d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Nombre de jours.
+	 */
+	public int         getDureeNormale  (int id) { return this.dureesNormales[id];                            }
+
+	/**Récupère la durée accélérée d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Nombre de jours, la durée normale si la tâche n'est pas accélérée.
+	 */
+	public int         getDuree         (int id) { return this.durees[id];                                    }
+
+	/**Récupère le nombre de jours gagnés sur une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Durée normale moins durée accélérée.
+	 */
+	public int         getGain          (int id) { return this.dureesNormales[id] - this.durees[id];          }
+
+	/**Récupère le coût de l'accélération d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Jours gagnés fois coût par jour.
+	 */
+	public long        getCout          (int id) { return this.getGain(id) * this.couts[id];                  }
+
+	/**Récupère le nombre de points de la courbe durée/coût.
+	 * @return Nombre de durées successives, la durée normale comprise.
+	 */
+	public int         getNbPoints      ()       { return this.dureesCourbe.length;                           }
+
+	/**Récupère la durée du projet en un point de la courbe.
+	 * @param i indice du point, 0 pour la durée normale.
+	 * @return Nombre de jours.
+	 */
+	public int         getDureePoint    (int i)  { return this.dureesCourbe[i];                               }
+
+	/**Récupère le coût total en un point de la courbe.
+	 * @param i indice du point, 0 pour la durée normale.
+	 * @return Coût pour atteindre la durée de ce point.
+	 */
+	public long        getCoutPoint     (int i)  { return this.coutsCourbe[i];                                }
+}
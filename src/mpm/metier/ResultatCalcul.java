@@ -0,0 +1,100 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * La classe {@code ResultatCalcul} regroupe tout ce qu'un calcul en arrière-plan a produit :
+ * les tâches lues et reliées, leurs niveaux, le modèle de la grille et, si les dates ont été
+ * calculées, les chemins critiques. Une fois construit, le résultat n'est plus modifié ;
+ * il est remis aux vues sur l'EDT par {@link Mpm#adopter(ResultatCalcul)}.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ResultatCalcul
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final String             fichier;
+	private final List<Tache>        lstTaches;
+	private final Tache              debut, fin;
+	private final Adjacence          adjacence;
+	private final int[]              niveaux;
+	private final GrilleDonneesModel grilleDonneesModel;
+	private final List<List<Tache>>  cheminsCritiques;
+
+	/**Constructeur de ResultatCalcul.
+	 * @param fichier            fichier lu.
+	 * @param lstTaches          tâches du projet (Début et Fin compris), numérotées.
+	 * @param debut              tâche Début.
+	 * @param fin                tâche Fin.
+	 * @param adjacence          liens entre les tâches.
+	 * @param niveaux            niveaux présents, triés.
+	 * @param grilleDonneesModel modèle de la grille lu depuis le fichier.
+	 * @param cheminsCritiques   chemins critiques, ou null si les dates n'ont pas été calculées.
+	 */
+	public ResultatCalcul(String fichier, List<Tache> lstTaches, Tache debut, Tache fin, Adjacence adjacence, int[] niveaux,
+	                      GrilleDonneesModel grilleDonneesModel, List<List<Tache>> cheminsCritiques)
+	{
+		this.fichier            = fichier;
+		this.lstTaches          = Collections.unmodifiableList(new ArrayList<>(lstTaches));
+		this.debut              = debut;
+		this.fin                = fin;
+		this.adjacence          = adjacence;
+		this.niveaux            = niveaux.clone();
+		this.grilleDonneesModel = grilleDonneesModel;
+		this.cheminsCritiques   = cheminsCritiques == null ? null : Collections.unmodifiableList(new ArrayList<>(cheminsCritiques));
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le fichier lu.
+	 * @return Le chemin du fichier.
+	 */
+	public String             getFichier           () { return this.fichier;            }
+
+	/**Récupère les tâches (liste non modifiable).
+	 * @return Liste de Tache.
+	 */
+	public List<Tache>        getTaches            () { return this.lstTaches;          }
+
+	/**Récupère la tâche Début.
+	 * @return La tâche Début.
+	 */
+	public Tache              getDebut             () { return this.debut;              }
+
+	/**Récupère la tâche Fin.
+	 * @return La tâche Fin.
+	 */
+	public Tache              getFin               () { return this.fin;                }
+
+	/**Récupère les liens entre les tâches.
+	 * @return L'adjacence des tâches.
+	 */
+	public Adjacence          getAdjacence         () { return this.adjacence;          }
+
+	/**Récupère les niveaux présents, triés.
+	 * @return Tableau d'entiers, qui ne doit pas être modifié.
+	 */
+	public int[]              getNiveaux           () { return this.niveaux;            }
+
+	/**Récupère le modèle de la grille.
+	 * @return La grille.
+	 */
+	public GrilleDonneesModel getGrilleDonneesModel() { return this.grilleDonneesModel; }
+
+	/**Récupère les chemins critiques.
+	 * @return Liste de chemins, ou null si les dates n'ont pas été calculées.
+	 */
+	public List<List<Tache>>  getCheminsCritiques  () { return this.cheminsCritiques;   }
+
+	/**Indique si les dates au plus tôt et au plus tard ont été calculées.
+	 * @return true si c'est le cas.
+	 */
+	public boolean            datesCalculees       () { return this.cheminsCritiques != null; }
+}
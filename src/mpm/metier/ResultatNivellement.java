@@ -0,0 +1,134 @@
+package mpm.metier;
+
+import java.util.List;
+
+/**
+ * La classe {@code ResultatNivellement} regroupe les dates d'un projet ordonnancé sous limite de
+ * ressources (voir {@link OrdonnancementRessources}) : pour chaque tâche, la date nivelée à côté
+ * des dates au plus tôt et au plus tard calculées sans limite, et pour chaque ressource sa capacité
+ * et son pic d'occupation.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ResultatNivellement
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache> taches;   // par numéro
+	private final long        epoque;   // du projet ordonnancé
+	private final String      methode;
+
+	private final int[]       datesNivelees, datesMin, datesMax;
+	private final int         dureeProjet, dureeSansRessources;
+
+	private final String[]    ressources;
+	private final int[]       capacites, pics;
+
+	/**Constructeur de ResultatNivellement.
+	 * @param taches              tâches du projet, par numéro.
+	 * @param epoque              époque du projet ordonnancé (voir {@link Mpm#getEpoque()}).
+	 * @param methode             comment les tâches ont été placées (règle, amélioration).
+	 * @param datesNivelees       date de début de chaque tâche, par numéro.
+	 * @param datesMin            date au plus tôt sans limite de ressources, par numéro.
+	 * @param datesMax            date au plus tard sans limite de ressources, par numéro.
+	 * @param dureeProjet         durée du projet nivelé.
+	 * @param dureeSansRessources durée du projet sans limite de ressources.
+	 * @param ressources          noms des ressources.
+	 * @param capacites           capacité de chaque ressource.
+	 * @param pics                plus forte occupation de chaque ressource.
+	 */
+	public ResultatNivellement(List<Tache> taches, long epoque, String methode,
+	                           int[] datesNivelees, int[] datesMin, int[] datesMax, int dureeProjet,
+	                           int dureeSansRessources, String[] ressources, int[] capacites, int[] pics)
+	{
+		this.taches              = taches;
+		this.epoque              = epoque;
+		this.methode             = methode;
+		this.datesNivelees       = datesNivelees;
+		this.datesMin            = datesMin;
+		this.datesMax            = datesMax;
+		this.dureeProjet         = dureeProjet;
+		this.dureeSansRessources = dureeSansRessources;
+		this.ressources          = ressources;
+		this.capacites           = capacites;
+		this.pics                = pics;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère les tâches du projet.
+	 * @return Liste de Tache par numéro (non modifiable).
+	 */
+	public List<Tache> getTaches             ()       { return this.taches;                                 }
+
+	/**Récupère l'époque du projet ordonnancé.
+	 * @return Entier long qui représente l'époque.
+	 */
+	public long        getEpoque             ()       { return this.epoque;                                 }
+
+	/**Récupère la façon dont les tâches ont été placées.
+	 * @return La règle de priorité, et l'amélioration s'il y en a eu une.
+	 */
+	public String      getMethode            ()       { return this.methode;                                }
+
+	/**Récupère la durée du projet nivelé : c'est aussi sa date de fin (voir {@link Mpm#formaterDate(int)}).
+	 * @return Nombre de jours.
+	 */
+	public int         getDureeProjet        ()       { return this.dureeProjet;                            }
+
+	/**Récupère la durée du projet sans limite de ressources.
+	 * @return Nombre de jours.
+	 */
+	public int         getDureeSansRessources()       { return this.dureeSansRessources;                    }
+
+	/**Récupère la date de début nivelée d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Nombre de jours depuis le début du projet.
+	 */
+	public int         getDateNivelee        (int id) { return this.datesNivelees[id];                      }
+
+	/**Récupère la date au plus tôt d'une tâche, sans limite de ressources.
+	 * @param id numéro de la tâche.
+	 * @return Nombre de jours depuis le début du projet.
+	 */
+	public int         getDateMin            (int id) { return this.datesMin[id];                           }
+
+	/**Récupère la date au plus tard d'une tâche, sans limite de ressources.
+	 * @param id numéro de la tâche.
+	 * @return Nombre de jours depuis le début du projet.
+	 */
+	public int         getDateMax            (int id) { return this.datesMax[id];                           }
+
+	/**Récupère le retard d'une tâche dû aux ressources.
+	 * @param id numéro de la tâche.
+	 * @return Date nivelée moins date au plus tôt.
+	 */
+	public int         getDecalage           (int id) { return this.datesNivelees[id] - this.datesMin[id]; }
+
+	/**Récupère le nombre de ressources.
+	 * @return Nombre de ressources.
+	 */
+	public int         getNbRessources       ()       { return this.ressources.length;                      }
+
+	/**Récupère le nom d'une ressource.
+	 * @param r indice de la ressource.
+	 * @return Le nom.
+	 */
+	public String      getRessource          (int r)  { return this.ressources[r];                          }
+
+	/**Récupère la capacité d'une ressource.
+	 * @param r indice de la ressource.
+	 * @return Nombre d'unités.
+	 */
+	public int         getCapacite           (int r)  { return this.capacites[r];                           }
+
+	/**Récupère la plus forte occupation d'une ressource.
+	 * @param r indice de la ressource.
+	 * @return Nombre d'unités, au plus la capacité.
+	 */
+	public int         getPic                (int r)  { return this.pics[r];                                }
+}
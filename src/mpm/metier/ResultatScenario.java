@@ -0,0 +1,137 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La classe {@code ResultatScenario} regroupe ce que l'évaluation d'un {@link Scenario} a produit :
+ * la durée du projet et son écart avec le projet de base, les tâches critiques, et les tâches dont
+ * la marge a changé avec l'écart de chacune. Seules les marges modifiées sont gardées, pour que
+ * des milliers de résultats tiennent en mémoire.
+ *
+ * Un scénario qui ne peut pas être daté (tâche inconnue, dépendance qui crée un cycle) donne
+ * un résultat invalide, qui ne porte que son message d'erreur.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ResultatScenario
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final String      nom;
+	private final String      erreur;       // null si le scénario a été daté
+	private final List<Tache> lstTaches;    // tâches du projet de base, par numéro
+	private final int         dureeProjet;
+	private final int         ecartDuree;
+	private final int[]       critiques;    // numéros, croissants
+	private final int[]       idsMarges;    // numéros des tâches dont la marge a changé, croissants
+	private final int[]       ecartsMarges; // écart de marge de chacune
+
+	/**Constructeur de ResultatScenario, pour un scénario daté.
+	 * @param nom          nom du scénario.
+	 * @param lstTaches    tâches du projet de base, par numéro.
+	 * @param dureeProjet  durée du projet dans le scénario.
+	 * @param ecartDuree   durée du scénario moins durée du projet de base.
+	 * @param critiques    numéros des tâches sans marge, croissants.
+	 * @param idsMarges    numéros des tâches dont la marge a changé, croissants.
+	 * @param ecartsMarges écart de marge de chacune de ces tâches.
+	 */
+	public ResultatScenario(String nom, List<Tache> lstTaches, int dureeProjet, int ecartDuree, int[] critiques,
+	                        int[] idsMarges, int[] ecartsMarges)
+	{
+		this.nom          = nom;
+		this.erreur       = null;
+		this.lstTaches    = lstTaches;
+		this.dureeProjet  = dureeProjet;
+		this.ecartDuree   = ecartDuree;
+		this.critiques    = critiques;
+		this.idsMarges    = idsMarges;
+		this.ecartsMarges = ecartsMarges;
+	}
+
+	/**Constructeur de ResultatScenario, pour un scénario qui n'a pas pu être daté.
+	 * @param nom    nom du scénario.
+	 * @param erreur la raison.
+	 */
+	public ResultatScenario(String nom, String erreur)
+	{
+		this.nom          = nom;
+		this.erreur       = erreur;
+		this.lstTaches    = List.of();
+		this.dureeProjet  = 0;
+		this.ecartDuree   = 0;
+		this.critiques    = new int[0];
+		this.idsMarges    = new int[0];
+		this.ecartsMarges = new int[0];
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nom du scénario.
+	 * @return Le nom.
+	 */
+	public String  getNom         () { return this.nom;            }
+
+	/**Indique si le scénario a pu être daté.
+	 * @return true si c'est le cas.
+	 */
+	public boolean estValide      () { return this.erreur == null; }
+
+	/**Récupère la raison pour laquelle le scénario n'a pas pu être daté.
+	 * @return Le message, ou null si le scénario est valide.
+	 */
+	public String  getErreur      () { return this.erreur;         }
+
+	/**Récupère la durée du projet dans le scénario : c'est aussi sa date de fin, en jours depuis le début
+	 * (voir {@link Mpm#formaterDate(int)}).
+	 * @return Nombre de jours.
+	 */
+	public int     getDureeProjet () { return this.dureeProjet;    }
+
+	/**Récupère l'écart de durée avec le projet de base.
+	 * @return Nombre de jours, positif si le scénario finit plus tard.
+	 */
+	public int     getEcartDuree  () { return this.ecartDuree;     }
+
+	/**Récupère les numéros des tâches critiques (sans marge), Début et Fin compris.
+	 * @return Tableau croissant, qui ne doit pas être modifié.
+	 */
+	public int[]   getCritiques   () { return this.critiques;      }
+
+	/**Récupère les numéros des tâches dont la marge a changé.
+	 * @return Tableau croissant, qui ne doit pas être modifié.
+	 */
+	public int[]   getIdsMarges   () { return this.idsMarges;      }
+
+	/**Récupère les écarts de marge, dans l'ordre de {@link #getIdsMarges()}.
+	 * @return Tableau, qui ne doit pas être modifié.
+	 */
+	public int[]   getEcartsMarges() { return this.ecartsMarges;   }
+
+	/**Récupère les tâches critiques.
+	 * @return Liste de Tache du projet de base.
+	 */
+	public List<Tache> getTachesCritiques()
+	{
+		List<Tache> taches = new ArrayList<>(this.critiques.length);
+
+		for (int id : this.critiques)
+			taches.add(this.lstTaches.get(id));
+		return taches;
+	}
+
+	/**Calcule l'écart de marge d'une tâche.
+	 * @param id numéro de la tâche.
+	 * @return Marge dans le scénario moins marge dans le projet de base.
+	 */
+	public int getEcartMarge(int id)
+	{
+		int i = Arrays.binarySearch(this.idsMarges, id);
+		return i >= 0 ? this.ecartsMarges[i] : 0;
+	}
+}
@@ -0,0 +1,125 @@
+package mpm.metier;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * La classe {@code ResultatSimulation} regroupe ce qu'une {@link SimulationPert} a produit :
+ * l'histogramme des durées du projet, jour par jour, et le nombre de tirages où chaque tâche
+ * était critique. Les centiles et les indices de criticité en sont tirés à la demande.
+ * Une fois construit, le résultat n'est plus modifié.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ResultatSimulation
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache> lstTaches;   // par numéro
+	private final int         nbTirages;
+	private final int         dureePrevue;
+	private final long[]      histogramme; // nombre de tirages par durée du projet (jours entamés)
+	private final long[]      nbCritique;  // par numéro de tâche
+	private final double      moyenne, ecartType;
+
+	/**Constructeur de ResultatSimulation.
+	 * @param lstTaches   tâches simulées, par numéro.
+	 * @param nbTirages   nombre de tirages.
+	 * @param dureePrevue durée du projet sans tirage.
+	 * @param histogramme nombre de tirages par durée du projet.
+	 * @param nbCritique  nombre de tirages où chaque tâche était critique.
+	 * @param moyenne     durée moyenne du projet.
+	 * @param ecartType   écart type de la durée du projet.
+	 */
+	public ResultatSimulation(List<Tache> lstTaches, int nbTirages, int dureePrevue, long[] histogramme, long[] nbCritique,
+	                          double moyenne, double ecartType)
+	{
+		this.lstTaches   = Collections.unmodifiableList(lstTaches);
+		this.nbTirages   = nbTirages;
+		this.dureePrevue = dureePrevue;
+		this.histogramme = histogramme.clone();
+		this.nbCritique  = nbCritique.clone();
+		this.moyenne     = moyenne;
+		this.ecartType   = ecartType;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère les tâches simulées (liste non modifiable).
+	 * @return Liste de Tache, par numéro.
+	 */
+	public List<Tache> getTaches     () { return this.lstTaches;   }
+
+	/**Récupère le nombre de tirages.
+	 * @return Nombre de projets simulés.
+	 */
+	public int         getNbTirages  () { return this.nbTirages;   }
+
+	/**Récupère la durée du projet sans tirage (durées de la grille).
+	 * @return Nombre de jours.
+	 */
+	public int         getDureePrevue() { return this.dureePrevue; }
+
+	/**Récupère la durée moyenne du projet.
+	 * @return Nombre de jours.
+	 */
+	public double      getMoyenne    () { return this.moyenne;     }
+
+	/**Récupère l'écart type de la durée du projet.
+	 * @return Nombre de jours.
+	 */
+	public double      getEcartType  () { return this.ecartType;   }
+
+	/**Récupère l'histogramme des durées du projet.
+	 * @return Une copie : à l'indice j, le nombre de tirages finis en j jours (jours entamés).
+	 */
+	public long[]      getHistogramme() { return this.histogramme.clone(); }
+
+	/*------------------------------------------*/
+	/*    Statistiques                          */
+	/*------------------------------------------*/
+
+	/**Calcule un centile de la durée du projet.
+	 * @param probabilite probabilité, de 0 à 1 (0,8 pour P80).
+	 * @return Le plus petit nombre de jours tenu par au moins cette part des tirages.
+	 */
+	public int centile(double probabilite)
+	{
+		long seuil, cumul;
+
+		seuil = (long) Math.ceil(probabilite * this.nbTirages);
+		cumul = 0;
+		for (int j = 0; j < this.histogramme.length; j++)
+		{
+			cumul += this.histogramme[j];
+			if (cumul >= seuil && cumul > 0) return j;
+		}
+		return this.histogramme.length - 1;
+	}
+
+	/**Calcule la probabilité de finir le projet en un nombre de jours donné.
+	 * @param jours nombre de jours.
+	 * @return La part des tirages finis en jours jours au plus, de 0 à 1.
+	 */
+	public double probabiliteAuPlus(int jours)
+	{
+		long cumul = 0;
+
+		for (int j = 0; j <= jours && j < this.histogramme.length; j++)
+			cumul += this.histogramme[j];
+		return this.nbTirages == 0 ? 0 : (double) cumul / this.nbTirages;
+	}
+
+	/**Calcule l'indice de criticité d'une tâche : la part des tirages où elle était sur un chemin critique.
+	 * @param id numéro de la tâche.
+	 * @return L'indice, de 0 à 1.
+	 */
+	public double getIndiceCritique(int id)
+	{
+		return this.nbTirages == 0 ? 0 : (double) this.nbCritique[id] / this.nbTirages;
+	}
+}
@@ -0,0 +1,100 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe {@code Scenario} décrit une variante d'un projet par ses différences avec lui :
+ * des durées remplacées et des dépendances ajoutées ou retirées, toutes données par noms de tâches.
+ * Le projet lui-même n'est jamais modifié ; c'est {@link EvaluateurScenarios} qui applique les
+ * différences au moment de dater la variante.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class Scenario
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final String               nom;
+	private final Map<String, Integer> durees;      // nom de tâche, nouvelle durée
+	private final List<String[]>       arcsAjoutes; // { prédécesseur, tâche }
+	private final List<String[]>       arcsRetires;
+
+	/**Constructeur de Scenario, sans aucune différence avec le projet.
+	 * @param nom nom du scénario, repris dans son résultat.
+	 */
+	public Scenario(String nom)
+	{
+		this.nom         = nom;
+		this.durees      = new LinkedHashMap<>();
+		this.arcsAjoutes = new ArrayList<>();
+		this.arcsRetires = new ArrayList<>();
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nom du scénario.
+	 * @return Le nom.
+	 */
+	public String               getNom        () { return this.nom;                                      }
+
+	/**Récupère les durées remplacées.
+	 * @return Association nom de tâche, durée (non modifiable).
+	 */
+	public Map<String, Integer> getDurees     () { return Collections.unmodifiableMap(this.durees);      }
+
+	/**Récupère les dépendances ajoutées.
+	 * @return Liste de couples { prédécesseur, tâche } (non modifiable).
+	 */
+	public List<String[]>       getArcsAjoutes() { return Collections.unmodifiableList(this.arcsAjoutes); }
+
+	/**Récupère les dépendances retirées.
+	 * @return Liste de couples { prédécesseur, tâche } (non modifiable).
+	 */
+	public List<String[]>       getArcsRetires() { return Collections.unmodifiableList(this.arcsRetires); }
+
+	/**Indique si le scénario change les dépendances, et pas seulement des durées.
+	 * @return true si des dépendances sont ajoutées ou retirées.
+	 */
+	public boolean modifieDependances() { return !this.arcsAjoutes.isEmpty() || !this.arcsRetires.isEmpty(); }
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Remplace la durée d'une tâche.
+	 * @param tache nom de la tâche.
+	 * @param duree nouvelle durée, en jours.
+	 * @throws IllegalArgumentException si la durée est négative.
+	 */
+	public void modifierDuree(String tache, int duree)
+	{
+		if (duree < 0) throw new IllegalArgumentException("La durée d'une tâche ne peut pas être négative.");
+		this.durees.put(tache, duree);
+	}
+
+	/**Ajoute une dépendance : la tâche ne commence qu'une fois le prédécesseur fini.
+	 * @param predecesseur nom du prédécesseur.
+	 * @param tache        nom de la tâche.
+	 */
+	public void ajouterDependance(String predecesseur, String tache)
+	{
+		this.arcsAjoutes.add(new String[] { predecesseur, tache });
+	}
+
+	/**Retire une dépendance du projet.
+	 * @param predecesseur nom du prédécesseur.
+	 * @param tache        nom de la tâche.
+	 */
+	public void retirerDependance(String predecesseur, String tache)
+	{
+		this.arcsRetires.add(new String[] { predecesseur, tache });
+	}
+}
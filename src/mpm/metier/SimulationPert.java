@@ -0,0 +1,398 @@
+package mpm.metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * La classe {@code SimulationPert} estime la durée d'un projet dont les durées sont incertaines,
+ * par tirages de Monte-Carlo : chaque tirage donne une durée à chaque tâche, refait la passe au plus tôt
+ * et relève la durée du projet et les tâches critiques.
+ *
+ * Une tâche peut porter une estimation à trois points « o/m/p » (optimiste, probable, pessimiste),
+ * dans la sixième colonne du fichier. Sa durée suit alors la loi bêta-PERT de paramètres
+ * α = 1 + 4(m - o)/(p - o) et β = 1 + 4(p - m)/(p - o) sur [o ; p]. Sans estimation, sa durée est fixe.
+ *
+ * Le graphe est compilé une fois (ordre par niveau, prédécesseurs en tableaux, paramètres des lois),
+ * puis les tirages sont répartis en blocs sur tous les cœurs. Chaque bloc a son générateur
+ * {@link SplittableRandom}, tiré d'avance de la graine dans l'ordre des blocs : le résultat ne dépend
+ * que de la graine et du nombre de tirages, pas du nombre de fils. Chaque fil garde ses tableaux de
+ * dates et ses compteurs, et les durées vont directement dans un histogramme par jour.
+ *
+ * Dans un bloc, les tirages sont passés NB_VOIES à la fois : chaque tâche porte ses durées pour tous
+ * ces tirages côte à côte, et une seule {@link PasseAuPlusTot} les date tous (vectorielle si possible).
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class SimulationPert
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public  static final long   GRAINE_DEFAUT = 20250601L;
+
+	private static final int    TAILLE_BLOC   = 1024;
+	private static final int    NB_VOIES      = 32;   // tirages passés ensemble dans la passe au plus tôt
+	private static final double EPSILON       = 1e-9;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final List<Tache> taches;   // par numéro
+	private final int         idFin;
+
+	private final int[]       ordre;    // numéros par niveau : chaque tâche après ses prédécesseurs
+	private final int[]       debutPrc; // taille nbTaches + 1
+	private final int[]       prc;
+
+	// Loi de chaque tâche : o + (p - o) * B, B de loi bêta(α, β) tirée par deux lois gamma
+	private final double[]    min, ecart;
+	private final double[]    dAlpha, cAlpha, dBeta, cBeta;
+
+	private final int         dureePrevue; // avec les durées du projet
+	private final int         horizon;     // durée du projet si tout est pessimiste
+
+	private final PasseAuPlusTot passe;
+
+	/**Constructeur de SimulationPert : compile le graphe du projet et les estimations de sa grille.
+	 * Le projet peut ensuite changer : la simulation garde ce qu'elle a relevé.
+	 * @param projet le projet, chargé.
+	 * @throws NumberFormatException si une estimation est mal écrite.
+	 */
+	public SimulationPert(Mpm projet)
+	{
+		this(projet, PasseAuPlusTot.choisir());
+	}
+
+	/**Constructeur de SimulationPert avec une passe au plus tôt donnée (pour comparer les passes).
+	 * @param projet le projet, chargé.
+	 * @param passe  la passe au plus tôt par voies.
+	 * @throws NumberFormatException si une estimation est mal écrite.
+	 */
+	public SimulationPert(Mpm projet, PasseAuPlusTot passe)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		GrilleDonneesModel grille;
+		Adjacence          adjacence;
+		Tache              tache;
+		int[]              estimation;
+		int                n, ligne;
+		double             alpha, beta;
+
+		this.passe  = passe;
+		adjacence   = projet.getAdjacence();
+		grille      = projet.getGrilleDonneesModel();
+		this.taches = new ArrayList<>(projet.getTaches());
+		this.idFin  = projet.getFin() != null ? projet.getFin().getId() : -1;
+		this.ordre  = projet.getOrdreParNiveau();
+
+		n             = this.taches.size();
+		this.debutPrc = adjacence.copierDebutsPredecesseurs();
+		this.prc      = adjacence.copierPredecesseurs();
+
+		this.min    = new double[n];
+		this.ecart  = new double[n];
+		this.dAlpha = new double[n];
+		this.cAlpha = new double[n];
+		this.dBeta  = new double[n];
+		this.cBeta  = new double[n];
+		for (int id = 0; id < n; id++)
+		{
+			tache      = this.taches.get(id);
+			ligne      = grille.getLigne(tache.getNom());
+			estimation = ligne == -1 || grille.getColumnCount() <= 5 ? null
+			           : SimulationPert.lireEstimation(tache.getNom(), grille.getValueAt(ligne, 5));
+
+			if (estimation == null || estimation[0] == estimation[2])
+			{
+				this.min[id] = estimation == null ? tache.getDuree() : estimation[0];
+				continue;
+			}
+
+			alpha = 1 + 4.0 * (estimation[1] - estimation[0]) / (estimation[2] - estimation[0]);
+			beta  = 1 + 4.0 * (estimation[2] - estimation[1]) / (estimation[2] - estimation[0]);
+
+			this.min   [id] = estimation[0];
+			this.ecart [id] = estimation[2] - estimation[0];
+			this.dAlpha[id] = alpha - 1.0 / 3;
+			this.cAlpha[id] = 1 / Math.sqrt(9 * this.dAlpha[id]);
+			this.dBeta [id] = beta  - 1.0 / 3;
+			this.cBeta [id] = 1 / Math.sqrt(9 * this.dBeta[id]);
+		}
+
+		this.dureePrevue = (int) Math.round(this.plusLongChemin(false));
+		this.horizon     = (int) Math.ceil (this.plusLongChemin(true) - EPSILON);
+	}
+
+	/**Lit une estimation à trois points.
+	 * @param nom   nom de la tâche (pour le message d'erreur).
+	 * @param texte l'estimation « o/m/p », ou rien.
+	 * @return Les trois durées, ou null si l'estimation n'est pas renseignée.
+	 * @throws NumberFormatException si l'estimation est mal écrite ou si o ≤ m ≤ p n'est pas respecté.
+	 */
+	public static int[] lireEstimation(String nom, Object texte)
+	{
+		String[] parties;
+		int[]    estimation;
+
+		if (texte == null || texte.toString().isBlank()) return null;
+
+		parties = texte.toString().split("/");
+		if (parties.length != 3)
+			throw new NumberFormatException("Estimation de " + nom + " : trois durées « o/m/p » attendues.");
+
+		estimation = new int[3];
+		for (int i = 0; i < 3; i++)
+			estimation[i] = Integer.parseInt(parties[i].trim());
+
+		if (estimation[0] < 0 || estimation[0] > estimation[1] || estimation[1] > estimation[2])
+			throw new NumberFormatException("Estimation de " + nom + " : il faut 0 ≤ o ≤ m ≤ p.");
+
+		return estimation;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère la durée du projet avec les durées de la grille (sans tirage).
+	 * @return Nombre de jours.
+	 */
+	public int getDureePrevue() { return this.dureePrevue; }
+
+	/**Récupère la plus longue durée possible du projet (toutes les tâches pessimistes).
+	 * @return Nombre de jours.
+	 */
+	public int getHorizon    () { return this.horizon;     }
+
+	/**Récupère la passe au plus tôt utilisée par les tirages.
+	 * @return La passe, vectorielle ou scalaire.
+	 */
+	public PasseAuPlusTot getPasse() { return this.passe; }
+
+	/*------------------------------------------*/
+	/*    Simulation                            */
+	/*------------------------------------------*/
+
+	/**Fait les tirages, en parallèle.
+	 * @param nbTirages  nombre de projets simulés.
+	 * @param graine     graine des générateurs : même graine, même résultat.
+	 * @param avancement suivi et annulation (peut être appelé depuis n'importe quel fil).
+	 * @return Le résultat, ou null si la simulation a été annulée.
+	 */
+	public ResultatSimulation simuler(int nbTirages, long graine, Mpm.Avancement avancement)
+	{
+
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		SplittableRandom   racine;
+		SplittableRandom[] generateurs;
+		double[]           sommes, sommesCarres;
+		AtomicInteger      nbBlocsFaits;
+		Tampon             total;
+		double             somme, sommeCarres, moyenne;
+		int                nbBlocs;
+
+		nbBlocs      = (nbTirages + TAILLE_BLOC - 1) / TAILLE_BLOC;
+		racine       = new SplittableRandom(graine);
+		generateurs  = new SplittableRandom[nbBlocs];
+		for (int b = 0; b < nbBlocs; b++)
+			generateurs[b] = racine.split();
+
+		sommes       = new double[nbBlocs];
+		sommesCarres = new double[nbBlocs];
+		nbBlocsFaits = new AtomicInteger();
+
+		// Histogramme et compteurs sont des sommes d'entiers : l'ordre de fusion ne change rien
+		total = IntStream.range(0, nbBlocs).parallel().collect(() -> new Tampon(), (tampon, b) ->
+		{
+			if (avancement.estAnnule()) return;
+
+			tampon.simulerBloc(generateurs[b], Math.min(TAILLE_BLOC, nbTirages - b * TAILLE_BLOC), sommes, sommesCarres, b);
+			avancement.etape("Simulation", 100 * nbBlocsFaits.incrementAndGet() / nbBlocs);
+		}, Tampon::fusionner);
+
+		if (avancement.estAnnule()) return null;
+
+		// Les sommes réelles sont reprises dans l'ordre des blocs, pour ne pas dépendre des fils
+		somme       = 0;
+		sommeCarres = 0;
+		for (int b = 0; b < nbBlocs; b++)
+		{
+			somme       += sommes      [b];
+			sommeCarres += sommesCarres[b];
+		}
+		moyenne = somme / nbTirages;
+
+		return new ResultatSimulation(this.taches, nbTirages, this.dureePrevue, total.histogramme, total.nbCritique,
+		                              moyenne, Math.sqrt(Math.max(0, sommeCarres / nbTirages - moyenne * moyenne)));
+	}
+
+	/**Durée du projet en donnant à chaque tâche sa durée la plus longue, ou celle de la grille.
+	 */
+	private double plusLongChemin(boolean pessimiste)
+	{
+		double[] fin;
+		double   debut;
+		int      t;
+
+		fin = new double[this.taches.size()];
+		for (int i = 0; i < this.ordre.length; i++)
+		{
+			t     = this.ordre[i];
+			debut = 0;
+			for (int k = this.debutPrc[t]; k < this.debutPrc[t + 1]; k++)
+				debut = Math.max(debut, fin[this.prc[k]]);
+
+			fin[t] = debut + (pessimiste ? this.min[t] + this.ecart[t] : this.taches.get(t).getDuree());
+		}
+		return this.idFin == -1 ? 0 : fin[this.idFin];
+	}
+
+	/**Tire une valeur de loi gamma de paramètre de forme a ≥ 1 (méthode de Marsaglia et Tsang).
+	 * @param d a - 1/3.
+	 * @param c 1 / racine(9d).
+	 */
+	private static double gamma(SplittableRandom alea, double d, double c)
+	{
+		double x, v, u;
+
+		while (true)
+		{
+			x = alea.nextGaussian();
+			v = 1 + c * x;
+			if (v <= 0) continue;
+
+			v = v * v * v;
+			u = alea.nextDouble();
+			if (u < 1 - 0.0331 * x * x * x * x)                          return d * v;
+			if (Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) return d * v;
+		}
+	}
+
+	/**Tableaux de travail d'un fil : dates d'un groupe de tirages rangées par voies (voir {@link PasseAuPlusTot}),
+	 * tâches critiques, et cumuls de ses blocs.
+	 */
+	private final class Tampon
+	{
+		private final double[]  debut, fin; // taille nbTaches * NB_VOIES
+		private final boolean[] critique;
+		private final long[]    nbCritique;
+		private final long[]    histogramme;
+
+		private Tampon()
+		{
+			int n = taches.size();
+
+			this.debut       = new double [n * NB_VOIES];
+			this.fin         = new double [n * NB_VOIES];
+			this.critique    = new boolean[n * NB_VOIES];
+			this.nbCritique  = new long   [n];
+			this.histogramme = new long   [horizon + 1];
+		}
+
+		/**Simule un bloc de tirages, NB_VOIES à la fois, et range ses sommes réelles à la place du bloc.
+		 */
+		private void simulerBloc(SplittableRandom alea, int nb, double[] sommes, double[] sommesCarres, int bloc)
+		{
+			double duree, somme, sommeCarres;
+			int    nbVoies;
+
+			somme       = 0;
+			sommeCarres = 0;
+			for (int r = 0; r < nb; r += NB_VOIES)
+			{
+				nbVoies = Math.min(NB_VOIES, nb - r);
+				if (idFin != -1)
+				{
+					this.tirer(alea, nbVoies);
+					passe.calculer(ordre, debutPrc, prc, this.debut, this.fin, NB_VOIES);
+					this.compterCritiques(nbVoies);
+				}
+
+				for (int j = 0; j < nbVoies; j++)
+				{
+					duree        = idFin == -1 ? 0 : this.fin[idFin * NB_VOIES + j];
+					somme       += duree;
+					sommeCarres += duree * duree;
+					this.histogramme[(int) Math.ceil(duree - EPSILON)]++;
+				}
+			}
+			sommes      [bloc] = somme;
+			sommesCarres[bloc] = sommeCarres;
+		}
+
+		/**Tire la durée de chaque tâche sur les voies utilisées (les autres gardent des valeurs déjà vues).
+		 */
+		private void tirer(SplittableRandom alea, int nbVoies)
+		{
+			double b;
+			int    base;
+
+			for (int t = 0; t < min.length; t++)
+			{
+				base = t * NB_VOIES;
+				if (ecart[t] == 0)
+				{
+					Arrays.fill(this.fin, base, base + NB_VOIES, min[t]);
+					continue;
+				}
+
+				for (int j = 0; j < nbVoies; j++)
+				{
+					b                 = SimulationPert.gamma(alea, dAlpha[t], cAlpha[t]);
+					this.fin[base + j] = min[t] + ecart[t] * b / (b + SimulationPert.gamma(alea, dBeta[t], cBeta[t]));
+				}
+			}
+		}
+
+		/**Remonte depuis Fin, voie par voie, par les prédécesseurs qui fixent la date de début (ceux sans marge),
+		 * et compte les tâches ainsi trouvées critiques.
+		 */
+		private void compterCritiques(int nbVoies)
+		{
+			int t, base, source, nb;
+
+			Arrays.fill(this.critique, false);
+			Arrays.fill(this.critique, idFin * NB_VOIES, idFin * NB_VOIES + nbVoies, true);
+			for (int i = ordre.length - 1; i >= 0; i--)
+			{
+				t    = ordre[i];
+				base = t * NB_VOIES;
+
+				nb = 0;
+				for (int j = 0; j < nbVoies; j++)
+					if (this.critique[base + j]) nb++;
+				if (nb == 0) continue;
+
+				this.nbCritique[t] += nb;
+				for (int k = debutPrc[t]; k < debutPrc[t + 1]; k++)
+				{
+					source = prc[k] * NB_VOIES;
+					for (int j = 0; j < nbVoies; j++)
+						if (this.critique[base + j] && this.fin[source + j] >= this.debut[base + j] - EPSILON)
+							this.critique[source + j] = true;
+				}
+			}
+		}
+
+		private void fusionner(Tampon autre)
+		{
+			for (int i = 0; i < this.nbCritique.length; i++)
+				this.nbCritique[i] += autre.nbCritique[i];
+			for (int j = 0; j < this.histogramme.length; j++)
+				this.histogramme[j] += autre.histogramme[j];
+		}
+	}
+}
@@ -0,0 +1,581 @@
+package mpm.metier;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe {@code StockageHorsTas} range un projet hors du tas Java, colonne par colonne : durée, date au
+ * plus tôt et prédécesseur qui la fixe, date au plus tard, marge, niveau et position (x, y) de chaque
+ * tâche, ainsi que les liens au format « lignes compressées » de {@link Adjacence}. Chaque colonne est un tampon d'entiers direct, ou
+ * une zone d'un fichier projeté en mémoire : le ramasse-miettes ne parcourt ni ne déplace ces données,
+ * et un projet de plusieurs millions de tâches ne pèse presque rien sur le tas.
+ *
+ * Les calculs se font directement sur les colonnes, par numéros de tâches :
+ *   Niveaux et ordre topologique (une seule passe, par degrés entrants)
+ *   Dates au plus tôt et prédécesseurs déterminants (passe avant), dates au plus tard (passe arrière), marges
+ *   Marquage des arcs critiques (un bit par arc)
+ *
+ * Les numéros sont ceux du projet : 0 pour Début, puis les tâches dans l'ordre du fichier, puis Fin.
+ * Les résultats sont les mêmes que ceux de {@link Mpm} ; {@link #reporter(List)} les recopie dans les tâches.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class StockageHorsTas
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final int nbTaches;
+	private final int nbArcs;
+
+	// Colonnes par tâche
+	private final IntBuffer duree;
+	private final IntBuffer dateMin;
+	private final IntBuffer determinant;   // prédécesseur qui fixe la date au plus tôt, -1 si aucun
+	private final IntBuffer nbDeterminants;
+	private final IntBuffer dateMax;
+	private final IntBuffer marge;
+	private final IntBuffer niveau;
+	private final IntBuffer x;
+	private final IntBuffer y;
+	private final IntBuffer ordre;     // ordre topologique
+	private final IntBuffer degre;     // degrés entrants restants, puis curseurs de rangement
+
+	// Liens (voir Adjacence)
+	private final IntBuffer debutPrc;  // taille nbTaches + 1
+	private final IntBuffer prc;
+	private final IntBuffer debutSvt;  // taille nbTaches + 1
+	private final IntBuffer svt;
+
+	private final LongBuffer critique; // un bit par arc, dans l'ordre des successeurs
+
+	private FileChannel canal;         // fichier projeté pendant l'allocation, ou null
+	private long        position;      // prochain octet libre du fichier
+	private long        tailleOctets;
+
+	/**Constructeur de StockageHorsTas : alloue toutes les colonnes, à zéro.
+	 * @param nbTaches     nombre de tâches, Début et Fin compris.
+	 * @param nbArcs       nombre d'arcs.
+	 * @param fichierMappe fichier dans lequel projeter les colonnes, ou null pour des tampons directs.
+	 * @throws IOException si le fichier ne peut pas être projeté.
+	 */
+	public StockageHorsTas(int nbTaches, int nbArcs, File fichierMappe) throws IOException
+	{
+		this.nbTaches = nbTaches;
+		this.nbArcs   = nbArcs;
+
+		try (RandomAccessFile fichier = fichierMappe == null ? null : new RandomAccessFile(fichierMappe, "rw"))
+		{
+			this.canal = fichier == null ? null : fichier.getChannel();
+
+			this.duree          = this.allouer(nbTaches).asIntBuffer();
+			this.dateMin        = this.allouer(nbTaches).asIntBuffer();
+			this.determinant    = this.allouer(nbTaches).asIntBuffer();
+			this.nbDeterminants = this.allouer(nbTaches).asIntBuffer();
+			this.dateMax        = this.allouer(nbTaches).asIntBuffer();
+			this.marge          = this.allouer(nbTaches).asIntBuffer();
+			this.niveau         = this.allouer(nbTaches).asIntBuffer();
+			this.x              = this.allouer(nbTaches).asIntBuffer();
+			this.y              = this.allouer(nbTaches).asIntBuffer();
+			this.ordre          = this.allouer(nbTaches).asIntBuffer();
+			this.degre          = this.allouer(nbTaches).asIntBuffer();
+
+			this.debutPrc       = this.allouer(nbTaches + 1).asIntBuffer();
+			this.prc            = this.allouer(nbArcs).asIntBuffer();
+			this.debutSvt       = this.allouer(nbTaches + 1).asIntBuffer();
+			this.svt            = this.allouer(nbArcs).asIntBuffer();
+
+			this.critique       = this.allouer((nbArcs + 63) / 64 * 2).asLongBuffer();
+		}
+		finally
+		{
+			this.canal = null;
+		}
+	}
+
+	/**Alloue une colonne de nbEntiers entiers, directe ou projetée dans le fichier.
+	 * Une projection reste valide après la fermeture du fichier.
+	 */
+	private ByteBuffer allouer(int nbEntiers) throws IOException
+	{
+		ByteBuffer tampon;
+		long       octets;
+
+		octets = 4L * nbEntiers;
+		if (this.canal == null)
+		{
+			tampon = ByteBuffer.allocateDirect((int) octets);
+		}
+		else
+		{
+			tampon = this.canal.map(FileChannel.MapMode.READ_WRITE, this.position, octets);
+			this.position += octets;
+		}
+		this.tailleOctets += octets;
+		return tampon.order(ByteOrder.nativeOrder());
+	}
+
+	/*------------------------------------------*/
+	/*    Construction                          */
+	/*------------------------------------------*/
+
+	/**Recopie un projet déjà chargé : durées, positions de la grille et liens.
+	 * @param projet       le projet (ses tâches sont numérotées).
+	 * @param fichierMappe fichier dans lequel projeter les colonnes, ou null.
+	 * @return Le stockage, dont les dates restent à calculer.
+	 * @throws IOException si le fichier ne peut pas être projeté.
+	 */
+	public static StockageHorsTas depuisProjet(Mpm projet, File fichierMappe) throws IOException
+	{
+		StockageHorsTas    stockage;
+		Adjacence          adj;
+		GrilleDonneesModel grille;
+		int                lig;
+
+		adj      = projet.getAdjacence();
+		grille   = projet.getGrilleDonneesModel();
+		stockage = new StockageHorsTas(adj.getNbTaches(), adj.getNbArcs(), fichierMappe);
+
+		for (int id = 0; id < adj.getNbTaches(); id++)
+		{
+			stockage.duree.put(id, adj.getTache(id).getDuree());
+
+			lig = grille.getLigne(adj.getTache(id).getNom());
+			if (lig != -1)
+			{
+				stockage.x.put(id, StockageHorsTas.entier(grille.getValueAt(lig, 3)));
+				stockage.y.put(id, StockageHorsTas.entier(grille.getValueAt(lig, 4)));
+			}
+		}
+
+		for (int id = 0; id <= adj.getNbTaches(); id++)
+		{
+			stockage.debutPrc.put(id, id < adj.getNbTaches() ? adj.debutPredecesseurs(id) : adj.getNbArcs());
+			stockage.debutSvt.put(id, id < adj.getNbTaches() ? adj.debutSuccesseurs  (id) : adj.getNbArcs());
+		}
+		for (int k = 0; k < adj.getNbArcs(); k++)
+		{
+			stockage.prc.put(k, adj.predecesseur(k));
+			stockage.svt.put(k, adj.successeur  (k));
+		}
+		return stockage;
+	}
+
+	/**Lit un fichier de projet ({@code nom|duree|preds|x|y}) sans créer de tâche.
+	 * Seuls les noms et les arcs passent un moment par le tas, le temps de la lecture.
+	 * Début et Fin sont ajoutés et reliés comme dans {@link Mpm#chargerTaches(String)}.
+	 * @param fichier      le fichier de projet.
+	 * @param fichierMappe fichier dans lequel projeter les colonnes, ou null.
+	 * @return Le stockage, dont les dates restent à calculer.
+	 * @throws IOException si un des fichiers ne peut pas être lu ou projeté.
+	 */
+	public static StockageHorsTas charger(String fichier, File fichierMappe) throws IOException
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		StockageHorsTas      stockage;
+		Map<String, Integer> numeros;
+		int[]                sources, cibles, nbPrc, nbSvt;
+		int[]                durees, xs, ys;
+		String[]             parties;
+		String               ligne;
+		Integer              pred;
+		int                  nb, nbArcs, id, fin;
+
+		// Première lecture : les numéros (Début vaut 0)
+		numeros = new HashMap<>();
+		nb      = 1;
+		try (BufferedReader reader = new BufferedReader(new FileReader(fichier)))
+		{
+			while ((ligne = reader.readLine()) != null)
+			{
+				if (ligne.isBlank()) continue;
+				parties = ligne.split("\\|");
+				if (parties.length < 2) continue;
+				numeros.put(parties[0].trim(), nb++);
+			}
+		}
+		fin = nb++;
+
+		// Seconde lecture : durées, positions et arcs
+		durees  = new int[nb];
+		xs      = new int[nb];
+		ys      = new int[nb];
+		nbPrc   = new int[nb];
+		nbSvt   = new int[nb];
+		sources = new int[Math.max(16, nb)];
+		cibles  = new int[sources.length];
+		nbArcs  = 0;
+		id      = 1;
+		try (BufferedReader reader = new BufferedReader(new FileReader(fichier)))
+		{
+			while ((ligne = reader.readLine()) != null)
+			{
+				if (ligne.isBlank()) continue;
+				parties = ligne.split("\\|");
+				if (parties.length < 2) continue;
+
+				durees[id] = Integer.parseInt(parties[1].trim());
+				if (parties.length > 4)
+				{
+					xs[id] = StockageHorsTas.entier(parties[3]);
+					ys[id] = StockageHorsTas.entier(parties[4]);
+				}
+
+				if (parties.length > 2 && !parties[2].isBlank())
+				{
+					for (String depNom : parties[2].split(","))
+					{
+						pred = numeros.get(depNom.trim());
+						if (pred == null) continue;
+
+						if (nbArcs == sources.length)
+						{
+							sources = Arrays.copyOf(sources, nbArcs * 2);
+							cibles  = Arrays.copyOf(cibles,  nbArcs * 2);
+						}
+						sources[nbArcs] = pred;
+						cibles [nbArcs] = id;
+						nbArcs++;
+						nbPrc[id]++;
+						nbSvt[pred]++;
+					}
+				}
+				id++;
+			}
+		}
+		numeros = null;
+
+		// Fin après les tâches sans successeur, Début avant les tâches sans prédécesseur
+		sources = Arrays.copyOf(sources, nbArcs + 2 * (nb - 2));
+		cibles  = Arrays.copyOf(cibles,  sources.length);
+		for (int t = 1; t < fin; t++)
+		{
+			if (nbSvt[t] == 0) { sources[nbArcs] = t; cibles[nbArcs] = fin; nbArcs++; }
+		}
+		for (int t = 1; t < fin; t++)
+		{
+			if (nbPrc[t] == 0) { sources[nbArcs] = 0; cibles[nbArcs] = t;   nbArcs++; }
+		}
+
+		stockage = new StockageHorsTas(nb, nbArcs, fichierMappe);
+		for (int t = 0; t < nb; t++)
+		{
+			stockage.duree.put(t, durees[t]);
+			stockage.x    .put(t, xs    [t]);
+			stockage.y    .put(t, ys    [t]);
+		}
+		stockage.ranger(cibles,  sources, stockage.debutPrc, stockage.prc);
+		stockage.ranger(sources, cibles,  stockage.debutSvt, stockage.svt);
+		return stockage;
+	}
+
+	/**Range les arcs par tâche (tri par dénombrement, stable), comme {@link Adjacence}.
+	 * La colonne des degrés sert de curseurs.
+	 */
+	private void ranger(int[] cles, int[] valeurs, IntBuffer debut, IntBuffer rangees)
+	{
+		int p;
+
+		for (int a = 0; a < this.nbArcs; a++)
+			debut.put(cles[a] + 1, debut.get(cles[a] + 1) + 1);
+		for (int i = 1; i <= this.nbTaches; i++)
+			debut.put(i, debut.get(i) + debut.get(i - 1));
+
+		for (int i = 0; i < this.nbTaches; i++)
+			this.degre.put(i, debut.get(i));
+		for (int a = 0; a < this.nbArcs; a++)
+		{
+			p = this.degre.get(cles[a]);
+			rangees.put(p, valeurs[a]);
+			this.degre.put(cles[a], p + 1);
+		}
+	}
+
+	/**Lit un entier d'une cellule ou d'un champ, 0 s'il n'en est pas un.
+	 */
+	private static int entier(Object valeur)
+	{
+		try
+		{
+			return Integer.parseInt(String.valueOf(valeur).trim());
+		}
+		catch (NumberFormatException e)
+		{
+			return 0;
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Calculs                               */
+	/*------------------------------------------*/
+
+	/**Fait tous les calculs : niveaux, dates, marges et arcs critiques.
+	 * @throws IllegalStateException si les liens forment un cycle.
+	 */
+	public void calculer()
+	{
+		this.calculerNiveaux();
+		this.calculerDatesAuPlusTot();
+		this.calculerDatesAuPlusTard();
+		this.calculerMarges();
+		this.marquerArcsCritiques();
+	}
+
+	/**Calcule le niveau de chaque tâche (1 + le plus grand niveau de ses prédécesseurs) et l'ordre
+	 * topologique, en retirant une à une les tâches dont tous les prédécesseurs sont déjà rangés.
+	 * La colonne de l'ordre sert elle-même de file.
+	 * @throws IllegalStateException si les liens forment un cycle.
+	 */
+	public void calculerNiveaux()
+	{
+		int lu, ecrit, t, s, niv;
+
+		ecrit = 0;
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			this.degre .put(i, this.debutPrc.get(i + 1) - this.debutPrc.get(i));
+			this.niveau.put(i, 1);
+			if (this.degre.get(i) == 0)
+				this.ordre.put(ecrit++, i);
+		}
+
+		for (lu = 0; lu < ecrit; lu++)
+		{
+			t   = this.ordre .get(lu);
+			niv = this.niveau.get(t) + 1;
+			for (int k = this.debutSvt.get(t); k < this.debutSvt.get(t + 1); k++)
+			{
+				s = this.svt.get(k);
+				if (this.niveau.get(s) < niv)
+					this.niveau.put(s, niv);
+
+				this.degre.put(s, this.degre.get(s) - 1);
+				if (this.degre.get(s) == 0)
+					this.ordre.put(ecrit++, s);
+			}
+		}
+
+		if (ecrit < this.nbTaches)
+			throw new IllegalStateException("Les liens du projet forment un cycle (" + (this.nbTaches - ecrit) + " tâches)");
+	}
+
+	/**Passe avant : la date au plus tôt d'une tâche est la plus grande fin au plus tôt de ses prédécesseurs.
+	 * Le prédécesseur qui l'atteint est retenu, celui de plus bas niveau en cas d'égalité, comme dans {@link Mpm}.
+	 */
+	public void calculerDatesAuPlusTot()
+	{
+		int t, p, max, val, det, nb;
+
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			t   = this.ordre.get(i);
+			max = 0;
+			det = -1;
+			nb  = 0;
+			for (int k = this.debutPrc.get(t); k < this.debutPrc.get(t + 1); k++)
+			{
+				p   = this.prc.get(k);
+				val = this.dateMin.get(p) + this.duree.get(p);
+				if (det == -1 || val > max)
+				{
+					max = val;
+					det = p;
+					nb  = 1;
+				}
+				else if (val == max)
+				{
+					nb++;
+					if (this.niveau.get(p) < this.niveau.get(det)) det = p;
+				}
+			}
+			this.dateMin       .put(t, max);
+			this.determinant   .put(t, det);
+			this.nbDeterminants.put(t, nb);
+		}
+	}
+
+	/**Passe arrière : la date au plus tard d'une tâche est le plus petit début au plus tard de ses
+	 * successeurs, moins sa durée ; sans successeur, la fin du projet moins sa durée.
+	 */
+	public void calculerDatesAuPlusTard()
+	{
+		int t, min, val, finProjet;
+
+		finProjet = 0;
+		for (int i = 0; i < this.nbTaches; i++)
+			finProjet = Math.max(finProjet, this.dateMin.get(i) + this.duree.get(i));
+
+		for (int i = this.nbTaches - 1; i >= 0; i--)
+		{
+			t   = this.ordre.get(i);
+			min = finProjet - this.duree.get(t);
+			for (int k = this.debutSvt.get(t); k < this.debutSvt.get(t + 1); k++)
+			{
+				val = this.dateMax.get(this.svt.get(k)) - this.duree.get(t);
+				if (val < min) min = val;
+			}
+			this.dateMax.put(t, min);
+		}
+	}
+
+	/**Calcule la marge de chaque tâche (dateMax - dateMin).
+	 */
+	public void calculerMarges()
+	{
+		for (int i = 0; i < this.nbTaches; i++)
+			this.marge.put(i, this.dateMax.get(i) - this.dateMin.get(i));
+	}
+
+	/**Marque les arcs critiques : ceux qui relient deux tâches sans marge.
+	 * Une tâche sans marge a toujours un prédécesseur et un successeur sans marge (sauf Début et Fin) :
+	 * ces arcs sont donc exactement ceux des chemins critiques énumérés par {@link CheminCritique}.
+	 */
+	public void marquerArcsCritiques()
+	{
+		long mot;
+
+		for (int m = 0; m < this.critique.capacity(); m++)
+			this.critique.put(m, 0L);
+
+		for (int t = 0; t < this.nbTaches; t++)
+		{
+			if (this.marge.get(t) != 0) continue;
+			for (int k = this.debutSvt.get(t); k < this.debutSvt.get(t + 1); k++)
+			{
+				if (this.marge.get(this.svt.get(k)) == 0)
+				{
+					mot = this.critique.get(k >>> 6);
+					this.critique.put(k >>> 6, mot | (1L << k));
+				}
+			}
+		}
+	}
+
+	/*------------------------------------------*/
+	/*    Résultats                             */
+	/*------------------------------------------*/
+
+	/**Recopie niveaux, dates et marges dans les tâches du projet, par numéros.
+	 * @param taches les tâches, dans l'ordre de leurs numéros.
+	 */
+	public void reporter(List<Tache> taches)
+	{
+		Tache t;
+
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			t = taches.get(i);
+			t.setNiveauTache(this.niveau .get(i));
+			t.setDateMin    (this.dateMin.get(i));
+			t.setDateMax    (this.dateMax.get(i));
+			t.setMarge      (this.marge  .get(i));
+			t.setDeterminant(this.determinant.get(i), this.nbDeterminants.get(i));
+		}
+	}
+
+	/**Indique si l'arc rangé à l'indice k (parmi les successeurs) est critique.
+	 * @param k indice de l'arc, entre {@link #debutSuccesseurs(int)} et {@link #finSuccesseurs(int)}.
+	 * @return true si l'arc est critique.
+	 */
+	public boolean estArcCritique(int k) { return (this.critique.get(k >>> 6) & (1L << k)) != 0; }
+
+	/**Retourne les arcs critiques sous forme de clés (voir {@link Mpm#cleArc}), comme {@link Mpm#getArcsCritiques()}.
+	 * @return Clés triées, sur le tas.
+	 */
+	public long[] getArcsCritiques()
+	{
+		long[] cles;
+		int    nb;
+
+		nb = 0;
+		for (int m = 0; m < this.critique.capacity(); m++)
+			nb += Long.bitCount(this.critique.get(m));
+
+		cles = new long[nb];
+		nb   = 0;
+		for (int t = 0; t < this.nbTaches; t++)
+			for (int k = this.debutSvt.get(t); k < this.debutSvt.get(t + 1); k++)
+				if (this.estArcCritique(k))
+					cles[nb++] = Mpm.cleArc(t, this.svt.get(k));
+
+		Arrays.sort(cles);
+		return cles;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre de tâches, Début et Fin compris.
+	 */
+	public int  getNbTaches        ()       { return this.nbTaches;               }
+	/**Récupère le nombre d'arcs.
+	 */
+	public int  getNbArcs          ()       { return this.nbArcs;                 }
+	/**Récupère la place occupée hors du tas par toutes les colonnes, en octets.
+	 */
+	public long getTailleOctets    ()       { return this.tailleOctets;           }
+
+	/**Récupère la durée d'une tâche.
+	 */
+	public int  getDuree           (int id) { return this.duree  .get(id);        }
+	/**Récupère la date au plus tôt d'une tâche.
+	 */
+	public int  getDateMin         (int id) { return this.dateMin.get(id);        }
+	/**Récupère la date au plus tard d'une tâche.
+	 */
+	public int  getDateMax         (int id) { return this.dateMax.get(id);        }
+	/**Récupère la marge d'une tâche.
+	 */
+	public int  getMarge           (int id) { return this.marge  .get(id);        }
+	/**Récupère le niveau d'une tâche.
+	 */
+	public int  getNiveau          (int id) { return this.niveau .get(id);        }
+	/**Récupère l'abscisse d'une tâche dans le graphe.
+	 */
+	public int  getX               (int id) { return this.x      .get(id);        }
+	/**Récupère l'ordonnée d'une tâche dans le graphe.
+	 */
+	public int  getY               (int id) { return this.y      .get(id);        }
+
+	/**Début de la plage des prédécesseurs d'une tâche.
+	 */
+	public int  debutPredecesseurs (int id) { return this.debutPrc.get(id);       }
+	/**Fin (exclue) de la plage des prédécesseurs d'une tâche.
+	 */
+	public int  finPredecesseurs   (int id) { return this.debutPrc.get(id + 1);   }
+	/**Numéro du prédécesseur rangé à l'indice k.
+	 */
+	public int  predecesseur       (int k)  { return this.prc.get(k);             }
+	/**Début de la plage des successeurs d'une tâche.
+	 */
+	public int  debutSuccesseurs   (int id) { return this.debutSvt.get(id);       }
+	/**Fin (exclue) de la plage des successeurs d'une tâche.
+	 */
+	public int  finSuccesseurs     (int id) { return this.debutSvt.get(id + 1);   }
+	/**Numéro du successeur rangé à l'indice k.
+	 */
+	public int  successeur         (int k)  { return this.svt.get(k);             }
+
+	/**Modifie la durée d'une tâche ; les dates sont à recalculer.
+	 * @param id    numéro de la tâche.
+	 * @param duree la nouvelle durée.
+	 */
+	public void setDuree(int id, int duree) { this.duree.put(id, duree); }
+}
@@ -1,53 +1,57 @@
 /**
- * Représente une tâche dans un projet, avec ses dépendances, sa durée, ses dates au plus tôt et au plus tard, et sa marge.
- * Permet de gérer les relations de précédence et de succession entre tâches, ainsi que le calcul de la marge.
- * 
+ * Représente une tâche dans un projet, avec sa durée, ses dates au plus tôt et au plus tard, et sa marge.
+ * Les relations de précédence et de succession ne sont pas rangées dans la tâche : elles sont stockées
+ * une seule fois pour tout le projet dans une {@link Adjacence}, que la tâche consulte par son numéro.
+ * La date de début du projet est elle aussi portée par le projet (voir {@link Mpm#formaterDate(int)}).
+ * Une tâche ne contient donc que des entiers et deux références, pour tenir en mémoire par millions.
+ *
  * Attributs principaux :
+ * id : numéro dense de la tâche dans le projet (sa place dans la liste des tâches)
  * nom : le nom de la tâche
  * duree : la durée de la tâche en jours
  * dateMin : date au plus tôt (début possible)
  * dateMax : date au plus tard (fin possible)
  * marge : marge de la tâche (dateMax - dateMin)
- * lstPrc : liste des tâches précédentes (prédécesseurs)
- * lstSvt : liste des tâches suivantes (successeurs)
- * lstCheminCritique : liste des tâches du chemin critique
- * predecesseurString : représentation textuelle des prédécesseurs
- * 
+ * dateNivelee : date de début quand les ressources sont limitées (voir {@link OrdonnancementRessources})
+ * determinant : numéro du prédécesseur qui fixe la date au plus tôt, retenu par la passe avant
+ * nbDeterminants : nombre de prédécesseurs qui la fixent ensemble (à égalité)
+ * adjacence : liens du projet, où sont lus les prédécesseurs et successeurs
+ *
  * Méthodes principales :
  * Accesseurs et mutateurs pour tous les attributs
- * Ajout de prédécesseurs et successeurs
+ * Lecture des prédécesseurs et successeurs
  * Calcul de la marge
  * Affichage détaillé de la tâche via {@link #toString()}
- * 
+ *
  * @author Dumont Enzo, El-Maati Yassine, Gricourt Paul, Sefil-Amouret Matys
  * @version 1.0
  */
 package mpm.metier;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
-public class Tache 
+public class Tache
 {
 	/*---------------*/
 	/* Attributs     */
 	/*---------------*/
-	
+
 	// attributs d'associations
-	private ArrayList<Tache>    lstSvt;
-	private ArrayList<Tache>    lstPrc;
-	private List<Tache>         lstTaches;
-	private DateFr              dateDebutProjet;
+	private Adjacence adjacence;
 
 	// attributs d'instance
+	private int    id;
 	private String nom;
-	private String predecesseurString;
 	private int    duree;
 	private int    dateMin;
 	private int    dateMax;
 	private int    marge;
+	private int    dateNivelee;
 	private int    niveauTache;
+	private int    determinant;    // numéro, -1 si aucun
+	private int    nbDeterminants;
 
 	/*-------------------------------*/
 	/*         Constructeur          */
@@ -55,34 +59,32 @@ public class Tache
 
 	/**
 	 * Constructeur de la classe Tache.
+	 * La tâche n'a ni prédécesseur ni successeur tant que le projet ne l'a pas reliée.
 	 * @param nom          Nom de la tâche qui sera créée en String.
 	 * @param duree        Durée de la tâche en int.
-	 * @param predecesseur Predecesseurs de la tâche en String sous la forme : nom|durée|prédecesseurs|coordX|coordY 
-	 * @param coordX       Coordonnée X de la tâche en <strong> String </strong>.
-	 * @param coordY       Coordonnée Y de la tâche en <strong> String </strong>.
 	 */
-	public Tache ( String nom ,int duree, String predecesseurString, String x, String y )
+	public Tache ( String nom, int duree )
 	{
-		this.nom     = nom;
-		this.duree   = duree;
-		this.dateMin = 0;
-		this.dateMax = 0;
-		this.marge   = 0;
-
-		this.predecesseurString = predecesseurString;
-
-		this.lstSvt    = new ArrayList<Tache>();
-		this.lstPrc    = new ArrayList<Tache>();
-		this.lstTaches = new ArrayList<Tache>();
-
-		this.dateDebutProjet = new DateFr();
+		this.nom         = nom;
+		this.duree       = duree;
+		this.dateMin     = 0;
+		this.dateMax     = 0;
+		this.marge       = 0;
+		this.dateNivelee = -1;
+		this.determinant = -1;
 	}
 
 
 	/*-------------------------------*/
 	/*          Accesseurs           */
 	/*-------------------------------*/
-	
+
+	/**Retourne le numéro de la tâche, attribué par le projet : de 0 au nombre de tâches - 1.
+	 * Il sert d'indice dans les tableaux et les ensembles de bits des calculs.
+	 * @return le numéro de la tâche
+	 */
+	public int getId() { return this.id; }
+
 	/**Retourne le nom de la tâche.
 	 * @return le nom de la tâche
 	 */
@@ -108,30 +110,69 @@ public class Tache
 	 */
 	public int getDateMax() { return this.dateMax; }
 
-	/**Retourne la liste des tâches précédentes (prédécesseurs).
-	 * @return la liste des prédécesseurs
+	/**Retourne la date de début nivelée de la tâche, quand les ressources sont limitées.
+	 * Elle n'a de sens que si le projet est nivelé (voir {@link Mpm#estNivele()}).
+	 * @return la date nivelée, ou -1 si le projet n'a jamais été nivelé
 	 */
-	public List<Tache> getPredecesseurs() { return this.lstPrc; }
+	public int getDateNivelee() { return this.dateNivelee; }
 
-	/**Retourne la liste des tâches suivantes (successeurs).
-	 * @return la liste des successeurs
+	/**Retourne la liste des tâches précédentes (prédécesseurs), en lecture seule.
+	 * @return la liste des prédécesseurs
 	 */
-	public List<Tache> getSuccesseurs() { return this.lstSvt; }
+	public List<Tache> getPredecesseurs()
+	{
+		if (this.adjacence == null) return Collections.emptyList();
+		return this.adjacence.getPredecesseurs(this.id);
+	}
 
-	/**Retourne la représentation textuelle des prédécesseurs.
-	 * @return la chaîne des prédécesseurs
+	/**Retourne la liste des tâches suivantes (successeurs), en lecture seule.
+	 * @return la liste des successeurs
 	 */
-	public String getPredecesseurString() { return this.predecesseurString; }
+	public List<Tache> getSuccesseurs()
+	{
+		if (this.adjacence == null) return Collections.emptyList();
+		return this.adjacence.getSuccesseurs(this.id);
+	}
 
 	/**Retourne le niveau de la tâche dans le graphe.
 	 * @return le niveau de la tâche
 	 */
 	public int getNiveauTache() { return this.niveauTache; }
 
+	/**Retourne le prédécesseur qui fixe la date au plus tôt de la tâche : celui qui finit le plus tard,
+	 * celui de plus bas niveau en cas d'égalité. Il est retenu par la passe avant (voir {@link Mpm#getDeterminant(Tache)}).
+	 * @return le prédécesseur, ou null si la tâche n'en a pas
+	 */
+	public Tache getDeterminant()
+	{
+		if (this.adjacence == null || this.determinant == -1) return null;
+		return this.adjacence.getTache(this.determinant);
+	}
+
+	/**Retourne le nombre de prédécesseurs qui finissent le plus tard, à égalité.
+	 * @return le nombre de prédécesseurs qui fixent la date au plus tôt, 0 si la tâche n'en a pas
+	 */
+	public int getNbDeterminants() { return this.nbDeterminants; }
+
 	/*--------------------------------*/
 	/*         Modificateurs          */
 	/*--------------------------------*/
 
+	/**Modifie le numéro de la tâche (réservé au projet, qui numérote ses tâches).
+	 * @param id le nouveau numéro
+	 */
+	void setId(int id) { this.id = id; }
+
+	/**Relie la tâche aux liens du projet (réservé au projet).
+	 * @param adjacence les liens du projet, où la tâche figure sous son numéro
+	 */
+	void setAdjacence(Adjacence adjacence) { this.adjacence = adjacence; }
+
+	/**Modifie la durée de la tâche.
+	 * @param duree la nouvelle durée
+	 */
+	public void setDuree(int duree) { this.duree = duree; }
+
 	/**Modifie la marge de la tâche.
 	 * @param marge la nouvelle marge
 	 */
@@ -147,6 +188,11 @@ public class Tache
 	 */
 	public void setDateMax(int dateMax) { this.dateMax = dateMax; }
 
+	/**Modifie la date de début nivelée de la tâche (réservé au projet, voir {@link Mpm#appliquerNivellement}).
+	 * @param dateNivelee la nouvelle date nivelée
+	 */
+	void setDateNivelee(int dateNivelee) { this.dateNivelee = dateNivelee; }
+
 	/**Modifie la date au plus tôt de la tâche (alias de setDateMin).
 	 * @param val la nouvelle date au plus tôt
 	 */
@@ -157,99 +203,78 @@ public class Tache
 	 */
 	public void setDateAuPlusTard(int val) { this.dateMax = val; }
 
-	/**Modifie la représentation textuelle des prédécesseurs.
-	 * @param s la nouvelle chaîne des prédécesseurs
-	 */
-	public void setPredecesseurString(String s) { this.predecesseurString = s; }
-
 	/**Modifie le niveau de la tâche dans le graphe.
 	 * @param niveau le nouveau niveau
 	 */
 	public void setNiveauTache(int niveau) { this.niveauTache = niveau; }
 
+	/**Retient le prédécesseur qui fixe la date au plus tôt (réservé aux passes avant du projet).
+	 * @param determinant    numéro du prédécesseur, -1 si aucun
+	 * @param nbDeterminants nombre de prédécesseurs à égalité
+	 */
+	void setDeterminant(int determinant, int nbDeterminants)
+	{
+		this.determinant    = determinant;
+		this.nbDeterminants = nbDeterminants;
+	}
+
 	/*-------------------------------*/
 	/*        Autre méthodes         */
 	/*-------------------------------*/
 
-	/**Ajoute une tâche à la liste des prédécesseurs.
-	 * @param t la tâche à ajouter comme prédécesseur
-	 */
-	public void addPredecesseur(Tache t) { this.lstPrc.add(t); }
-
-	/**Ajoute une tâche à la liste des successeurs.
-	 * @param t la tâche à ajouter comme successeur
-	 */
-	public void addSuccesseur(Tache t) { this.lstSvt.add(t); }
-
 	/**Calcule et met à jour la marge de la tâche (dateMax - dateMin).
 	 */
 	public void calculerMarge() { this.marge = this.dateMax - this.dateMin; }
 
-	/**Formate une date à partir du nombre de jours écoulés depuis le début du projet.
-	 * @param nbJours le nombre de jours depuis le début du projet
-	 * @return la date formatée en "j/m/a"
-	 */
-	public String formatDateFr(int nbJours)
-	{
-		DateFr date = new DateFr(dateDebutProjet);
-		date.add(DateFr.DAY_OF_MONTH, nbJours);
-		return date.toString("j/m");
-	}
-
 	/**Retourne une représentation détaillée de la tâche et de ses dépendances.
-	 * @return une chaîne décrivant la tâche, ses dates, sa marge, ses prédécesseurs et successeurs
+	 * @return une chaîne décrivant la tâche, ses dates (en jours), sa marge, ses prédécesseurs et successeurs
 	 */
-	public String toString() 
+	public String toString()
 	{
-		
+
 		/*-------------------------------*/
 		/*           Variable            */
 		/*-------------------------------*/
-		String sRet;
+		String      sRet;
+		List<Tache> voisines;
 
-		sRet = "";
+		sRet  = this.nom + " : " + this.duree + " jour" + (this.duree > 1 ? "s" : "") + "\n";
+		sRet += "  date au plus tôt : " + this.dateMin + "\n";
+		sRet += "  date au plus tard : " + this.dateMax + "\n";
+		sRet += "  marge : " + this.marge + " jour" + (this.marge > 1 ? "s" : "") + "\n";
 
-		for (Tache t : lstTaches)
+		voisines = this.getPredecesseurs();
+		if (voisines.isEmpty())
 		{
-
-			sRet += t.getNom() + " : " + t.getDuree() + " jour" + (t.getDuree() > 1 ? "s" : "") + "\n";
-			sRet += "  date au plus tôt : " + formatDateFr(t.getDateMin()) + "\n";
-			sRet += "  date au plus tard : " + formatDateFr(t.getDateMax()) + "\n";
-			sRet += "  marge : " + t.getMarge() + " jour" + (t.getMarge() > 1 ? "s" : "") + "\n";
-
-			if (t.getPredecesseurs().isEmpty())
-			{
-				sRet += "  pas de tâche précédente\n";
-			}
-			else
+			sRet += "  pas de tâche précédente\n";
+		}
+		else
+		{
+			sRet += "  liste des tâches précédentes : \n    ";
+			for (int i = 0; i < voisines.size(); i++)
 			{
-				sRet += "  liste des tâches précédentes : \n    ";
-				List<Tache> preds = t.getPredecesseurs();
-				for (int i = 0; i < preds.size(); i++)
-				{
-					sRet += preds.get(i).getNom();
-					if (i < preds.size() - 1)
-						sRet += ", ";
-				}
-				sRet += "\n";
+				sRet += voisines.get(i).getNom();
+				if (i < voisines.size() - 1)
+					sRet += ", ";
 			}
+			sRet += "\n";
+		}
 
-			if (t.getSuccesseurs().isEmpty())
-			{
-				sRet += "  pas de tâche suivante\n";
-			}
-			else
+		voisines = this.getSuccesseurs();
+		if (voisines.isEmpty())
+		{
+			sRet += "  pas de tâche suivante\n";
+		}
+		else
+		{
+			sRet += "  liste des tâches suivantes   :\n    ";
+			for (int i = 0; i < voisines.size(); i++)
 			{
-				sRet += "  liste des tâches suivantes   :\n    ";
-				List<Tache> succs = t.getSuccesseurs();
-				for (int i = 0; i < succs.size(); i++)
-				{
-					sRet += succs.get(i).getNom();
-					if (i < succs.size() - 1)
-						sRet += ", ";
-				}
-				sRet += "\n";
+				sRet += voisines.get(i).getNom();
+				if (i < voisines.size() - 1)
+					sRet += ", ";
 			}
+			sRet += "\n";
 		}
 		return sRet;
 	}
@@ -0,0 +1,120 @@
+package mpm.metier.collection;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code EnsembleBits} est un ensemble d'entiers positifs, un bit par entier possible.
+ * Elle retient le plus haut mot utilisé : vider un ensemble peu rempli ne parcourt que ce qui a servi,
+ * et le tableau est gardé pour le calcul suivant.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class EnsembleBits
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private long[] mots;
+	private int    nbMotsUtilises; // les mots au-delà sont à zéro
+
+	/**Constructeur d'EnsembleBits, vide.
+	 */
+	public EnsembleBits() { this(64); }
+
+	/**Constructeur d'EnsembleBits, vide.
+	 * @param capacite plus grand entier prévu + 1.
+	 */
+	public EnsembleBits(int capacite)
+	{
+		this.mots           = new long[Math.max(1, (capacite + 63) >>> 6)];
+		this.nbMotsUtilises = 0;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Indique si un entier est dans l'ensemble.
+	 * @param i l'entier (positif).
+	 * @return true s'il y est.
+	 */
+	public boolean contient(int i)
+	{
+		int m = i >>> 6;
+		return m < this.nbMotsUtilises && (this.mots[m] & (1L << i)) != 0;
+	}
+
+	/**Compte les entiers de l'ensemble.
+	 * @return Nombre d'entiers.
+	 */
+	public int cardinal()
+	{
+		int nb = 0;
+		for (int m = 0; m < this.nbMotsUtilises; m++)
+			nb += Long.bitCount(this.mots[m]);
+		return nb;
+	}
+
+	/**Indique si l'ensemble est vide.
+	 * @return true s'il n'a aucun entier.
+	 */
+	public boolean estVide() { return this.suivant(0) == -1; }
+
+	/**Cherche le plus petit entier de l'ensemble à partir de i (compris).
+	 * @param i point de départ (positif).
+	 * @return L'entier trouvé, ou -1.
+	 */
+	public int suivant(int i)
+	{
+		int  m;
+		long mot;
+
+		m = i >>> 6;
+		if (m >= this.nbMotsUtilises) return -1;
+
+		mot = this.mots[m] & (-1L << i);
+		while (mot == 0)
+		{
+			if (++m == this.nbMotsUtilises) return -1;
+			mot = this.mots[m];
+		}
+		return (m << 6) + Long.numberOfTrailingZeros(mot);
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Ajoute un entier.
+	 * @param i l'entier (positif).
+	 */
+	public void ajouter(int i)
+	{
+		int m = i >>> 6;
+
+		if (m >= this.mots.length)
+			this.mots = Arrays.copyOf(this.mots, Math.max(m + 1, this.mots.length * 2));
+		if (m >= this.nbMotsUtilises)
+			this.nbMotsUtilises = m + 1;
+		this.mots[m] |= 1L << i;
+	}
+
+	/**Retire un entier.
+	 * @param i l'entier (positif).
+	 */
+	public void retirer(int i)
+	{
+		int m = i >>> 6;
+		if (m < this.nbMotsUtilises)
+			this.mots[m] &= ~(1L << i);
+	}
+
+	/**Vide l'ensemble sans rendre son tableau.
+	 */
+	public void vider()
+	{
+		Arrays.fill(this.mots, 0, this.nbMotsUtilises, 0L);
+		this.nbMotsUtilises = 0;
+	}
+}
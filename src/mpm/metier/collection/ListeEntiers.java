@@ -0,0 +1,144 @@
+package mpm.metier.collection;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code ListeEntiers} est une liste d'entiers rangés dans un tableau, sans objet par élément.
+ * Vider la liste garde le tableau : une liste réutilisée d'un calcul à l'autre n'alloue plus rien
+ * une fois sa taille de croisière atteinte.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class ListeEntiers
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private int[] valeurs;
+	private int   taille;
+
+	/**Constructeur de ListeEntiers, vide.
+	 */
+	public ListeEntiers() { this(16); }
+
+	/**Constructeur de ListeEntiers, vide.
+	 * @param capacite nombre d'éléments prévus.
+	 */
+	public ListeEntiers(int capacite)
+	{
+		this.valeurs = new int[Math.max(capacite, 4)];
+		this.taille  = 0;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre d'éléments.
+	 * @return Taille de la liste.
+	 */
+	public int     taille   ()      { return this.taille;       }
+
+	/**Indique si la liste est vide.
+	 * @return true si elle n'a aucun élément.
+	 */
+	public boolean estVide  ()      { return this.taille == 0;  }
+
+	/**Récupère l'élément d'indice i.
+	 * @param i indice, entre 0 et taille() - 1.
+	 * @return L'élément.
+	 */
+	public int get(int i)
+	{
+		if (i >= this.taille) throw new IndexOutOfBoundsException("Indice " + i + " pour une taille de " + this.taille);
+		return this.valeurs[i];
+	}
+
+	/**Récupère le dernier élément.
+	 * @return L'élément.
+	 */
+	public int dernier() { return this.get(this.taille - 1); }
+
+	/**Cherche un élément.
+	 * @param valeur l'élément cherché.
+	 * @return Son premier indice, ou -1.
+	 */
+	public int indexOf(int valeur)
+	{
+		for (int i = 0; i < this.taille; i++)
+			if (this.valeurs[i] == valeur) return i;
+		return -1;
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Ajoute un élément à la fin.
+	 * @param valeur l'élément.
+	 */
+	public void ajouter(int valeur)
+	{
+		if (this.taille == this.valeurs.length)
+			this.valeurs = Arrays.copyOf(this.valeurs, this.taille * 2);
+		this.valeurs[this.taille++] = valeur;
+	}
+
+	/**Remplace l'élément d'indice i.
+	 * @param i      indice, entre 0 et taille() - 1.
+	 * @param valeur le nouvel élément.
+	 */
+	public void set(int i, int valeur)
+	{
+		if (i >= this.taille) throw new IndexOutOfBoundsException("Indice " + i + " pour une taille de " + this.taille);
+		this.valeurs[i] = valeur;
+	}
+
+	/**Vide la liste sans rendre son tableau.
+	 */
+	public void vider() { this.taille = 0; }
+
+	/**Remplace le contenu par celui d'une autre liste.
+	 * @param autre la liste à recopier.
+	 */
+	public void copier(ListeEntiers autre)
+	{
+		if (this.valeurs.length < autre.taille)
+			this.valeurs = new int[autre.taille];
+		System.arraycopy(autre.valeurs, 0, this.valeurs, 0, autre.taille);
+		this.taille = autre.taille;
+	}
+
+	/**Trie les éléments par ordre croissant.
+	 */
+	public void trier() { Arrays.sort(this.valeurs, 0, this.taille); }
+
+	/*------------------------------------------*/
+	/*    Autres méthodes                       */
+	/*------------------------------------------*/
+
+	/**Recopie les éléments dans un nouveau tableau.
+	 * @return Tableau de taille() éléments.
+	 */
+	public int[] toArray() { return Arrays.copyOf(this.valeurs, this.taille); }
+
+	public boolean equals(Object autre)
+	{
+		ListeEntiers liste;
+
+		if (!(autre instanceof ListeEntiers)) return false;
+		liste = (ListeEntiers) autre;
+		return Arrays.equals(this.valeurs, 0, this.taille, liste.valeurs, 0, liste.taille);
+	}
+
+	public int hashCode()
+	{
+		int h = 1;
+		for (int i = 0; i < this.taille; i++)
+			h = 31 * h + this.valeurs[i];
+		return h;
+	}
+
+	public String toString() { return Arrays.toString(this.toArray()); }
+}
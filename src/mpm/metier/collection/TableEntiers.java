@@ -0,0 +1,189 @@
+package mpm.metier.collection;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code TableEntiers} associe des entiers à des entiers, sans objet par entrée.
+ * Les clés sont des {@code long} : un numéro de tâche y tient comme deux coordonnées de cellule accolées.
+ * Adressage ouvert et sondage linéaire : clés et valeurs sont rangées dans deux tableaux, dont la
+ * taille est une puissance de deux gardée à moins de la moitié pleine. Une clé retirée est effacée
+ * en recollant les clés suivantes de sa grappe, sans marque de tombe.
+ *
+ * Vider la table garde ses tableaux : réutilisée d'un calcul à l'autre, elle n'alloue plus rien.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class TableEntiers
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private long[]    cles;
+	private int[]     valeurs;
+	private boolean[] occupees;
+	private int       masque;
+	private int       taille;
+
+	/**Constructeur de TableEntiers, vide.
+	 */
+	public TableEntiers() { this(16); }
+
+	/**Constructeur de TableEntiers, vide.
+	 * @param capacite nombre d'entrées prévues.
+	 */
+	public TableEntiers(int capacite)
+	{
+		this.allouer(TableEntiers.cases(capacite));
+	}
+
+	private void allouer(int nbCases)
+	{
+		this.cles     = new long   [nbCases];
+		this.valeurs  = new int    [nbCases];
+		this.occupees = new boolean[nbCases];
+		this.masque   = nbCases - 1;
+		this.taille   = 0;
+	}
+
+	/**Nombre de cases (puissance de deux) pour garder la table à moins de la moitié pleine.
+	 */
+	static int cases(int capacite)
+	{
+		return Math.max(8, Integer.highestOneBit(Math.max(capacite, 1) * 2 - 1) * 2);
+	}
+
+	/**Mélange les bits d'une clé pour que des clés qui se suivent ne forment pas de grappes.
+	 */
+	static int melanger(int h)
+	{
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	static int melanger(long h)
+	{
+		h *= 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre d'entrées.
+	 * @return Taille de la table.
+	 */
+	public int     taille () { return this.taille;      }
+
+	/**Indique si la table est vide.
+	 * @return true si elle n'a aucune entrée.
+	 */
+	public boolean estVide() { return this.taille == 0; }
+
+	/**Récupère la valeur associée à une clé.
+	 * @param cle    la clé.
+	 * @param absent valeur rendue si la clé n'est pas dans la table.
+	 * @return La valeur, ou absent.
+	 */
+	public int get(long cle, int absent)
+	{
+		int i = this.trouver(cle);
+		return i >= 0 ? this.valeurs[i] : absent;
+	}
+
+	/**Indique si une clé est dans la table.
+	 * @param cle la clé.
+	 * @return true si elle y est.
+	 */
+	public boolean contient(long cle) { return this.trouver(cle) >= 0; }
+
+	/**Case d'une clé, ou -1.
+	 */
+	private int trouver(long cle)
+	{
+		for (int i = TableEntiers.melanger(cle) & this.masque; this.occupees[i]; i = (i + 1) & this.masque)
+			if (this.cles[i] == cle) return i;
+		return -1;
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Associe une valeur à une clé, en remplaçant l'ancienne.
+	 * @param cle    la clé.
+	 * @param valeur la valeur.
+	 */
+	public void put(long cle, int valeur)
+	{
+		int i;
+
+		for (i = TableEntiers.melanger(cle) & this.masque; this.occupees[i]; i = (i + 1) & this.masque)
+		{
+			if (this.cles[i] == cle)
+			{
+				this.valeurs[i] = valeur;
+				return;
+			}
+		}
+
+		this.cles    [i] = cle;
+		this.valeurs [i] = valeur;
+		this.occupees[i] = true;
+		if (++this.taille * 2 > this.cles.length)
+			this.agrandir();
+	}
+
+	/**Retire une clé.
+	 * @param cle la clé.
+	 * @return true si elle était dans la table.
+	 */
+	public boolean retirer(long cle)
+	{
+		int i, j, place;
+
+		i = this.trouver(cle);
+		if (i < 0) return false;
+
+		// Recolle les clés suivantes de la grappe qui ne sont plus à leur place
+		for (j = (i + 1) & this.masque; this.occupees[j]; j = (j + 1) & this.masque)
+		{
+			place = TableEntiers.melanger(this.cles[j]) & this.masque;
+			if (((j - place) & this.masque) >= ((j - i) & this.masque))
+			{
+				this.cles   [i] = this.cles   [j];
+				this.valeurs[i] = this.valeurs[j];
+				i = j;
+			}
+		}
+		this.occupees[i] = false;
+		this.taille--;
+		return true;
+	}
+
+	/**Vide la table sans rendre ses tableaux.
+	 */
+	public void vider()
+	{
+		if (this.taille == 0) return;
+		Arrays.fill(this.occupees, false);
+		this.taille = 0;
+	}
+
+	private void agrandir()
+	{
+		long[]    anciennesCles;
+		int[]     anciennesValeurs;
+		boolean[] anciennesOccupees;
+
+		anciennesCles     = this.cles;
+		anciennesValeurs  = this.valeurs;
+		anciennesOccupees = this.occupees;
+
+		this.allouer(anciennesCles.length * 2);
+		for (int i = 0; i < anciennesCles.length; i++)
+			if (anciennesOccupees[i])
+				this.put(anciennesCles[i], anciennesValeurs[i]);
+	}
+}
@@ -0,0 +1,177 @@
+package mpm.metier.collection;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code TableEntiersObjets} associe des objets à des clés {@code long} (des coordonnées de
+ * cellule accolées, le plus souvent), sans objet par entrée ni clé emballée. Même rangement que
+ * {@link TableEntiers} : adressage ouvert, sondage linéaire, table gardée à moins de la moitié pleine.
+ * Une valeur null n'est pas acceptée : elle marque une case libre.
+ *
+ * Les cases se parcourent par leur indice (voir {@link #nbCases()}), sans itérateur ; la lecture ne
+ * modifie pas la table, et plusieurs fils peuvent la lire en même temps.
+ *
+ * @param <V> type des valeurs.
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class TableEntiersObjets<V>
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private long[]   cles;
+	private Object[] valeurs;  // null : case libre
+	private int      masque;
+	private int      taille;
+
+	/**Constructeur de TableEntiersObjets, vide.
+	 */
+	public TableEntiersObjets() { this(16); }
+
+	/**Constructeur de TableEntiersObjets, vide.
+	 * @param capacite nombre d'entrées prévues.
+	 */
+	public TableEntiersObjets(int capacite)
+	{
+		this.allouer(TableEntiers.cases(capacite));
+	}
+
+	private void allouer(int nbCases)
+	{
+		this.cles    = new long  [nbCases];
+		this.valeurs = new Object[nbCases];
+		this.masque  = nbCases - 1;
+		this.taille  = 0;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre d'entrées.
+	 * @return Taille de la table.
+	 */
+	public int     taille () { return this.taille;         }
+
+	/**Indique si la table est vide.
+	 * @return true si elle n'a aucune entrée.
+	 */
+	public boolean estVide() { return this.taille == 0;    }
+
+	/**Récupère le nombre de cases, libres comprises, pour parcourir la table.
+	 * @return Nombre de cases.
+	 */
+	public int     nbCases() { return this.valeurs.length; }
+
+	/**Récupère la clé rangée dans une case.
+	 * @param i indice de la case.
+	 * @return La clé, sans signification si la case est libre.
+	 */
+	public long    cleCase(int i) { return this.cles[i]; }
+
+	/**Récupère la valeur rangée dans une case.
+	 * @param i indice de la case.
+	 * @return La valeur, ou null si la case est libre.
+	 */
+	@SuppressWarnings("unchecked")
+	public V       valeurCase(int i) { return (V) this.valeurs[i]; }
+
+	/**Récupère la valeur associée à une clé.
+	 * @param cle la clé.
+	 * @return La valeur, ou null si la clé n'est pas dans la table.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long cle)
+	{
+		int i = this.trouver(cle);
+		return i >= 0 ? (V) this.valeurs[i] : null;
+	}
+
+	/**Case d'une clé, ou -1.
+	 */
+	private int trouver(long cle)
+	{
+		for (int i = TableEntiers.melanger(cle) & this.masque; this.valeurs[i] != null; i = (i + 1) & this.masque)
+			if (this.cles[i] == cle) return i;
+		return -1;
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Associe une valeur à une clé, en remplaçant l'ancienne.
+	 * @param cle    la clé.
+	 * @param valeur la valeur (non null).
+	 */
+	public void put(long cle, V valeur)
+	{
+		int i;
+
+		for (i = TableEntiers.melanger(cle) & this.masque; this.valeurs[i] != null; i = (i + 1) & this.masque)
+		{
+			if (this.cles[i] == cle)
+			{
+				this.valeurs[i] = valeur;
+				return;
+			}
+		}
+
+		this.cles   [i] = cle;
+		this.valeurs[i] = valeur;
+		if (++this.taille * 2 > this.cles.length)
+			this.agrandir();
+	}
+
+	/**Retire une clé.
+	 * @param cle la clé.
+	 * @return true si elle était dans la table.
+	 */
+	public boolean retirer(long cle)
+	{
+		int i, j, place;
+
+		i = this.trouver(cle);
+		if (i < 0) return false;
+
+		// Recolle les clés suivantes de la grappe qui ne sont plus à leur place
+		for (j = (i + 1) & this.masque; this.valeurs[j] != null; j = (j + 1) & this.masque)
+		{
+			place = TableEntiers.melanger(this.cles[j]) & this.masque;
+			if (((j - place) & this.masque) >= ((j - i) & this.masque))
+			{
+				this.cles   [i] = this.cles   [j];
+				this.valeurs[i] = this.valeurs[j];
+				i = j;
+			}
+		}
+		this.valeurs[i] = null;
+		this.taille--;
+		return true;
+	}
+
+	/**Vide la table sans rendre ses tableaux.
+	 */
+	public void vider()
+	{
+		if (this.taille == 0) return;
+		Arrays.fill(this.valeurs, null);
+		this.taille = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void agrandir()
+	{
+		long[]   anciennesCles;
+		Object[] anciennesValeurs;
+
+		anciennesCles    = this.cles;
+		anciennesValeurs = this.valeurs;
+
+		this.allouer(anciennesCles.length * 2);
+		for (int i = 0; i < anciennesCles.length; i++)
+			if (anciennesValeurs[i] != null)
+				this.put(anciennesCles[i], (V) anciennesValeurs[i]);
+	}
+}
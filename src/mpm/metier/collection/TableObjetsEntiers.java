@@ -0,0 +1,177 @@
+package mpm.metier.collection;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code TableObjetsEntiers} associe des objets (des noms de tâches, le plus souvent) à des
+ * entiers, sans objet par entrée ni entier emballé. Même rangement que {@link TableEntiers} :
+ * adressage ouvert, sondage linéaire, table gardée à moins de la moitié pleine.
+ * Les clés sont comparées avec {@code equals} ; une clé null n'est pas acceptée.
+ *
+ * Vider la table garde ses tableaux : réutilisée d'un chargement à l'autre, elle n'alloue plus rien.
+ *
+ * @param <K> type des clés.
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class TableObjetsEntiers<K>
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Object[] cles;     // null : case libre
+	private int[]    valeurs;
+	private int      masque;
+	private int      taille;
+
+	/**Constructeur de TableObjetsEntiers, vide.
+	 */
+	public TableObjetsEntiers() { this(16); }
+
+	/**Constructeur de TableObjetsEntiers, vide.
+	 * @param capacite nombre d'entrées prévues.
+	 */
+	public TableObjetsEntiers(int capacite)
+	{
+		this.allouer(TableEntiers.cases(capacite));
+	}
+
+	private void allouer(int nbCases)
+	{
+		this.cles    = new Object[nbCases];
+		this.valeurs = new int   [nbCases];
+		this.masque  = nbCases - 1;
+		this.taille  = 0;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre d'entrées.
+	 * @return Taille de la table.
+	 */
+	public int     taille () { return this.taille;      }
+
+	/**Indique si la table est vide.
+	 * @return true si elle n'a aucune entrée.
+	 */
+	public boolean estVide() { return this.taille == 0; }
+
+	/**Récupère la valeur associée à une clé.
+	 * @param cle    la clé.
+	 * @param absent valeur rendue si la clé n'est pas dans la table.
+	 * @return La valeur, ou absent.
+	 */
+	public int get(Object cle, int absent)
+	{
+		int i = this.trouver(cle);
+		return i >= 0 ? this.valeurs[i] : absent;
+	}
+
+	/**Indique si une clé est dans la table.
+	 * @param cle la clé.
+	 * @return true si elle y est.
+	 */
+	public boolean contient(Object cle) { return this.trouver(cle) >= 0; }
+
+	/**Case d'une clé, ou -1.
+	 */
+	private int trouver(Object cle)
+	{
+		if (cle == null) return -1;
+		for (int i = TableEntiers.melanger(cle.hashCode()) & this.masque; this.cles[i] != null; i = (i + 1) & this.masque)
+			if (this.cles[i].equals(cle)) return i;
+		return -1;
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Associe une valeur à une clé, en remplaçant l'ancienne.
+	 * @param cle    la clé (non null).
+	 * @param valeur la valeur.
+	 */
+	public void put(K cle, int valeur)
+	{
+		int i;
+
+		for (i = TableEntiers.melanger(cle.hashCode()) & this.masque; this.cles[i] != null; i = (i + 1) & this.masque)
+		{
+			if (this.cles[i].equals(cle))
+			{
+				this.valeurs[i] = valeur;
+				return;
+			}
+		}
+
+		this.cles   [i] = cle;
+		this.valeurs[i] = valeur;
+		if (++this.taille * 2 > this.cles.length)
+			this.agrandir();
+	}
+
+	/**Associe une valeur à une clé qui n'est pas encore dans la table.
+	 * @param cle    la clé (non null).
+	 * @param valeur la valeur.
+	 * @return true si la clé a été ajoutée, false si elle y était déjà (sa valeur est gardée).
+	 */
+	public boolean putSiAbsente(K cle, int valeur)
+	{
+		if (this.contient(cle)) return false;
+		this.put(cle, valeur);
+		return true;
+	}
+
+	/**Retire une clé.
+	 * @param cle la clé.
+	 * @return true si elle était dans la table.
+	 */
+	public boolean retirer(Object cle)
+	{
+		int i, j, place;
+
+		i = this.trouver(cle);
+		if (i < 0) return false;
+
+		// Recolle les clés suivantes de la grappe qui ne sont plus à leur place
+		for (j = (i + 1) & this.masque; this.cles[j] != null; j = (j + 1) & this.masque)
+		{
+			place = TableEntiers.melanger(this.cles[j].hashCode()) & this.masque;
+			if (((j - place) & this.masque) >= ((j - i) & this.masque))
+			{
+				this.cles   [i] = this.cles   [j];
+				this.valeurs[i] = this.valeurs[j];
+				i = j;
+			}
+		}
+		this.cles[i] = null;
+		this.taille--;
+		return true;
+	}
+
+	/**Vide la table sans rendre ses tableaux.
+	 */
+	public void vider()
+	{
+		if (this.taille == 0) return;
+		Arrays.fill(this.cles, null);
+		this.taille = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void agrandir()
+	{
+		Object[] anciennesCles;
+		int[]    anciennesValeurs;
+
+		anciennesCles    = this.cles;
+		anciennesValeurs = this.valeurs;
+
+		this.allouer(anciennesCles.length * 2);
+		for (int i = 0; i < anciennesCles.length; i++)
+			if (anciennesCles[i] != null)
+				this.put((K) anciennesCles[i], anciennesValeurs[i]);
+	}
+}
@@ -0,0 +1,117 @@
+package mpm.metier.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * La classe {@code TasLongs} est une file de priorité d'entiers longs, la plus petite valeur d'abord,
+ * rangée en tas binaire dans un tableau, sans objet par élément.
+ * Une priorité et un numéro tiennent ensemble dans un long (priorité en poids fort) :
+ * le numéro se relit alors dans les 32 bits de poids faible.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class TasLongs
+{
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private long[] valeurs;
+	private int    taille;
+
+	/**Constructeur de TasLongs, vide.
+	 */
+	public TasLongs() { this(16); }
+
+	/**Constructeur de TasLongs, vide.
+	 * @param capacite nombre d'éléments prévus.
+	 */
+	public TasLongs(int capacite)
+	{
+		this.valeurs = new long[Math.max(capacite, 4)];
+		this.taille  = 0;
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Récupère le nombre d'éléments.
+	 * @return Taille du tas.
+	 */
+	public int     taille () { return this.taille;      }
+
+	/**Indique si le tas est vide.
+	 * @return true s'il n'a aucun élément.
+	 */
+	public boolean estVide() { return this.taille == 0; }
+
+	/**Récupère la plus petite valeur, sans la retirer.
+	 * @return La valeur.
+	 * @throws NoSuchElementException si le tas est vide.
+	 */
+	public long min()
+	{
+		if (this.taille == 0) throw new NoSuchElementException("Tas vide");
+		return this.valeurs[0];
+	}
+
+	/*--------------------*/
+	/*    Modificateurs   */
+	/*--------------------*/
+
+	/**Ajoute une valeur.
+	 * @param valeur la valeur.
+	 */
+	public void ajouter(long valeur)
+	{
+		int i, parent;
+
+		if (this.taille == this.valeurs.length)
+			this.valeurs = Arrays.copyOf(this.valeurs, this.taille * 2);
+
+		// La valeur remonte tant que son parent est plus grand
+		i = this.taille++;
+		while (i > 0)
+		{
+			parent = (i - 1) >>> 1;
+			if (this.valeurs[parent] <= valeur) break;
+
+			this.valeurs[i] = this.valeurs[parent];
+			i = parent;
+		}
+		this.valeurs[i] = valeur;
+	}
+
+	/**Retire la plus petite valeur.
+	 * @return La valeur retirée.
+	 * @throws NoSuchElementException si le tas est vide.
+	 */
+	public long retirerMin()
+	{
+		long min, derniere;
+		int  i, enfant;
+
+		min      = this.min();
+		derniere = this.valeurs[--this.taille];
+
+		// La dernière valeur descend depuis la racine tant qu'un enfant est plus petit
+		i = 0;
+		while ((enfant = 2 * i + 1) < this.taille)
+		{
+			if (enfant + 1 < this.taille && this.valeurs[enfant + 1] < this.valeurs[enfant]) enfant++;
+			if (derniere <= this.valeurs[enfant]) break;
+
+			this.valeurs[i] = this.valeurs[enfant];
+			i = enfant;
+		}
+		this.valeurs[i] = derniere;
+
+		return min;
+	}
+
+	/**Vide le tas sans rendre son tableau.
+	 */
+	public void vider() { this.taille = 0; }
+}
@@ -0,0 +1,56 @@
+package mpm.metier.disposition;
+
+import mpm.metier.Tache;
+
+/**
+ * L'interface {@code Disposition} décrit un calcul de placement automatique des tâches.
+ * Le graphe est photographié à la construction (sur l'EDT) ; {@link #calculer(Suivi)} peut
+ * ensuite tourner sur un autre thread et publier des placements intermédiaires.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public interface Disposition
+{
+	/**Interface de suivi d'un calcul : annulation et résultats intermédiaires.
+	 */
+	interface Suivi
+	{
+		/**Indique si le calcul doit s'arrêter.
+		 * @return true si le calcul est annulé.
+		 */
+		boolean estAnnule();
+
+		/**Reçoit une disposition intermédiaire (indices des tâches de la photographie).
+		 * @param tabX abscisses des tâches.
+		 * @param tabY ordonnées des tâches.
+		 */
+		void publier(int[] tabX, int[] tabY);
+	}
+
+	/**Calcule la disposition. Peut être appelé hors de l'EDT.
+	 * @param suivi reçoit les résultats intermédiaires et indique une éventuelle annulation.
+	 * @return true si le calcul est allé au bout, false s'il a été annulé.
+	 */
+	boolean calculer(Suivi suivi);
+
+	/**Retourne le nombre de tâches placées.
+	 * @return le nombre de tâches.
+	 */
+	int getNbTaches();
+
+	/**Retourne la tâche d'indice donné dans la photographie.
+	 * @param i l'indice.
+	 * @return la tâche.
+	 */
+	Tache getTache(int i);
+
+	/**Retourne les abscisses calculées.
+	 * @return tableau indexé comme la photographie, ou null avant la fin du calcul.
+	 */
+	int[] getX();
+
+	/**Retourne les ordonnées calculées.
+	 * @return tableau indexé comme la photographie, ou null avant la fin du calcul.
+	 */
+	int[] getY();
+}
@@ -0,0 +1,240 @@
+package mpm.metier.disposition;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import mpm.metier.Tache;
+import mpm.metier.collection.TableEntiers;
+
+/**
+ * La classe {@code DispositionForces} place les tâches librement par simulation de forces
+ * (Fruchterman–Reingold) : les tâches se repoussent, les arcs les rapprochent, et le déplacement
+ * permis diminue à chaque itération jusqu'à l'équilibre.
+ *
+ * Fonctionnalités principales :
+ *   Répulsion approchée par un {@link QuadArbre} (Barnes–Hut), en O(N log N) par itération
+ *   Forces calculées en parallèle sur tous les cœurs (chaque tâche n'écrit que sa propre case)
+ *   Publication régulière des positions pour animer la convergence
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class DispositionForces implements Disposition
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int    NB_ITERATIONS       = 300;
+	private static final double LONGUEUR_IDEALE     = 220;
+	private static final double THETA               = 0.8;
+	private static final double GRAVITE             = 0.02;
+	private static final long   INTERVALLE_PUBLIER  = 100_000_000L; // 100 ms
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Tache[]  taches;
+	private int      nbTaches;
+	private int[][]  voisins;
+
+	private double[] posX, posY;
+	private int[]    tabX, tabY;
+
+	/**Constructeur de DispositionForces : photographie les tâches, leurs arcs et leurs positions actuelles.
+	 * @param lstTaches les tâches à placer.
+	 * @param positions positions de départ (les tâches absentes ou confondues sont écartées au hasard).
+	 */
+	public DispositionForces(List<Tache> lstTaches, Map<Tache, Point> positions)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		TableEntiers indices;       // numéro de tâche -> indice
+		Random       alea;
+		Point        p;
+		int[]        degre;
+		int          j;
+
+		this.taches   = lstTaches.toArray(new Tache[0]);
+		this.nbTaches = this.taches.length;
+
+		this.posX = new double[this.nbTaches];
+		this.posY = new double[this.nbTaches];
+
+		// Le hasard sert seulement à séparer les tâches superposées : graine fixe pour un résultat reproductible
+		alea    = new Random(this.nbTaches);
+		indices = new TableEntiers(this.nbTaches);
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			indices.put(this.taches[i].getId(), i);
+
+			p = positions.get(this.taches[i]);
+			this.posX[i] = (p != null ? p.x : 0) + alea.nextDouble();
+			this.posY[i] = (p != null ? p.y : 0) + alea.nextDouble();
+		}
+
+		// Voisins dans les deux sens : l'attraction d'un arc s'applique à ses deux extrémités
+		degre = new int[this.nbTaches];
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			for (Tache succ : this.taches[i].getSuccesseurs())
+			{
+				j = indices.get(succ.getId(), -1);
+				if (j == -1) continue;
+				degre[i]++;
+				degre[j]++;
+			}
+		}
+
+		this.voisins = new int[this.nbTaches][];
+		for (int i = 0; i < this.nbTaches; i++)
+			this.voisins[i] = new int[degre[i]];
+		Arrays.fill(degre, 0);
+
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			for (Tache succ : this.taches[i].getSuccesseurs())
+			{
+				j = indices.get(succ.getId(), -1);
+				if (j == -1) continue;
+				this.voisins[i][degre[i]++] = j;
+				this.voisins[j][degre[j]++] = i;
+			}
+		}
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	public int   getNbTaches()    { return this.nbTaches;  }
+	public Tache getTache(int i)  { return this.taches[i]; }
+	public int[] getX()           { return this.tabX;      }
+	public int[] getY()           { return this.tabY;      }
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de disposition        */
+	/*------------------------------------------*/
+
+	/**Fait tourner la simulation. Peut être appelé hors de l'EDT.
+	 * @param suivi reçoit les positions au fil de la simulation et indique une éventuelle annulation.
+	 * @return true si la simulation est allée au bout, false si elle a été annulée.
+	 */
+	public boolean calculer(Suivi suivi)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		double[] forceX, forceY;
+		double   k2, temperature, temperatureInitiale;
+		double   centreX, centreY;
+		long     dernierePublication;
+
+		if (this.nbTaches == 0)
+		{
+			this.tabX = new int[0];
+			this.tabY = new int[0];
+			return true;
+		}
+
+		forceX = new double[this.nbTaches];
+		forceY = new double[this.nbTaches];
+		k2     = LONGUEUR_IDEALE * LONGUEUR_IDEALE;
+
+		temperatureInitiale = LONGUEUR_IDEALE * Math.sqrt(this.nbTaches) / 4;
+		dernierePublication = System.nanoTime();
+
+		for (int it = 0; it < NB_ITERATIONS; it++)
+		{
+			if (suivi.estAnnule()) return false;
+
+			QuadArbre arbre = new QuadArbre(this.posX, this.posY, this.nbTaches);
+
+			centreX = 0;
+			centreY = 0;
+			for (int i = 0; i < this.nbTaches; i++)
+			{
+				centreX += this.posX[i];
+				centreY += this.posY[i];
+			}
+			final double cx = centreX / this.nbTaches;
+			final double cy = centreY / this.nbTaches;
+
+			// Chaque tâche n'écrit que dans sa propre case : pas de synchronisation entre threads
+			IntStream.range(0, this.nbTaches).parallel().forEach(i ->
+			{
+				double[] force = new double[2];
+				double   dx, dy, d;
+
+				arbre.repulsion(i, THETA, k2, force, new int[arbre.taillePile()]);
+
+				for (int v : this.voisins[i])
+				{
+					dx = this.posX[i] - this.posX[v];
+					dy = this.posY[i] - this.posY[v];
+					d  = Math.sqrt(dx * dx + dy * dy);
+					force[0] -= dx * d / LONGUEUR_IDEALE;
+					force[1] -= dy * d / LONGUEUR_IDEALE;
+				}
+
+				// Légère gravité vers le centre, pour que les morceaux du graphe ne s'éloignent pas
+				force[0] -= (this.posX[i] - cx) * GRAVITE;
+				force[1] -= (this.posY[i] - cy) * GRAVITE;
+
+				forceX[i] = force[0];
+				forceY[i] = force[1];
+			});
+
+			// Déplacement limité par la température, qui baisse linéairement
+			temperature = temperatureInitiale * (1 - (double) it / NB_ITERATIONS) + 1;
+			for (int i = 0; i < this.nbTaches; i++)
+			{
+				double norme = Math.sqrt(forceX[i] * forceX[i] + forceY[i] * forceY[i]);
+				if (norme < 1e-9) continue;
+
+				double pas = Math.min(norme, temperature) / norme;
+				this.posX[i] += forceX[i] * pas;
+				this.posY[i] += forceY[i] * pas;
+			}
+
+			if (System.nanoTime() - dernierePublication >= INTERVALLE_PUBLIER)
+			{
+				this.arrondir();
+				suivi.publier(this.tabX.clone(), this.tabY.clone());
+				dernierePublication = System.nanoTime();
+			}
+		}
+
+		this.arrondir();
+		return true;
+	}
+
+	/**Recopie les positions en entiers, décalées pour que la plus petite soit à la marge.
+	 */
+	private void arrondir()
+	{
+		double minX, minY;
+
+		minX = Double.MAX_VALUE;
+		minY = Double.MAX_VALUE;
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			minX = Math.min(minX, this.posX[i]);
+			minY = Math.min(minY, this.posY[i]);
+		}
+
+		this.tabX = new int[this.nbTaches];
+		this.tabY = new int[this.nbTaches];
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			this.tabX[i] = DispositionHierarchique.MARGE + (int) Math.round(this.posX[i] - minX);
+			this.tabY[i] = DispositionHierarchique.MARGE + (int) Math.round(this.posY[i] - minY);
+		}
+	}
+}
@@ -0,0 +1,480 @@
+package mpm.metier.disposition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import mpm.metier.Tache;
+import mpm.metier.collection.TableEntiers;
+
+/**
+ * La classe {@code DispositionHierarchique} place automatiquement les tâches en couches (méthode de Sugiyama).
+ * La couche d'une tâche est son niveau ({@link Tache#getNiveauTache()}) ; les arcs qui sautent des couches
+ * passent par des nœuds virtuels, l'ordre dans chaque couche est obtenu par balayages barycentriques,
+ * puis les ordonnées sont ajustées pour rapprocher chaque tâche de ses voisines.
+ *
+ * Fonctionnalités principales :
+ *   Photographie du graphe (sur l'EDT) puis calcul sur des tableaux, hors de l'EDT
+ *   Annulation entre deux couches et publication des résultats intermédiaires
+ *   Reprise de l'ordre d'un calcul précédent : seules les nouvelles tâches sont insérées
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+public class DispositionHierarchique implements Disposition
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	public static final int ESPACEMENT_X = 180;
+	public static final int ESPACEMENT_Y = 120;
+	public static final int MARGE        = 50;
+
+	private static final int NB_BALAYAGES             = 8;
+	private static final int NB_BALAYAGES_INCREMENTAL = 2;
+	private static final int NB_PASSES_COORDONNEES    = 4;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private Tache[]  taches;
+	private int      nbReels, nbNoeuds;
+
+	private int[]    coucheReelle;
+	private int[][]  successeurs;
+	private double[] rangConnu;
+
+	private int[]    couche;
+	private int[][]  voisinsHaut, voisinsBas;
+	private int[][]  couches;
+	private double[] rang;
+
+	private boolean  incremental;
+
+	private int[]    tabX, tabY;
+
+	/**Constructeur de DispositionHierarchique : photographie le graphe des tâches.
+	 * Doit être appelé là où les tâches ne bougent pas (l'EDT) ; il se contente de recopier
+	 * les niveaux et les arcs dans des tableaux, le reste du travail est fait par {@link #calculer(Suivi)}.
+	 * @param lstTaches      les tâches à placer (niveaux déjà calculés).
+	 * @param ordrePrecedent rang relatif (entre 0 et 1) de chaque tâche dans sa couche lors d'un calcul précédent, ou null.
+	 */
+	public DispositionHierarchique(List<Tache> lstTaches, Map<String, Double> ordrePrecedent)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		TableEntiers indices;       // numéro de tâche -> indice
+		Double       connu;
+		int          nb, j;
+
+		this.taches  = lstTaches.toArray(new Tache[0]);
+		this.nbReels = this.taches.length;
+
+		this.coucheReelle = new int[this.nbReels];
+		this.successeurs  = new int[this.nbReels][];
+		this.rangConnu    = new double[this.nbReels];
+
+		indices = new TableEntiers(this.nbReels);
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			indices.put(this.taches[i].getId(), i);
+			this.coucheReelle[i] = Math.max(1, this.taches[i].getNiveauTache());
+
+			connu = ordrePrecedent != null ? ordrePrecedent.get(this.taches[i].getNom()) : null;
+			this.rangConnu[i] = connu != null ? connu : Double.NaN;
+		}
+
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			int[] succ = new int[this.taches[i].getSuccesseurs().size()];
+
+			nb = 0;
+			for (Tache t : this.taches[i].getSuccesseurs())
+			{
+				j = indices.get(t.getId(), -1);
+				if (j != -1) succ[nb++] = j;
+			}
+			this.successeurs[i] = Arrays.copyOf(succ, nb);
+		}
+	}
+
+	/**Construit le graphe en couches : nœuds virtuels sur les arcs qui sautent des couches,
+	 * puis ordre initial (rang précédent pour les tâches connues, barycentre des voisins du haut sinon).
+	 */
+	private void construire()
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		int[] degreHaut, degreBas, tailles;
+		int   nbCouches, precedent, virtuel, cu, cv;
+
+		// Nombre de nœuds virtuels, pour tout allouer d'un coup
+		this.nbNoeuds = this.nbReels;
+		nbCouches     = 0;
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			nbCouches = Math.max(nbCouches, this.coucheReelle[i]);
+			for (int s : this.successeurs[i])
+				if (this.coucheReelle[s] > this.coucheReelle[i])
+					this.nbNoeuds += this.coucheReelle[s] - this.coucheReelle[i] - 1;
+		}
+
+		this.couche = Arrays.copyOf(this.coucheReelle, this.nbNoeuds);
+		degreHaut   = new int[this.nbNoeuds];
+		degreBas    = new int[this.nbNoeuds];
+
+		virtuel = this.nbReels;
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			for (int s : this.successeurs[i])
+			{
+				cu = this.coucheReelle[i];
+				cv = this.coucheReelle[s];
+				if (cv <= cu) continue;
+
+				precedent = i;
+				for (int c = cu + 1; c < cv; c++)
+				{
+					this.couche[virtuel] = c;
+					degreBas[precedent]++;
+					degreHaut[virtuel]++;
+					precedent = virtuel++;
+				}
+				degreBas[precedent]++;
+				degreHaut[s]++;
+			}
+		}
+
+		this.voisinsHaut = new int[this.nbNoeuds][];
+		this.voisinsBas  = new int[this.nbNoeuds][];
+		for (int i = 0; i < this.nbNoeuds; i++)
+		{
+			this.voisinsHaut[i] = new int[degreHaut[i]];
+			this.voisinsBas [i] = new int[degreBas [i]];
+		}
+		Arrays.fill(degreHaut, 0);
+		Arrays.fill(degreBas,  0);
+
+		// Même parcours que ci-dessus : les nœuds virtuels reçoivent les mêmes numéros
+		virtuel = this.nbReels;
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			for (int s : this.successeurs[i])
+			{
+				cu = this.coucheReelle[i];
+				cv = this.coucheReelle[s];
+				if (cv <= cu) continue;
+
+				precedent = i;
+				for (int c = cu + 1; c < cv; c++)
+				{
+					this.voisinsBas [precedent][degreBas [precedent]++] = virtuel;
+					this.voisinsHaut[virtuel  ][degreHaut[virtuel  ]++] = precedent;
+					precedent = virtuel++;
+				}
+				this.voisinsBas [precedent][degreBas [precedent]++] = s;
+				this.voisinsHaut[s        ][degreHaut[s        ]++] = precedent;
+			}
+		}
+
+		// Répartition des nœuds par couche
+		this.rang    = new double[this.nbNoeuds];
+		this.couches = new int[nbCouches + 1][];
+
+		tailles = new int[nbCouches + 1];
+		for (int c : this.couche)
+			tailles[c]++;
+		for (int c = 0; c <= nbCouches; c++)
+			this.couches[c] = new int[tailles[c]];
+		Arrays.fill(tailles, 0);
+		for (int i = 0; i < this.nbNoeuds; i++)
+			this.couches[this.couche[i]][tailles[this.couche[i]]++] = i;
+
+		// Ordre initial
+		this.incremental = this.nbReels > 0;
+		double[] cle = new double[this.nbNoeuds];
+		for (int c = 1; c <= nbCouches; c++)
+		{
+			for (int i : this.couches[c])
+			{
+				if (i < this.nbReels && !Double.isNaN(this.rangConnu[i]))
+					cle[i] = this.rangConnu[i];
+				else
+				{
+					if (i < this.nbReels) this.incremental = false;
+					cle[i] = this.barycentre(this.voisinsHaut[i], i, true);
+				}
+			}
+			this.trierCouche(c, cle);
+		}
+	}
+
+	/*------------------*/
+	/*    Accesseurs    */
+	/*------------------*/
+
+	/**Retourne le nombre de tâches (réelles) placées.
+	 * @return le nombre de tâches.
+	 */
+	public int getNbTaches() { return this.nbReels; }
+
+	/**Retourne la tâche d'indice donné dans la photographie.
+	 * @param i l'indice.
+	 * @return la tâche.
+	 */
+	public Tache getTache(int i) { return this.taches[i]; }
+
+	/**Retourne les abscisses calculées.
+	 * @return tableau indexé comme la photographie, ou null avant la fin du calcul.
+	 */
+	public int[] getX() { return this.tabX; }
+
+	/**Retourne les ordonnées calculées.
+	 * @return tableau indexé comme la photographie, ou null avant la fin du calcul.
+	 */
+	public int[] getY() { return this.tabY; }
+
+	/**Retourne le rang relatif de chaque tâche dans sa couche, à passer au calcul suivant.
+	 * @return association nom de tâche, rang entre 0 et 1.
+	 */
+	public Map<String, Double> getOrdre()
+	{
+		Map<String, Double> ordre = new HashMap<>();
+		for (int i = 0; i < this.nbReels; i++)
+			ordre.put(this.taches[i].getNom(), this.rangRelatif(i));
+		return ordre;
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de disposition        */
+	/*------------------------------------------*/
+
+	/**Calcule la disposition. Peut être appelé hors de l'EDT.
+	 * @param suivi reçoit les résultats intermédiaires et indique une éventuelle annulation.
+	 * @return true si le calcul est allé au bout, false s'il a été annulé.
+	 */
+	public boolean calculer(Suivi suivi)
+	{
+		/*-------------------------------*/
+		/*           Variables           */
+		/*-------------------------------*/
+
+		double[] cle, meilleurRang;
+		long     croisements, meilleur;
+		int      nbBalayages;
+
+		this.construire();
+		if (suivi.estAnnule()) return false;
+
+		cle          = new double[this.nbNoeuds];
+		meilleurRang = this.rang.clone();
+		meilleur     = this.compterCroisements();
+		nbBalayages  = this.incremental ? NB_BALAYAGES_INCREMENTAL : NB_BALAYAGES;
+
+		for (int b = 0; b < nbBalayages && meilleur > 0; b++)
+		{
+			if (b % 2 == 0)
+			{
+				// Descente : chaque couche suit le barycentre de ses voisins du haut
+				for (int c = 2; c < this.couches.length; c++)
+				{
+					if (suivi.estAnnule()) return false;
+					for (int i : this.couches[c])
+						cle[i] = this.barycentre(this.voisinsHaut[i], i, false);
+					this.trierCouche(c, cle);
+				}
+			}
+			else
+			{
+				// Remontée : chaque couche suit le barycentre de ses voisins du bas
+				for (int c = this.couches.length - 2; c >= 1; c--)
+				{
+					if (suivi.estAnnule()) return false;
+					for (int i : this.couches[c])
+						cle[i] = this.barycentre(this.voisinsBas[i], i, false);
+					this.trierCouche(c, cle);
+				}
+			}
+
+			croisements = this.compterCroisements();
+			if (croisements < meilleur)
+			{
+				meilleur     = croisements;
+				meilleurRang = this.rang.clone();
+				this.placerSimplement();
+				suivi.publier(this.tabX.clone(), this.tabY.clone());
+			}
+		}
+
+		// On repart du meilleur ordre trouvé
+		this.rang = meilleurRang;
+		for (int c = 1; c < this.couches.length; c++)
+			this.trierCouche(c, this.rang);
+
+		if (suivi.estAnnule()) return false;
+		this.placerCoordonnees();
+		return true;
+	}
+
+	/*------------------------------------------*/
+	/*    Méthodes internes                     */
+	/*------------------------------------------*/
+
+	/**Moyenne des rangs des voisins ; un nœud sans voisin garde son rang.
+	 */
+	private double barycentre(int[] voisins, int i, boolean relatif)
+	{
+		double somme = 0;
+
+		if (voisins.length == 0)
+			return relatif ? 0.5 : this.rang[i];
+
+		for (int v : voisins)
+			somme += relatif ? this.rangRelatif(v) : this.rang[v];
+
+		// Ramené à l'échelle de la couche de i, pour comparer avec les nœuds sans voisin
+		if (!relatif)
+			return somme / voisins.length * (this.couches[this.couche[i]].length - 1)
+			                              / Math.max(1, this.couches[this.couche[voisins[0]]].length - 1);
+		return somme / voisins.length;
+	}
+
+	private double rangRelatif(int i)
+	{
+		int taille = this.couches[this.couche[i]].length;
+		return taille <= 1 ? 0.5 : this.rang[i] / (taille - 1);
+	}
+
+	/**Trie une couche selon la clé donnée (tri stable) et met à jour les rangs.
+	 */
+	private void trierCouche(int c, double[] cle)
+	{
+		Integer[] ordre;
+
+		ordre = new Integer[this.couches[c].length];
+		for (int k = 0; k < ordre.length; k++)
+			ordre[k] = this.couches[c][k];
+
+		Arrays.sort(ordre, (a, b) -> Double.compare(cle[a], cle[b]));
+
+		for (int k = 0; k < ordre.length; k++)
+		{
+			this.couches[c][k] = ordre[k];
+			this.rang[ordre[k]] = k;
+		}
+	}
+
+	/**Compte les croisements d'arcs entre couches voisines (comptage d'inversions par arbre de Fenwick).
+	 */
+	private long compterCroisements()
+	{
+		long    total;
+		int[][] arcs;
+		int[]   fenwick;
+		int     n, taille;
+
+		total = 0;
+		for (int c = 1; c < this.couches.length - 1; c++)
+		{
+			n = 0;
+			for (int i : this.couches[c])
+				n += this.voisinsBas[i].length;
+
+			arcs = new int[n][];
+			n = 0;
+			for (int i : this.couches[c])
+				for (int v : this.voisinsBas[i])
+					arcs[n++] = new int[] { (int) this.rang[i], (int) this.rang[v] };
+
+			Arrays.sort(arcs, (a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+
+			taille  = this.couches[c + 1].length;
+			fenwick = new int[taille + 1];
+			for (int k = 0; k < arcs.length; k++)
+			{
+				// Arcs déjà vus dont l'extrémité basse est strictement plus loin
+				int dejaAvant = 0;
+				for (int p = arcs[k][1] + 1; p > 0; p -= p & -p)
+					dejaAvant += fenwick[p];
+				total += k - dejaAvant;
+
+				for (int p = arcs[k][1] + 1; p <= taille; p += p & -p)
+					fenwick[p]++;
+			}
+		}
+		return total;
+	}
+
+	/**Placement rapide pour les résultats intermédiaires : une ligne par rang.
+	 */
+	private void placerSimplement()
+	{
+		this.tabX = new int[this.nbReels];
+		this.tabY = new int[this.nbReels];
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			this.tabX[i] = MARGE + (this.couche[i] - 1) * ESPACEMENT_X;
+			this.tabY[i] = MARGE + (int) this.rang[i] * ESPACEMENT_Y;
+		}
+	}
+
+	/**Placement final : chaque nœud est attiré vers la moyenne de ses voisins, en gardant l'ordre
+	 * et l'espacement minimal dans sa couche (moyenne d'un tassement vers le bas et vers le haut).
+	 */
+	private void placerCoordonnees()
+	{
+		double[] y, voulu, bas, haut;
+		double   somme, min;
+		int[]    c;
+		int      nb;
+
+		y = new double[this.nbNoeuds];
+		for (int i = 0; i < this.nbNoeuds; i++)
+			y[i] = this.rang[i] * ESPACEMENT_Y;
+
+		for (int passe = 0; passe < NB_PASSES_COORDONNEES; passe++)
+		{
+			for (int k = 1; k < this.couches.length; k++)
+			{
+				c = this.couches[k];
+				if (c.length == 0) continue;
+
+				voulu = new double[c.length];
+				for (int r = 0; r < c.length; r++)
+				{
+					somme = 0;
+					nb    = 0;
+					for (int v : (passe % 2 == 0) ? this.voisinsHaut[c[r]] : this.voisinsBas[c[r]]) { somme += y[v]; nb++; }
+					voulu[r] = nb == 0 ? y[c[r]] : somme / nb;
+				}
+
+				bas  = new double[c.length];
+				haut = new double[c.length];
+				for (int r = 0; r < c.length; r++)
+					bas[r] = (r == 0) ? voulu[r] : Math.max(voulu[r], bas[r - 1] + ESPACEMENT_Y);
+				for (int r = c.length - 1; r >= 0; r--)
+					haut[r] = (r == c.length - 1) ? voulu[r] : Math.min(voulu[r], haut[r + 1] - ESPACEMENT_Y);
+
+				for (int r = 0; r < c.length; r++)
+					y[c[r]] = (bas[r] + haut[r]) / 2;
+			}
+		}
+
+		min = Double.MAX_VALUE;
+		for (int i = 0; i < this.nbReels; i++)
+			min = Math.min(min, y[i]);
+
+		this.tabX = new int[this.nbReels];
+		this.tabY = new int[this.nbReels];
+		for (int i = 0; i < this.nbReels; i++)
+		{
+			this.tabX[i] = MARGE + (this.couche[i] - 1) * ESPACEMENT_X;
+			this.tabY[i] = MARGE + (int) Math.round(y[i] - min);
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package mpm.metier.disposition;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code QuadArbre} découpe récursivement le plan en quatre pour regrouper les tâches
+ * éloignées (approximation de Barnes–Hut) : un groupe assez loin d'une tâche agit comme une seule
+ * masse placée en son centre, ce qui ramène le calcul des répulsions à O(N log N).
+ *
+ * L'arbre est construit par un seul thread puis seulement lu : plusieurs threads peuvent
+ * calculer des forces en même temps.
+ *
+ * @author Dumont Enzo, El-Maaddi Yassine, Gricourt Paul, Sefil-Amouret Matys
+ */
+class QuadArbre
+{
+	/*------------------*/
+	/*    Constantes    */
+	/*------------------*/
+
+	private static final int PROFONDEUR_MAX = 32;
+	private static final int VIDE           = -1;
+
+	/*------------------*/
+	/*    Attributs     */
+	/*------------------*/
+
+	private final double[] tabX, tabY;
+
+	// Un nœud de l'arbre par indice : masse, somme des positions, carré couvert, enfants, point d'une feuille
+	private double[]  masse, sommeX, sommeY, centreX, centreY, demiCote;
+	private int[]     enfants, point;
+	private boolean[] interne;
+	private int       nbNoeuds;
+
+	/**Constructeur de QuadArbre : insère les n premiers points.
+	 * @param tabX abscisses des points.
+	 * @param tabY ordonnées des points.
+	 * @param n    nombre de points.
+	 */
+	QuadArbre(double[] tabX, double[] tabY, int n)
+	{
+		double minX, minY, maxX, maxY;
+
+		this.tabX = tabX;
+		this.tabY = tabY;
+
+		this.allouer(Math.max(16, n * 2));
+
+		minX = minY = Double.MAX_VALUE;
+		maxX = maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < n; i++)
+		{
+			minX = Math.min(minX, tabX[i]);
+			maxX = Math.max(maxX, tabX[i]);
+			minY = Math.min(minY, tabY[i]);
+			maxY = Math.max(maxY, tabY[i]);
+		}
+
+		this.nouveauNoeud((minX + maxX) / 2, (minY + maxY) / 2, Math.max(maxX - minX, maxY - minY) / 2 + 1);
+
+		for (int i = 0; i < n; i++)
+			this.inserer(i);
+	}
+
+	/*------------------------------------------*/
+	/*    Fonctionnalités de calcul             */
+	/*------------------------------------------*/
+
+	/**Ajoute à force la répulsion subie par le point i, en k² · m / d (Fruchterman–Reingold).
+	 * @param i       indice du point.
+	 * @param theta   précision : un groupe de côté s à distance d est approché si s / d &lt; theta.
+	 * @param k2      carré de la longueur idéale d'un arc.
+	 * @param force   tableau de deux cases (fx, fy) complété par la méthode.
+	 * @param pile    pile de travail propre au thread appelant.
+	 */
+	void repulsion(int i, double theta, double k2, double[] force, int[] pile)
+	{
+		double dx, dy, d2, m, cote;
+		int    n, sommet;
+
+		sommet = 0;
+		pile[sommet++] = 0;
+
+		while (sommet > 0)
+		{
+			n = pile[--sommet];
+			m = this.masse[n];
+			if (m == 0) continue;
+
+			dx = this.tabX[i] - this.sommeX[n] / m;
+			dy = this.tabY[i] - this.sommeY[n] / m;
+			d2 = dx * dx + dy * dy;
+
+			cote = 2 * this.demiCote[n];
+			if (!this.interne[n] || cote * cote < theta * theta * d2)
+			{
+				// Feuille, ou groupe assez loin pour être vu comme une seule masse
+				if (!this.interne[n] && this.point[n] == i && m == 1) continue;
+				if (d2 < 1e-6) continue;
+
+				force[0] += dx * k2 * m / d2;
+				force[1] += dy * k2 * m / d2;
+			}
+			else
+			{
+				for (int q = 0; q < 4; q++)
+					if (this.enfants[n * 4 + q] != VIDE)
+					{
+						if (sommet == pile.length) return;
+						pile[sommet++] = this.enfants[n * 4 + q];
+					}
+			}
+		}
+	}
+
+	/**Taille de pile suffisante pour {@link #repulsion}.
+	 * @return le nombre de cases à prévoir.
+	 */
+	int taillePile() { return PROFONDEUR_MAX * 4 + 4; }
+
+	/*------------------------------------------*/
+	/*    Méthodes internes                     */
+	/*------------------------------------------*/
+
+	private void inserer(int p)
+	{
+		int n, q, c, profondeur;
+
+		n          = 0;
+		profondeur = 0;
+		while (true)
+		{
+			this.masse [n] += 1;
+			this.sommeX[n] += this.tabX[p];
+			this.sommeY[n] += this.tabY[p];
+
+			if (!this.interne[n])
+			{
+				if (this.point[n] == VIDE)
+				{
+					this.point[n] = p;
+					return;
+				}
+
+				// Points confondus (ou presque) : la feuille garde plusieurs masses
+				if (profondeur >= PROFONDEUR_MAX) return;
+
+				// Feuille occupée : on la découpe et on descend l'ancien point
+				q = this.point[n];
+				this.point  [n] = VIDE;
+				this.interne[n] = true;
+
+				c = this.enfant(n, q);
+				this.masse [c] = 1;
+				this.sommeX[c] = this.tabX[q];
+				this.sommeY[c] = this.tabY[q];
+				this.point [c] = q;
+			}
+
+			n = this.enfant(n, p);
+			profondeur++;
+		}
+	}
+
+	/**Retourne (en le créant si besoin) l'enfant de n qui contient le point p.
+	 */
+	private int enfant(int n, int p)
+	{
+		int    quadrant, c;
+		double demi;
+
+		quadrant = (this.tabX[p] >= this.centreX[n] ? 1 : 0) + (this.tabY[p] >= this.centreY[n] ? 2 : 0);
+		c        = this.enfants[n * 4 + quadrant];
+		if (c != VIDE) return c;
+
+		demi = this.demiCote[n] / 2;
+		c    = this.nouveauNoeud(this.centreX[n] + ((quadrant & 1) == 0 ? -demi : demi),
+		                         this.centreY[n] + ((quadrant & 2) == 0 ? -demi : demi), demi);
+		this.enfants[n * 4 + quadrant] = c;
+		return c;
+	}
+
+	private int nouveauNoeud(double cx, double cy, double demi)
+	{
+		if (this.nbNoeuds == this.masse.length)
+			this.allouer(this.masse.length * 2);
+
+		this.centreX [this.nbNoeuds] = cx;
+		this.centreY [this.nbNoeuds] = cy;
+		this.demiCote[this.nbNoeuds] = demi;
+		this.point   [this.nbNoeuds] = VIDE;
+		Arrays.fill(this.enfants, this.nbNoeuds * 4, this.nbNoeuds * 4 + 4, VIDE);
+		return this.nbNoeuds++;
+	}
+
+	private void allouer(int taille)
+	{
+		this.masse    = this.masse    == null ? new double[taille]  : Arrays.copyOf(this.masse,    taille);
+		this.sommeX   = this.sommeX   == null ? new double[taille]  : Arrays.copyOf(this.sommeX,   taille);
+		this.sommeY   = this.sommeY   == null ? new double[taille]  : Arrays.copyOf(this.sommeY,   taille);
+		this.centreX  = this.centreX  == null ? new double[taille]  : Arrays.copyOf(this.centreX,  taille);
+		this.centreY  = this.centreY  == null ? new double[taille]  : Arrays.copyOf(this.centreY,  taille);
+		this.demiCote = this.demiCote == null ? new double[taille]  : Arrays.copyOf(this.demiCote, taille);
+		this.point    = this.point    == null ? new int[taille]     : Arrays.copyOf(this.point,    taille);
+		this.interne  = this.interne  == null ? new boolean[taille] : Arrays.copyOf(this.interne,  taille);
+		this.enfants  = this.enfants  == null ? new int[taille * 4] : Arrays.copyOf(this.enfants,  taille * 4);
+	}
+}
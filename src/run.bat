@@ -2,7 +2,7 @@
 
 REM Compilation
 echo Compilation...
-javac -encoding UTF-8 @compile.list -d ..\class
+javac --add-modules jdk.incubator.vector -encoding UTF-8 @compile.list -d ..\class
 if errorlevel 1 (
 	echo Erreur de compilation.
 	exit /b 1
@@ -10,7 +10,7 @@ if errorlevel 1 (
 
 REM Création / mise à jour de la javadoc (depuis src)
 echo Génération de la Javadoc...
-javadoc -d ..\javadoc -encoding UTF-8 -charset UTF-8 -subpackages mpm >nul 2>&1
+javadoc --add-modules jdk.incubator.vector -d ..\javadoc -encoding UTF-8 -charset UTF-8 -subpackages mpm >nul 2>&1
 
 REM Aller dans le dossier class
 cd ..\class
@@ -21,4 +21,4 @@ if errorlevel 1 (
 
 REM Exécution
 echo Exécution...
-java mpm.Controleur
\ No newline at end of file
+java --add-modules jdk.incubator.vector mpm.Controleur
\ No newline at end of file
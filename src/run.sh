@@ -2,7 +2,7 @@
 
 # Compilation
 echo "Compilation..."
-javac -encoding UTF-8 @compile.list -d ../class
+javac --add-modules jdk.incubator.vector -encoding UTF-8 @compile.list -d ../class
 if [ $? -ne 0 ]; then
   echo "Erreur de compilation."
   exit 1
@@ -10,11 +10,11 @@ fi
 
 # Création / mise à jour de la javadoc (depuis src)
 echo "Génération de la Javadoc..."
-javadoc -d ../javadoc -encoding UTF-8 -charset UTF-8 -subpackages mpm > /dev/null 2>&1
+javadoc --add-modules jdk.incubator.vector -d ../javadoc -encoding UTF-8 -charset UTF-8 -subpackages mpm > /dev/null 2>&1
 
 # Aller dans le dossier class
 cd ../class || { echo "Le dossier class n'existe pas"; exit 1; }
 
 # Exécution
 echo "Exécution..."
-java mpm.Controleur &
\ No newline at end of file
+java --add-modules jdk.incubator.vector mpm.Controleur &
\ No newline at end of file